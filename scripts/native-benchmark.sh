@@ -0,0 +1,87 @@
+#!/bin/bash
+#
+# Copyright © 2025 EOSC Beyond (${email})
+#
+# Licensed under the Apache License, Version 2.0 (the "License");
+# you may not use this file except in compliance with the License.
+# You may obtain a copy of the License at
+#
+#     http://www.apache.org/licenses/LICENSE-2.0
+#
+# Unless required by applicable law or agreed to in writing, software
+# distributed under the License is distributed on an "AS IS" BASIS,
+# WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+# See the License for the specific language governing permissions and
+# limitations under the License.
+#
+
+# Compares the JVM and native builds: time to first successful request,
+# resident memory (RSS) when idle and under load, and steady-state
+# throughput of /nodes/search. Needs wrk (https://github.com/wg/wrk).
+#
+# Usage: scripts/native-benchmark.sh [jar] [native executable]
+#
+# Build both first:
+#   mvn -Pcoverage package -DskipTests
+#   mvn -Pcoverage,native native:compile -DskipTests
+
+set -eu
+
+JAR=${1:-$(ls target/node-registry-*.jar | head -n 1)}
+NATIVE=${2:-target/node-registry}
+PORT=${PORT:-18080}
+DURATION=${DURATION:-30s}
+CONNECTIONS=${CONNECTIONS:-32}
+URL="http://localhost:${PORT}/nodes/search?capability=Service%20Monitoring"
+WORK=target/native-benchmark
+
+command -v wrk > /dev/null || { echo "wrk is required" >&2; exit 1; }
+mkdir -p "${WORK}"
+
+# Prints the resident set size of a process, in MB.
+rss() {
+    awk '/^VmRSS:/ { printf "%d", $2 / 1024 }' "/proc/$1/status"
+}
+
+# Starts one build, then prints one line of results.
+run() {
+    local name=$1
+    shift
+    local start end pid
+    start=$(date +%s%N)
+    "$@" --server.port="${PORT}" --rate-limit.enabled=false > "${WORK}/${name}.log" 2>&1 &
+    pid=$!
+    until curl -sf -o /dev/null "${URL}"; do
+        if ! kill -0 "${pid}" 2> /dev/null; then
+            echo "${name} exited, see ${WORK}/${name}.log" >&2
+            exit 1
+        fi
+        sleep 0.01
+    done
+    end=$(date +%s%N)
+    sleep 2
+    local idle
+    idle=$(rss "${pid}")
+
+    # warm up (JIT compilation for the JVM build), then measure
+    wrk -t2 -c"${CONNECTIONS}" -d10s "${URL}" > /dev/null
+    local rps
+    rps=$(wrk -t2 -c"${CONNECTIONS}" -d"${DURATION}" "${URL}" \
+        | awk '/^Requests\/sec:/ { print $2 }')
+    local loaded
+    loaded=$(rss "${pid}")
+
+    kill "${pid}"
+    wait "${pid}" 2> /dev/null || true
+    printf '%-8s %10s %10s %12s %12s\n' "${name}" \
+        "$(( (end - start) / 1000000 ))" "${idle}" "${loaded}" "${rps}"
+}
+
+printf '%-8s %10s %10s %12s %12s\n' "build" "start ms" "idle MB" \
+    "loaded MB" "requests/s"
+run jvm java -jar "${JAR}"
+if [ -x "${NATIVE}" ]; then
+    run native "${NATIVE}"
+else
+    echo "native   not found: ${NATIVE}" >&2
+fi
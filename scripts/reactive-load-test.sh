@@ -0,0 +1,108 @@
+#!/bin/bash
+#
+# Copyright © 2025 EOSC Beyond (${email})
+#
+# Licensed under the Apache License, Version 2.0 (the "License");
+# you may not use this file except in compliance with the License.
+# You may obtain a copy of the License at
+#
+#     http://www.apache.org/licenses/LICENSE-2.0
+#
+# Unless required by applicable law or agreed to in writing, software
+# distributed under the License is distributed on an "AS IS" BASIS,
+# WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+# See the License for the specific language governing permissions and
+# limitations under the License.
+#
+
+# Compares the servlet and reactive node APIs under many concurrent
+# connections. For each stack in turn, starts the application with both
+# APIs on a generated registry, drives /nodes/{id} on that stack's port
+# with ConnectionLoad, and samples the resident memory and thread count of
+# the application while it runs.
+#
+# Usage: scripts/reactive-load-test.sh [jar]
+#
+# ConnectionLoad is a benchmark class: build it first with
+# mvn -Pcoverage,benchmark test-compile
+#
+# Set RUN to start the application another way, for example
+# RUN="java -cp target/classes:$(cat cp.txt) eoscbeyond.eu.NodeRegistryApplication",
+# and LOAD to run ConnectionLoad another way, for example
+# LOAD="java -cp target/test-classes:target/classes:$(cat cp.txt) eoscbeyond.eu.ConnectionLoad".
+# CONNECTIONS, DURATION (seconds), NODES and EVENT_LOOPS set the load.
+
+set -eu
+
+JAR=${1:-$(ls target/node-registry-*.jar 2> /dev/null | head -n 1)}
+RUN=${RUN:-java -jar ${JAR}}
+CONNECTIONS=${CONNECTIONS:-10000}
+DURATION=${DURATION:-30}
+NODES=${NODES:-1000}
+EVENT_LOOPS=${EVENT_LOOPS:-2}
+SERVLET_PORT=18101
+REACTIVE_PORT=18102
+WORK=target/reactive-load
+
+rm -rf "${WORK}"
+mkdir -p "${WORK}"
+PIDS=()
+trap 'kill "${PIDS[@]}" 2> /dev/null || true' EXIT
+
+# NODES nodes, repeating the nodes file with new IDs
+awk -F, -v n="${NODES}" '{ line[NR] = $0 } END {
+    for (i = 1; i <= n; i++) {
+        l = line[(i - 1) % NR + 1]
+        sub(/^[^,]*/, i, l)
+        print l
+    } }' src/main/resources/nodes.csv > "${WORK}/nodes.csv"
+
+load() {
+    if [ -n "${LOAD:-}" ]; then
+        ${LOAD} "$@"
+    else
+        mvn -q -Pcoverage,benchmark exec:exec@connection-load \
+            -Dload.url="$1" -Dload.connections="$2" -Dload.seconds="$3" \
+            -Dload.ids="$4"
+    fi
+}
+
+# Resident memory in MB and thread count of a process
+usage() {
+    awk '/^VmRSS/ { rss = $2 } /^Threads/ { threads = $2 }
+        END { printf "%d %d\n", rss / 1024, threads }' "/proc/$1/status"
+}
+
+for stack in servlet reactive; do
+    ${RUN} --server.port="${SERVLET_PORT}" --reactive.enabled=true \
+        --reactive.port="${REACTIVE_PORT}" \
+        --reactive.event-loop-threads="${EVENT_LOOPS}" \
+        --rate-limit.enabled=false --nodes-file="${WORK}/nodes.csv" \
+        > "${WORK}/${stack}-app.log" 2>&1 &
+    PID=$!
+    PIDS+=(${PID})
+    PORT=${SERVLET_PORT}
+    if [ "${stack}" = reactive ]; then
+        PORT=${REACTIVE_PORT}
+    fi
+    until curl -sf -o /dev/null "http://localhost:${PORT}/nodes/1"; do
+        sleep 0.2
+    done
+    read -r IDLE_RSS IDLE_THREADS < <(usage "${PID}")
+
+    while kill -0 "${PID}" 2> /dev/null; do
+        usage "${PID}"
+        sleep 1
+    done > "${WORK}/${stack}-usage.txt" 2> /dev/null &
+    SAMPLER=$!
+    load "http://localhost:${PORT}/nodes/{id}" "${CONNECTIONS}" \
+        "${DURATION}" "${NODES}" | tee "${WORK}/${stack}-load.txt"
+    kill "${SAMPLER}" "${PID}"
+    wait "${PID}" 2> /dev/null || true
+
+    read -r PEAK_RSS PEAK_THREADS < <(awk '$1 > rss { rss = $1 }
+        $2 > threads { threads = $2 } END { print rss, threads }' \
+        "${WORK}/${stack}-usage.txt")
+    echo "${stack}: idle ${IDLE_RSS} MB, ${IDLE_THREADS} threads;" \
+        "peak ${PEAK_RSS} MB, ${PEAK_THREADS} threads"
+done
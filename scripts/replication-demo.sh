@@ -0,0 +1,107 @@
+#!/bin/bash
+#
+# Copyright © 2025 EOSC Beyond (${email})
+#
+# Licensed under the Apache License, Version 2.0 (the "License");
+# you may not use this file except in compliance with the License.
+# You may obtain a copy of the License at
+#
+#     http://www.apache.org/licenses/LICENSE-2.0
+#
+# Unless required by applicable law or agreed to in writing, software
+# distributed under the License is distributed on an "AS IS" BASIS,
+# WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+# See the License for the specific language governing permissions and
+# limitations under the License.
+#
+
+# Runs a leader and two followers on localhost, changes nodes on the
+# leader, and checks that the followers apply the changes, including a
+# follower restarted after missing some of them.
+#
+# Usage: scripts/replication-demo.sh [jar]
+#
+# Set RUN to start the application another way, for example
+# RUN="java -cp target/classes:$(cat cp.txt) eoscbeyond.eu.NodeRegistryApplication".
+
+set -eu
+
+JAR=${1:-$(ls target/node-registry-*.jar 2> /dev/null | head -n 1)}
+RUN=${RUN:-java -jar ${JAR}}
+LEADER_PORT=${LEADER_PORT:-18081}
+FOLLOWER_PORTS=(18082 18083)
+WORK=target/replication
+LEADER="http://localhost:${LEADER_PORT}"
+TOKEN=${TOKEN:-demo-token}
+AUTH="X-Replication-Token: ${TOKEN}"
+
+rm -rf "${WORK}"
+mkdir -p "${WORK}"
+PIDS=()
+trap 'kill "${PIDS[@]}" 2> /dev/null || true' EXIT
+
+# Starts an instance in the background: start <name> <port> <args...>
+start() {
+    local name=$1 port=$2
+    shift 2
+    ${RUN} --server.port="${port}" --replication.token="${TOKEN}" "$@" > "${WORK}/${name}.log" 2>&1 &
+    PIDS+=($!)
+    eval "PID_${name}=$!"
+}
+
+# Waits until a URL answers with the expected status: await <url> <status>
+await() {
+    local url=$1 expected=$2 status
+    for _ in $(seq 600); do
+        status=$(curl -s -o /dev/null -w '%{http_code}' "${url}" || true)
+        if [ "${status}" = "${expected}" ]; then
+            return 0
+        fi
+        sleep 0.05
+    done
+    echo "Timed out waiting for ${expected} from ${url} (last ${status})" >&2
+    exit 1
+}
+
+follower() {
+    local name=$1 port=$2
+    start "${name}" "${port}" --replication.role=follower \
+        --replication.leader-url="${LEADER}/" --replication.retry-delay=200ms
+}
+
+now() {
+    date +%s%N
+}
+
+start leader "${LEADER_PORT}" --replication.role=leader \
+    --registry-log.enabled=true --registry-log.directory="${WORK}/leader-log"
+await "${LEADER}/nodes/1" 200
+follower f1 "${FOLLOWER_PORTS[0]}"
+follower f2 "${FOLLOWER_PORTS[1]}"
+for port in "${FOLLOWER_PORTS[@]}"; do
+    await "http://localhost:${port}/nodes/1" 200
+done
+echo "Followers bootstrapped from the leader"
+
+t0=$(now)
+curl -sf -X PUT -H "${AUTH}" -H 'Content-Type: application/json' \
+    -d '{"name":"Node Eleven","pid":"PID11"}' "${LEADER}/replication/nodes/11"
+for port in "${FOLLOWER_PORTS[@]}"; do
+    await "http://localhost:${port}/nodes/11" 200
+done
+echo "Change applied by both followers in $(( ($(now) - t0) / 1000000 )) ms"
+
+kill "${PID_f2}"
+wait "${PID_f2}" 2> /dev/null || true
+curl -sf -X PUT -H "${AUTH}" -H 'Content-Type: application/json' \
+    -d '{"name":"Node Twelve","pid":"PID12"}' "${LEADER}/replication/nodes/12"
+curl -sf -X DELETE -H "${AUTH}" "${LEADER}/replication/nodes/1"
+await "http://localhost:${FOLLOWER_PORTS[0]}/nodes/1" 404
+follower f2 "${FOLLOWER_PORTS[1]}"
+await "http://localhost:${FOLLOWER_PORTS[1]}/nodes/12" 200
+await "http://localhost:${FOLLOWER_PORTS[1]}/nodes/1" 404
+echo "Restarted follower caught up"
+
+for port in "${LEADER_PORT}" "${FOLLOWER_PORTS[@]}"; do
+    echo "${port}: $(curl -s "http://localhost:${port}/replication/status")"
+done
@@ -0,0 +1,81 @@
+#!/bin/bash
+#
+# Copyright © 2025 EOSC Beyond (${email})
+#
+# Licensed under the Apache License, Version 2.0 (the "License");
+# you may not use this file except in compliance with the License.
+# You may obtain a copy of the License at
+#
+#     http://www.apache.org/licenses/LICENSE-2.0
+#
+# Unless required by applicable law or agreed to in writing, software
+# distributed under the License is distributed on an "AS IS" BASIS,
+# WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+# See the License for the specific language governing permissions and
+# limitations under the License.
+#
+
+# Runs three shards on localhost, each keeping the nodes of the nodes file
+# that belong to it, then looks nodes up and searches across the shards,
+# before and after one shard is stopped.
+#
+# Usage: scripts/sharding-demo.sh [jar]
+#
+# Set RUN to start the application another way, for example
+# RUN="java -cp target/classes:$(cat cp.txt) eoscbeyond.eu.NodeRegistryApplication".
+
+set -eu
+
+JAR=${1:-$(ls target/node-registry-*.jar 2> /dev/null | head -n 1)}
+RUN=${RUN:-java -jar ${JAR}}
+PORTS=(18091 18092 18093)
+CAPABILITY=${CAPABILITY:-Resource%20Catalogue}
+WORK=target/sharding
+
+SHARDS=""
+for port in "${PORTS[@]}"; do
+    SHARDS="${SHARDS:+${SHARDS},}http://localhost:${port}/"
+done
+
+rm -rf "${WORK}"
+mkdir -p "${WORK}"
+PIDS=()
+trap 'kill "${PIDS[@]}" 2> /dev/null || true' EXIT
+
+for index in "${!PORTS[@]}"; do
+    ${RUN} --server.port="${PORTS[${index}]}" --sharding.shards="${SHARDS}" \
+        --sharding.index="${index}" > "${WORK}/shard-${index}.log" 2>&1 &
+    PIDS+=($!)
+done
+for port in "${PORTS[@]}"; do
+    until curl -sf -o /dev/null "http://localhost:${port}/shards/stats"; do
+        sleep 0.2
+    done
+done
+
+GATEWAY="http://localhost:${PORTS[0]}"
+for port in "${PORTS[@]}"; do
+    echo "${port}: $(curl -s "http://localhost:${port}/shards/stats")"
+done
+
+echo "Lookups from shard 0:"
+for id in 1 2 3 4 5; do
+    curl -s -o /dev/null -D - "${GATEWAY}/shards/nodes/${id}" \
+        | awk -v id="${id}" '/^HTTP/ { s = $2 } tolower($1) == "x-shard:" {
+            printf "  node %s: %s from shard %s", id, s, $2 }
+            END { print "" }' | tr -d '\r'
+done
+
+search() {
+    curl -s -o "${WORK}/search.json" -w '%{time_total}' \
+        "${GATEWAY}/shards/search?capability=${CAPABILITY}"
+    echo " s: $(sed 's/"nodes":\[.*\],"shards"/"nodes":[...],"shards"/' \
+        "${WORK}/search.json")"
+}
+
+echo "Search across all shards:"
+search
+kill "${PIDS[2]}"
+wait "${PIDS[2]}" 2> /dev/null || true
+echo "Search with shard 2 stopped:"
+search
@@ -0,0 +1,97 @@
+#!/bin/bash
+#
+# Copyright © 2025 EOSC Beyond (${email})
+#
+# Licensed under the Apache License, Version 2.0 (the "License");
+# you may not use this file except in compliance with the License.
+# You may obtain a copy of the License at
+#
+#     http://www.apache.org/licenses/LICENSE-2.0
+#
+# Unless required by applicable law or agreed to in writing, software
+# distributed under the License is distributed on an "AS IS" BASIS,
+# WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+# See the License for the specific language governing permissions and
+# limitations under the License.
+#
+
+# Measures time to first successful request (a node lookup) from JVM
+# launch, with and without class data sharing (CDS) and Spring AOT.
+#
+# Usage: scripts/startup-time.sh [jar] [runs]
+#
+# The AOT rows are only measured if the jar was built with the startup
+# profile (mvn -Pcoverage,startup package -DskipTests).
+
+set -eu
+
+JAR=${1:-$(ls target/node-registry-*.jar | head -n 1)}
+RUNS=${2:-5}
+PORT=${PORT:-18080}
+URL="http://localhost:${PORT}/nodes/1"
+WORK=target/startup
+
+rm -rf "${WORK}"
+java -Djarmode=tools -jar "${JAR}" extract --destination "${WORK}" > /dev/null
+APP="${WORK}/$(basename "${JAR}")"
+
+AOT=false
+if jar tf "${JAR}" | grep -q '__ApplicationContextInitializer'; then
+    AOT=true
+fi
+
+# Trains a CDS archive: starts the application and exits once the context
+# has been refreshed, which includes loading the node registry.
+train() {
+    local archive=$1
+    shift
+    java -XX:ArchiveClassesAtExit="${archive}" -Dspring.context.exit=onRefresh \
+        "$@" -jar "${APP}" > "${WORK}/train.log" 2>&1
+}
+
+# Prints the time in milliseconds from launch to the first 200 response.
+first_request() {
+    local start end pid
+    start=$(date +%s%N)
+    java "$@" -jar "${APP}" --server.port="${PORT}" > "${WORK}/run.log" 2>&1 &
+    pid=$!
+    until curl -sf -o /dev/null "${URL}"; do
+        if ! kill -0 "${pid}" 2> /dev/null; then
+            echo "Application exited, see ${WORK}/run.log" >&2
+            exit 1
+        fi
+        sleep 0.01
+    done
+    end=$(date +%s%N)
+    kill "${pid}"
+    wait "${pid}" 2> /dev/null || true
+    echo $(( (end - start) / 1000000 ))
+}
+
+# Prints the median of several measurements for one set of JVM options.
+measure() {
+    local name=$1
+    shift
+    local times=()
+    for _ in $(seq "${RUNS}"); do
+        times+=("$(first_request "$@")")
+    done
+    local median
+    median=$(printf '%s\n' "${times[@]}" | sort -n \
+        | awk '{ t[NR] = $1 } END { print t[int((NR + 1) / 2)] }')
+    printf '%-10s %8s ms   (%s)\n' "${name}" "${median}" "${times[*]}"
+}
+
+train "${WORK}/app.jsa"
+if ${AOT}; then
+    train "${WORK}/app-aot.jsa" -Dspring.aot.enabled=true
+fi
+
+echo "Time to first successful request, median of ${RUNS} runs"
+measure "jvm"
+measure "cds" -XX:SharedArchiveFile="${WORK}/app.jsa"
+if ${AOT}; then
+    measure "aot" -Dspring.aot.enabled=true
+    measure "aot+cds" -Dspring.aot.enabled=true \
+        -XX:SharedArchiveFile="${WORK}/app-aot.jsa"
+fi
@@ -0,0 +1,137 @@
+/*
+ * Copyright © 2025 EOSC Beyond (${email})
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package eoscbeyond.eu;
+
+import java.io.IOException;
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Generates synthetic registries for the benchmarks. Nodes use the same
+ * capability names and endpoints as {@code nodes.csv}, so the data is as
+ * repetitive as the real registry.
+ */
+final class BenchmarkNodes {
+    /** Capability names, endpoints and versions used by the nodes. */
+    private static final String[][] CAPABILITIES = {
+        {"Service Monitoring", "service-monitoring", "1.2"},
+        {"Resource Catalogue", "resource-catalogue", "3.0"},
+        {"Management System (including Helpdesk)", "management-system",
+            "1.3"},
+        {"Service Accounting", "service-accounting", "1.0"},
+        {"Application Workflow Management", "workflow-management", "1.5"},
+        {"Order Management", "order-management", "2.0"},
+        {"Identity Management", "identity-management", "2.1"},
+    };
+    /** Minimum number of capabilities per node. */
+    private static final int MIN_CAPABILITIES = 3;
+
+    private BenchmarkNodes() { }
+
+    /**
+     * Writes a generated nodes file, for starting the application on a large
+     * registry.
+     *
+     * <p>
+     * Usage: {@code BenchmarkNodes count file}
+     * </p>
+     *
+     * @param args number of nodes and the file to write
+     * @throws IOException if the file cannot be written
+     */
+    public static void main(final String[] args) throws IOException {
+        Path file = Path.of(args[1]);
+        if (file.getParent() != null) {
+            Files.createDirectories(file.getParent());
+        }
+        Files.writeString(file, csv(Integer.parseInt(args[0])),
+            StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Generates a list of nodes with IDs "1" to {@code xCount}.
+     *
+     * @param xCount number of nodes
+     * @return the nodes
+     */
+    static List<EoscNode> generate(final int xCount) {
+        List<EoscNode> nodes = new ArrayList<>(xCount);
+        for (int i = 1; i <= xCount; i++) {
+            nodes.add(node(i));
+        }
+        return nodes;
+    }
+
+    /**
+     * Generates a single node.
+     *
+     * @param xIndex index of the node, used for its ID
+     * @return the node
+     */
+    static EoscNode node(final int xIndex) {
+        String id = Integer.toString(xIndex);
+        List<EoscCapability> capabilities = new ArrayList<>();
+        int count = MIN_CAPABILITIES + xIndex
+        % (CAPABILITIES.length - MIN_CAPABILITIES + 1);
+        for (int c = 0; c < count; c++) {
+            String[] capability = CAPABILITIES[(xIndex + c)
+            % CAPABILITIES.length];
+            capabilities.add(new EoscCapability(capability[0],
+            URI.create("https://example.com/api/" + capability[1]),
+            capability[2]));
+        }
+        return new EoscNode(id, "Node " + id,
+        URI.create("https://example.com/logo" + id + ".png"),
+        "hdl:20.500.12345/node" + id,
+        new LegalEntity("Legal Entity " + id,
+        URI.create("https://ror.org/node" + id)),
+        URI.create("https://node" + id + ".example.com/api"), capabilities);
+    }
+
+    /**
+     * Generates the nodes file form of a list of nodes, as read by
+     * {@code ReadNodeDetails}.
+     *
+     * @param xCount number of nodes
+     * @return the file contents, one node per line
+     */
+    static String csv(final int xCount) {
+        StringBuilder csv = new StringBuilder();
+        for (EoscNode node : generate(xCount)) {
+            csv.append(node.getId()).append(',').append(node.getName())
+            .append(',').append(node.getLogo()).append(',')
+            .append(node.getPid()).append(",[")
+            .append(node.getLegalEntity().getName()).append(';')
+            .append(node.getLegalEntity().getRorId()).append("],")
+            .append(node.getNodeEndpoint()).append(',');
+            List<EoscCapability> capabilities = node.getCapabilityList();
+            for (int c = 0; c < capabilities.size(); c++) {
+                EoscCapability capability = capabilities.get(c);
+                csv.append(c == 0 ? "[" : ";[")
+                .append(capability.getCapabilityType()).append(';')
+                .append(capability.getEndpoint()).append(';')
+                .append(capability.getVersion()).append(']');
+            }
+            csv.append('\n');
+        }
+        return csv.toString();
+    }
+}
@@ -0,0 +1,390 @@
+/*
+ * Copyright © 2025 EOSC Beyond (${email})
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package eoscbeyond.eu;
+
+import java.net.URI;
+import java.util.AbstractList;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Collections;
+import java.util.List;
+import java.util.Objects;
+import java.util.RandomAccess;
+
+/**
+ * The {@code ColumnarNodeStore} class is a compact, read-only storage
+ * engine for the nodes of a registry.
+ * <p>
+ * Instead of a graph of {@code EoscNode}, {@code LegalEntity},
+ * {@code EoscCapability}, {@code URI} and {@code String} objects, each field
+ * is kept as a column of {@code int} codes into a {@link StringDictionary}.
+ * Every distinct string (names, URIs, capability names, versions) is stored
+ * once, off the Java heap. The capabilities of all nodes share one set of
+ * columns, with an offset per node. The heap holds only a few primitive
+ * arrays, whatever the number of nodes, so the store adds almost nothing to
+ * garbage collection work.
+ * </p>
+ *
+ * <p>
+ * Nodes are identified by their ordinal, their position in the registry.
+ * {@code EoscNode} objects are materialised only when asked for, and the
+ * lists returned by {@link #getNodes()} and
+ * {@link #getNodesWithCapability(String)} are views that materialise each
+ * node as it is read.
+ * </p>
+ *
+ * <p>
+ * The registry does not use it: it lives with the benchmarks, which
+ * compare its footprint and lookup costs with the registry's snapshots.
+ * </p>
+ *
+ * <p>
+ * Example usage:
+ * </p>
+ *
+ * <pre>
+ * ColumnarNodeStore store = ColumnarNodeStore.of(nodes);
+ * EoscNode node = store.getNode("1");
+ * List<EoscNode> catalogues = store.getNodesWithCapability(
+ *         "Resource Catalogue");
+ * </pre>
+ *
+ */
+public final class ColumnarNodeStore {
+    /** Ordinal returned when there is no node with an ID. */
+    public static final int NOT_FOUND = -1;
+
+    /** Distinct strings of all fields. */
+    private final StringDictionary dictionary;
+    /** Node ID codes. */
+    private final int[] ids;
+    /** Node name codes. */
+    private final int[] names;
+    /** Node logo URI codes. */
+    private final int[] logos;
+    /** Node PID codes. */
+    private final int[] pids;
+    /** Nodes that have a legal entity. */
+    private final BitSet hasLegalEntity;
+    /** Legal entity name codes. */
+    private final int[] legalNames;
+    /** Legal entity ROR ID codes. */
+    private final int[] rorIds;
+    /** Node endpoint URI codes. */
+    private final int[] endpoints;
+    /** Nodes that have a capability list. */
+    private final BitSet hasCapabilities;
+    /** Index of the first capability of each node, plus the total. */
+    private final int[] capabilityStart;
+    /** Capability type codes. */
+    private final int[] capabilityTypes;
+    /** Trimmed capability type codes, used for searching. */
+    private final int[] capabilityNames;
+    /** Capability endpoint URI codes. */
+    private final int[] capabilityEndpoints;
+    /** Capability version codes. */
+    private final int[] capabilityVersions;
+    /** Hash table of ordinals plus one, by node ID; zero marks a gap. */
+    private final int[] idTable;
+
+    private ColumnarNodeStore(final List<EoscNode> xNodes) {
+        int count = xNodes.size();
+        int capabilityCount = 0;
+        for (EoscNode node : xNodes) {
+            if (node.getCapabilityList() != null) {
+                capabilityCount += node.getCapabilityList().size();
+            }
+        }
+        StringDictionary.Builder strings = new StringDictionary.Builder();
+        ids = new int[count];
+        names = new int[count];
+        logos = new int[count];
+        pids = new int[count];
+        hasLegalEntity = new BitSet(count);
+        legalNames = new int[count];
+        rorIds = new int[count];
+        endpoints = new int[count];
+        hasCapabilities = new BitSet(count);
+        capabilityStart = new int[count + 1];
+        capabilityTypes = new int[capabilityCount];
+        capabilityNames = new int[capabilityCount];
+        capabilityEndpoints = new int[capabilityCount];
+        capabilityVersions = new int[capabilityCount];
+
+        int c = 0;
+        for (int i = 0; i < count; i++) {
+            EoscNode node = xNodes.get(i);
+            ids[i] = strings.add(node.getId());
+            names[i] = strings.add(node.getName());
+            logos[i] = strings.add(uri(node.getLogo()));
+            pids[i] = strings.add(node.getPid());
+            LegalEntity legalEntity = node.getLegalEntity();
+            hasLegalEntity.set(i, legalEntity != null);
+            legalNames[i] = legalEntity == null ? StringDictionary.NULL
+            : strings.add(legalEntity.getName());
+            rorIds[i] = legalEntity == null ? StringDictionary.NULL
+            : strings.add(uri(legalEntity.getRorId()));
+            endpoints[i] = strings.add(uri(node.getNodeEndpoint()));
+            capabilityStart[i] = c;
+            List<EoscCapability> capabilities = node.getCapabilityList();
+            hasCapabilities.set(i, capabilities != null);
+            if (capabilities != null) {
+                for (EoscCapability capability : capabilities) {
+                    String type = capability.getCapabilityType();
+                    capabilityTypes[c] = strings.add(type);
+                    capabilityNames[c] = strings.add(type == null ? null
+                    : type.trim());
+                    capabilityEndpoints[c] = strings.add(
+                        uri(capability.getEndpoint()));
+                    capabilityVersions[c] = strings.add(
+                        capability.getVersion());
+                    c++;
+                }
+            }
+        }
+        capabilityStart[count] = c;
+        dictionary = strings.build();
+        idTable = new int[StringDictionary.tableSize(count)];
+        for (int i = 0; i < count; i++) {
+            indexId(i);
+        }
+    }
+
+    /**
+     * Creates a store holding the given nodes, in order.
+     *
+     * @param xNodes the nodes
+     * @return the store
+     */
+    public static ColumnarNodeStore of(final List<EoscNode> xNodes) {
+        return new ColumnarNodeStore(xNodes);
+    }
+
+    /**
+     * Gets the number of nodes.
+     *
+     * @return the number of nodes
+     */
+    public int size() {
+        return ids.length;
+    }
+
+    /**
+     * Gets the ordinal of the node with an ID. If several nodes share the
+     * ID, the first one is found.
+     *
+     * @param xId the node ID
+     * @return the ordinal, or {@link #NOT_FOUND}
+     */
+    public int ordinalOf(final String xId) {
+        int code = dictionary.code(xId);
+        if (code == StringDictionary.NULL) {
+            return NOT_FOUND;
+        }
+        int mask = idTable.length - 1;
+        for (int slot = code & mask; idTable[slot] != 0;
+        slot = (slot + 1) & mask) {
+            int ordinal = idTable[slot] - 1;
+            if (ids[ordinal] == code) {
+                return ordinal;
+            }
+        }
+        return NOT_FOUND;
+    }
+
+    /**
+     * Materialises the node with an ordinal.
+     *
+     * @param xOrdinal the ordinal
+     * @return a new {@code EoscNode} with the stored values
+     */
+    public EoscNode getNode(final int xOrdinal) {
+        LegalEntity legalEntity = null;
+        if (hasLegalEntity.get(xOrdinal)) {
+            legalEntity = new LegalEntity(dictionary.get(legalNames[xOrdinal]),
+            toUri(rorIds[xOrdinal]));
+        }
+        List<EoscCapability> capabilities = null;
+        if (hasCapabilities.get(xOrdinal)) {
+            int start = capabilityStart[xOrdinal];
+            int end = capabilityStart[xOrdinal + 1];
+            capabilities = new ArrayList<>(end - start);
+            for (int c = start; c < end; c++) {
+                capabilities.add(new EoscCapability(
+                    dictionary.get(capabilityTypes[c]),
+                    toUri(capabilityEndpoints[c]),
+                    dictionary.get(capabilityVersions[c])));
+            }
+        }
+        return new EoscNode(dictionary.get(ids[xOrdinal]),
+        dictionary.get(names[xOrdinal]), toUri(logos[xOrdinal]),
+        dictionary.get(pids[xOrdinal]), legalEntity,
+        toUri(endpoints[xOrdinal]), capabilities);
+    }
+
+    /**
+     * Materialises the node with an ID.
+     *
+     * @param xId the node ID
+     * @return a new {@code EoscNode}, or null if there is no node with the ID
+     */
+    public EoscNode getNode(final String xId) {
+        int ordinal = ordinalOf(xId);
+        return ordinal == NOT_FOUND ? null : getNode(ordinal);
+    }
+
+    /**
+     * Gets all nodes, as a view that materialises each node when it is read.
+     *
+     * @return unmodifiable list of nodes, in registry order
+     */
+    public List<EoscNode> getNodes() {
+        return new NodeView(null);
+    }
+
+    /**
+     * Gets the ordinals of the nodes that offer a capability. Only the
+     * capability name column is scanned. A node that shares its ID with an
+     * earlier node is left out, as it cannot be found by ID either.
+     *
+     * @param xCapability the capability name
+     * @return the ordinals, in registry order
+     */
+    public int[] ordinalsWithCapability(final String xCapability) {
+        int code = dictionary.code(xCapability);
+        if (code == StringDictionary.NULL) {
+            return new int[0];
+        }
+        int[] ordinals = new int[size()];
+        int found = 0;
+        for (int i = 0; i < size(); i++) {
+            for (int c = capabilityStart[i]; c < capabilityStart[i + 1]; c++) {
+                if (capabilityNames[c] == code) {
+                    if (!isShadowed(i)) {
+                        ordinals[found++] = i;
+                    }
+                    break;
+                }
+            }
+        }
+        return Arrays.copyOf(ordinals, found);
+    }
+
+    /**
+     * Gets the nodes that offer a capability, as a view that materialises
+     * each node when it is read.
+     *
+     * @param xCapability the capability name
+     * @return unmodifiable list of nodes, in registry order; empty if no
+     *         node offers the capability
+     */
+    public List<EoscNode> getNodesWithCapability(final String xCapability) {
+        int[] ordinals = ordinalsWithCapability(xCapability);
+        return ordinals.length == 0 ? Collections.emptyList()
+        : new NodeView(ordinals);
+    }
+
+    /**
+     * Gets the number of distinct strings stored.
+     *
+     * @return the dictionary size
+     */
+    public int getDictionarySize() {
+        return dictionary.size();
+    }
+
+    /**
+     * Gets the size of the data stored outside the Java heap.
+     *
+     * @return the number of off-heap bytes
+     */
+    public long getOffHeapBytes() {
+        return dictionary.offHeapBytes();
+    }
+
+    /**
+     * Tells whether an earlier node has the same ID as a node.
+     */
+    private boolean isShadowed(final int xOrdinal) {
+        int code = ids[xOrdinal];
+        if (code == StringDictionary.NULL) {
+            return false;
+        }
+        int mask = idTable.length - 1;
+        for (int slot = code & mask; idTable[slot] != 0;
+        slot = (slot + 1) & mask) {
+            int ordinal = idTable[slot] - 1;
+            if (ids[ordinal] == code) {
+                return ordinal != xOrdinal;
+            }
+        }
+        return false;
+    }
+
+    private void indexId(final int xOrdinal) {
+        int code = ids[xOrdinal];
+        if (code == StringDictionary.NULL) {
+            return;
+        }
+        int mask = idTable.length - 1;
+        int slot = code & mask;
+        while (idTable[slot] != 0) {
+            if (ids[idTable[slot] - 1] == code) {
+                return;
+            }
+            slot = (slot + 1) & mask;
+        }
+        idTable[slot] = xOrdinal + 1;
+    }
+
+    private URI toUri(final int xCode) {
+        String value = dictionary.get(xCode);
+        return value == null ? null : URI.create(value);
+    }
+
+    private static String uri(final URI xUri) {
+        return xUri == null ? null : xUri.toString();
+    }
+
+    /**
+     * Read-only list of nodes, materialised on access.
+     */
+    private final class NodeView extends AbstractList<EoscNode>
+            implements RandomAccess {
+        /** Ordinals of the nodes in the view, or null for all nodes. */
+        private final int[] ordinals;
+
+        NodeView(final int[] xOrdinals) {
+            this.ordinals = xOrdinals;
+        }
+
+        @Override
+        public EoscNode get(final int xIndex) {
+            if (ordinals == null) {
+                Objects.checkIndex(xIndex, size());
+                return getNode(xIndex);
+            }
+            return getNode(ordinals[xIndex]);
+        }
+
+        @Override
+        public int size() {
+            return ordinals == null ? ColumnarNodeStore.this.size()
+            : ordinals.length;
+        }
+    }
+}
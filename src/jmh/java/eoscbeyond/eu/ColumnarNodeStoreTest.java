@@ -0,0 +1,136 @@
+/*
+ * Copyright © 2025 EOSC Beyond (${email})
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package eoscbeyond.eu;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.net.URI;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Unit tests for the {@code ColumnarNodeStore} and {@code StringDictionary}
+ * classes.
+ */
+class ColumnarNodeStoreTest {
+    /** Nodes to store. */
+    private List<EoscNode> nodes;
+    /** Store under test. */
+    private ColumnarNodeStore store;
+
+    /**
+     * Sets up the test environment before each test.
+     */
+    @BeforeEach
+    void setUp() {
+        List<EoscCapability> capabilities = new ArrayList<>();
+        capabilities.add(new EoscCapability("Monitoring",
+            URI.create("https://example.com/api/monitoring"), "1.0"));
+        capabilities.add(new EoscCapability(" Catalogue ",
+            URI.create("https://example.com/api/catalogue"), null));
+        nodes = new ArrayList<>();
+        nodes.add(new EoscNode("1", "Nœud \"Un\" 😀",
+            URI.create("https://example.com/logo%201.png"), "PID1",
+            new LegalEntity("Entité", URI.create("https://ror.org/1")),
+            URI.create("https://example.com/nöde"), capabilities));
+        nodes.add(new EoscNode("2", "Node Two", null, null,
+            new LegalEntity(), null, new ArrayList<>()));
+        nodes.add(new EoscNode("3", "Node Three", null, null, null,
+            URI.create("https://example.com/node3"), null));
+        nodes.add(new EoscNode("1", "Node One (duplicate)", null, null, null,
+            null, List.of(new EoscCapability("Monitoring",
+            URI.create("https://example.com/api/monitoring"), "1.0"))));
+        store = ColumnarNodeStore.of(nodes);
+    }
+
+    /**
+     * Tests that materialised nodes have the stored values, including null
+     * and empty fields.
+     */
+    @Test
+    void testRoundTrip() {
+        assertEquals(nodes.size(), store.size());
+        for (int i = 0; i < nodes.size(); i++) {
+            assertEquals(nodes.get(i).toJson(), store.getNode(i).toJson());
+        }
+        assertEquals(NodeJsonWriter.local().writeNodes(nodes).toString(),
+            NodeJsonWriter.local().writeNodes(store.getNodes()).toString());
+        assertThrows(UnsupportedOperationException.class,
+            () -> store.getNodes().clear());
+        assertThrows(IndexOutOfBoundsException.class,
+            () -> store.getNodes().get(nodes.size()));
+    }
+
+    /**
+     * Tests lookups by ID, the first node winning when IDs are repeated.
+     */
+    @Test
+    void testLookupById() {
+        assertEquals(0, store.ordinalOf("1"));
+        assertEquals(2, store.ordinalOf("3"));
+        assertEquals("Node Two", store.getNode("2").getName());
+        assertEquals(ColumnarNodeStore.NOT_FOUND, store.ordinalOf("99"));
+        assertEquals(ColumnarNodeStore.NOT_FOUND, store.ordinalOf(
+            "Node Two"));
+        assertNull(store.getNode("99"));
+        assertNull(store.getNode(null));
+    }
+
+    /**
+     * Tests that capability search matches the snapshot index.
+     */
+    @Test
+    void testSearchByCapability() {
+        RegistrySnapshot snapshot = new RegistrySnapshot(1, nodes);
+        for (String name : new String[] {"Monitoring", "Catalogue",
+            " Catalogue ", "Storage", ""}) {
+            assertEquals(
+                NodeJsonWriter.local().writeNodes(
+                    snapshot.getNodesWithCapability(name)).toString(),
+                NodeJsonWriter.local().writeNodes(
+                    store.getNodesWithCapability(name)).toString(), name);
+        }
+        // node 3 shares its ID with node 0, so is found by neither
+        assertArrayEquals(new int[] {0},
+            store.ordinalsWithCapability("Monitoring"));
+    }
+
+    /**
+     * Tests that repeated strings are stored once.
+     */
+    @Test
+    void testDictionary() {
+        List<EoscNode> many = new ArrayList<>();
+        for (int i = 0; i < 1000; i++) {
+            many.add(new EoscNode(Integer.toString(i), "Node", null, null,
+                null, null, List.of(new EoscCapability("Monitoring",
+                URI.create("https://example.com/api"), "1.0"))));
+        }
+        ColumnarNodeStore manyStore = ColumnarNodeStore.of(many);
+        // 1000 IDs, the name, capability name, endpoint and version
+        assertEquals(1004, manyStore.getDictionarySize());
+        assertEquals(1000, manyStore.getNodesWithCapability("Monitoring")
+            .size());
+        assertEquals("999", manyStore.getNode("999").getId());
+        assertEquals(0, ColumnarNodeStore.of(List.of()).size());
+    }
+}
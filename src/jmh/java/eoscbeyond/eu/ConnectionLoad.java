@@ -0,0 +1,262 @@
+/*
+ * Copyright © 2025 EOSC Beyond (${email})
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package eoscbeyond.eu;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Drives a closed-loop load over many concurrent HTTP/1.1 connections and
+ * reports throughput, latency percentiles and errors. Each connection sends
+ * its next request as soon as the previous one has completed, so the
+ * number of requests in flight stays at the number of connections. The
+ * connections are opened over the first fifth of the run, and only
+ * requests completed after that are measured.
+ *
+ * <p>
+ * Usage: {@code ConnectionLoad url connections seconds ids}, where
+ * {@code {id}} in the URL is replaced by a random node ID from 1 to
+ * {@code ids}. {@code scripts/reactive-load-test.sh} runs it against the
+ * servlet and reactive node APIs, and {@code PerformanceGate} calls
+ * {@link #run} for each of its scenarios.
+ * </p>
+ */
+public final class ConnectionLoad {
+    /** Latencies above this many milliseconds are counted as this. */
+    private static final int MAX_MILLIS = 60_000;
+    /** Latencies below this many milliseconds are counted finely. */
+    private static final int FINE_MILLIS = 1_000;
+    /** Fine latency buckets per millisecond. */
+    private static final int FINE_PER_MILLI = 100;
+    /** Nanoseconds per fine latency bucket. */
+    private static final long NANOS_PER_FINE = 10_000L;
+    /** Delay before a connection retries after an error. */
+    private static final long RETRY_MILLIS = 100;
+    /** Fraction of the run spent opening connections. */
+    private static final int RAMP_FRACTION = 5;
+    /** Nanoseconds per millisecond. */
+    private static final long NANOS_PER_MILLI = 1_000_000L;
+    /** Nanoseconds per second. */
+    private static final double NANOS_PER_SECOND = 1e9;
+    /** HTTP status code of success. */
+    private static final int OK = 200;
+
+    /** URL, with {@code {id}} for the node ID. */
+    private final String url;
+    /** Number of node IDs. */
+    private final int ids;
+    /** Client. */
+    private final HttpClient client;
+    /** When measurement starts, in {@code System.nanoTime} terms. */
+    private final long measureFrom;
+    /** When the run ends, in {@code System.nanoTime} terms. */
+    private final long end;
+    /** Connections still running. */
+    private final CountDownLatch running;
+    /** Faster measured requests by latency in hundredths of a ms. */
+    private final AtomicLongArray fineHistogram =
+    new AtomicLongArray(FINE_MILLIS * FINE_PER_MILLI);
+    /** Other measured requests by latency in milliseconds. */
+    private final AtomicLongArray histogram =
+    new AtomicLongArray(MAX_MILLIS + 1);
+    /** Measured successful requests. */
+    private final LongAdder completed = new LongAdder();
+    /** Failed requests, measured or not, by exception or status. */
+    private final Map<String, LongAdder> errors = new ConcurrentHashMap<>();
+    /** Executor delaying retries. */
+    private final Executor retryExecutor =
+    CompletableFuture.delayedExecutor(RETRY_MILLIS, TimeUnit.MILLISECONDS);
+
+    private ConnectionLoad(final String xUrl, final int xConnections,
+            final int xSeconds, final int xIds) {
+        this.url = xUrl;
+        this.ids = xIds;
+        this.client = HttpClient.newBuilder()
+        .version(HttpClient.Version.HTTP_1_1)
+        .connectTimeout(Duration.ofSeconds(xSeconds))
+        .build();
+        long start = System.nanoTime();
+        long nanos = TimeUnit.SECONDS.toNanos(xSeconds);
+        this.measureFrom = start + nanos / RAMP_FRACTION;
+        this.end = start + nanos;
+        this.running = new CountDownLatch(xConnections);
+    }
+
+    /**
+     * Runs the load and prints the results.
+     *
+     * @param args URL, connections, seconds and number of node IDs
+     * @throws InterruptedException if interrupted
+     */
+    public static void main(final String[] args) throws InterruptedException {
+        int connections = Integer.parseInt(args[1]);
+        Result result = run(args[0], connections, Integer.parseInt(args[2]),
+            Integer.parseInt(args[3]));
+        System.out.printf("%11s %10s %12s %8s %8s %8s%n", "connections",
+            "requests", "requests/s", "p50 ms", "p99 ms", "errors");
+        System.out.printf("%11d %10d %12.0f %8.2f %8.2f %8d%n", connections,
+            result.requests(), result.perSecond(), result.p50Millis(),
+            result.p99Millis(), result.errors());
+        result.errorKinds().forEach((kind, number) ->
+            System.out.printf("%s: %d%n", kind, number));
+        System.exit(0);
+    }
+
+    /**
+     * Runs the load.
+     *
+     * <p>
+     * Example usage:
+     * </p>
+     *
+     * <pre>
+     * ConnectionLoad.Result result = ConnectionLoad.run(
+     *     "http://localhost:8080/nodes/{id}", 16, 20, 10000);
+     * double p99 = result.p99Millis();
+     * </pre>
+     *
+     * @param xUrl         URL, with {@code {id}} for the node ID
+     * @param xConnections number of concurrent connections
+     * @param xSeconds     length of the run, including the ramp-up
+     * @param xIds         number of node IDs
+     * @return throughput, latency and errors of the measured requests
+     * @throws InterruptedException if interrupted
+     */
+    static Result run(final String xUrl, final int xConnections,
+            final int xSeconds, final int xIds) throws InterruptedException {
+        ConnectionLoad load = new ConnectionLoad(xUrl, xConnections, xSeconds,
+            xIds);
+        try {
+            long rampStart = System.nanoTime();
+            long rampNanos = load.measureFrom - rampStart;
+            for (int i = 0; i < xConnections; i++) {
+                load.send();
+                long wait = rampStart + rampNanos * (i + 1) / xConnections
+                - System.nanoTime();
+                if (wait > 0) {
+                    TimeUnit.NANOSECONDS.sleep(wait);
+                }
+            }
+            if (!load.running.await(xSeconds * 2L, TimeUnit.SECONDS)) {
+                System.out.println("Some requests did not complete");
+            }
+            return load.result();
+        } finally {
+            load.client.shutdownNow();
+        }
+    }
+
+    /**
+     * Throughput, latency and errors of a run.
+     *
+     * @param requests   measured successful requests
+     * @param perSecond  measured successful requests per second
+     * @param p50Millis  median latency in milliseconds
+     * @param p99Millis  99th percentile latency in milliseconds
+     * @param errors     failed requests, measured or not
+     * @param errorKinds failed requests by exception or status
+     */
+    record Result(long requests, double perSecond, double p50Millis,
+            double p99Millis, long errors, Map<String, Long> errorKinds) {
+    }
+
+    private void send() {
+        String target = url.replace("{id}", Integer.toString(
+            ThreadLocalRandom.current().nextInt(ids) + 1));
+        long sent = System.nanoTime();
+        client.sendAsync(HttpRequest.newBuilder(URI.create(target)).build(),
+            HttpResponse.BodyHandlers.discarding())
+        .whenComplete((response, error) -> {
+            long now = System.nanoTime();
+            boolean ok = error == null && response.statusCode() == OK;
+            if (!ok) {
+                errors.computeIfAbsent(error == null
+                    ? "status " + response.statusCode()
+                    : cause(error).getClass().getSimpleName(),
+                    kind -> new LongAdder()).increment();
+            } else if (sent >= measureFrom) {
+                completed.increment();
+                long latency = now - sent;
+                if (latency < FINE_MILLIS * NANOS_PER_MILLI) {
+                    fineHistogram.incrementAndGet((int) (latency
+                    / NANOS_PER_FINE));
+                } else {
+                    histogram.incrementAndGet((int) Math.min(MAX_MILLIS,
+                        latency / NANOS_PER_MILLI));
+                }
+            }
+            if (now >= end) {
+                running.countDown();
+            } else if (ok) {
+                send();
+            } else {
+                retryExecutor.execute(this::send);
+            }
+        });
+    }
+
+    private Result result() {
+        long count = completed.sum();
+        double seconds = (end - measureFrom) / NANOS_PER_SECOND;
+        Map<String, Long> kinds = new TreeMap<>();
+        long failed = 0;
+        for (Map.Entry<String, LongAdder> kind : errors.entrySet()) {
+            kinds.put(kind.getKey(), kind.getValue().sum());
+            failed += kind.getValue().sum();
+        }
+        return new Result(count, count / seconds, percentile(count, 0.50),
+            percentile(count, 0.99), failed, kinds);
+    }
+
+    private static Throwable cause(final Throwable xError) {
+        return xError instanceof CompletionException && xError.getCause()
+        != null ? xError.getCause() : xError;
+    }
+
+    private double percentile(final long xCount, final double xFraction) {
+        long rank = (long) Math.ceil(xCount * xFraction);
+        long seen = 0;
+        for (int fine = 0; fine < fineHistogram.length(); fine++) {
+            seen += fineHistogram.get(fine);
+            if (seen >= rank && seen > 0) {
+                return (fine + 1) / (double) FINE_PER_MILLI;
+            }
+        }
+        for (int millis = FINE_MILLIS; millis <= MAX_MILLIS; millis++) {
+            seen += histogram.get(millis);
+            if (seen >= rank && seen > 0) {
+                return millis + 1;
+            }
+        }
+        return -1;
+    }
+}
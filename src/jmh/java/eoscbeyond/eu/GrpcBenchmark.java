@@ -0,0 +1,198 @@
+/*
+ * Copyright © 2025 EOSC Beyond (${email})
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package eoscbeyond.eu;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.URLEncoder;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.util.Iterator;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.boot.SpringApplication;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import eoscbeyond.eu.grpc.NodeRegistryProtos;
+import eoscbeyond.eu.grpc.NodeRegistryServiceGrpc;
+
+import io.grpc.Grpc;
+import io.grpc.InsecureChannelCredentials;
+import io.grpc.ManagedChannel;
+
+/**
+ * Compares the gRPC API with the REST endpoints it mirrors, against one
+ * running application on localhost: a lookup by ID, a capability search
+ * and a full listing. Each client reads the whole response into objects,
+ * the JSON with Jackson and the messages with protobuf.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@State(Scope.Benchmark)
+@Fork(1)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+public class GrpcBenchmark {
+    /** Capability searched for; about five nodes in seven offer it. */
+    private static final String CAPABILITY = "Resource Catalogue";
+
+    /** Number of nodes in the registry. */
+    @Param({"1000", "10000"})
+    public int nodeCount;
+
+    /** The application. */
+    private ConfigurableApplicationContext context;
+    /** REST client. */
+    private HttpClient http;
+    /** Base URL of the REST API. */
+    private String baseUrl;
+    /** JSON parser. */
+    private final ObjectMapper mapper = new ObjectMapper();
+    /** Channel to the gRPC server. */
+    private ManagedChannel channel;
+    /** gRPC client. */
+    private NodeRegistryServiceGrpc.NodeRegistryServiceBlockingStub stub;
+
+    /**
+     * Starts the application with both APIs and fills the registry.
+     */
+    @Setup
+    public void setUp() {
+        context = SpringApplication.run(NodeRegistryApplication.class,
+            "--server.port=0", "--grpc.enabled=true", "--grpc.port=0",
+            "--rate-limit.enabled=false");
+        NodeRegistry.getInstance().setNodes(
+            BenchmarkNodes.generate(nodeCount));
+        http = HttpClient.newBuilder().version(HttpClient.Version.HTTP_1_1)
+        .build();
+        baseUrl = "http://localhost:"
+        + context.getEnvironment().getProperty("local.server.port")
+        + "/nodes";
+        channel = Grpc.newChannelBuilderForAddress("localhost",
+            context.getBean(GrpcServer.class).getPort(),
+            InsecureChannelCredentials.create()).build();
+        stub = NodeRegistryServiceGrpc.newBlockingStub(channel);
+    }
+
+    /**
+     * Stops the client and the application.
+     *
+     * @throws InterruptedException if interrupted while stopping
+     */
+    @TearDown
+    public void tearDown() throws InterruptedException {
+        channel.shutdownNow().awaitTermination(1, TimeUnit.SECONDS);
+        context.close();
+    }
+
+    /**
+     * @return the node
+     * @throws IOException if the request fails
+     * @throws InterruptedException if interrupted
+     */
+    @Benchmark
+    public JsonNode restGetNode() throws IOException, InterruptedException {
+        return get("/" + randomId());
+    }
+
+    /** @return the node */
+    @Benchmark
+    public NodeRegistryProtos.EoscNode grpcGetNode() {
+        return stub.getNode(NodeRegistryProtos.GetNodeRequest.newBuilder()
+            .setId(randomId()).build());
+    }
+
+    /**
+     * @return the nodes found
+     * @throws IOException if the request fails
+     * @throws InterruptedException if interrupted
+     */
+    @Benchmark
+    public JsonNode restSearch() throws IOException, InterruptedException {
+        return get("/search?capability="
+            + URLEncoder.encode(CAPABILITY, StandardCharsets.UTF_8));
+    }
+
+    /** @return the number of nodes found */
+    @Benchmark
+    public int grpcSearch() {
+        return drain(stub.searchByCapability(NodeRegistryProtos.SearchRequest
+            .newBuilder().setCapability(CAPABILITY).build()));
+    }
+
+    /**
+     * @return every node
+     * @throws IOException if the request fails
+     * @throws InterruptedException if interrupted
+     */
+    @Benchmark
+    public JsonNode restList() throws IOException, InterruptedException {
+        return get("");
+    }
+
+    /** @return the number of nodes */
+    @Benchmark
+    public int grpcList() {
+        return drain(stub.listNodes(
+            NodeRegistryProtos.ListNodesRequest.getDefaultInstance()));
+    }
+
+    private JsonNode get(final String xPath) throws IOException,
+            InterruptedException {
+        HttpResponse<byte[]> response = http.send(HttpRequest.newBuilder(
+            URI.create(baseUrl + xPath)).build(),
+            HttpResponse.BodyHandlers.ofByteArray());
+        if (response.statusCode() != 200) {
+            throw new IllegalStateException("Status "
+                + response.statusCode());
+        }
+        return mapper.readTree(response.body());
+    }
+
+    private static int drain(
+            final Iterator<NodeRegistryProtos.NodePage> xPages) {
+        int count = 0;
+        while (xPages.hasNext()) {
+            count += xPages.next().getNodesCount();
+        }
+        return count;
+    }
+
+    private String randomId() {
+        return Integer.toString(
+            ThreadLocalRandom.current().nextInt(nodeCount) + 1);
+    }
+}
@@ -0,0 +1,114 @@
+/*
+ * Copyright © 2025 EOSC Beyond (${email})
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package eoscbeyond.eu;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Measures reads as of a past version against reads of the current one:
+ * a lookup by ID and a capability search, on a history of single-node
+ * updates.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@State(Scope.Benchmark)
+@Fork(1)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+public class HistoryBenchmark {
+    /** Number of nodes in the registry. */
+    @Param({"10000"})
+    public int nodeCount;
+
+    /** Number of versions in the history. */
+    private static final int VERSIONS = RegistryHistory.DEFAULT_MAX_VERSIONS;
+    /** Time the first version is published. */
+    private static final Instant T0 = Instant.parse("2025-03-01T12:00:00Z");
+
+    /** The versions, oldest first. */
+    private final RegistryHistory history = new RegistryHistory();
+    /** The current version. */
+    private RegistrySnapshot current;
+    /** Capability searched for. */
+    private String capability;
+    /** Index of the next node to look up. */
+    private int next;
+
+    /**
+     * Builds the history, changing one node per version.
+     */
+    @Setup
+    public void setUp() {
+        List<EoscNode> nodes = BenchmarkNodes.generate(nodeCount);
+        current = new RegistrySnapshot(1, nodes);
+        history.record(current, T0);
+        for (int version = 2; version <= VERSIONS; version++) {
+            current = current.withNode(version,
+                BenchmarkNodes.node(version * 7 % nodeCount + 1));
+            history.record(current, T0.plusSeconds(version));
+        }
+        capability = nodes.get(0).getCapabilityList().get(0)
+        .getCapabilityType();
+    }
+
+    /** @return a node of the current version */
+    @Benchmark
+    public EoscNode currentById() {
+        return current.getNode(Integer.toString(next++ % nodeCount + 1));
+    }
+
+    /** @return a node of a past version, found by version */
+    @Benchmark
+    public EoscNode pastById() {
+        return history.resolve("50")
+        .getNode(Integer.toString(next++ % nodeCount + 1));
+    }
+
+    /** @return a node of a past version, found by time */
+    @Benchmark
+    public EoscNode pastByTimeById() {
+        return history.resolve("2025-03-01T12:00:50Z")
+        .getNode(Integer.toString(next++ % nodeCount + 1));
+    }
+
+    /** @return the nodes of the current version with a capability */
+    @Benchmark
+    public int currentSearch() {
+        return current.getNodesWithCapability(capability).size();
+    }
+
+    /** @return the nodes of a past version with a capability */
+    @Benchmark
+    public int pastSearch() {
+        return history.resolve("50").getNodesWithCapability(capability)
+        .size();
+    }
+}
@@ -0,0 +1,118 @@
+/*
+ * Copyright © 2025 EOSC Beyond (${email})
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package eoscbeyond.eu;
+
+import java.io.IOException;
+import java.net.URISyntaxException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.logging.log4j.core.config.Configurator;
+import org.apache.logging.log4j.core.config.builder.api.ConfigurationBuilder;
+import org.apache.logging.log4j.core.config.builder.api.ConfigurationBuilderFactory;
+import org.apache.logging.log4j.core.config.builder.impl.BuiltConfiguration;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Measures reading a nodes file with {@code ReadNodeDetails}, with logging
+ * at INFO level to a file as in production. {@code ingestAsync} uses the
+ * asynchronous loggers configured in {@code log4j2.component.properties};
+ * {@code ingestSync} switches back to synchronous loggers. The log goes to
+ * /dev/null, so the results show the cost of creating and formatting log
+ * events rather than of the disk.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@State(Scope.Benchmark)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+public class IngestionBenchmark {
+    /** Number of nodes in the file. */
+    @Param({"10000"})
+    public int nodeCount;
+
+    /** Nodes file. */
+    private Path file;
+
+    /**
+     * Writes the nodes file and configures logging.
+     *
+     * @throws IOException if the file cannot be written
+     */
+    @Setup
+    public void setUp() throws IOException {
+        file = Files.createTempFile("nodes", ".csv");
+        Files.writeString(file, BenchmarkNodes.csv(nodeCount));
+        ConfigurationBuilder<BuiltConfiguration> config =
+        ConfigurationBuilderFactory.newConfigurationBuilder();
+        config.add(config.newAppender("log", "File")
+            .addAttribute("fileName", "/dev/null")
+            .add(config.newLayout("PatternLayout").addAttribute("pattern",
+                "%d %5p %pid --- [%t] %c{1.} : %m%n")));
+        config.add(config.newRootLogger(org.apache.logging.log4j.Level.INFO)
+            .add(config.newAppenderRef("log")));
+        Configurator.reconfigure(config.build());
+    }
+
+    /**
+     * Deletes the nodes file.
+     *
+     * @throws IOException if the file cannot be deleted
+     */
+    @TearDown
+    public void tearDown() throws IOException {
+        Files.delete(file);
+    }
+
+    /**
+     * Reads the nodes file with asynchronous loggers.
+     *
+     * @return number of nodes read
+     * @throws IOException        if the file cannot be read
+     * @throws URISyntaxException if the file cannot be parsed
+     */
+    @Benchmark
+    @Fork(1)
+    public int ingestAsync() throws IOException, URISyntaxException {
+        return new ReadNodeDetails(file.toString()).getNodes().size();
+    }
+
+    /**
+     * Reads the nodes file with synchronous loggers.
+     *
+     * @return number of nodes read
+     * @throws IOException        if the file cannot be read
+     * @throws URISyntaxException if the file cannot be parsed
+     */
+    @Benchmark
+    @Fork(value = 1, jvmArgsAppend = "-Dlog4j2.contextSelector="
+    + "org.apache.logging.log4j.core.selector.ClassLoaderContextSelector")
+    public int ingestSync() throws IOException, URISyntaxException {
+        return new ReadNodeDetails(file.toString()).getNodes().size();
+    }
+}
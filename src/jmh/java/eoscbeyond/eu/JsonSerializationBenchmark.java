@@ -0,0 +1,93 @@
+/*
+ * Copyright © 2025 EOSC Beyond (${email})
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package eoscbeyond.eu;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.google.gson.Gson;
+
+/**
+ * Compares the previous JSON serialisation paths (a new Gson per call, and
+ * the Jackson mapper used for controller responses) with
+ * {@code NodeJsonWriter}. Run with the gc profiler (the default for the
+ * benchmark profile) to compare allocation per operation.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@State(Scope.Benchmark)
+@Fork(1)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+public class JsonSerializationBenchmark {
+    /** Number of nodes in the registry. */
+    @Param({"1", "1000"})
+    public int nodeCount;
+
+    /** Nodes to serialise. */
+    private List<EoscNode> nodes;
+    /** JSON mapper, configured as in the application. */
+    private ObjectMapper mapper;
+
+    /**
+     * Builds the registry.
+     */
+    @Setup
+    public void setUp() {
+        nodes = BenchmarkNodes.generate(nodeCount);
+        mapper = new NodeRegistryApplication().objectMapper();
+    }
+
+    /**
+     * @return JSON written by a new Gson instance, as toJson() used to
+     */
+    @Benchmark
+    public byte[] gson() {
+        return new Gson().toJson(nodes).getBytes();
+    }
+
+    /**
+     * @return JSON written by the Jackson mapper, as responses used to be
+     * @throws IOException if serialisation fails
+     */
+    @Benchmark
+    public byte[] jackson() throws IOException {
+        return mapper.writeValueAsBytes(nodes);
+    }
+
+    /**
+     * @return JSON written by the hand-written serialiser
+     */
+    @Benchmark
+    public byte[] nodeJsonWriter() {
+        return NodeJsonWriter.local().writeNodes(nodes).toByteArray();
+    }
+}
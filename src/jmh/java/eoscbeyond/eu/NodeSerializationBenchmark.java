@@ -0,0 +1,117 @@
+/*
+ * Copyright © 2025 EOSC Beyond (${email})
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package eoscbeyond.eu;
+
+import java.io.IOException;
+import java.lang.reflect.Type;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.google.gson.Gson;
+import com.google.gson.reflect.TypeToken;
+
+/**
+ * Compares encode and decode speed of the JSON node representation
+ * ({@code NodeJsonWriter}) with the binary ({@code NodeBinaryCodec})
+ * representation. Payload sizes are printed when each trial is set up.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@State(Scope.Benchmark)
+@Fork(1)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+public class NodeSerializationBenchmark {
+    /** Number of nodes in the registry. */
+    @Param({"10", "1000"})
+    public int nodeCount;
+
+    /** Nodes to encode. */
+    private List<EoscNode> nodes;
+    /** Gson instance used to bind JSON back to nodes. */
+    private Gson gson;
+    /** Type of a list of nodes. */
+    private Type nodeListType;
+    /** Encoded JSON. */
+    private byte[] json;
+    /** Encoded binary. */
+    private byte[] binary;
+
+    /**
+     * Builds the registry and encodes it once in each format.
+     *
+     * @throws IOException if encoding fails
+     */
+    @Setup
+    public void setUp() throws IOException {
+        nodes = BenchmarkNodes.generate(nodeCount);
+        gson = new Gson();
+        nodeListType = new TypeToken<List<EoscNode>>() { }.getType();
+        json = NodeJsonWriter.local().writeNodes(nodes).toByteArray();
+        binary = NodeBinaryCodec.encode(nodes);
+        System.out.printf("%n%d nodes: JSON %d bytes, binary %d bytes%n",
+        nodeCount, json.length, binary.length);
+    }
+
+    /**
+     * @return JSON bytes
+     */
+    @Benchmark
+    public byte[] encodeJson() {
+        return NodeJsonWriter.local().writeNodes(nodes).toByteArray();
+    }
+
+    /**
+     * @return binary bytes
+     * @throws IOException if encoding fails
+     */
+    @Benchmark
+    public byte[] encodeBinary() throws IOException {
+        return NodeBinaryCodec.encode(nodes);
+    }
+
+    /**
+     * @return nodes bound from JSON
+     */
+    @Benchmark
+    public List<EoscNode> decodeJson() {
+        return gson.fromJson(new String(json, StandardCharsets.UTF_8),
+        nodeListType);
+    }
+
+    /**
+     * @return nodes decoded from binary
+     * @throws IOException if decoding fails
+     */
+    @Benchmark
+    public List<EoscNode> decodeBinary() throws IOException {
+        return NodeBinaryCodec.decode(binary);
+    }
+}
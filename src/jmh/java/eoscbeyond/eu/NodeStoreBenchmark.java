@@ -0,0 +1,115 @@
+/*
+ * Copyright © 2025 EOSC Beyond (${email})
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package eoscbeyond.eu;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * Compares lookups in the object based {@code RegistrySnapshot} with the
+ * {@code ColumnarNodeStore}, which materialises nodes on access.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@State(Scope.Benchmark)
+@Fork(1)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+public class NodeStoreBenchmark {
+    /** Number of nodes in the registry. */
+    @Param({"100000"})
+    public int nodeCount;
+
+    /** Capability searched for; offered by about half of the nodes. */
+    private static final String CAPABILITY = "Order Management";
+
+    /** Object based registry. */
+    private RegistrySnapshot snapshot;
+    /** Columnar registry. */
+    private ColumnarNodeStore store;
+    /** ID looked up. */
+    private String id;
+
+    /**
+     * Builds both registries.
+     */
+    @Setup
+    public void setUp() {
+        List<EoscNode> nodes = BenchmarkNodes.generate(nodeCount);
+        snapshot = new RegistrySnapshot(1, nodes);
+        store = ColumnarNodeStore.of(nodes);
+        id = Integer.toString(nodeCount / 2);
+    }
+
+    /** @return node found by ID in the snapshot */
+    @Benchmark
+    public EoscNode snapshotById() {
+        return snapshot.getNode(id);
+    }
+
+    /** @return node found by ID and materialised from the columns */
+    @Benchmark
+    public EoscNode columnarById() {
+        return store.getNode(id);
+    }
+
+    /** @return number of nodes that offer a capability, from the index */
+    @Benchmark
+    public int snapshotCapabilityCount() {
+        return snapshot.getNodesWithCapability(CAPABILITY).size();
+    }
+
+    /** @return number of nodes that offer a capability, by column scan */
+    @Benchmark
+    public int columnarCapabilityCount() {
+        return store.ordinalsWithCapability(CAPABILITY).length;
+    }
+
+    /**
+     * Serialises the nodes that offer a capability.
+     *
+     * @param blackhole consumes the output
+     */
+    @Benchmark
+    public void snapshotCapabilityJson(final Blackhole blackhole) {
+        blackhole.consume(NodeJsonWriter.local().writeNodes(
+            snapshot.getNodesWithCapability(CAPABILITY)).size());
+    }
+
+    /**
+     * Materialises and serialises the nodes that offer a capability.
+     *
+     * @param blackhole consumes the output
+     */
+    @Benchmark
+    public void columnarCapabilityJson(final Blackhole blackhole) {
+        blackhole.consume(NodeJsonWriter.local().writeNodes(
+            store.getNodesWithCapability(CAPABILITY)).size());
+    }
+}
@@ -0,0 +1,68 @@
+/*
+ * Copyright © 2025 EOSC Beyond (${email})
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package eoscbeyond.eu;
+
+import java.util.List;
+
+import org.openjdk.jol.info.GraphLayout;
+
+/**
+ * Compares the heap footprint of a registry held as a {@code List} of
+ * {@code EoscNode} objects with the same registry in a
+ * {@code ColumnarNodeStore}. Sizes are measured with JOL by walking the
+ * object graphs. Run with the benchmark profile:
+ *
+ * <pre>
+ * mvn -Pcoverage,benchmark test-compile exec:exec@footprint
+ * mvn -Pcoverage,benchmark test-compile exec:exec@footprint \
+ *         -Dfootprint.nodes=10000,200000
+ * </pre>
+ */
+public final class NodeStoreFootprint {
+    /** Bytes per megabyte. */
+    private static final double MB = 1024.0 * 1024.0;
+
+    private NodeStoreFootprint() { }
+
+    /**
+     * Prints the footprint of each layout.
+     *
+     * @param args comma separated node counts
+     */
+    public static void main(final String[] args) {
+        String counts = args.length > 0 ? args[0] : "10000,100000";
+        System.out.printf("%10s %12s %14s %12s %12s %12s %10s%n", "nodes",
+        "capabilities", "list heap MB", "objects", "store heap MB",
+        "off-heap MB", "ratio");
+        for (String count : counts.split(",")) {
+            List<EoscNode> nodes = BenchmarkNodes.generate(
+                Integer.parseInt(count.trim()));
+            int capabilities = 0;
+            for (EoscNode node : nodes) {
+                capabilities += node.getCapabilityList().size();
+            }
+            GraphLayout list = GraphLayout.parseInstance(nodes);
+            ColumnarNodeStore store = ColumnarNodeStore.of(nodes);
+            GraphLayout columns = GraphLayout.parseInstance(store);
+            long storeBytes = columns.totalSize() + store.getOffHeapBytes();
+            System.out.printf("%10d %12d %14.1f %12d %12.1f %12.1f %9.1fx%n",
+            nodes.size(), capabilities, list.totalSize() / MB,
+            list.totalCount(), columns.totalSize() / MB,
+            store.getOffHeapBytes() / MB,
+            (double) list.totalSize() / storeBytes);
+        }
+    }
+}
@@ -0,0 +1,333 @@
+/*
+ * Copyright © 2025 EOSC Beyond (${email})
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package eoscbeyond.eu;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+
+/**
+ * Fails the build when the node API gets slower. Drives each scenario of a
+ * baseline file against a running application with {@code ConnectionLoad},
+ * checks the median and 99th percentile latency and the throughput against
+ * the scenario's limits and against its stored baseline, and writes the
+ * measurements and checks to a JSON report. Run with the performance
+ * profile, which generates the registry and starts and stops the
+ * application around it:
+ *
+ * <pre>
+ * mvn -Pcoverage,performance verify -DskipTests
+ * mvn -Pcoverage,performance verify -DskipTests -Dperf.update-baseline=true
+ * </pre>
+ *
+ * <p>
+ * Usage: {@code PerformanceGate measure baseUrl ids warmup seconds
+ * baseline report update} runs the scenarios, writes the report and, if
+ * {@code update} is true, stores the measurements as the new baseline.
+ * {@code PerformanceGate check report} prints the failed checks and exits
+ * with status 1 if there are any. They are separate so that the
+ * application is stopped before the build fails.
+ * </p>
+ */
+public final class PerformanceGate {
+    /** Exit status when a check failed. */
+    private static final int FAILED = 1;
+    /** Scale for rounding stored baselines to two decimals. */
+    private static final double HUNDRED = 100.0;
+
+    /** Reads and writes the baseline and report. */
+    private static final ObjectMapper MAPPER = new ObjectMapper()
+    .enable(SerializationFeature.INDENT_OUTPUT);
+
+    private PerformanceGate() { }
+
+    /**
+     * Limits, baseline and tolerances for the scenarios.
+     *
+     * @param latencyTolerance    fraction by which p50 and p99 may exceed
+     *                            the baseline
+     * @param latencySlackMs      milliseconds by which p50 and p99 may
+     *                            always exceed the baseline, so sub
+     *                            millisecond noise is not a regression
+     * @param throughputTolerance fraction by which throughput may fall
+     *                            short of the baseline
+     * @param scenarios           the scenarios, run in order
+     */
+    record Baseline(double latencyTolerance, double latencySlackMs,
+            double throughputTolerance, List<Scenario> scenarios) {
+    }
+
+    /**
+     * A load on one endpoint.
+     *
+     * @param name        name in the report
+     * @param path        path and query, with {@code {id}} for a random
+     *                    node ID
+     * @param connections concurrent connections
+     * @param limits      absolute limits, or null
+     * @param baseline    measurements to compare with, or null
+     */
+    record Scenario(String name, String path, int connections,
+            Metrics limits, Metrics baseline) {
+    }
+
+    /**
+     * Latency and throughput of a scenario.
+     *
+     * @param p50Ms             median latency in milliseconds
+     * @param p99Ms             99th percentile latency in milliseconds
+     * @param requestsPerSecond successful requests per second
+     */
+    record Metrics(double p50Ms, double p99Ms, double requestsPerSecond) {
+    }
+
+    /**
+     * A comparison of a measurement with a threshold.
+     *
+     * @param metric    {@code errors}, {@code p50Ms}, {@code p99Ms} or
+     *                  {@code requestsPerSecond}
+     * @param against   {@code limit} or {@code baseline}
+     * @param value     the measurement
+     * @param threshold the largest, or for throughput smallest, passing
+     *                  value
+     * @param passed    whether the measurement is within the threshold
+     */
+    record Check(String metric, String against, double value,
+            double threshold, boolean passed) {
+    }
+
+    /**
+     * Measurements and checks of a scenario.
+     *
+     * @param name        scenario name
+     * @param url         URL driven
+     * @param connections concurrent connections
+     * @param requests    measured successful requests
+     * @param errors      failed requests
+     * @param measured    latency and throughput
+     * @param checks      the checks
+     * @param passed      whether all checks passed
+     */
+    record ScenarioReport(String name, String url, int connections,
+            long requests, long errors, Metrics measured, List<Check> checks,
+            boolean passed) {
+    }
+
+    /**
+     * The report of a run.
+     *
+     * @param baseUrl   application URL
+     * @param seconds   length of each measured run
+     * @param scenarios the scenarios
+     * @param passed    whether all checks passed
+     */
+    record Report(String baseUrl, int seconds, List<ScenarioReport> scenarios,
+            boolean passed) {
+    }
+
+    /**
+     * Measures the scenarios or checks a report.
+     *
+     * @param args {@code measure} or {@code check} and their arguments
+     * @throws IOException          if a file cannot be read or written
+     * @throws InterruptedException if interrupted
+     */
+    public static void main(final String[] args)
+            throws IOException, InterruptedException {
+        if ("check".equals(args[0])) {
+            System.exit(verify(new File(args[1])) ? 0 : FAILED);
+        }
+        File baselineFile = new File(args[5]);
+        Baseline baseline = MAPPER.readValue(baselineFile, Baseline.class);
+        Report report = measure(baseline, args[1], Integer.parseInt(args[2]),
+            Integer.parseInt(args[3]), Integer.parseInt(args[4]));
+        File reportFile = new File(args[6]);
+        if (reportFile.getParentFile() != null) {
+            reportFile.getParentFile().mkdirs();
+        }
+        MAPPER.writeValue(reportFile, report);
+        System.out.println("Report written to " + reportFile);
+        if (Boolean.parseBoolean(args[7])) {
+            MAPPER.writeValue(baselineFile, updated(baseline, report));
+            System.out.println("Baseline updated in " + baselineFile);
+        }
+        System.exit(0);
+    }
+
+    /**
+     * Runs each scenario, after a warm-up run, and checks it.
+     *
+     * @param xBaseline limits, baseline and tolerances
+     * @param xBaseUrl  application URL
+     * @param xIds      number of node IDs
+     * @param xWarmup   length of the warm-up run in seconds, or 0
+     * @param xSeconds  length of the measured run in seconds
+     * @return the report
+     * @throws InterruptedException if interrupted
+     */
+    static Report measure(final Baseline xBaseline, final String xBaseUrl,
+            final int xIds, final int xWarmup, final int xSeconds)
+            throws InterruptedException {
+        System.out.printf("%-10s %11s %10s %12s %8s %8s %8s%n", "scenario",
+            "connections", "requests", "requests/s", "p50 ms", "p99 ms",
+            "errors");
+        List<ScenarioReport> scenarios = new ArrayList<>();
+        boolean passed = true;
+        for (Scenario scenario : xBaseline.scenarios()) {
+            String url = xBaseUrl + scenario.path();
+            if (xWarmup > 0) {
+                ConnectionLoad.run(url, scenario.connections(), xWarmup, xIds);
+            }
+            ConnectionLoad.Result result = ConnectionLoad.run(url,
+                scenario.connections(), xSeconds, xIds);
+            System.out.printf("%-10s %11d %10d %12.0f %8.2f %8.2f %8d%n",
+                scenario.name(), scenario.connections(), result.requests(),
+                result.perSecond(), result.p50Millis(), result.p99Millis(),
+                result.errors());
+            ScenarioReport report = check(xBaseline, scenario, url, result);
+            passed &= report.passed();
+            scenarios.add(report);
+        }
+        return new Report(xBaseUrl, xSeconds, scenarios, passed);
+    }
+
+    /**
+     * Checks the result of a scenario against its limits and baseline.
+     *
+     * @param xBaseline tolerances
+     * @param xScenario the scenario
+     * @param xUrl      URL driven
+     * @param xResult   the result
+     * @return the measurements and checks
+     */
+    static ScenarioReport check(final Baseline xBaseline,
+            final Scenario xScenario, final String xUrl,
+            final ConnectionLoad.Result xResult) {
+        Metrics measured = new Metrics(xResult.p50Millis(),
+            xResult.p99Millis(), xResult.perSecond());
+        List<Check> checks = new ArrayList<>();
+        checks.add(new Check("errors", "limit", xResult.errors(), 0,
+            xResult.errors() == 0));
+        Metrics limits = xScenario.limits();
+        if (limits != null) {
+            checks.add(atMost("p50Ms", "limit", measured.p50Ms(),
+                limits.p50Ms()));
+            checks.add(atMost("p99Ms", "limit", measured.p99Ms(),
+                limits.p99Ms()));
+            checks.add(atLeast("limit", measured.requestsPerSecond(),
+                limits.requestsPerSecond()));
+        }
+        Metrics baseline = xScenario.baseline();
+        if (baseline != null) {
+            checks.add(atMost("p50Ms", "baseline", measured.p50Ms(),
+                latencyThreshold(xBaseline, baseline.p50Ms())));
+            checks.add(atMost("p99Ms", "baseline", measured.p99Ms(),
+                latencyThreshold(xBaseline, baseline.p99Ms())));
+            checks.add(atLeast("baseline", measured.requestsPerSecond(),
+                baseline.requestsPerSecond()
+                * (1 - xBaseline.throughputTolerance())));
+        }
+        boolean passed = xResult.requests() > 0;
+        for (Check check : checks) {
+            passed &= check.passed();
+        }
+        return new ScenarioReport(xScenario.name(), xUrl,
+            xScenario.connections(), xResult.requests(), xResult.errors(),
+            measured, checks, passed);
+    }
+
+    private static double latencyThreshold(final Baseline xBaseline,
+            final double xBaselineMs) {
+        return Math.max(xBaselineMs * (1 + xBaseline.latencyTolerance()),
+            xBaselineMs + xBaseline.latencySlackMs());
+    }
+
+    private static Check atMost(final String xMetric, final String xAgainst,
+            final double xValue, final double xThreshold) {
+        return new Check(xMetric, xAgainst, xValue, xThreshold,
+            xValue <= xThreshold);
+    }
+
+    private static Check atLeast(final String xAgainst, final double xValue,
+            final double xThreshold) {
+        return new Check("requestsPerSecond", xAgainst, xValue, xThreshold,
+            xValue >= xThreshold);
+    }
+
+    /**
+     * Replaces the baseline of each scenario with its measurements.
+     *
+     * @param xBaseline the stored baseline
+     * @param xReport   the report of a run of the same scenarios
+     * @return the new baseline
+     */
+    static Baseline updated(final Baseline xBaseline, final Report xReport) {
+        List<Scenario> scenarios = new ArrayList<>();
+        for (int i = 0; i < xBaseline.scenarios().size(); i++) {
+            Scenario scenario = xBaseline.scenarios().get(i);
+            Metrics measured = xReport.scenarios().get(i).measured();
+            scenarios.add(new Scenario(scenario.name(), scenario.path(),
+                scenario.connections(), scenario.limits(), new Metrics(
+                round(measured.p50Ms()), round(measured.p99Ms()),
+                round(measured.requestsPerSecond()))));
+        }
+        return new Baseline(xBaseline.latencyTolerance(),
+            xBaseline.latencySlackMs(), xBaseline.throughputTolerance(),
+            scenarios);
+    }
+
+    private static double round(final double xValue) {
+        return Math.round(xValue * HUNDRED) / HUNDRED;
+    }
+
+    /**
+     * Prints the failed checks of a report.
+     *
+     * @param xReport the report file
+     * @return whether all checks passed
+     * @throws IOException if the report cannot be read
+     */
+    static boolean verify(final File xReport) throws IOException {
+        Report report = MAPPER.readValue(xReport, Report.class);
+        int failed = 0;
+        int total = 0;
+        for (ScenarioReport scenario : report.scenarios()) {
+            if (scenario.requests() == 0) {
+                System.out.printf("%s: no successful requests%n",
+                    scenario.name());
+                failed++;
+            }
+            for (Check check : scenario.checks()) {
+                total++;
+                if (!check.passed()) {
+                    failed++;
+                    System.out.printf("%s: %s %.2f is %s the %s of %.2f%n",
+                        scenario.name(), check.metric(), check.value(),
+                        check.value() < check.threshold() ? "below" : "above",
+                        check.against(), check.threshold());
+                }
+            }
+        }
+        System.out.printf("%d of %d performance checks failed, see %s%n",
+            failed, total, xReport);
+        return report.passed() && failed == 0;
+    }
+}
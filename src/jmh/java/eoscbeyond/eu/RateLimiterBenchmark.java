@@ -0,0 +1,82 @@
+/*
+ * Copyright © 2025 EOSC Beyond (${email})
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package eoscbeyond.eu;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import eoscbeyond.eu.data.RateLimitConfiguration;
+
+/**
+ * Measures the cost of admitting a request through the
+ * {@code RateLimiter}, for a population of clients that stay within their
+ * rate.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@State(Scope.Benchmark)
+@Fork(1)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Threads(2)
+public class RateLimiterBenchmark {
+    /** Number of distinct clients. */
+    @Param({"1000"})
+    public int clientCount;
+
+    /** Limiter with limits high enough that every request is admitted. */
+    private RateLimiter limiter;
+    /** Client keys. */
+    private String[] clients;
+    /** Index of the next client. */
+    private int next;
+
+    /**
+     * Builds the limiter and the client keys.
+     */
+    @Setup
+    public void setUp() {
+        limiter = new RateLimiter(new RateLimitConfiguration(true, 1e9,
+            1_000_000, 1e9, 1_000_000, Integer.MAX_VALUE, Integer.MAX_VALUE,
+            null, null));
+        clients = new String[clientCount];
+        for (int i = 0; i < clientCount; i++) {
+            clients[i] = "192.0.2." + i;
+        }
+    }
+
+    /** @return the admission decision for an interactive request */
+    @Benchmark
+    public long admitInteractive() {
+        String client = clients[next++ % clients.length];
+        long wait = limiter.tryAcquire(client,
+            RateLimiter.Priority.INTERACTIVE);
+        limiter.release();
+        return wait;
+    }
+}
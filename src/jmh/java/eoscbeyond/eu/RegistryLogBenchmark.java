@@ -0,0 +1,100 @@
+/*
+ * Copyright © 2025 EOSC Beyond (${email})
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package eoscbeyond.eu;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.Comparator;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Measures durable node changes per second through {@code RegistryLog} at
+ * different group commit windows, with 16 concurrent writers each waiting
+ * for its change to be synced. The log is written under
+ * {@code java.io.tmpdir}, which should be on the disk to measure: on a
+ * memory file system a sync costs nothing.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@State(Scope.Benchmark)
+@Fork(1)
+@Threads(16)
+@Warmup(iterations = 2, time = 2)
+@Measurement(iterations = 3, time = 2)
+public class RegistryLogBenchmark {
+    /** Group commit window, in milliseconds. */
+    @Param({"0", "1", "5"})
+    public int windowMillis;
+
+    /** Directory of the log. */
+    private Path directory;
+    /** The log. */
+    private RegistryLog log;
+    /** Node written by every change. */
+    private final EoscNode node = BenchmarkNodes.node(1);
+
+    /**
+     * Opens the log in a new directory.
+     *
+     * @throws IOException if the log cannot be opened
+     */
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        directory = Files.createTempDirectory("registry-log");
+        log = RegistryLog.open(directory, Duration.ofMillis(windowMillis));
+    }
+
+    /**
+     * Closes the log and deletes its directory.
+     *
+     * @throws IOException if the directory cannot be deleted
+     */
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        log.close();
+        try (Stream<Path> files = Files.walk(directory)) {
+            for (Path path : files.sorted(Comparator.reverseOrder())
+                .toList()) {
+                Files.delete(path);
+            }
+        }
+    }
+
+    /** Logs a change and waits until it is durable. */
+    @Benchmark
+    public void put() {
+        log.awaitDurable(log.appendPut(node));
+    }
+}
@@ -0,0 +1,83 @@
+/*
+ * Copyright © 2025 EOSC Beyond (${email})
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package eoscbeyond.eu;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Measures the cost of changing one node of a registry: deriving the next
+ * snapshot with {@code RegistrySnapshot.withNode}, against rebuilding it
+ * from a copy of the node list, as {@code NodeRegistry.setNodes} does.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@State(Scope.Benchmark)
+@Fork(1)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+public class RegistryUpdateBenchmark {
+    /** Number of nodes in the registry. */
+    @Param({"10000", "100000"})
+    public int nodeCount;
+
+    /** Snapshot holding the generated nodes. */
+    private RegistrySnapshot snapshot;
+    /** The generated nodes. */
+    private List<EoscNode> nodes;
+    /** Index of the next node to replace. */
+    private int next;
+
+    /**
+     * Builds the snapshot.
+     */
+    @Setup
+    public void setUp() {
+        nodes = BenchmarkNodes.generate(nodeCount);
+        snapshot = new RegistrySnapshot(1, nodes);
+    }
+
+    /** @return the snapshot with one node replaced */
+    @Benchmark
+    public RegistrySnapshot withNode() {
+        int index = next++ % nodeCount;
+        return snapshot.withNode(2, BenchmarkNodes.node(index + 1));
+    }
+
+    /** @return the snapshot rebuilt with one node replaced */
+    @Benchmark
+    public RegistrySnapshot rebuild() {
+        int index = next++ % nodeCount;
+        List<EoscNode> changed = new ArrayList<>(nodes);
+        changed.set(index, BenchmarkNodes.node(index + 1));
+        return new RegistrySnapshot(2, changed, snapshot.getMetadata(),
+            snapshot.getOrdinals());
+    }
+}
@@ -0,0 +1,106 @@
+/*
+ * Copyright © 2025 EOSC Beyond (${email})
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package eoscbeyond.eu;
+
+import java.net.URI;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Measures the cost of routing a request with the {@code CapabilityRouter},
+ * for a capability offered by a number of nodes with recorded latencies.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@State(Scope.Benchmark)
+@Fork(1)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Threads(2)
+public class RoutingBenchmark {
+    /** Capability offered by every node. */
+    private static final String CATALOGUE = "Resource Catalogue";
+
+    /** Number of nodes offering the capability. */
+    @Param({"10", "100"})
+    public int nodeCount;
+
+    /** Router over the nodes. */
+    private CapabilityRouter router;
+    /** Client keys. */
+    private String[] keys;
+    /** Index of the next client key. */
+    private int next;
+
+    /**
+     * Registers the nodes and records a latency for each endpoint.
+     */
+    @Setup
+    public void setUp() {
+        List<EoscNode> nodes = new ArrayList<>();
+        for (int i = 0; i < nodeCount; i++) {
+            URI endpoint = URI.create("https://node" + i + ".example.com/rc");
+            nodes.add(new EoscNode(String.valueOf(i), "Node " + i, null,
+                "PID" + i, null, null,
+                List.of(new EoscCapability(CATALOGUE, endpoint, "3.0"))));
+        }
+        router = new CapabilityRouter(new NodeRegistry(nodes));
+        for (int i = 0; i < nodeCount; i++) {
+            router.recordLatency(URI.create("https://node" + i
+                + ".example.com/rc"), (i + 1) * 1_000_000L);
+        }
+        keys = new String[1000];
+        for (int i = 0; i < keys.length; i++) {
+            keys[i] = "client-" + i;
+        }
+    }
+
+    /** @return the endpoint chosen by weighted round-robin */
+    @Benchmark
+    public CapabilityRoute roundRobin() {
+        return router.route(CATALOGUE, CapabilityRouter.Strategy.ROUND_ROBIN,
+            null);
+    }
+
+    /** @return the endpoint with the lowest latency */
+    @Benchmark
+    public CapabilityRoute leastLatency() {
+        return router.route(CATALOGUE,
+            CapabilityRouter.Strategy.LEAST_LATENCY, null);
+    }
+
+    /** @return the endpoint chosen by hashing a client key */
+    @Benchmark
+    public CapabilityRoute hash() {
+        return router.route(CATALOGUE, CapabilityRouter.Strategy.HASH,
+            keys[next++ % keys.length]);
+    }
+}
@@ -0,0 +1,202 @@
+/*
+ * Copyright © 2025 EOSC Beyond (${email})
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package eoscbeyond.eu;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * The {@code StringDictionary} class stores a set of distinct strings once
+ * each, off the Java heap, and identifies them by dense integer codes.
+ * <p>
+ * The strings are held as UTF-8 in a single direct buffer, with an offset
+ * per code. Lookups from string to code use an open addressing hash table
+ * of primitive ints, so the dictionary has no per-string objects on the
+ * heap. Strings are decoded only when they are asked for.
+ * </p>
+ *
+ */
+final class StringDictionary {
+    /** Code used for null strings. */
+    static final int NULL = -1;
+
+    /** UTF-8 bytes of every string, back to back. */
+    private final ByteBuffer bytes;
+    /** Start of each string in the buffer, plus the end of the last one. */
+    private final int[] offsets;
+    /** Hash code of each string. */
+    private final int[] hashes;
+    /** Hash table of codes plus one; zero marks an empty slot. */
+    private final int[] table;
+
+    private StringDictionary(final List<String> xStrings) {
+        int count = xStrings.size();
+        byte[][] encoded = new byte[count][];
+        int total = 0;
+        for (int i = 0; i < count; i++) {
+            encoded[i] = xStrings.get(i).getBytes(StandardCharsets.UTF_8);
+            total += encoded[i].length;
+        }
+        bytes = ByteBuffer.allocateDirect(Math.max(total, 1));
+        offsets = new int[count + 1];
+        hashes = new int[count];
+        table = new int[tableSize(count)];
+        for (int i = 0; i < count; i++) {
+            offsets[i] = bytes.position();
+            bytes.put(encoded[i]);
+            hashes[i] = xStrings.get(i).hashCode();
+            table[freeSlot(hashes[i])] = i + 1;
+        }
+        offsets[count] = bytes.position();
+    }
+
+    /**
+     * Gets the number of strings.
+     *
+     * @return the number of strings
+     */
+    int size() {
+        return hashes.length;
+    }
+
+    /**
+     * Gets a string.
+     *
+     * @param xCode the code of the string, or {@link #NULL}
+     * @return the string, or null for {@link #NULL}
+     */
+    String get(final int xCode) {
+        if (xCode == NULL) {
+            return null;
+        }
+        byte[] utf8 = new byte[offsets[xCode + 1] - offsets[xCode]];
+        bytes.get(offsets[xCode], utf8);
+        return new String(utf8, StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Gets the code of a string.
+     *
+     * @param xString the string, may be null
+     * @return the code, or {@link #NULL} if the string is null or not in
+     *         the dictionary
+     */
+    int code(final String xString) {
+        if (xString == null) {
+            return NULL;
+        }
+        int hash = xString.hashCode();
+        byte[] utf8 = null;
+        int mask = table.length - 1;
+        for (int slot = spread(hash) & mask; table[slot] != 0;
+        slot = (slot + 1) & mask) {
+            int code = table[slot] - 1;
+            if (hashes[code] == hash) {
+                if (utf8 == null) {
+                    utf8 = xString.getBytes(StandardCharsets.UTF_8);
+                }
+                if (matches(code, utf8)) {
+                    return code;
+                }
+            }
+        }
+        return NULL;
+    }
+
+    /**
+     * Gets the size of the off-heap string data.
+     *
+     * @return the number of bytes allocated outside the Java heap
+     */
+    long offHeapBytes() {
+        return bytes.capacity();
+    }
+
+    private boolean matches(final int xCode, final byte[] xUtf8) {
+        int start = offsets[xCode];
+        if (offsets[xCode + 1] - start != xUtf8.length) {
+            return false;
+        }
+        for (int i = 0; i < xUtf8.length; i++) {
+            if (bytes.get(start + i) != xUtf8[i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private int freeSlot(final int xHash) {
+        int mask = table.length - 1;
+        int slot = spread(xHash) & mask;
+        while (table[slot] != 0) {
+            slot = (slot + 1) & mask;
+        }
+        return slot;
+    }
+
+    private static int spread(final int xHash) {
+        return xHash ^ (xHash >>> (Integer.SIZE / 2));
+    }
+
+    /**
+     * Gets a power of two table size with a load factor of at most a half.
+     *
+     * @param xCount number of entries
+     * @return the table size
+     */
+    static int tableSize(final int xCount) {
+        return Integer.highestOneBit(Math.max(xCount, 1) * 2 - 1) * 2;
+    }
+
+    /**
+     * Collects distinct strings and assigns their codes.
+     */
+    static final class Builder {
+        /** Code of each string added so far. */
+        private final Map<String, Integer> codes = new HashMap<>();
+        /** Strings, in code order. */
+        private final List<String> strings = new ArrayList<>();
+
+        /**
+         * Adds a string, if it is not already in the dictionary.
+         *
+         * @param xString the string, may be null
+         * @return the code of the string, or {@link #NULL} if it is null
+         */
+        int add(final String xString) {
+            if (xString == null) {
+                return NULL;
+            }
+            return codes.computeIfAbsent(xString, s -> {
+                strings.add(s);
+                return strings.size() - 1;
+            });
+        }
+
+        /**
+         * Builds the dictionary.
+         *
+         * @return the dictionary
+         */
+        StringDictionary build() {
+            return new StringDictionary(strings);
+        }
+    }
+}
@@ -0,0 +1,93 @@
+/*
+ * Copyright © 2025 EOSC Beyond (${email})
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package eoscbeyond.eu;
+
+import java.net.URI;
+import java.util.Map;
+import java.util.Set;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.scheduling.annotation.EnableScheduling;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import eoscbeyond.eu.data.HarvesterConfiguration;
+
+/**
+ * The {@code CapabilityHarvestScheduler} class harvests capability metadata
+ * periodically and merges it into the node registry.
+ * <p>
+ * It is only created when {@code harvester.enabled} is true. The first
+ * harvest starts once the application is up; each further harvest starts
+ * {@code harvester.interval} after the previous one finished. Each harvest
+ * publishes a new registry version, so readers see the metadata together
+ * with the nodes it belongs to. Endpoint latencies are reported to the
+ * shared {@link CapabilityRouter}.
+ * </p>
+ *
+ */
+@Component
+@EnableScheduling
+@ConditionalOnProperty(prefix = "harvester", name = "enabled",
+havingValue = "true")
+public class CapabilityHarvestScheduler implements DisposableBean {
+    /** Logger. */
+    private static final Logger LOGGER =
+    LogManager.getLogger(CapabilityHarvestScheduler.class);
+    /** Nanoseconds per millisecond. */
+    private static final long NANOS_PER_MILLI = 1_000_000L;
+
+    /** The harvester. */
+    private final CapabilityHarvester harvester;
+    /** The node registry. */
+    private final NodeRegistry nodeRegistry = NodeRegistry.getInstance();
+
+    /**
+     * Constructor.
+     *
+     * @param xConfig harvester settings
+     */
+    public CapabilityHarvestScheduler(final HarvesterConfiguration xConfig) {
+        this.harvester = new CapabilityHarvester(xConfig,
+        CapabilityRouter.getInstance());
+    }
+
+    /** Harvests the capability endpoints of all registered nodes. */
+    @Scheduled(fixedDelayString = "${harvester.interval:PT15M}")
+    public void harvest() {
+        long start = System.nanoTime();
+        Set<URI> endpoints =
+        nodeRegistry.getSnapshot().getCapabilityEndpoints();
+        Map<URI, CapabilityMetadata> metadata =
+        harvester.harvest(endpoints).join();
+        if (!metadata.isEmpty()) {
+            nodeRegistry.mergeMetadata(metadata);
+        }
+        LOGGER.info("Harvested {} of {} capability endpoints in {} ms {}",
+        metadata.size(), endpoints.size(),
+        (System.nanoTime() - start) / NANOS_PER_MILLI,
+        harvester.getStatistics());
+    }
+
+    /** Stops the harvester. */
+    @Override
+    public void destroy() {
+        harvester.close();
+    }
+}
@@ -0,0 +1,415 @@
+/*
+ * Copyright © 2025 EOSC Beyond (${email})
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package eoscbeyond.eu;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.LongAdder;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+
+import eoscbeyond.eu.data.HarvesterConfiguration;
+
+/**
+ * The {@code CapabilityHarvester} class fetches metadata from capability
+ * endpoints.
+ * <p>
+ * Each endpoint is fetched on its own virtual thread, so a harvest of many
+ * endpoints runs concurrently without tying up platform threads while
+ * requests are in flight. The HTTP client prefers HTTP/2 and keeps
+ * connections open, so requests to the same host share a connection where
+ * the host supports it. To avoid overloading any one host, the number of
+ * requests in flight per host is bounded.
+ * </p>
+ *
+ * <p>
+ * Connection errors, server errors (5xx) and 429 responses are retried
+ * with exponential backoff and jitter, honouring a Retry-After header given
+ * in seconds. Other client errors are not retried. Each host has a
+ * {@link CircuitBreaker}: once a host has failed repeatedly, its endpoints
+ * are skipped until the breaker lets a trial request through.
+ * </p>
+ *
+ * <p>
+ * The latency of each request, or its failure, is reported to a
+ * {@link CapabilityRouter} if one is given, so routing can prefer
+ * endpoints that respond quickly.
+ * </p>
+ *
+ * <p>
+ * An endpoint is expected to answer with a JSON object; its
+ * {@code description} and {@code version} fields are kept and other fields
+ * are ignored. Endpoints that cannot be harvested are left out of the
+ * result.
+ * </p>
+ *
+ * <p>
+ * Example usage:
+ * </p>
+ *
+ * <pre>
+ * try (CapabilityHarvester harvester = new CapabilityHarvester(config)) {
+ *     Map<URI, CapabilityMetadata> metadata = harvester
+ *         .harvest(snapshot.getCapabilityEndpoints()).join();
+ *     registry.mergeMetadata(metadata);
+ * }
+ * </pre>
+ *
+ */
+public class CapabilityHarvester implements AutoCloseable {
+    /** Logger. */
+    private static final Logger LOGGER =
+    LogManager.getLogger(CapabilityHarvester.class);
+    /** Largest response body read, in bytes. */
+    static final int MAX_BODY_BYTES = 1 << 20;
+    /** Longest Retry-After delay honoured. */
+    static final Duration MAX_RETRY_AFTER = Duration.ofSeconds(30);
+    /** First HTTP status code of a success. */
+    private static final int FIRST_SUCCESS = 200;
+    /** First HTTP status code after the successes. */
+    private static final int FIRST_NON_SUCCESS = 300;
+    /** HTTP status code of a rate-limited request. */
+    private static final int TOO_MANY_REQUESTS = 429;
+    /** First HTTP status code of a server error. */
+    private static final int FIRST_SERVER_ERROR = 500;
+    /** Field name of the service description. */
+    private static final String DESCRIPTION = "description";
+    /** Field name of the service version. */
+    private static final String VERSION = "version";
+
+    /** Harvester settings. */
+    private final HarvesterConfiguration config;
+    /** Router told about endpoint latencies and failures; may be null. */
+    private final CapabilityRouter router;
+    /** Executor running one virtual thread per fetch. */
+    private final ExecutorService executor =
+    Executors.newVirtualThreadPerTaskExecutor();
+    /** HTTP client, shared by all fetches. */
+    private final HttpClient client;
+    /** JSON parser factory. */
+    private final JsonFactory jsonFactory = new JsonFactory();
+    /** Permits for requests in flight, by host. */
+    private final Map<String, Semaphore> permits = new ConcurrentHashMap<>();
+    /** Circuit breakers, by host. */
+    private final Map<String, CircuitBreaker> breakers =
+    new ConcurrentHashMap<>();
+
+    /** Number of requests sent. */
+    private final LongAdder requests = new LongAdder();
+    /** Number of retries. */
+    private final LongAdder retries = new LongAdder();
+    /** Number of endpoints that could not be harvested. */
+    private final LongAdder failures = new LongAdder();
+    /** Number of endpoints skipped because their host's breaker was open. */
+    private final LongAdder shortCircuited = new LongAdder();
+
+    /**
+     * Constructor.
+     *
+     * @param xConfig harvester settings
+     */
+    public CapabilityHarvester(final HarvesterConfiguration xConfig) {
+        this(xConfig, null);
+    }
+
+    /**
+     * Constructor - reports endpoint latencies to a router.
+     *
+     * @param xConfig harvester settings
+     * @param xRouter router told about endpoint latencies and failures
+     */
+    public CapabilityHarvester(final HarvesterConfiguration xConfig,
+            final CapabilityRouter xRouter) {
+        this.config = xConfig;
+        this.router = xRouter;
+        this.client = HttpClient.newBuilder()
+        .version(HttpClient.Version.HTTP_2)
+        .followRedirects(HttpClient.Redirect.NORMAL)
+        .connectTimeout(xConfig.requestTimeout())
+        .executor(executor)
+        .build();
+    }
+
+    /**
+     * Fetches the metadata of a set of capability endpoints.
+     *
+     * @param xEndpoints the capability endpoints
+     * @return future completing with the metadata of the endpoints that
+     *         could be harvested, by endpoint
+     */
+    public CompletableFuture<Map<URI, CapabilityMetadata>> harvest(
+            final Collection<URI> xEndpoints) {
+        List<CompletableFuture<Optional<CapabilityMetadata>>> fetches =
+        new ArrayList<>(xEndpoints.size());
+        for (URI endpoint : xEndpoints) {
+            fetches.add(CompletableFuture.supplyAsync(
+                () -> Optional.ofNullable(fetch(endpoint)), executor));
+        }
+        return CompletableFuture.allOf(
+            fetches.toArray(new CompletableFuture<?>[0]))
+        .thenApply(done -> {
+            Map<URI, CapabilityMetadata> result = new LinkedHashMap<>();
+            for (CompletableFuture<Optional<CapabilityMetadata>> fetch
+                    : fetches) {
+                fetch.join().ifPresent(m -> result.put(m.endpoint(), m));
+            }
+            return result;
+        });
+    }
+
+    /**
+     * Fetches the metadata of one endpoint, retrying transient failures.
+     *
+     * @param xEndpoint the capability endpoint
+     * @return the metadata, or null if the endpoint could not be harvested
+     */
+    CapabilityMetadata fetch(final URI xEndpoint) {
+        String host = hostOf(xEndpoint);
+        if (host == null) {
+            return null;
+        }
+        CircuitBreaker breaker = breakers.computeIfAbsent(host,
+            h -> new CircuitBreaker(config.failureThreshold(),
+            config.openDuration()));
+        Semaphore hostPermits = permits.computeIfAbsent(host,
+            h -> new Semaphore(config.maxConcurrentPerHost()));
+        HttpRequest request = HttpRequest.newBuilder(xEndpoint)
+        .timeout(config.requestTimeout())
+        .header("Accept", "application/json")
+        .GET()
+        .build();
+        long backoff = config.initialBackoff().toMillis();
+        for (int attempt = 1;; attempt++) {
+            if (!breaker.allowRequest()) {
+                shortCircuited.increment();
+                return null;
+            }
+            long retryAfter = -1;
+            try {
+                hostPermits.acquire();
+                try {
+                    requests.increment();
+                    long start = System.nanoTime();
+                    HttpResponse<InputStream> response = client.send(request,
+                        HttpResponse.BodyHandlers.ofInputStream());
+                    int status = response.statusCode();
+                    try (InputStream body = response.body()) {
+                        if (status >= FIRST_SUCCESS
+                            && status < FIRST_NON_SUCCESS) {
+                            breaker.recordSuccess();
+                            if (router != null) {
+                                router.recordLatency(xEndpoint,
+                                System.nanoTime() - start);
+                            }
+                            return parse(xEndpoint, body);
+                        }
+                    }
+                    if (status != TOO_MANY_REQUESTS
+                        && status < FIRST_SERVER_ERROR) {
+                        // The host is up; the endpoint has nothing for us
+                        breaker.recordSuccess();
+                        LOGGER.debug("Capability endpoint {} returned {}",
+                        xEndpoint, status);
+                        failures.increment();
+                        return null;
+                    }
+                    recordFailure(breaker, xEndpoint);
+                    retryAfter = retryAfterMillis(response);
+                } finally {
+                    hostPermits.release();
+                }
+            } catch (IOException e) {
+                recordFailure(breaker, xEndpoint);
+                LOGGER.debug("Capability endpoint {} failed: {}", xEndpoint,
+                e.toString());
+            } catch (InterruptedException e) {
+                // no outcome; a trial left half open would block the host
+                breaker.releaseTrial();
+                Thread.currentThread().interrupt();
+                return null;
+            }
+            if (attempt >= config.maxAttempts()) {
+                failures.increment();
+                return null;
+            }
+            retries.increment();
+            long delay = retryAfter >= 0 ? retryAfter
+            : ThreadLocalRandom.current().nextLong(backoff / 2, backoff + 1);
+            backoff *= 2;
+            try {
+                Thread.sleep(delay);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return null;
+            }
+        }
+    }
+
+    private void recordFailure(final CircuitBreaker xBreaker,
+            final URI xEndpoint) {
+        xBreaker.recordFailure();
+        if (router != null) {
+            router.recordFailure(xEndpoint);
+        }
+    }
+
+    /**
+     * Reads the metadata from a response body. A body that is not a JSON
+     * object, or is larger than {@link #MAX_BODY_BYTES}, gives no metadata.
+     *
+     * @param xEndpoint the capability endpoint
+     * @param xBody     the response body
+     * @return the metadata, or null if the body is not valid
+     */
+    private CapabilityMetadata parse(final URI xEndpoint,
+            final InputStream xBody) {
+        String description = null;
+        String version = null;
+        try {
+            byte[] bytes = xBody.readNBytes(MAX_BODY_BYTES + 1);
+            if (bytes.length > MAX_BODY_BYTES) {
+                throw new IOException("response larger than "
+                + MAX_BODY_BYTES + " bytes");
+            }
+            try (JsonParser parser = jsonFactory.createParser(bytes)) {
+                if (parser.nextToken() != JsonToken.START_OBJECT) {
+                    throw new IOException("response is not a JSON object");
+                }
+                while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                    String field = parser.currentName();
+                    JsonToken value = parser.nextToken();
+                    if (value == JsonToken.VALUE_STRING
+                        && DESCRIPTION.equals(field)) {
+                        description = parser.getText();
+                    } else if (value == JsonToken.VALUE_STRING
+                        && VERSION.equals(field)) {
+                        version = parser.getText();
+                    } else {
+                        parser.skipChildren();
+                    }
+                }
+            }
+        } catch (IOException e) {
+            LOGGER.debug("Invalid metadata from {}: {}", xEndpoint,
+            e.toString());
+            failures.increment();
+            return null;
+        }
+        return new CapabilityMetadata(xEndpoint, description, version,
+        Instant.now());
+    }
+
+    /**
+     * Gets the delay requested by a Retry-After header given in seconds.
+     *
+     * @param xResponse the response
+     * @return the delay in milliseconds, capped at
+     *         {@link #MAX_RETRY_AFTER}, or -1 if there is no usable header
+     */
+    private static long retryAfterMillis(final HttpResponse<?> xResponse) {
+        Optional<String> header =
+        xResponse.headers().firstValue("Retry-After");
+        if (header.isEmpty()) {
+            return -1;
+        }
+        try {
+            long seconds = Long.parseLong(header.get().trim());
+            if (seconds < 0) {
+                return -1;
+            }
+            return Math.min(Duration.ofSeconds(seconds).toMillis(),
+            MAX_RETRY_AFTER.toMillis());
+        } catch (NumberFormatException e) {
+            return -1;
+        }
+    }
+
+    /**
+     * Gets the host key of an endpoint, used to share permits and breakers.
+     *
+     * @param xEndpoint the endpoint
+     * @return host and port, or null if the endpoint is not an HTTP URI
+     */
+    private static String hostOf(final URI xEndpoint) {
+        String scheme = xEndpoint.getScheme();
+        if (xEndpoint.getHost() == null || scheme == null
+            || !scheme.regionMatches(true, 0, "http", 0, "http".length())) {
+            return null;
+        }
+        return xEndpoint.getHost() + ":" + xEndpoint.getPort();
+    }
+
+    /**
+     * Gets the circuit breaker state of a host.
+     *
+     * @param xEndpoint an endpoint on the host
+     * @return the state, or CLOSED if no request was sent to the host yet
+     */
+    public CircuitBreaker.State getCircuitState(final URI xEndpoint) {
+        String host = hostOf(xEndpoint);
+        CircuitBreaker breaker = host == null ? null : breakers.get(host);
+        return breaker == null ? CircuitBreaker.State.CLOSED
+        : breaker.getState();
+    }
+
+    /**
+     * Gets harvester statistics.
+     *
+     * @return requests sent, retries, endpoints that failed or were
+     *         skipped, and hosts whose breaker is open
+     */
+    public Map<String, Object> getStatistics() {
+        long open = breakers.values().stream()
+        .filter(b -> b.getState() != CircuitBreaker.State.CLOSED).count();
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("requests", requests.sum());
+        stats.put("retries", retries.sum());
+        stats.put("failures", failures.sum());
+        stats.put("shortCircuited", shortCircuited.sum());
+        stats.put("openCircuits", open);
+        return stats;
+    }
+
+    /** Stops the HTTP client and any fetches in flight. */
+    @Override
+    public void close() {
+        client.shutdownNow();
+        executor.shutdownNow();
+    }
+}
@@ -0,0 +1,35 @@
+/*
+ * Copyright © 2025 EOSC Beyond (${email})
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package eoscbeyond.eu;
+
+import java.net.URI;
+import java.time.Instant;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+
+/**
+ * Metadata published by a capability endpoint, as harvested by
+ * {@code CapabilityHarvester}.
+ *
+ * @param endpoint    address of the capability endpoint
+ * @param description service description declared by the endpoint
+ * @param version     version declared by the endpoint
+ * @param harvestedAt when the metadata was fetched
+ */
+@Schema(description = "Metadata harvested from a capability endpoint.")
+public record CapabilityMetadata(URI endpoint, String description,
+        String version, Instant harvestedAt) {
+}
@@ -0,0 +1,29 @@
+/*
+ * Copyright © 2025 EOSC Beyond (${email})
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package eoscbeyond.eu;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+
+/**
+ * A capability endpoint chosen by {@code CapabilityRouter}, with the node
+ * that offers it.
+ *
+ * @param nodeId     ID of the node that offers the capability
+ * @param capability the capability, with its endpoint and version
+ */
+@Schema(description = "Capability endpoint chosen for a request.")
+public record CapabilityRoute(String nodeId, EoscCapability capability) {
+}
@@ -0,0 +1,410 @@
+/*
+ * Copyright © 2025 EOSC Beyond (${email})
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package eoscbeyond.eu;
+
+import java.net.URI;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * The {@code CapabilityRouter} class picks one endpoint for a capability
+ * from all the nodes that offer it.
+ * <p>
+ * Three strategies are supported:
+ * </p>
+ * <ul>
+ * <li>{@link Strategy#ROUND_ROBIN} cycles through the endpoints in
+ * interleaved rounds, visiting each in proportion to its weight. An
+ * endpoint's weight is inversely proportional to its average latency, so
+ * slow endpoints get less traffic.</li>
+ * <li>{@link Strategy#LEAST_LATENCY} picks the endpoint with the lowest
+ * average latency. Endpoints without a latency yet are tried first.</li>
+ * <li>{@link Strategy#HASH} picks an endpoint by rendezvous hashing of a
+ * client key, so a client keeps getting the same endpoint, and only the
+ * clients of an endpoint move when it is added, removed or failing.</li>
+ * </ul>
+ *
+ * <p>
+ * Latencies come from the capability metadata harvester and from client
+ * feedback, and are kept as an exponentially weighted moving average per
+ * endpoint. A failure counts as a latency of {@link #FAILURE_PENALTY_NANOS},
+ * and no latency counts as more. The latencies of endpoints no node offers
+ * any more are dropped as the registry changes. All state is held in
+ * concurrent maps and atomic longs, so routing takes no lock. The
+ * candidate endpoints of a capability, with their latency cells and
+ * hashes, are listed once per registry version.
+ * </p>
+ *
+ * <p>
+ * Example usage:
+ * </p>
+ *
+ * <pre>
+ * CapabilityRouter router = CapabilityRouter.getInstance();
+ * CapabilityRoute route = router.route("Resource Catalogue",
+ *         CapabilityRouter.Strategy.LEAST_LATENCY, null);
+ * router.recordLatency(route.capability().getEndpoint(), elapsedNanos);
+ * </pre>
+ *
+ */
+public class CapabilityRouter {
+    /** Routing strategies. */
+    public enum Strategy {
+        /** Weighted round-robin. */
+        ROUND_ROBIN,
+        /** Lowest average latency. */
+        LEAST_LATENCY,
+        /** Rendezvous hashing of a client key. */
+        HASH;
+
+        /**
+         * Gets the strategy named by a request parameter, such as
+         * "round-robin".
+         *
+         * @param xName the parameter value
+         * @return the strategy
+         * @throws IllegalArgumentException if there is no such strategy
+         */
+        public static Strategy fromParameter(final String xName) {
+            return valueOf(xName.trim().toUpperCase(Locale.ROOT)
+                .replace('-', '_'));
+        }
+    }
+
+    /** Latency recorded for a failed request, in nanoseconds. */
+    static final long FAILURE_PENALTY_NANOS = TimeUnit.SECONDS.toNanos(10);
+    /** Average latency at or above which an endpoint counts as failing. */
+    static final long FAILING_NANOS = FAILURE_PENALTY_NANOS / 2;
+    /** Weight of the fastest endpoint in weighted round-robin. */
+    static final int MAX_WEIGHT = 16;
+    /** Shift giving the weight of a new sample in the average (1/8). */
+    private static final int EWMA_SHIFT = 3;
+    /** Latency not recorded yet. */
+    private static final long UNKNOWN = -1;
+    /** Multiplier spreading endpoint hashes, from the golden ratio. */
+    static final long GOLDEN = 0x9E3779B97F4A7C15L;
+
+    /** The sole shared instance. */
+    private static final CapabilityRouter INSTANCE =
+    new CapabilityRouter(NodeRegistry.getInstance());
+
+    /** Registry the endpoints come from. */
+    private final NodeRegistry nodeRegistry;
+    /** Candidate endpoints, by capability name. */
+    private final Map<String, Candidates> candidates =
+    new ConcurrentHashMap<>();
+    /** Average latency in nanoseconds, by endpoint. */
+    private final Map<URI, AtomicLong> latencies = new ConcurrentHashMap<>();
+
+    /** Number of requests routed, by strategy. */
+    private final LongAdder[] routed = new LongAdder[Strategy.values()
+        .length];
+    /** Number of latency samples and failures recorded. */
+    private final LongAdder samples = new LongAdder();
+
+    /**
+     * Constructor.
+     *
+     * @param xNodeRegistry registry the endpoints come from
+     */
+    CapabilityRouter(final NodeRegistry xNodeRegistry) {
+        this.nodeRegistry = xNodeRegistry;
+        for (int i = 0; i < routed.length; i++) {
+            routed[i] = new LongAdder();
+        }
+        xNodeRegistry.addListener(this::prune);
+    }
+
+    /**
+     * Gets the shared router for the sole NodeRegistry instance.
+     *
+     * @return the router
+     */
+    public static CapabilityRouter getInstance() {
+        return INSTANCE;
+    }
+
+    /**
+     * Picks an endpoint for a capability.
+     *
+     * @param xCapability the capability name
+     * @param xStrategy   the routing strategy
+     * @param xKey        client key, used by {@link Strategy#HASH}
+     * @return the chosen endpoint, or null if no node offers the
+     *         capability
+     */
+    public CapabilityRoute route(final String xCapability,
+            final Strategy xStrategy, final String xKey) {
+        Candidates current = candidatesFor(xCapability.trim());
+        if (current == null) {
+            return null;
+        }
+        routed[xStrategy.ordinal()].increment();
+        int index = switch (xStrategy) {
+            case ROUND_ROBIN -> roundRobin(current);
+            case LEAST_LATENCY -> leastLatency(current);
+            case HASH -> rendezvous(current, xKey == null ? "" : xKey);
+        };
+        return current.routes()[index];
+    }
+
+    /**
+     * Records the latency of a successful request to an endpoint. A latency
+     * above {@link #FAILURE_PENALTY_NANOS} counts as that, so one sample
+     * cannot hold an endpoint back for longer than a failure does.
+     *
+     * @param xEndpoint the endpoint
+     * @param xNanos    the latency, in nanoseconds
+     */
+    public void recordLatency(final URI xEndpoint, final long xNanos) {
+        AtomicLong average = latency(xEndpoint);
+        long sample = Math.min(Math.max(0, xNanos), FAILURE_PENALTY_NANOS);
+        samples.increment();
+        while (true) {
+            long current = average.get();
+            long next = current == UNKNOWN ? sample
+            : current + ((sample - current) >> EWMA_SHIFT);
+            if (average.compareAndSet(current, next)) {
+                return;
+            }
+        }
+    }
+
+    /**
+     * Records a failed request to an endpoint.
+     *
+     * @param xEndpoint the endpoint
+     */
+    public void recordFailure(final URI xEndpoint) {
+        recordLatency(xEndpoint, FAILURE_PENALTY_NANOS);
+    }
+
+    /**
+     * Gets the average latency of an endpoint.
+     *
+     * @param xEndpoint the endpoint
+     * @return the average latency in nanoseconds, or -1 if none has been
+     *         recorded
+     */
+    public long getLatency(final URI xEndpoint) {
+        AtomicLong average = latencies.get(xEndpoint);
+        return average == null ? UNKNOWN : average.get();
+    }
+
+    /**
+     * Gets routing statistics.
+     *
+     * @return requests routed per strategy, latency samples recorded and
+     *         endpoints tracked
+     */
+    public Map<String, Object> getStatistics() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        for (Strategy strategy : Strategy.values()) {
+            stats.put(strategy.name().toLowerCase(Locale.ROOT)
+                .replace('_', '-'), routed[strategy.ordinal()].sum());
+        }
+        stats.put("samples", samples.sum());
+        stats.put("endpoints", latencies.size());
+        return stats;
+    }
+
+    /**
+     * Drops the latencies of endpoints no node offers after a change. Only
+     * the endpoints of the node replaced or removed are checked, unless the
+     * whole node list was replaced or the version before the change is no
+     * longer in the history. Called by the registry, holding its lock.
+     *
+     * @param xChange the change
+     */
+    private void prune(final NodeRegistry.Change xChange) {
+        Set<URI> endpoints = nodeRegistry.getSnapshot()
+            .getCapabilityEndpoints();
+        RegistrySnapshot previous = xChange.isReload() ? null
+        : nodeRegistry.getHistory().atVersion(xChange.version() - 1);
+        if (previous == null) {
+            latencies.keySet().retainAll(endpoints);
+            return;
+        }
+        EoscNode old = previous.getNode(xChange.node() != null
+            ? xChange.node().getId() : xChange.removedId());
+        if (old == null || old.getCapabilityList() == null) {
+            return;
+        }
+        for (EoscCapability capability : old.getCapabilityList()) {
+            URI endpoint = capability.getEndpoint();
+            if (endpoint != null && !endpoints.contains(endpoint)) {
+                latencies.remove(endpoint);
+            }
+        }
+    }
+
+    /**
+     * Gets the candidate endpoints of a capability for the current
+     * registry version, listing them if needed.
+     *
+     * @param xCapability the trimmed capability name
+     * @return the candidates, or null if no node offers the capability
+     */
+    private Candidates candidatesFor(final String xCapability) {
+        RegistrySnapshot snapshot = nodeRegistry.getSnapshot();
+        Candidates current = candidates.get(xCapability);
+        if (current != null && current.version() == snapshot.getVersion()) {
+            return current;
+        }
+        List<CapabilityRoute> routes = new ArrayList<>();
+        for (EoscNode node : snapshot.getNodesWithCapability(xCapability)) {
+            for (EoscCapability capability : node.getCapabilityList()) {
+                if (capability.getCapabilityType() != null
+                    && capability.getEndpoint() != null
+                    && capability.getCapabilityType().trim()
+                    .equals(xCapability)) {
+                    routes.add(new CapabilityRoute(node.getId(), capability));
+                }
+            }
+        }
+        if (routes.isEmpty()) {
+            candidates.remove(xCapability);
+            return null;
+        }
+        AtomicLong[] averages = new AtomicLong[routes.size()];
+        long[] hashes = new long[routes.size()];
+        for (int i = 0; i < averages.length; i++) {
+            URI endpoint = routes.get(i).capability().getEndpoint();
+            averages[i] = latency(endpoint);
+            hashes[i] = mix(GOLDEN * endpoint.hashCode());
+        }
+        // the round-robin position carries over to the new version
+        Candidates listed = new Candidates(snapshot.getVersion(),
+            routes.toArray(new CapabilityRoute[0]), averages, hashes,
+            current == null ? new AtomicLong() : current.next());
+        candidates.put(xCapability, listed);
+        return listed;
+    }
+
+    private int roundRobin(final Candidates xCandidates) {
+        AtomicLong[] latencyCells = xCandidates.latencies();
+        long fastest = Long.MAX_VALUE;
+        long[] averages = new long[latencyCells.length];
+        for (int i = 0; i < averages.length; i++) {
+            averages[i] = latencyCells[i].get();
+            if (averages[i] > 0 && averages[i] < fastest) {
+                fastest = averages[i];
+            }
+        }
+        int[] weights = new int[averages.length];
+        int total = 0;
+        for (int i = 0; i < averages.length; i++) {
+            weights[i] = averages[i] <= 0 || fastest == Long.MAX_VALUE
+            ? MAX_WEIGHT
+            : (int) Math.max(1, MAX_WEIGHT * fastest / averages[i]);
+            total += weights[i];
+        }
+        // interleave: round r visits every endpoint whose weight exceeds r
+        long position = Math.floorMod(xCandidates.next().getAndIncrement(),
+            (long) total);
+        for (int round = 0; round < MAX_WEIGHT; round++) {
+            for (int i = 0; i < weights.length; i++) {
+                if (weights[i] > round && position-- == 0) {
+                    return i;
+                }
+            }
+        }
+        return weights.length - 1;
+    }
+
+    private int leastLatency(final Candidates xCandidates) {
+        AtomicLong[] latencyCells = xCandidates.latencies();
+        int best = 0;
+        long bestLatency = Long.MAX_VALUE;
+        for (int i = 0; i < latencyCells.length; i++) {
+            long latency = latencyCells[i].get();
+            if (latency < bestLatency) {
+                best = i;
+                bestLatency = latency;
+            }
+        }
+        return best;
+    }
+
+    private int rendezvous(final Candidates xCandidates, final String xKey) {
+        AtomicLong[] latencyCells = xCandidates.latencies();
+        long[] hashes = xCandidates.hashes();
+        long keyHash = xKey.hashCode();
+        int best = -1;
+        long bestScore = 0;
+        boolean bestFailing = true;
+        for (int i = 0; i < hashes.length; i++) {
+            long score = mix(keyHash ^ hashes[i]);
+            boolean failing = latencyCells[i].get() >= FAILING_NANOS;
+            // a healthy endpoint beats a failing one whatever the score
+            if (best < 0 || (bestFailing && !failing)
+                || (failing == bestFailing && score > bestScore)) {
+                best = i;
+                bestScore = score;
+                bestFailing = failing;
+            }
+        }
+        return best;
+    }
+
+    /**
+     * Gets the average latency cell of an endpoint, creating it if needed.
+     *
+     * @param xEndpoint the endpoint
+     * @return the cell, holding -1 until a latency is recorded
+     */
+    private AtomicLong latency(final URI xEndpoint) {
+        return latencies.computeIfAbsent(xEndpoint,
+            e -> new AtomicLong(UNKNOWN));
+    }
+
+    /**
+     * Mixes the bits of a hash (the MurmurHash3 finaliser).
+     *
+     * @param xHash the hash
+     * @return the mixed hash
+     */
+    static long mix(final long xHash) {
+        long h = xHash;
+        h ^= h >>> 33;
+        h *= 0xFF51AFD7ED558CCDL;
+        h ^= h >>> 33;
+        h *= 0xC4CEB9FE1A85EC53L;
+        h ^= h >>> 33;
+        return h;
+    }
+
+    /**
+     * Candidate endpoints of a capability at one registry version.
+     *
+     * @param version   registry version the candidates were listed from
+     * @param routes    the candidate endpoints, in registry order
+     * @param latencies average latency cells of the endpoints
+     * @param hashes    mixed hashes of the endpoints
+     * @param next      round-robin position
+     */
+    private record Candidates(long version, CapabilityRoute[] routes,
+            AtomicLong[] latencies, long[] hashes, AtomicLong next) {
+    }
+}
@@ -0,0 +1,150 @@
+/*
+ * Copyright © 2025 EOSC Beyond (${email})
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package eoscbeyond.eu;
+
+import java.time.Duration;
+import java.util.function.LongSupplier;
+
+/**
+ * The {@code CircuitBreaker} class stops requests to a host that keeps
+ * failing.
+ * <p>
+ * The breaker starts closed. After a number of consecutive failures it
+ * opens and rejects requests until the open duration has passed. It then
+ * lets a single trial request through (half open): if the trial succeeds
+ * the breaker closes, otherwise it opens again for another open duration.
+ * A trial that ends without an outcome, for example because its thread was
+ * interrupted, must be released so that another trial can be made.
+ * </p>
+ *
+ * <p>
+ * Example usage:
+ * </p>
+ *
+ * <pre>
+ * if (breaker.allowRequest()) {
+ *     try {
+ *         send(request);
+ *         breaker.recordSuccess();
+ *     } catch (IOException e) {
+ *         breaker.recordFailure();
+ *     }
+ * }
+ * </pre>
+ *
+ */
+public final class CircuitBreaker {
+    /** States of a circuit breaker. */
+    public enum State {
+        /** Requests pass. */
+        CLOSED,
+        /** Requests are rejected. */
+        OPEN,
+        /** One trial request is in flight. */
+        HALF_OPEN
+    }
+
+    /** Consecutive failures that open the breaker. */
+    private final int failureThreshold;
+    /** Time the breaker stays open, in nanoseconds. */
+    private final long openNanos;
+    /** Source of the current time, in nanoseconds. */
+    private final LongSupplier clock;
+
+    /** Current state. */
+    private State state = State.CLOSED;
+    /** Consecutive failures while closed. */
+    private int failures;
+    /** Time the breaker last opened, in nanoseconds. */
+    private long openedAt;
+
+    /**
+     * Creates a circuit breaker.
+     *
+     * @param xFailureThreshold consecutive failures that open the breaker
+     * @param xOpenDuration     time the breaker stays open
+     */
+    public CircuitBreaker(final int xFailureThreshold,
+            final Duration xOpenDuration) {
+        this(xFailureThreshold, xOpenDuration, System::nanoTime);
+    }
+
+    /**
+     * Creates a circuit breaker with a given clock, for tests.
+     *
+     * @param xFailureThreshold consecutive failures that open the breaker
+     * @param xOpenDuration     time the breaker stays open
+     * @param xClock            source of the current time, in nanoseconds
+     */
+    CircuitBreaker(final int xFailureThreshold, final Duration xOpenDuration,
+            final LongSupplier xClock) {
+        this.failureThreshold = xFailureThreshold;
+        this.openNanos = xOpenDuration.toNanos();
+        this.clock = xClock;
+    }
+
+    /**
+     * Checks whether a request may be sent. When the open duration has
+     * passed, the first caller is let through as the trial request.
+     *
+     * @return true if the request may be sent
+     */
+    public synchronized boolean allowRequest() {
+        if (state == State.OPEN
+            && clock.getAsLong() - openedAt >= openNanos) {
+            state = State.HALF_OPEN;
+            return true;
+        }
+        return state == State.CLOSED;
+    }
+
+    /** Records a successful request, closing the breaker. */
+    public synchronized void recordSuccess() {
+        state = State.CLOSED;
+        failures = 0;
+    }
+
+    /** Records a failed request, opening the breaker if needed. */
+    public synchronized void recordFailure() {
+        failures++;
+        if (state == State.HALF_OPEN || failures >= failureThreshold) {
+            state = State.OPEN;
+            openedAt = clock.getAsLong();
+            failures = 0;
+        }
+    }
+
+    /**
+     * Ends a trial request that has neither succeeded nor failed. The
+     * breaker opens again with its open duration already passed, so the
+     * next caller makes a new trial. Does nothing unless a trial is in
+     * flight.
+     */
+    public synchronized void releaseTrial() {
+        if (state == State.HALF_OPEN) {
+            state = State.OPEN;
+        }
+    }
+
+    /**
+     * Gets the current state.
+     *
+     * @return the state
+     */
+    public synchronized State getState() {
+        return state;
+    }
+}
@@ -0,0 +1,105 @@
+/*
+ * Copyright © 2025 EOSC Beyond (${email})
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package eoscbeyond.eu;
+
+import java.util.Collection;
+import java.util.Set;
+
+import eoscbeyond.eu.data.RateLimitConfiguration;
+import jakarta.servlet.http.HttpServletRequest;
+
+/**
+ * The {@code ClientKeys} class tells which client a request comes from, for
+ * the per-client rate limits.
+ * <p>
+ * A client is identified by its remote address. Behind a proxy this is the
+ * address the proxy forwarded for, provided
+ * {@code server.forward-headers-strategy} is set and the proxy is trusted by
+ * it; otherwise every client shares the proxy's allowance. The client key
+ * header is only believed from the configured trusted addresses, such as
+ * the routers of a sharded registry or a gateway that authenticates
+ * clients. Taken from anyone else, a client could send a new key with every
+ * request and get a fresh allowance each time.
+ * </p>
+ *
+ * <p>
+ * Example usage:
+ * </p>
+ *
+ * <pre>
+ * ClientKeys keys = ClientKeys.of(RateLimitConfiguration.defaults());
+ * String client = keys.clientOf(request);
+ * </pre>
+ *
+ */
+final class ClientKeys {
+    /** Header carrying the client key. */
+    private final String header;
+    /** Remote addresses whose client key header is believed. */
+    private final Set<String> trustedAddresses;
+
+    /**
+     * Constructor.
+     *
+     * @param xHeader           header carrying the client key
+     * @param xTrustedAddresses remote addresses whose client key header is
+     *                          believed
+     */
+    ClientKeys(final String xHeader,
+            final Collection<String> xTrustedAddresses) {
+        this.header = xHeader;
+        this.trustedAddresses = Set.copyOf(xTrustedAddresses);
+    }
+
+    /**
+     * Creates the client keys of the rate limit settings.
+     *
+     * @param xConfig rate limit settings
+     * @return the client keys
+     */
+    static ClientKeys of(final RateLimitConfiguration xConfig) {
+        return new ClientKeys(xConfig.clientHeader(),
+            xConfig.trustedAddresses());
+    }
+
+    /**
+     * Gets the header carrying the client key.
+     *
+     * @return the header name
+     */
+    String getHeader() {
+        return header;
+    }
+
+    /**
+     * Gets the client a request comes from.
+     *
+     * @param xRequest the request
+     * @return the client key header, if the request comes from a trusted
+     *         address and has one, otherwise the remote address
+     */
+    String clientOf(final HttpServletRequest xRequest) {
+        String address = xRequest.getRemoteAddr();
+        if (trustedAddresses.contains(address)) {
+            String client = xRequest.getHeader(header);
+            if (client != null && !client.isEmpty()) {
+                return client;
+            }
+        }
+        return address;
+    }
+}
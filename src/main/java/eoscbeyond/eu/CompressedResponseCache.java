@@ -0,0 +1,370 @@
+/*
+ * Copyright © 2025 EOSC Beyond (${email})
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package eoscbeyond.eu;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.LinkedHashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+import java.util.zip.Deflater;
+import java.util.zip.DeflaterOutputStream;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * The {@code CompressedResponseCache} class holds response bodies that have
+ * been serialised and compressed once per registry version.
+ * <p>
+ * The node JSON served by {@code NodeRegistryController} is highly repetitive
+ * (the same capability names and endpoints appear on every node), so it
+ * compresses very well. Each body is stored in identity, gzip and deflate
+ * form; repeat requests for the same registry version are served straight
+ * from the cache without any serialisation or compression work. Concurrent
+ * misses for the same key share one serialisation and compression.
+ * </p>
+ *
+ * <p>
+ * Example usage:
+ * </p>
+ *
+ * <pre>
+ * CompressedResponseCache cache = new CompressedResponseCache();
+ * CompressedResponseCache.CompressedBody body = cache.get("nodes",
+ *         registry.getVersion(), () -> serialise(registry.getNodes()));
+ * Encoding encoding = CompressedResponseCache.negotiate("gzip, br");
+ * byte[] bytes = body.bytes(encoding);
+ * </pre>
+ *
+ */
+public class CompressedResponseCache {
+    /** Cached bodies, keyed by response key. */
+    private final Map<String, CompressedBody> entries =
+    new ConcurrentHashMap<>();
+    /** Most recent registry version seen by the cache. */
+    private final AtomicLong latestVersion = new AtomicLong(-1);
+    /** Bodies being built, by version and key. */
+    private final SingleFlight<Flight, CompressedBody> flights =
+    new SingleFlight<>();
+    /** Number of requests served from the cache. */
+    private final LongAdder hits = new LongAdder();
+    /** Number of requests that had to build a body. */
+    private final LongAdder misses = new LongAdder();
+    /** Total uncompressed bytes of the bodies built. */
+    private final LongAdder identityBytes = new LongAdder();
+    /** Total gzip bytes of the bodies built. */
+    private final LongAdder gzipBytes = new LongAdder();
+    /** Total deflate bytes of the bodies built. */
+    private final LongAdder deflateBytes = new LongAdder();
+
+    /**
+     * Content codings supported by the cache.
+     */
+    public enum Encoding {
+        /** No compression. */
+        IDENTITY("identity"),
+        /** gzip compression. */
+        GZIP("gzip"),
+        /** zlib (deflate) compression. */
+        DEFLATE("deflate");
+
+        /** Token used in the Accept-Encoding and Content-Encoding headers. */
+        private final String token;
+
+        Encoding(final String xToken) {
+            this.token = xToken;
+        }
+
+        /**
+         * Gets the HTTP content-coding token.
+         *
+         * @return the content-coding token
+         */
+        public String getToken() {
+            return token;
+        }
+    }
+
+    /**
+     * A body serialised for a given registry version, in every supported
+     * encoding.
+     *
+     * @param version  registry version the body was built from
+     * @param identity uncompressed body
+     * @param gzip     gzip compressed body
+     * @param deflate  deflate compressed body
+     */
+    public record CompressedBody(long version, byte[] identity, byte[] gzip,
+            byte[] deflate) {
+
+        /**
+         * Gets the body in the requested encoding.
+         *
+         * @param xEncoding the content coding
+         * @return the encoded bytes
+         */
+        public byte[] bytes(final Encoding xEncoding) {
+            return switch (xEncoding) {
+                case GZIP -> gzip;
+                case DEFLATE -> deflate;
+                default -> identity;
+            };
+        }
+    }
+
+    /**
+     * Gets the cached body for a key, building and compressing it if it is
+     * absent or was built from an older registry version.
+     *
+     * @param xKey      the response key, e.g. "nodes" or "node:1"
+     * @param xVersion  the current registry version
+     * @param xSupplier builds the uncompressed body; may return null if
+     *                  there is nothing to serve, in which case nothing is
+     *                  cached
+     * @return the cached body, or null if the supplier returned null
+     */
+    public CompressedBody get(final String xKey, final long xVersion,
+            final Supplier<byte[]> xSupplier) {
+        evictOlderThan(xVersion);
+        CompressedBody body = entries.get(xKey);
+        if (body != null && body.version() == xVersion) {
+            hits.increment();
+            return body;
+        }
+        misses.increment();
+        return flights.execute(new Flight(xVersion, xKey),
+            () -> build(xKey, xVersion, xSupplier));
+    }
+
+    /**
+     * Builds, compresses and caches a body, unless a computation that
+     * finished since the cache was checked has done so already.
+     *
+     * @param xKey      the response key
+     * @param xVersion  the current registry version
+     * @param xSupplier builds the uncompressed body
+     * @return the cached body, or null if the supplier returned null
+     */
+    private CompressedBody build(final String xKey, final long xVersion,
+            final Supplier<byte[]> xSupplier) {
+        CompressedBody body = entries.get(xKey);
+        if (body != null && body.version() == xVersion) {
+            return body;
+        }
+        byte[] identity = xSupplier.get();
+        if (identity == null) {
+            return null;
+        }
+        body = new CompressedBody(xVersion, identity, gzip(identity),
+        deflate(identity));
+        identityBytes.add(body.identity().length);
+        gzipBytes.add(body.gzip().length);
+        deflateBytes.add(body.deflate().length);
+        entries.put(xKey, body);
+        return body;
+    }
+
+    /**
+     * Chooses the preferred supported encoding from an Accept-Encoding header.
+     * Codings with a higher quality value win; on a tie gzip is preferred over
+     * deflate, and both over identity. Unsupported codings such as br are
+     * ignored. Identity is acceptable unless the header rules it out, with
+     * {@code identity;q=0}, or with {@code *;q=0} and no identity entry
+     * (RFC 9110, section 12.5.3).
+     *
+     * @param xAcceptEncoding the Accept-Encoding header, may be null
+     * @return the encoding to use for the response, or null if no supported
+     *         encoding is acceptable
+     */
+    public static Encoding negotiate(final String xAcceptEncoding) {
+        if (xAcceptEncoding == null || xAcceptEncoding.isBlank()) {
+            return Encoding.IDENTITY;
+        }
+        Map<String, Double> qualities = qualities(xAcceptEncoding);
+        double wildcard = qualities.getOrDefault("*", 0.0);
+        Encoding best = null;
+        double bestQuality = 0.0;
+        for (Encoding encoding : new Encoding[] {Encoding.GZIP,
+            Encoding.DEFLATE}) {
+            double quality = qualities.getOrDefault(encoding.getToken(),
+            wildcard);
+            if (quality > bestQuality) {
+                best = encoding;
+                bestQuality = quality;
+            }
+        }
+        Double identity = identityQuality(qualities);
+        if (identity == null) {
+            // Acceptable, but not asked for: any accepted coding wins
+            return best != null ? best : Encoding.IDENTITY;
+        }
+        return identity > bestQuality ? Encoding.IDENTITY : best;
+    }
+
+    /**
+     * Tells whether an Accept-Encoding header allows an uncompressed
+     * response, as {@link #negotiate(String)} decides it.
+     *
+     * @param xAcceptEncoding the Accept-Encoding header, may be null
+     * @return true unless the header rules out identity
+     */
+    public static boolean acceptsIdentity(final String xAcceptEncoding) {
+        if (xAcceptEncoding == null || xAcceptEncoding.isBlank()) {
+            return true;
+        }
+        Double identity = identityQuality(qualities(xAcceptEncoding));
+        return identity == null || identity > 0.0;
+    }
+
+    /**
+     * Parses the codings of an Accept-Encoding header and their quality
+     * values. A missing quality value is 1, an invalid one 0.
+     *
+     * @param xAcceptEncoding the Accept-Encoding header
+     * @return quality value by lower case coding, in header order
+     */
+    private static Map<String, Double> qualities(
+            final String xAcceptEncoding) {
+        Map<String, Double> qualities = new LinkedHashMap<>();
+        for (String coding : xAcceptEncoding.split(",")) {
+            String[] parts = coding.split(";");
+            String token = parts[0].trim().toLowerCase(Locale.ROOT);
+            double quality = 1.0;
+            for (int i = 1; i < parts.length; i++) {
+                String param = parts[i].trim();
+                if (param.startsWith("q=")) {
+                    try {
+                        quality = Double.parseDouble(param.substring(2));
+                    } catch (NumberFormatException e) {
+                        quality = 0.0;
+                    }
+                }
+            }
+            qualities.put(token, quality);
+        }
+        return qualities;
+    }
+
+    /**
+     * Gets the quality value a parsed header gives identity: its own entry,
+     * or else the wildcard's.
+     *
+     * @param xQualities quality value by coding
+     * @return the quality value, or null if the header names neither
+     */
+    private static Double identityQuality(
+            final Map<String, Double> xQualities) {
+        return xQualities.getOrDefault(Encoding.IDENTITY.getToken(),
+            xQualities.get("*"));
+    }
+
+    /**
+     * Gets the cache statistics: hit and miss counts, hit rate, misses that
+     * shared another request's body, and the compression ratio (compressed
+     * size over identity size) of each encoding.
+     *
+     * @return map of statistic name to value
+     */
+    public Map<String, Object> getStatistics() {
+        long hitCount = hits.sum();
+        long missCount = misses.sum();
+        long requests = hitCount + missCount;
+        long identity = identityBytes.sum();
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("version", latestVersion.get());
+        stats.put("entries", entries.size());
+        stats.put("hits", hitCount);
+        stats.put("misses", missCount);
+        stats.put("hitRate", requests == 0 ? 0.0
+        : (double) hitCount / requests);
+        stats.put("coalesced", flights.getShared());
+        stats.put("identityBytes", identity);
+        stats.put("gzipRatio", identity == 0 ? 0.0
+        : (double) gzipBytes.sum() / identity);
+        stats.put("deflateRatio", identity == 0 ? 0.0
+        : (double) deflateBytes.sum() / identity);
+        return stats;
+    }
+
+    /**
+     * Drops every entry built from a version older than the given one. Runs
+     * at most once per new registry version.
+     *
+     * @param xVersion the current registry version
+     */
+    private void evictOlderThan(final long xVersion) {
+        long seen = latestVersion.get();
+        if (xVersion > seen && latestVersion.compareAndSet(seen, xVersion)) {
+            entries.values().removeIf(body -> body.version() < xVersion);
+        }
+    }
+
+    /**
+     * Compresses bytes using gzip.
+     *
+     * @param xBytes the bytes to compress
+     * @return the compressed bytes
+     */
+    static byte[] gzip(final byte[] xBytes) {
+        ByteArrayOutputStream out = new ByteArrayOutputStream(
+            xBytes.length / 2 + 1);
+        try (GZIPOutputStream gz = new GZIPOutputStream(out) {
+            {
+                def.setLevel(Deflater.BEST_COMPRESSION);
+            }
+        }) {
+            gz.write(xBytes);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return out.toByteArray();
+    }
+
+    /**
+     * Compresses bytes using zlib (HTTP "deflate").
+     *
+     * @param xBytes the bytes to compress
+     * @return the compressed bytes
+     */
+    static byte[] deflate(final byte[] xBytes) {
+        ByteArrayOutputStream out = new ByteArrayOutputStream(
+            xBytes.length / 2 + 1);
+        Deflater deflater = new Deflater(Deflater.BEST_COMPRESSION);
+        try (DeflaterOutputStream df = new DeflaterOutputStream(out,
+        deflater)) {
+            df.write(xBytes);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        } finally {
+            deflater.end();
+        }
+        return out.toByteArray();
+    }
+
+    /**
+     * Key of a body being built.
+     *
+     * @param version registry version
+     * @param key     the response key
+     */
+    private record Flight(long version, String key) {
+    }
+}
@@ -18,8 +18,6 @@ package eoscbeyond.eu;
 
 import java.net.URI;
 
-import com.google.gson.Gson;
-
 /**
  * The {@code EoscCapability} class represents a capability that an EOSC
  * (European Open Science Cloud) node can offer.
@@ -126,7 +124,6 @@ public class EoscCapability {
    * @return JSON string representation of this object
    */
   public String toJson() {
-    Gson gson = new Gson();
-    return gson.toJson(this);
+    return NodeJsonWriter.local().writeCapability(this).toString();
   }
 }
@@ -20,7 +20,7 @@ import java.net.URI;
 import java.util.ArrayList;
 import java.util.List;
 
-import com.google.gson.Gson;
+import com.fasterxml.jackson.annotation.JsonIgnore;
 
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.Parameter;
@@ -247,8 +247,7 @@ public class EoscNode {
      * @return JSON string representation of this object
      */
     public String toJson() {
-        Gson gson = new Gson();
-        return gson.toJson(this);
+        return NodeJsonWriter.local().writeNode(this).toString();
     }
 
     /**
@@ -256,6 +255,7 @@ public class EoscNode {
      *
      * @return the list of capability names as an array of Strings
      */
+    @JsonIgnore
     public List<String> getCapabilityNames() {
         ArrayList<String> capabilityNames = new ArrayList<>();
         String capabilityType = null;
@@ -272,18 +272,22 @@ public class EoscNode {
      *
      * @return a JSON string representation of the endpoint and list of
      *         capabilities
+     * @deprecated the labelled list of strings is awkward to parse; use
+     *             {@link NodeSummary#of(EoscNode)} instead
      */
+    @Deprecated
+    @JsonIgnore
     @Operation(summary = "Get basic node info", description =
     "Retrieves basic information (nodendpoint and capabilities)")
     public String getBasicNodeInfo() {
-        Gson gson = new Gson();
         String endpoint = this.getNodeEndpoint().toString();
         List<String> basicInfo = new ArrayList<>();
-        String caps = gson.toJson(this.getCapabilityList());
+        String caps = NodeJsonWriter.local().writeCapabilities(
+            this.getCapabilityList()).toString();
         basicInfo.add("node endpoint:");
         basicInfo.add(endpoint);
         basicInfo.add("capabilities:");
         basicInfo.add(caps);
-        return gson.toJson(basicInfo);
+        return NodeJsonWriter.local().writeStrings(basicInfo).toString();
     }
 }
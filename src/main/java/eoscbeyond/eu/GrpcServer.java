@@ -0,0 +1,130 @@
+/*
+ * Copyright © 2025 EOSC Beyond (${email})
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package eoscbeyond.eu;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.apache.logging.log4j.util.Unbox;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.InitializingBean;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import eoscbeyond.eu.data.GrpcConfiguration;
+
+import io.grpc.Grpc;
+import io.grpc.InsecureServerCredentials;
+import io.grpc.Server;
+
+/**
+ * The {@code GrpcServer} class serves the gRPC API of the node registry,
+ * {@link NodeRegistryGrpcService}, on its own port next to the REST API.
+ * <p>
+ * It is only created when {@code grpc.enabled} is {@code true}. On
+ * shutdown, watches are ended and calls in progress are given a few
+ * seconds to complete.
+ * </p>
+ *
+ */
+@Component
+@ConditionalOnProperty(prefix = "grpc", name = "enabled",
+havingValue = "true")
+public class GrpcServer implements InitializingBean, DisposableBean {
+    /** Logger. */
+    private static final Logger LOGGER =
+    LogManager.getLogger(GrpcServer.class);
+    /** Time calls in progress are given to complete on shutdown. */
+    private static final long SHUTDOWN_SECONDS = 5;
+
+    /** gRPC settings. */
+    private final GrpcConfiguration config;
+    /** The service served. */
+    private final NodeRegistryGrpcService service;
+    /** The server; null until started. */
+    private Server server;
+
+    /**
+     * Constructor.
+     *
+     * @param xConfig gRPC settings
+     */
+    @Autowired
+    public GrpcServer(final GrpcConfiguration xConfig) {
+        this(xConfig, NodeRegistry.getInstance());
+    }
+
+    /**
+     * Constructor for tests.
+     *
+     * @param xConfig   gRPC settings
+     * @param xRegistry the node registry served
+     */
+    GrpcServer(final GrpcConfiguration xConfig,
+            final NodeRegistry xRegistry) {
+        this.config = xConfig;
+        this.service = new NodeRegistryGrpcService(xRegistry,
+            xConfig.watchBacklog());
+    }
+
+    /**
+     * Starts the server.
+     *
+     * @throws IOException if the port cannot be bound
+     */
+    @Override
+    public void afterPropertiesSet() throws IOException {
+        server = Grpc.newServerBuilderForPort(config.port(),
+            InsecureServerCredentials.create())
+        .addService(service)
+        .build()
+        .start();
+        LOGGER.info("gRPC server listening on port {}",
+            Unbox.box(server.getPort()));
+    }
+
+    /**
+     * Stops the server.
+     *
+     * @throws InterruptedException if interrupted while waiting for calls
+     *         to complete
+     */
+    @Override
+    public void destroy() throws InterruptedException {
+        service.close();
+        if (server == null) {
+            return;
+        }
+        server.shutdown();
+        if (!server.awaitTermination(SHUTDOWN_SECONDS, TimeUnit.SECONDS)) {
+            server.shutdownNow();
+        }
+    }
+
+    /**
+     * Gets the port the server listens on.
+     *
+     * @return the port, or -1 if the server has not started
+     */
+    public int getPort() {
+        return server == null ? -1 : server.getPort();
+    }
+}
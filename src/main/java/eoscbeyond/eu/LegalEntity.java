@@ -18,8 +18,6 @@ package eoscbeyond.eu;
 
 import java.net.URI;
 
-import com.google.gson.Gson;
-
 /**
  * The {@code LegalEntity} class represents a legal entity with a name and a
  * ROR (Research Organisation Registry) ID.
@@ -107,7 +105,6 @@ public class LegalEntity {
      * @return JSON string representation of this object
      */
     public String toJson() {
-        Gson gson = new Gson();
-        return gson.toJson(this);
+        return NodeJsonWriter.local().writeLegalEntity(this).toString();
     }
 }
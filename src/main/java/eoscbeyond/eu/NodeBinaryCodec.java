@@ -0,0 +1,333 @@
+/*
+ * Copyright © 2025 EOSC Beyond (${email})
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package eoscbeyond.eu;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.net.URI;
+import java.util.ArrayList;
+import java.util.List;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import com.fasterxml.jackson.dataformat.smile.SmileGenerator;
+
+/**
+ * The {@code NodeBinaryCodec} class encodes and decodes lists of
+ * {@code EoscNode} objects in a compact binary representation intended for
+ * machine-to-machine clients.
+ * <p>
+ * The representation is Smile (binary JSON) with shared property names and
+ * shared string values enabled. The Smile header switches on a per-document
+ * string dictionary, so each capability name, capability endpoint and
+ * version is written once and then referenced by a one or two byte index.
+ * Objects are written and read field by field, without reflection. Fields
+ * with null values are omitted, and unknown fields are skipped on decode.
+ * </p>
+ *
+ * <p>
+ * The logical schema (field names and nesting) is the same as the JSON
+ * representation and is described in the README.
+ * </p>
+ *
+ * <p>
+ * Example usage:
+ * </p>
+ *
+ * <pre>
+ * byte[] bytes = NodeBinaryCodec.encode(registry.getNodes());
+ * List<EoscNode> nodes = NodeBinaryCodec.decode(bytes);
+ * </pre>
+ *
+ */
+public final class NodeBinaryCodec {
+    /** Media type of the binary representation. */
+    public static final String MEDIA_TYPE = "application/x-jackson-smile";
+
+    /** Field name of node ID. */
+    static final String ID = "id";
+    /** Field name of node and legal entity name. */
+    static final String NAME = "name";
+    /** Field name of node logo. */
+    static final String LOGO = "logo";
+    /** Field name of node PID. */
+    static final String PID = "pid";
+    /** Field name of node legal entity. */
+    static final String LEGAL_ENTITY = "legalEntity";
+    /** Field name of legal entity ROR ID. */
+    static final String ROR_ID = "rorId";
+    /** Field name of node endpoint. */
+    static final String NODE_ENDPOINT = "nodeEndpoint";
+    /** Field name of node capability list. */
+    static final String CAPABILITY_LIST = "capabilityList";
+    /** Field name of capability type. */
+    static final String CAPABILITY_TYPE = "capabilityType";
+    /** Field name of capability endpoint. */
+    static final String ENDPOINT = "endpoint";
+    /** Field name of capability version. */
+    static final String VERSION = "version";
+
+    /** Initial size of the encoding buffer, per node. */
+    private static final int BYTES_PER_NODE = 128;
+
+    /** Smile factory with the shared string dictionary switched on. */
+    private static final SmileFactory FACTORY = SmileFactory.builder()
+    .enable(SmileGenerator.Feature.WRITE_HEADER)
+    .enable(SmileGenerator.Feature.CHECK_SHARED_NAMES)
+    .enable(SmileGenerator.Feature.CHECK_SHARED_STRING_VALUES)
+    .build();
+
+    /** Factory of parsers for the JSON representation. */
+    private static final JsonFactory JSON_FACTORY = new JsonFactory();
+
+    /** Utility class - not instantiated. */
+    private NodeBinaryCodec() { }
+
+    /**
+     * Encodes a list of nodes.
+     *
+     * @param xNodes the nodes to encode
+     * @return the binary representation
+     * @throws IOException if the nodes cannot be encoded
+     */
+    public static byte[] encode(final List<EoscNode> xNodes)
+            throws IOException {
+        RegistryEvents.Serialization event =
+        new RegistryEvents.Serialization();
+        event.start();
+        ByteArrayOutputStream out = new ByteArrayOutputStream(
+            BYTES_PER_NODE * xNodes.size() + BYTES_PER_NODE);
+        try (JsonGenerator gen = FACTORY.createGenerator(out)) {
+            gen.writeStartArray();
+            for (EoscNode node : xNodes) {
+                writeNode(gen, node);
+            }
+            gen.writeEndArray();
+        }
+        byte[] bytes = out.toByteArray();
+        event.format = "smile";
+        event.content = "nodes";
+        event.nodes = xNodes.size();
+        event.bytes = bytes.length;
+        event.finish();
+        return bytes;
+    }
+
+    /**
+     * Decodes a list of nodes.
+     *
+     * @param xBytes the binary representation
+     * @return the decoded nodes
+     * @throws IOException if the bytes are not a valid node list
+     */
+    public static List<EoscNode> decode(final byte[] xBytes)
+            throws IOException {
+        List<EoscNode> nodes = new ArrayList<>();
+        try (JsonParser parser = FACTORY.createParser(xBytes)) {
+            expect(parser.nextToken(), JsonToken.START_ARRAY);
+            while (parser.nextToken() == JsonToken.START_OBJECT) {
+                nodes.add(readNode(parser));
+            }
+        }
+        return nodes;
+    }
+
+    /**
+     * Decodes a single node from its JSON representation, which has the
+     * same fields as the binary one.
+     *
+     * @param xJson the JSON object
+     * @return the decoded node
+     * @throws IOException if the bytes are not a valid node object
+     */
+    public static EoscNode decodeJson(final byte[] xJson)
+            throws IOException {
+        try (JsonParser parser = JSON_FACTORY.createParser(xJson)) {
+            expect(parser.nextToken(), JsonToken.START_OBJECT);
+            EoscNode node;
+            try {
+                node = readNode(parser);
+            } catch (IllegalArgumentException e) {
+                throw new IOException("Invalid node data: " + e.getMessage(),
+                    e);
+            }
+            expect(parser.nextToken(), null);
+            return node;
+        }
+    }
+
+    private static void writeNode(final JsonGenerator gen,
+            final EoscNode node) throws IOException {
+        gen.writeStartObject();
+        writeString(gen, ID, node.getId());
+        writeString(gen, NAME, node.getName());
+        writeUri(gen, LOGO, node.getLogo());
+        writeString(gen, PID, node.getPid());
+        LegalEntity legalEntity = node.getLegalEntity();
+        if (legalEntity != null) {
+            gen.writeFieldName(LEGAL_ENTITY);
+            gen.writeStartObject();
+            writeString(gen, NAME, legalEntity.getName());
+            writeUri(gen, ROR_ID, legalEntity.getRorId());
+            gen.writeEndObject();
+        }
+        writeUri(gen, NODE_ENDPOINT, node.getNodeEndpoint());
+        List<EoscCapability> capabilities = node.getCapabilityList();
+        if (capabilities != null) {
+            gen.writeFieldName(CAPABILITY_LIST);
+            gen.writeStartArray();
+            for (EoscCapability capability : capabilities) {
+                gen.writeStartObject();
+                writeString(gen, CAPABILITY_TYPE,
+                capability.getCapabilityType());
+                writeUri(gen, ENDPOINT, capability.getEndpoint());
+                writeString(gen, VERSION, capability.getVersion());
+                gen.writeEndObject();
+            }
+            gen.writeEndArray();
+        }
+        gen.writeEndObject();
+    }
+
+    private static EoscNode readNode(final JsonParser parser)
+            throws IOException {
+        EoscNode node = new EoscNode(null, null, null, null, null, null,
+        null);
+        while (parser.nextToken() == JsonToken.FIELD_NAME) {
+            String field = parser.currentName();
+            JsonToken value = parser.nextToken();
+            switch (field) {
+                case ID -> node.setId(readString(parser));
+                case NAME -> node.setName(readString(parser));
+                case LOGO -> node.setLogo(readUri(parser));
+                case PID -> node.setPid(readString(parser));
+                case LEGAL_ENTITY -> {
+                    if (value != JsonToken.VALUE_NULL) {
+                        expect(value, JsonToken.START_OBJECT);
+                        node.setLegalEntity(readLegalEntity(parser));
+                    }
+                }
+                case NODE_ENDPOINT -> node.setNodeEndpoint(readUri(parser));
+                case CAPABILITY_LIST -> {
+                    if (value != JsonToken.VALUE_NULL) {
+                        expect(value, JsonToken.START_ARRAY);
+                        node.setCapabilityList(readCapabilities(parser));
+                    }
+                }
+                default -> parser.skipChildren();
+            }
+        }
+        return node;
+    }
+
+    private static LegalEntity readLegalEntity(final JsonParser parser)
+            throws IOException {
+        LegalEntity legalEntity = new LegalEntity();
+        while (parser.nextToken() == JsonToken.FIELD_NAME) {
+            String field = parser.currentName();
+            parser.nextToken();
+            switch (field) {
+                case NAME -> legalEntity.setName(readString(parser));
+                case ROR_ID -> legalEntity.setRorId(readUri(parser));
+                default -> parser.skipChildren();
+            }
+        }
+        return legalEntity;
+    }
+
+    private static List<EoscCapability> readCapabilities(
+            final JsonParser parser) throws IOException {
+        List<EoscCapability> capabilities = new ArrayList<>();
+        JsonToken token;
+        while ((token = parser.nextToken()) != JsonToken.END_ARRAY) {
+            expect(token, JsonToken.START_OBJECT);
+            EoscCapability capability = new EoscCapability(null, null, null);
+            while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                String field = parser.currentName();
+                parser.nextToken();
+                switch (field) {
+                    case CAPABILITY_TYPE -> capability.setCapabilityType(
+                        readString(parser));
+                    case ENDPOINT -> capability.setEndpoint(readUri(parser));
+                    case VERSION -> capability.setVersion(readString(parser));
+                    default -> parser.skipChildren();
+                }
+            }
+            capabilities.add(capability);
+        }
+        return capabilities;
+    }
+
+    /**
+     * Reads the current value as a string field.
+     *
+     * @param parser the parser, at the value
+     * @return the string, or null for a JSON null
+     * @throws IOException if the value is a number, boolean, object or
+     *                     array
+     */
+    private static String readString(final JsonParser parser)
+            throws IOException {
+        JsonToken token = parser.currentToken();
+        if (token == JsonToken.VALUE_NULL) {
+            return null;
+        }
+        if (token != JsonToken.VALUE_STRING) {
+            throw new IOException("Invalid node data: expected a string for "
+            + parser.currentName() + " but found " + token);
+        }
+        return parser.getText();
+    }
+
+    /**
+     * Reads the current value as a URI field.
+     *
+     * @param parser the parser, at the value
+     * @return the URI, or null for a JSON null
+     * @throws IOException if the value is not a string or null
+     * @throws IllegalArgumentException if the string is not a URI
+     */
+    private static URI readUri(final JsonParser parser) throws IOException {
+        String value = readString(parser);
+        return value == null ? null : URI.create(value);
+    }
+
+    private static void writeString(final JsonGenerator gen,
+            final String field, final String value) throws IOException {
+        if (value != null) {
+            gen.writeStringField(field, value);
+        }
+    }
+
+    private static void writeUri(final JsonGenerator gen,
+            final String field, final URI value) throws IOException {
+        if (value != null) {
+            gen.writeStringField(field, value.toString());
+        }
+    }
+
+    private static void expect(final JsonToken actual,
+            final JsonToken expected) throws IOException {
+        if (actual != expected) {
+            throw new IOException("Invalid node data: expected " + expected
+            + " but found " + actual);
+        }
+    }
+}
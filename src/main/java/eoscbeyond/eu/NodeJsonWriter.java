@@ -0,0 +1,735 @@
+/*
+ * Copyright © 2025 EOSC Beyond (${email})
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package eoscbeyond.eu;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+
+/**
+ * The {@code NodeJsonWriter} class is the single JSON serialiser for
+ * {@code EoscNode}, {@code LegalEntity} and {@code EoscCapability}.
+ * <p>
+ * It is hand-written and uses no reflection. Objects are written field by
+ * field, in declaration order, straight into a reusable UTF-8 byte buffer.
+ * The output is identical to the default Gson output for the same objects:
+ * null fields are omitted, URIs are written in their ASCII form, and the
+ * characters {@code < > & = '} are escaped as unicode sequences.
+ * </p>
+ *
+ * <p>
+ * A writer is not thread safe and not reentrant. {@link #local()} returns a
+ * cleared per-thread instance, so the buffer is reused across calls.
+ * </p>
+ *
+ * <p>
+ * Example usage:
+ * </p>
+ *
+ * <pre>
+ * byte[] json = NodeJsonWriter.local().writeNodes(nodes).toByteArray();
+ * String nodeJson = NodeJsonWriter.local().writeNode(node).toString();
+ * </pre>
+ *
+ */
+public final class NodeJsonWriter {
+    /** Initial size of the buffer. */
+    private static final int INITIAL_CAPACITY = 1024;
+    /** Buffered bytes after which a streamed batch is flushed. */
+    private static final int FLUSH_THRESHOLD = 1 << 16;
+    /** Largest buffer kept between uses of a per-thread writer, which every
+     * servlet, event loop and gRPC thread keeps: room for a streamed batch,
+     * which may overrun the threshold by a node. */
+    private static final int MAX_RETAINED_CAPACITY = 2 * FLUSH_THRESHOLD;
+    /** First character that needs no escaping. */
+    private static final char FIRST_PRINTABLE = 0x20;
+    /** First character encoded as two UTF-8 bytes. */
+    private static final char TWO_BYTE_START = 0x80;
+    /** First character encoded as three UTF-8 bytes. */
+    private static final char THREE_BYTE_START = 0x800;
+    /** Line separator, escaped for JavaScript safety. */
+    private static final char LINE_SEPARATOR = '\u2028';
+    /** Paragraph separator, escaped for JavaScript safety. */
+    private static final char PARAGRAPH_SEPARATOR = '\u2029';
+    /** UTF-8 lead byte for two byte sequences. */
+    private static final int LEAD_TWO = 0xC0;
+    /** UTF-8 lead byte for three byte sequences. */
+    private static final int LEAD_THREE = 0xE0;
+    /** UTF-8 lead byte for four byte sequences. */
+    private static final int LEAD_FOUR = 0xF0;
+    /** UTF-8 continuation byte marker. */
+    private static final int CONTINUATION = 0x80;
+    /** Mask for the six payload bits of a continuation byte. */
+    private static final int SIX_BITS = 0x3F;
+    /** Bits per continuation byte. */
+    private static final int SHIFT = 6;
+    /** Bits per hex digit. */
+    private static final int NIBBLE = 4;
+    /** Mask for one hex digit. */
+    private static final int NIBBLE_MASK = 0xF;
+    /** Number of hex digits in a unicode escape. */
+    private static final int ESCAPE_DIGITS = 4;
+    /** Hex digits, lower case as written by Gson. */
+    private static final byte[] HEX = "0123456789abcdef".getBytes(
+        StandardCharsets.US_ASCII);
+
+    /** Field name of node ID, including quotes and colon. */
+    private static final byte[] ID = name("id");
+    /** Field name of node and legal entity name. */
+    private static final byte[] NAME = name("name");
+    /** Field name of node logo. */
+    private static final byte[] LOGO = name("logo");
+    /** Field name of node PID. */
+    private static final byte[] PID = name("pid");
+    /** Field name of node legal entity. */
+    private static final byte[] LEGAL_ENTITY = name("legalEntity");
+    /** Field name of legal entity ROR ID. */
+    private static final byte[] ROR_ID = name("rorId");
+    /** Field name of node endpoint. */
+    private static final byte[] NODE_ENDPOINT = name("nodeEndpoint");
+    /** Field name of node capability list. */
+    private static final byte[] CAPABILITY_LIST = name("capabilityList");
+    /** Field name of capability type. */
+    private static final byte[] CAPABILITY_TYPE = name("capabilityType");
+    /** Field name of capability endpoint. */
+    private static final byte[] ENDPOINT = name("endpoint");
+    /** Field name of capability version. */
+    private static final byte[] VERSION = name("version");
+    /** Field name of summary capabilities. */
+    private static final byte[] CAPABILITIES = name("capabilities");
+    /** Field name of the summaries in a batch response. */
+    private static final byte[] SUMMARIES = name("summaries");
+    /** Field name of the nodes in a batch response. */
+    private static final byte[] NODES = name("nodes");
+    /** Field name of the missing IDs in a batch response. */
+    private static final byte[] MISSING = name("missing");
+    /** Field name of capability description. */
+    private static final byte[] DESCRIPTION = name("description");
+    /** Field name of metadata harvest time. */
+    private static final byte[] HARVESTED_AT = name("harvestedAt");
+    /** Field name of the node ID of a route. */
+    private static final byte[] NODE_ID = name("nodeId");
+    /** Field name of the capability of a route. */
+    private static final byte[] CAPABILITY = name("capability");
+    /** Field name of the number of shards searched. */
+    private static final byte[] SHARDS = name("shards");
+    /** Field name of the shards that did not answer in time. */
+    private static final byte[] FAILED = name("failed");
+    /** Field name of the flag telling that results are missing. */
+    private static final byte[] PARTIAL = name("partial");
+    /** JSON null literal. */
+    private static final byte[] NULL = "null".getBytes(
+        StandardCharsets.US_ASCII);
+
+    /** Per-thread writers. */
+    private static final ThreadLocal<NodeJsonWriter> LOCAL =
+    ThreadLocal.withInitial(NodeJsonWriter::new);
+
+    /** Output buffer. */
+    private byte[] buffer = new byte[INITIAL_CAPACITY];
+    /** Number of bytes written to the buffer. */
+    private int length;
+
+    /**
+     * Gets the cleared writer for the current thread.
+     *
+     * @return the per-thread writer
+     */
+    public static NodeJsonWriter local() {
+        return LOCAL.get().reset();
+    }
+
+    /**
+     * Clears the writer so the buffer can be reused. Very large buffers are
+     * released rather than kept.
+     *
+     * @return this writer
+     */
+    public NodeJsonWriter reset() {
+        if (buffer.length > MAX_RETAINED_CAPACITY) {
+            buffer = new byte[INITIAL_CAPACITY];
+        }
+        length = 0;
+        return this;
+    }
+
+    /**
+     * Writes a JSON array of nodes.
+     *
+     * @param xNodes the nodes, may be null
+     * @return this writer
+     */
+    public NodeJsonWriter writeNodes(final List<EoscNode> xNodes) {
+        if (xNodes == null) {
+            return writeRaw(NULL);
+        }
+        RegistryEvents.Serialization event = startSerialization();
+        int start = length;
+        put('[');
+        for (int i = 0; i < xNodes.size(); i++) {
+            if (i > 0) {
+                put(',');
+            }
+            writeNode(xNodes.get(i));
+        }
+        put(']');
+        return finishSerialization(event, "nodes", xNodes.size(),
+            length - start);
+    }
+
+    /**
+     * Writes nodes as elements of a JSON array, without the brackets, so
+     * that a large array can be written in chunks.
+     *
+     * @param xNodes the nodes
+     * @param xFirst whether the first node is the first element of the
+     *               array; otherwise it is preceded by a comma
+     * @return this writer
+     */
+    public NodeJsonWriter writeNodeElements(final List<EoscNode> xNodes,
+            final boolean xFirst) {
+        RegistryEvents.Serialization event = startSerialization();
+        int start = length;
+        for (int i = 0; i < xNodes.size(); i++) {
+            if (i > 0 || !xFirst) {
+                put(',');
+            }
+            writeNode(xNodes.get(i));
+        }
+        return finishSerialization(event, "elements", xNodes.size(),
+            length - start);
+    }
+
+    /**
+     * Writes a node as a JSON object.
+     *
+     * @param xNode the node, may be null
+     * @return this writer
+     */
+    public NodeJsonWriter writeNode(final EoscNode xNode) {
+        if (xNode == null) {
+            return writeRaw(NULL);
+        }
+        put('{');
+        boolean first = stringField(ID, xNode.getId(), true);
+        first = stringField(NAME, xNode.getName(), first);
+        first = uriField(LOGO, xNode.getLogo(), first);
+        first = stringField(PID, xNode.getPid(), first);
+        if (xNode.getLegalEntity() != null) {
+            first = fieldName(LEGAL_ENTITY, first);
+            writeLegalEntity(xNode.getLegalEntity());
+        }
+        first = uriField(NODE_ENDPOINT, xNode.getNodeEndpoint(), first);
+        if (xNode.getCapabilityList() != null) {
+            fieldName(CAPABILITY_LIST, first);
+            writeCapabilities(xNode.getCapabilityList());
+        }
+        put('}');
+        return this;
+    }
+
+    /**
+     * Writes a legal entity as a JSON object.
+     *
+     * @param xLegalEntity the legal entity, may be null
+     * @return this writer
+     */
+    public NodeJsonWriter writeLegalEntity(final LegalEntity xLegalEntity) {
+        if (xLegalEntity == null) {
+            return writeRaw(NULL);
+        }
+        put('{');
+        boolean first = stringField(NAME, xLegalEntity.getName(), true);
+        uriField(ROR_ID, xLegalEntity.getRorId(), first);
+        put('}');
+        return this;
+    }
+
+    /**
+     * Writes a JSON array of capabilities.
+     *
+     * @param xCapabilities the capabilities, may be null
+     * @return this writer
+     */
+    public NodeJsonWriter writeCapabilities(
+            final List<EoscCapability> xCapabilities) {
+        if (xCapabilities == null) {
+            return writeRaw(NULL);
+        }
+        put('[');
+        for (int i = 0; i < xCapabilities.size(); i++) {
+            if (i > 0) {
+                put(',');
+            }
+            writeCapability(xCapabilities.get(i));
+        }
+        put(']');
+        return this;
+    }
+
+    /**
+     * Writes a capability as a JSON object.
+     *
+     * @param xCapability the capability, may be null
+     * @return this writer
+     */
+    public NodeJsonWriter writeCapability(final EoscCapability xCapability) {
+        if (xCapability == null) {
+            return writeRaw(NULL);
+        }
+        put('{');
+        boolean first = stringField(CAPABILITY_TYPE,
+        xCapability.getCapabilityType(), true);
+        first = uriField(ENDPOINT, xCapability.getEndpoint(), first);
+        stringField(VERSION, xCapability.getVersion(), first);
+        put('}');
+        return this;
+    }
+
+    /**
+     * Writes a node summary as a JSON object.
+     *
+     * @param xSummary the node summary, may be null
+     * @return this writer
+     */
+    public NodeJsonWriter writeSummary(final NodeSummary xSummary) {
+        if (xSummary == null) {
+            return writeRaw(NULL);
+        }
+        put('{');
+        boolean first = uriField(NODE_ENDPOINT, xSummary.nodeEndpoint(),
+        true);
+        if (xSummary.capabilities() != null) {
+            fieldName(CAPABILITIES, first);
+            writeCapabilities(xSummary.capabilities());
+        }
+        put('}');
+        return this;
+    }
+
+    /**
+     * Writes a JSON array of harvested capability metadata.
+     *
+     * @param xMetadata the metadata
+     * @return this writer
+     */
+    public NodeJsonWriter writeMetadata(
+            final List<CapabilityMetadata> xMetadata) {
+        put('[');
+        for (int i = 0; i < xMetadata.size(); i++) {
+            if (i > 0) {
+                put(',');
+            }
+            CapabilityMetadata metadata = xMetadata.get(i);
+            put('{');
+            boolean first = uriField(ENDPOINT, metadata.endpoint(), true);
+            first = stringField(DESCRIPTION, metadata.description(), first);
+            first = stringField(VERSION, metadata.version(), first);
+            if (metadata.harvestedAt() != null) {
+                stringField(HARVESTED_AT, metadata.harvestedAt().toString(),
+                first);
+            }
+            put('}');
+        }
+        put(']');
+        return this;
+    }
+
+    /**
+     * Writes a capability route as a JSON object.
+     *
+     * @param xRoute the route
+     * @return this writer
+     */
+    public NodeJsonWriter writeRoute(final CapabilityRoute xRoute) {
+        put('{');
+        boolean first = stringField(NODE_ID, xRoute.nodeId(), true);
+        fieldName(CAPABILITY, first);
+        writeCapability(xRoute.capability());
+        put('}');
+        return this;
+    }
+
+    /**
+     * Writes the response to a batch summary request: a JSON object with the
+     * summaries found, keyed by node ID, and the IDs that were not found.
+     *
+     * @param xSummaries the summaries found, by node ID
+     * @param xMissing   the IDs that were not found
+     * @return this writer
+     */
+    public NodeJsonWriter writeSummaries(
+            final Map<String, NodeSummary> xSummaries,
+            final Collection<String> xMissing) {
+        RegistryEvents.Serialization event = startSerialization();
+        int start = length;
+        put('{');
+        writeRaw(SUMMARIES);
+        put('{');
+        boolean first = true;
+        for (Map.Entry<String, NodeSummary> entry : xSummaries.entrySet()) {
+            if (!first) {
+                put(',');
+            }
+            first = false;
+            writeString(entry.getKey());
+            put(':');
+            writeSummary(entry.getValue());
+        }
+        put('}');
+        put(',');
+        writeRaw(MISSING);
+        writeStrings(xMissing);
+        put('}');
+        return finishSerialization(event, "summaries", xSummaries.size(),
+            length - start);
+    }
+
+    /**
+     * Writes the merged results of a search across shards: a JSON object
+     * with the nodes from every shard that answered, the number of shards
+     * searched, whether any did not answer, and which. The results of each
+     * shard are copied as they are, without being parsed.
+     *
+     * @param xArrays the JSON node arrays returned by the shards
+     * @param xShards the number of shards searched
+     * @param xFailed the shards that did not answer, or gave an error
+     * @return this writer
+     */
+    public NodeJsonWriter writeGathered(final List<byte[]> xArrays,
+            final int xShards, final Collection<String> xFailed) {
+        put('{');
+        writeRaw(NODES);
+        put('[');
+        boolean first = true;
+        for (byte[] array : xArrays) {
+            // the elements, between the brackets
+            int elements = array.length - 2;
+            if (elements <= 0) {
+                continue;
+            }
+            if (!first) {
+                put(',');
+            }
+            first = false;
+            ensureCapacity(elements);
+            System.arraycopy(array, 1, buffer, length, elements);
+            length += elements;
+        }
+        put(']');
+        put(',');
+        writeRaw(SHARDS);
+        writeRaw(Integer.toString(xShards).getBytes(
+            StandardCharsets.US_ASCII));
+        put(',');
+        writeRaw(PARTIAL);
+        writeRaw(Boolean.toString(!xFailed.isEmpty()).getBytes(
+            StandardCharsets.US_ASCII));
+        put(',');
+        writeRaw(FAILED);
+        writeStrings(xFailed);
+        put('}');
+        return this;
+    }
+
+    /**
+     * Streams the response to a batch node request: a JSON object with the
+     * nodes found, in request order, and the IDs that were not found. The
+     * buffer is flushed to the stream whenever it grows past 64 KB, so the
+     * memory used does not depend on the number of IDs.
+     *
+     * @param xIds    the requested node IDs
+     * @param xLookup finds a node by ID, returning null if there is none
+     * @param xOut    the stream to write to
+     * @throws IOException if the stream cannot be written
+     */
+    public void writeNodeBatch(final Collection<String> xIds,
+            final Function<String, EoscNode> xLookup,
+            final OutputStream xOut) throws IOException {
+        RegistryEvents.Serialization event = startSerialization();
+        long flushed = 0;
+        List<String> missing = new ArrayList<>();
+        put('{');
+        writeRaw(NODES);
+        put('[');
+        boolean first = true;
+        for (String id : xIds) {
+            EoscNode node = xLookup.apply(id);
+            if (node == null) {
+                missing.add(id);
+                continue;
+            }
+            if (!first) {
+                put(',');
+            }
+            first = false;
+            writeNode(node);
+            if (length >= FLUSH_THRESHOLD) {
+                writeTo(xOut);
+                flushed += length;
+                length = 0;
+            }
+        }
+        put(']');
+        put(',');
+        writeRaw(MISSING);
+        writeStrings(missing);
+        put('}');
+        writeTo(xOut);
+        finishSerialization(event, "batch", xIds.size() - missing.size(),
+            flushed + length);
+        length = 0;
+    }
+
+    /**
+     * Starts a serialisation event.
+     *
+     * @return the event, to pass to finishSerialization
+     */
+    private static RegistryEvents.Serialization startSerialization() {
+        RegistryEvents.Serialization event =
+        new RegistryEvents.Serialization();
+        event.start();
+        return event;
+    }
+
+    /**
+     * Ends and commits a serialisation event.
+     *
+     * @param xEvent   the event
+     * @param xContent what was written
+     * @param xNodes   nodes or summaries written
+     * @param xBytes   bytes written
+     * @return this writer
+     */
+    private NodeJsonWriter finishSerialization(
+            final RegistryEvents.Serialization xEvent, final String xContent,
+            final int xNodes, final long xBytes) {
+        xEvent.format = "json";
+        xEvent.content = xContent;
+        xEvent.nodes = xNodes;
+        xEvent.bytes = xBytes;
+        xEvent.finish();
+        return this;
+    }
+
+    /**
+     * Writes a JSON array of strings.
+     *
+     * @param xStrings the strings, may be null
+     * @return this writer
+     */
+    public NodeJsonWriter writeStrings(final Collection<String> xStrings) {
+        if (xStrings == null) {
+            return writeRaw(NULL);
+        }
+        put('[');
+        boolean first = true;
+        for (String string : xStrings) {
+            if (!first) {
+                put(',');
+            }
+            first = false;
+            writeString(string);
+        }
+        put(']');
+        return this;
+    }
+
+    /**
+     * Writes a JSON string value.
+     *
+     * @param xValue the string, may be null
+     * @return this writer
+     */
+    public NodeJsonWriter writeString(final String xValue) {
+        if (xValue == null) {
+            return writeRaw(NULL);
+        }
+        ensureCapacity(xValue.length() + 2);
+        put('"');
+        for (int i = 0; i < xValue.length(); i++) {
+            char c = xValue.charAt(i);
+            if (c < TWO_BYTE_START) {
+                writeAscii(c);
+            } else if (c == LINE_SEPARATOR || c == PARAGRAPH_SEPARATOR) {
+                writeUnicodeEscape(c);
+            } else if (c < THREE_BYTE_START) {
+                put(LEAD_TWO | (c >> SHIFT));
+                put(CONTINUATION | (c & SIX_BITS));
+            } else if (Character.isHighSurrogate(c)
+            && i + 1 < xValue.length()
+            && Character.isLowSurrogate(xValue.charAt(i + 1))) {
+                int cp = Character.toCodePoint(c, xValue.charAt(++i));
+                put(LEAD_FOUR | (cp >> (3 * SHIFT)));
+                put(CONTINUATION | ((cp >> (2 * SHIFT)) & SIX_BITS));
+                put(CONTINUATION | ((cp >> SHIFT) & SIX_BITS));
+                put(CONTINUATION | (cp & SIX_BITS));
+            } else if (Character.isSurrogate(c)) {
+                // unpaired surrogate, replaced as String.getBytes() does
+                put('?');
+            } else {
+                put(LEAD_THREE | (c >> (2 * SHIFT)));
+                put(CONTINUATION | ((c >> SHIFT) & SIX_BITS));
+                put(CONTINUATION | (c & SIX_BITS));
+            }
+        }
+        put('"');
+        return this;
+    }
+
+    /**
+     * Gets the number of bytes written.
+     *
+     * @return the number of bytes in the buffer
+     */
+    public int size() {
+        return length;
+    }
+
+    /**
+     * Gets the size of the buffer, for tests.
+     *
+     * @return the number of bytes the buffer can hold
+     */
+    int capacity() {
+        return buffer.length;
+    }
+
+    /**
+     * Copies the bytes written so far.
+     *
+     * @return the UTF-8 JSON bytes
+     */
+    public byte[] toByteArray() {
+        return Arrays.copyOf(buffer, length);
+    }
+
+    /**
+     * Writes the bytes written so far to a stream, without copying them.
+     *
+     * @param xOut the stream to write to
+     * @throws IOException if the stream cannot be written
+     */
+    public void writeTo(final OutputStream xOut) throws IOException {
+        xOut.write(buffer, 0, length);
+    }
+
+    /**
+     * Gets the JSON written so far.
+     *
+     * @return the JSON string
+     */
+    @Override
+    public String toString() {
+        return new String(buffer, 0, length, StandardCharsets.UTF_8);
+    }
+
+    private boolean stringField(final byte[] xName, final String xValue,
+            final boolean xFirst) {
+        if (xValue == null) {
+            return xFirst;
+        }
+        fieldName(xName, xFirst);
+        writeString(xValue);
+        return false;
+    }
+
+    private boolean uriField(final byte[] xName, final URI xValue,
+            final boolean xFirst) {
+        if (xValue == null) {
+            return xFirst;
+        }
+        fieldName(xName, xFirst);
+        writeString(xValue.toASCIIString());
+        return false;
+    }
+
+    private boolean fieldName(final byte[] xName, final boolean xFirst) {
+        if (!xFirst) {
+            put(',');
+        }
+        writeRaw(xName);
+        return false;
+    }
+
+    private void writeAscii(final char c) {
+        switch (c) {
+            case '"' -> writeEscape('"');
+            case '\\' -> writeEscape('\\');
+            case '\t' -> writeEscape('t');
+            case '\b' -> writeEscape('b');
+            case '\n' -> writeEscape('n');
+            case '\r' -> writeEscape('r');
+            case '\f' -> writeEscape('f');
+            case '<', '>', '&', '=', '\'' -> writeUnicodeEscape(c);
+            default -> {
+                if (c < FIRST_PRINTABLE) {
+                    writeUnicodeEscape(c);
+                } else {
+                    put(c);
+                }
+            }
+        }
+    }
+
+    private void writeEscape(final char c) {
+        put('\\');
+        put(c);
+    }
+
+    private void writeUnicodeEscape(final char c) {
+        put('\\');
+        put('u');
+        for (int shift = (ESCAPE_DIGITS - 1) * NIBBLE; shift >= 0;
+        shift -= NIBBLE) {
+            put(HEX[(c >> shift) & NIBBLE_MASK]);
+        }
+    }
+
+    private NodeJsonWriter writeRaw(final byte[] xBytes) {
+        ensureCapacity(xBytes.length);
+        System.arraycopy(xBytes, 0, buffer, length, xBytes.length);
+        length += xBytes.length;
+        return this;
+    }
+
+    private void put(final int b) {
+        if (length == buffer.length) {
+            ensureCapacity(1);
+        }
+        buffer[length++] = (byte) b;
+    }
+
+    private void ensureCapacity(final int xExtra) {
+        if (length + xExtra > buffer.length) {
+            buffer = Arrays.copyOf(buffer, Math.max(buffer.length * 2,
+            length + xExtra));
+        }
+    }
+
+    private static byte[] name(final String xName) {
+        return ("\"" + xName + "\":").getBytes(StandardCharsets.US_ASCII);
+    }
+}
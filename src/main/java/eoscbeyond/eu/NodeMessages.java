@@ -0,0 +1,137 @@
+/*
+ * Copyright © 2025 EOSC Beyond (${email})
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package eoscbeyond.eu;
+
+import java.net.URI;
+import java.util.ArrayList;
+import java.util.List;
+
+import eoscbeyond.eu.grpc.NodeRegistryProtos;
+
+/**
+ * The {@code NodeMessages} class converts nodes to and from the messages
+ * of the gRPC API, generated from {@code src/main/proto}. URIs are carried
+ * as strings, and null fields are left unset.
+ *
+ * <p>
+ * Example usage:
+ * </p>
+ *
+ * <pre>
+ * NodeRegistryProtos.EoscNode message = NodeMessages.toMessage(node);
+ * EoscNode copy = NodeMessages.fromMessage(message);
+ * </pre>
+ *
+ */
+public final class NodeMessages {
+
+    private NodeMessages() { }
+
+    /**
+     * Converts a node to a message.
+     *
+     * @param xNode the node
+     * @return the message
+     */
+    public static NodeRegistryProtos.EoscNode toMessage(final EoscNode xNode) {
+        NodeRegistryProtos.EoscNode.Builder builder =
+        NodeRegistryProtos.EoscNode.newBuilder();
+        if (xNode.getId() != null) {
+            builder.setId(xNode.getId());
+        }
+        if (xNode.getName() != null) {
+            builder.setName(xNode.getName());
+        }
+        if (xNode.getLogo() != null) {
+            builder.setLogo(xNode.getLogo().toString());
+        }
+        if (xNode.getPid() != null) {
+            builder.setPid(xNode.getPid());
+        }
+        LegalEntity entity = xNode.getLegalEntity();
+        if (entity != null) {
+            NodeRegistryProtos.LegalEntity.Builder entityBuilder =
+            builder.getLegalEntityBuilder();
+            if (entity.getName() != null) {
+                entityBuilder.setName(entity.getName());
+            }
+            if (entity.getRorId() != null) {
+                entityBuilder.setRorId(entity.getRorId().toString());
+            }
+        }
+        if (xNode.getNodeEndpoint() != null) {
+            builder.setNodeEndpoint(xNode.getNodeEndpoint().toString());
+        }
+        if (xNode.getCapabilityList() != null) {
+            for (EoscCapability capability : xNode.getCapabilityList()) {
+                NodeRegistryProtos.EoscCapability.Builder capabilityBuilder =
+                builder.addCapabilitiesBuilder();
+                if (capability.getCapabilityType() != null) {
+                    capabilityBuilder.setCapabilityType(
+                        capability.getCapabilityType());
+                }
+                if (capability.getEndpoint() != null) {
+                    capabilityBuilder.setEndpoint(
+                        capability.getEndpoint().toString());
+                }
+                if (capability.getVersion() != null) {
+                    capabilityBuilder.setVersion(capability.getVersion());
+                }
+            }
+        }
+        return builder.build();
+    }
+
+    /**
+     * Converts a message to a node.
+     *
+     * @param xMessage the message
+     * @return the node
+     * @throws IllegalArgumentException if a URI field is not a valid URI
+     */
+    public static EoscNode fromMessage(
+            final NodeRegistryProtos.EoscNode xMessage) {
+        LegalEntity entity = null;
+        if (xMessage.hasLegalEntity()) {
+            NodeRegistryProtos.LegalEntity message = xMessage.getLegalEntity();
+            entity = new LegalEntity(
+                message.hasName() ? message.getName() : null,
+                message.hasRorId() ? URI.create(message.getRorId()) : null);
+        }
+        List<EoscCapability> capabilities =
+        new ArrayList<>(xMessage.getCapabilitiesCount());
+        for (NodeRegistryProtos.EoscCapability message
+                : xMessage.getCapabilitiesList()) {
+            capabilities.add(new EoscCapability(
+                message.hasCapabilityType() ? message.getCapabilityType()
+                : null,
+                message.hasEndpoint() ? URI.create(message.getEndpoint())
+                : null,
+                message.hasVersion() ? message.getVersion() : null));
+        }
+        return new EoscNode(
+            xMessage.hasId() ? xMessage.getId() : null,
+            xMessage.hasName() ? xMessage.getName() : null,
+            xMessage.hasLogo() ? URI.create(xMessage.getLogo()) : null,
+            xMessage.hasPid() ? xMessage.getPid() : null,
+            entity,
+            xMessage.hasNodeEndpoint()
+            ? URI.create(xMessage.getNodeEndpoint()) : null,
+            capabilities);
+    }
+}
@@ -0,0 +1,136 @@
+/*
+ * Copyright © 2025 EOSC Beyond (${email})
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package eoscbeyond.eu;
+
+import java.util.List;
+
+/**
+ * The {@code NodeOrdinals} class assigns each node ID a dense integer
+ * ordinal, and maps between the two.
+ * <p>
+ * An ID gets the next ordinal the first time it enters the registry and
+ * keeps it for as long as the registry runs, even if the node is removed
+ * and added again, so data keyed by ordinal stays valid from one registry
+ * version to the next. Ordinals are never reused. Internal structures such
+ * as the capability postings of a {@code RegistrySnapshot} work on
+ * ordinals, so they can be held in tries indexed by int and combined
+ * cheaply.
+ * </p>
+ *
+ * <p>
+ * Instances are immutable. IDs are held in a {@link PersistentHashMap} and
+ * an {@link OrdinalTrie}, so {@link #withId(String)} costs O(log N) and
+ * shares everything else with the instance it was called on.
+ * </p>
+ *
+ * <p>
+ * Example usage:
+ * </p>
+ *
+ * <pre>
+ * NodeOrdinals ordinals = NodeOrdinals.EMPTY.withIds(nodes);
+ * int ordinal = ordinals.ordinalOf("1");
+ * String id = ordinals.idOf(ordinal);
+ * </pre>
+ *
+ */
+public final class NodeOrdinals {
+    /** Ordinal returned when an ID has none. */
+    public static final int NOT_FOUND = -1;
+    /** Ordinals with no IDs assigned. */
+    public static final NodeOrdinals EMPTY = new NodeOrdinals(
+        PersistentHashMap.empty(), OrdinalTrie.empty());
+
+    /** Ordinals, by node ID. */
+    private final PersistentHashMap<String, Integer> ordinals;
+    /** Node IDs, by ordinal. */
+    private final OrdinalTrie<String> ids;
+
+    private NodeOrdinals(final PersistentHashMap<String, Integer> xOrdinals,
+            final OrdinalTrie<String> xIds) {
+        this.ordinals = xOrdinals;
+        this.ids = xIds;
+    }
+
+    /**
+     * Gets ordinals that also cover the IDs of some nodes. IDs seen before
+     * keep their ordinals; new IDs get the next ones, in list order. Nodes
+     * without an ID are left out.
+     *
+     * @param xNodes the nodes
+     * @return this instance if every ID already has an ordinal, otherwise
+     *         a new instance
+     */
+    public NodeOrdinals withIds(final List<EoscNode> xNodes) {
+        NodeOrdinals extended = this;
+        for (EoscNode node : xNodes) {
+            extended = extended.withId(node.getId());
+        }
+        return extended;
+    }
+
+    /**
+     * Gets ordinals that also cover an ID.
+     *
+     * @param xId the node ID, may be null
+     * @return this instance if the ID is null or already has an ordinal,
+     *         otherwise a new instance
+     */
+    public NodeOrdinals withId(final String xId) {
+        if (xId == null || ordinals.containsKey(xId)) {
+            return this;
+        }
+        int ordinal = size();
+        return new NodeOrdinals(ordinals.put(xId, ordinal),
+            ids.set(ordinal, xId));
+    }
+
+    /**
+     * Gets the number of ordinals assigned.
+     *
+     * @return the number of IDs
+     */
+    public int size() {
+        return ids.count();
+    }
+
+    /**
+     * Gets the ordinal of a node ID.
+     *
+     * @param xId the node ID
+     * @return the ordinal, or {@link #NOT_FOUND}
+     */
+    public int ordinalOf(final String xId) {
+        Integer ordinal = ordinals.get(xId);
+        return ordinal == null ? NOT_FOUND : ordinal;
+    }
+
+    /**
+     * Gets the node ID with an ordinal.
+     *
+     * @param xOrdinal the ordinal
+     * @return the node ID
+     * @throws IndexOutOfBoundsException if the ordinal is not assigned
+     */
+    public String idOf(final int xOrdinal) {
+        String id = ids.get(xOrdinal);
+        if (id == null) {
+            throw new IndexOutOfBoundsException(xOrdinal);
+        }
+        return id;
+    }
+}
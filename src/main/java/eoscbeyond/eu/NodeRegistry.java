@@ -16,11 +16,19 @@
 
 package eoscbeyond.eu;
 
-import java.util.ArrayList;
+import java.io.IOException;
+import java.net.URI;
+import java.time.Instant;
+import java.util.ArrayDeque;
+import java.util.Deque;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.Consumer;
 
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
+import org.apache.logging.log4j.util.Unbox;
 
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.Parameter;
@@ -64,8 +72,21 @@ public class NodeRegistry {
     /**  */
     private static NodeRegistry nodeRegistry = null;
 
-    /** List of registered nodes. */
-    private List<EoscNode> nodes;
+    /** Current contents of the registry, replaced on every change. */
+    private volatile RegistrySnapshot snapshot = RegistrySnapshot.EMPTY;
+    /** Newest contents of the registry, including logged changes that are
+     * not durable yet; changes build on it. Guarded by the class lock. */
+    private RegistrySnapshot head = RegistrySnapshot.EMPTY;
+    /** Versions waiting for a logged change to become durable before they
+     * are published, in version order. Guarded by the class lock. */
+    private final Deque<Pending> pending = new ArrayDeque<>();
+    /** Recent versions of the registry, for reads as of a past version. */
+    private final RegistryHistory history = new RegistryHistory();
+    /** Write-ahead log of node changes; null if they are not logged. */
+    private volatile RegistryLog log;
+    /** Listeners to node changes. */
+    private final List<Consumer<Change>> listeners =
+    new CopyOnWriteArrayList<>();
     /** Logger. */
     private static final Logger LOGGER =
     LogManager.getLogger(NodeRegistry.class);
@@ -95,20 +116,384 @@ public class NodeRegistry {
             LOGGER.error("Node registry not initialised");
         } else {
             // add nodes to singleton, for use by all other classes
-            nodeRegistry.nodes = xNodes;
-            LOGGER.info(
+            nodeRegistry.setNodes(xNodes);
+            LOGGER.debug(
                     "Node registry initialised. Number of nodes is {}",
-                    xNodes.size());
+                    Unbox.box(xNodes.size()));
         }
     }
 
     /**
-     * Set list of nodes stored in the registry.
+     * Set list of nodes stored in the registry. Nodes keep the ordinals
+     * their IDs were given in earlier versions.
      *
      * @param xNodes the list of EOSCNodes
      */
     public void setNodes(final List<EoscNode> xNodes) {
-        nodeRegistry.nodes = xNodes;
+        synchronized (NodeRegistry.class) {
+            RegistryEvents.SnapshotPublished event = startPublish();
+            RegistrySnapshot current = nodeRegistry.head;
+            RegistrySnapshot next = new RegistrySnapshot(
+                current.getVersion() + 1, xNodes, current.getMetadata(),
+                current.getOrdinals());
+            advance(next, event, "reload",
+                new Change(next.getVersion(), null, null), 0);
+        }
+    }
+
+    /**
+     * Add a node to the registry, or replace the node with the same ID,
+     * publishing a new version. Unlike {@link #setNodes(List)}, this costs
+     * O(log N): the new version shares everything but the changed paths
+     * with the current one. If a log is attached, the change is logged and
+     * published once it is durable, when this returns.
+     *
+     * @param xNode the node
+     * @throws IllegalArgumentException if the node has no ID
+     * @throws IllegalStateException if the attached log has failed
+     * @throws java.io.UncheckedIOException if the change cannot be logged
+     */
+    public void putNode(final EoscNode xNode) {
+        RegistryLog changeLog;
+        long sequence = 0;
+        synchronized (NodeRegistry.class) {
+            RegistryEvents.SnapshotPublished event = startPublish();
+            RegistrySnapshot current = nodeRegistry.head;
+            RegistrySnapshot next = current.withNode(
+                current.getVersion() + 1, xNode);
+            changeLog = nodeRegistry.log;
+            if (changeLog != null) {
+                sequence = changeLog.appendPut(xNode);
+            }
+            advance(next, event, "put",
+                new Change(next.getVersion(), xNode, null), sequence);
+        }
+        if (changeLog != null) {
+            awaitPublished(changeLog, sequence);
+        }
+    }
+
+    /**
+     * Remove the node with an ID from the registry, publishing a new
+     * version if there was one. Costs O(log N). If a log is attached, the
+     * removal is logged and published once it is durable, when this
+     * returns.
+     *
+     * @param xId the node ID
+     * @return true if a node was removed
+     * @throws IllegalStateException if the attached log has failed
+     * @throws java.io.UncheckedIOException if the change cannot be logged
+     */
+    public boolean removeNode(final String xId) {
+        RegistryLog changeLog;
+        long sequence;
+        synchronized (NodeRegistry.class) {
+            RegistryEvents.SnapshotPublished event = startPublish();
+            RegistrySnapshot current = nodeRegistry.head;
+            RegistrySnapshot next = current.withoutNode(
+                current.getVersion() + 1, xId);
+            if (next == current) {
+                return false;
+            }
+            changeLog = nodeRegistry.log;
+            sequence = changeLog == null ? 0 : changeLog.appendRemove(xId);
+            advance(next, event, "remove",
+                new Change(next.getVersion(), null, xId), sequence);
+        }
+        if (changeLog != null) {
+            awaitPublished(changeLog, sequence);
+        }
+        return true;
+    }
+
+    /**
+     * Listen to node changes from now on: nodes added or replaced with
+     * {@link #putNode(EoscNode)}, removed with {@link #removeNode(String)},
+     * and whole node lists set with {@link #setNodes(List)}. Listeners are
+     * called in version order as changes are published, holding the
+     * registry lock, so they must not block; typically they queue the
+     * change for another thread.
+     *
+     * @param xListener the listener
+     * @return the current snapshot: the listener gets every change made
+     *         after it
+     */
+    public RegistrySnapshot addListener(final Consumer<Change> xListener) {
+        synchronized (NodeRegistry.class) {
+            nodeRegistry.listeners.add(xListener);
+            return nodeRegistry.snapshot;
+        }
+    }
+
+    /**
+     * Stop listening to node changes.
+     *
+     * @param xListener the listener
+     */
+    public void removeListener(final Consumer<Change> xListener) {
+        nodeRegistry.listeners.remove(xListener);
+    }
+
+    /**
+     * Log the nodes added, replaced and removed from now on. Changes made
+     * with {@link #setNodes(List)} and {@link #mergeMetadata(Map)} are not
+     * logged: the node list comes from the nodes file or a checkpoint, and
+     * metadata is harvested again.
+     *
+     * @param xLog the log, after its changes have been replayed
+     */
+    public void attachLog(final RegistryLog xLog) {
+        synchronized (NodeRegistry.class) {
+            nodeRegistry.log = xLog;
+        }
+    }
+
+    /**
+     * Stop logging changes.
+     *
+     * @return the log that was attached, or null
+     */
+    public RegistryLog detachLog() {
+        synchronized (NodeRegistry.class) {
+            RegistryLog previous = nodeRegistry.log;
+            nodeRegistry.log = null;
+            return previous;
+        }
+    }
+
+    /**
+     * Get the log of node changes.
+     *
+     * @return the log, or null if changes are not logged
+     */
+    public RegistryLog getLog() {
+        return nodeRegistry.log;
+    }
+
+    /**
+     * Get the newest contents of the registry together with the sequence
+     * number of the last logged change they include, for a replication
+     * follower to start from. The change may not be durable yet.
+     *
+     * @return the snapshot and sequence number, or null if changes are not
+     *         logged
+     */
+    public LoggedSnapshot getLoggedSnapshot() {
+        synchronized (NodeRegistry.class) {
+            RegistryLog changeLog = nodeRegistry.log;
+            if (changeLog == null) {
+                return null;
+            }
+            // The newest contents include exactly the changes logged so far
+            return new LoggedSnapshot(nodeRegistry.head,
+                changeLog.getLastSequence());
+        }
+    }
+
+    /**
+     * Write a checkpoint of the registry to the attached log, so that
+     * startup replays only the changes made after it. Changes are held up
+     * only while the registry state and its sequence number are read; the
+     * log switches segments and the checkpoint is written while they
+     * continue.
+     *
+     * @throws IOException if the checkpoint cannot be written
+     */
+    public void checkpoint() throws IOException {
+        RegistryLog changeLog;
+        RegistrySnapshot current;
+        long sequence;
+        synchronized (NodeRegistry.class) {
+            changeLog = nodeRegistry.log;
+            if (changeLog == null) {
+                return;
+            }
+            current = nodeRegistry.head;
+            sequence = changeLog.getLastSequence();
+        }
+        RegistryLog.Mark mark = changeLog.roll(sequence);
+        changeLog.awaitDurable(mark.sequence());
+        changeLog.checkpoint(current.getNodes(), mark);
+    }
+
+    /**
+     * Merge harvested capability metadata into the registry, publishing a
+     * new version. Metadata already held for endpoints that are not in
+     * the results is kept, so a failed fetch does not discard the last
+     * good metadata.
+     *
+     * @param xMetadata harvested metadata, by capability endpoint
+     */
+    public void mergeMetadata(final Map<URI, CapabilityMetadata> xMetadata) {
+        synchronized (NodeRegistry.class) {
+            RegistryEvents.SnapshotPublished event = startPublish();
+            RegistrySnapshot current = nodeRegistry.head;
+            advance(current.withMetadata(current.getVersion() + 1,
+                xMetadata), event, "metadata", null, 0);
+        }
+    }
+
+    /**
+     * Start timing the building and publication of a snapshot.
+     *
+     * @return the event, to pass to publish
+     */
+    private static RegistryEvents.SnapshotPublished startPublish() {
+        RegistryEvents.SnapshotPublished event =
+        new RegistryEvents.SnapshotPublished();
+        event.start();
+        return event;
+    }
+
+    /**
+     * Make a snapshot the newest contents of the registry, and publish it
+     * unless it waits for a logged change to become durable. A snapshot
+     * without a logged change of its own is published at once only if no
+     * earlier one is waiting, as it builds on them. Callers hold the class
+     * lock.
+     *
+     * @param xNext     the new snapshot
+     * @param xEvent    the event started before the snapshot was built
+     * @param xReason   what changed, recorded in the event
+     * @param xChange   the change to tell listeners about; null for none
+     * @param xSequence sequence number of the logged change; 0 if the
+     *                  change is not logged
+     */
+    private static void advance(final RegistrySnapshot xNext,
+            final RegistryEvents.SnapshotPublished xEvent,
+            final String xReason, final Change xChange,
+            final long xSequence) {
+        nodeRegistry.head = xNext;
+        xEvent.version = xNext.getVersion();
+        xEvent.nodes = xNext.getNodes().size();
+        xEvent.change = xReason;
+        xEvent.finish();
+        Deque<Pending> waiting = nodeRegistry.pending;
+        if (xSequence == 0 && waiting.isEmpty()) {
+            publish(xNext, xChange);
+        } else {
+            waiting.add(new Pending(xNext, xChange, xSequence != 0 ? xSequence
+            : waiting.getLast().sequence()));
+        }
+    }
+
+    /**
+     * Wait until a logged change is durable, then publish the snapshots
+     * waiting for it or for earlier changes. If the log fails instead, the
+     * snapshots whose changes are durable are published and the others
+     * dropped, with everything built on them, so that readers and
+     * listeners never see a change that could be lost.
+     *
+     * @param xLog      the log the change was appended to
+     * @param xSequence sequence number of the change
+     * @throws java.io.UncheckedIOException if the change cannot be logged
+     */
+    private static void awaitPublished(final RegistryLog xLog,
+            final long xSequence) {
+        try {
+            xLog.awaitDurable(xSequence);
+        } catch (RuntimeException e) {
+            synchronized (NodeRegistry.class) {
+                publishDurable(xLog.getDurableSequence());
+                // Metadata merged meanwhile is dropped too: harvested again
+                nodeRegistry.pending.clear();
+                nodeRegistry.head = nodeRegistry.snapshot;
+            }
+            throw e;
+        }
+        synchronized (NodeRegistry.class) {
+            publishDurable(xSequence);
+        }
+    }
+
+    /**
+     * Publish the waiting snapshots whose logged changes are durable, in
+     * version order. Callers hold the class lock.
+     *
+     * @param xDurable sequence number of the last durable change
+     */
+    private static void publishDurable(final long xDurable) {
+        Deque<Pending> waiting = nodeRegistry.pending;
+        while (!waiting.isEmpty()
+        && waiting.getFirst().sequence() <= xDurable) {
+            Pending next = waiting.removeFirst();
+            publish(next.snapshot(), next.change());
+        }
+    }
+
+    /**
+     * Make a snapshot the current contents of the registry, record it in
+     * the history and tell the listeners. Callers hold the class lock.
+     *
+     * @param xNext   the new snapshot
+     * @param xChange the change to tell listeners about; null for none
+     */
+    private static void publish(final RegistrySnapshot xNext,
+            final Change xChange) {
+        nodeRegistry.snapshot = xNext;
+        nodeRegistry.history.record(xNext, Instant.now());
+        if (xChange != null) {
+            notifyListeners(xChange);
+        }
+    }
+
+    /**
+     * Pass a change to every listener. A listener that throws is logged
+     * and does not stop the others. Callers hold the class lock.
+     *
+     * @param xChange the change
+     */
+    private static void notifyListeners(final Change xChange) {
+        for (Consumer<Change> listener : nodeRegistry.listeners) {
+            try {
+                listener.accept(xChange);
+            } catch (RuntimeException e) {
+                LOGGER.error("Registry listener failed", e);
+            }
+        }
+    }
+
+    /**
+     * Tells whether the registry has been loaded. Until it has, the
+     * registry is empty and requests for nodes are refused.
+     *
+     * @return true once a list of nodes has been set
+     */
+    public boolean isReady() {
+        return nodeRegistry.snapshot.getVersion() > 0;
+    }
+
+    /**
+     * Get the current contents of the registry. Callers that make several
+     * lookups should use one snapshot, so that they all see the same
+     * version of the registry.
+     *
+     * @return the current registry snapshot
+     */
+    public RegistrySnapshot getSnapshot() {
+        return nodeRegistry.snapshot;
+    }
+
+    /**
+     * Get the recent versions of the registry, for reads as of a past
+     * version or time. The current version is always among them once the
+     * registry has been loaded.
+     *
+     * @return the registry history
+     */
+    public RegistryHistory getHistory() {
+        return nodeRegistry.history;
+    }
+
+    /**
+     * Get the version of the registry contents. The version changes every
+     * time the list of nodes is replaced, so it can be used to key caches
+     * of derived data such as serialised responses.
+     *
+     * @return the current registry version
+     */
+    public long getVersion() {
+        return nodeRegistry.snapshot.getVersion();
     }
 
     /**
@@ -119,7 +504,7 @@ public class NodeRegistry {
     @Operation(summary = "Get nodes", description =
     "Retrieves the list of nodes from the registry.")
     public List<EoscNode> getNodes() {
-        return nodeRegistry.nodes;
+        return nodeRegistry.snapshot.getNodes();
     }
 
     /**
@@ -135,14 +520,7 @@ public class NodeRegistry {
     public EoscNode searchNodeById(
             @Parameter(description = "ID of the node to retrieve",
             required = true, example = "1") final String xId) {
-        EoscNode matchingNode = null;
-        for (EoscNode node : nodes) {
-            if (node.getId().equals(xId)) {
-                matchingNode = node;
-                break;
-            }
-        }
-        return matchingNode;
+        return nodeRegistry.snapshot.getNode(xId);
     }
 
     /**
@@ -150,30 +528,36 @@ public class NodeRegistry {
      * details.
      *
      * @param xId the ID of the node to search for
-     * @return matchingNodeSummary summary of details of the EOSCNode that has
-     *         the specified ID, otherwise null.
+     * @return matchingNodeSummary summary of the EOSCNode that has the
+     *         specified ID, as a JSON object, otherwise null.
      */
     @Operation(summary = "Search node summary by ID", description =
     "Retrieves summary information for a node from the registry by its ID.")
     public String searchNodeSummaryById(
             @Parameter(description = "ID of the node to retrieve",
             required = true, example = "1") final String xId) {
-        String matchingNodeSummary = null;
-        for (EoscNode node : nodes) {
-            if (node.getId().equals(xId)) {
-                matchingNodeSummary = node.getBasicNodeInfo();
-                break;
-            }
-        }
-        return matchingNodeSummary;
+        NodeSummary matchingNodeSummary = getNodeSummary(xId);
+        return matchingNodeSummary == null ? null
+        : matchingNodeSummary.toJson();
+    }
+
+    /**
+     * Get the summary (endpoint and capabilities) of a node.
+     *
+     * @param xId the ID of the node
+     * @return the summary of the EOSCNode that has the specified ID,
+     *         otherwise null.
+     */
+    public NodeSummary getNodeSummary(final String xId) {
+        return nodeRegistry.snapshot.getSummary(xId);
     }
 
     /**
      * Searches for nodes that offer a specified capability.
      *
      * @param capName The name of the Capability to look for
-     * @return matchingNodes The list of EoscNodes that offer the capability,
-     *         otherwise null.
+     * @return matchingNodes The unmodifiable list of EoscNodes that offer the
+     *         capability; empty if there are none.
      */
     @Operation(summary = "Search nodes by capability", description =
     "Finds nodes that offer a specified capability.")
@@ -181,13 +565,46 @@ public class NodeRegistry {
             @Parameter(description = "Name of the capability to search for",
             required = true, example = "Resource Catalogue")
             final String capName) {
-        List<EoscNode> matchingNodes = new ArrayList<>();
-        for (EoscNode node : nodes) {
-            List<String> capabilityNames = node.getCapabilityNames();
-            if (capabilityNames.contains(capName)) {
-                matchingNodes.add(node);
-            }
+        return nodeRegistry.snapshot.getNodesWithCapability(capName);
+    }
+
+    /**
+     * A change to the registry, as given to listeners: a node added or
+     * replaced, a node removed, or, with neither, the whole node list
+     * replaced.
+     *
+     * @param version   the registry version the change published
+     * @param node      the node added or replaced; null otherwise
+     * @param removedId the ID of the node removed; null otherwise
+     */
+    public record Change(long version, EoscNode node, String removedId) {
+        /**
+         * Tells whether the whole node list was replaced.
+         *
+         * @return true if neither a node nor a removed ID is given
+         */
+        public boolean isReload() {
+            return node == null && removedId == null;
         }
-        return matchingNodes;
+    }
+
+    /**
+     * A snapshot waiting for a logged change to become durable.
+     *
+     * @param snapshot the snapshot
+     * @param change   the change to tell listeners about; null for none
+     * @param sequence sequence number of the logged change it waits for
+     */
+    private record Pending(RegistrySnapshot snapshot, Change change,
+            long sequence) {
+    }
+
+    /**
+     * Contents of the registry and the last logged change they include.
+     *
+     * @param snapshot the registry snapshot
+     * @param sequence sequence number of the last change included
+     */
+    public record LoggedSnapshot(RegistrySnapshot snapshot, long sequence) {
     }
 }
@@ -16,42 +16,48 @@
 
 package eoscbeyond.eu;
 
-import java.io.IOException;
-import java.net.URISyntaxException;
-import java.util.List;
-
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
 import org.springframework.boot.builder.SpringApplicationBuilder;
 import org.springframework.boot.context.properties.EnableConfigurationProperties;
 import org.springframework.boot.web.servlet.support.SpringBootServletInitializer;
 import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.ImportRuntimeHints;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.fasterxml.jackson.databind.SerializationFeature;
 import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
 
 import eoscbeyond.eu.data.Configuration;
+import eoscbeyond.eu.data.GrpcConfiguration;
+import eoscbeyond.eu.data.HarvesterConfiguration;
+import eoscbeyond.eu.data.JfrConfiguration;
+import eoscbeyond.eu.data.RateLimitConfiguration;
+import eoscbeyond.eu.data.ReactiveConfiguration;
+import eoscbeyond.eu.data.RegistryLogConfiguration;
+import eoscbeyond.eu.data.ReplicationConfiguration;
+import eoscbeyond.eu.data.RoutingConfiguration;
+import eoscbeyond.eu.data.ShardingConfiguration;
+import eoscbeyond.eu.data.TracingConfiguration;
 
-@EnableConfigurationProperties(Configuration.class)
+@EnableConfigurationProperties({Configuration.class,
+    GrpcConfiguration.class, HarvesterConfiguration.class,
+    JfrConfiguration.class, RateLimitConfiguration.class,
+    ReactiveConfiguration.class, RegistryLogConfiguration.class,
+    ReplicationConfiguration.class, RoutingConfiguration.class,
+    ShardingConfiguration.class, TracingConfiguration.class})
 @SpringBootApplication
+@ImportRuntimeHints(NodeRegistryRuntimeHints.class)
 public class NodeRegistryApplication extends SpringBootServletInitializer  {
 
     /**
+     * Starts the application. The node registry is loaded during startup
+     * by {@link NodeRegistryLoader}.
+     *
      * @param args
      */
-    public static void main(final String[] args) throws URISyntaxException,
-    IOException {
+    public static void main(final String[] args) {
         SpringApplication.run(NodeRegistryApplication.class, args);
-        String filePath = "nodes.csv";
-
-        // Initialise the Node Registry - Read node details from CVS file
-        ReadNodeDetails readNodeDetails = new ReadNodeDetails(filePath);
-        List<EoscNode> nodeList = readNodeDetails.getNodes();
-
-        // Create and initialise the sole NodeRegistry instance.
-        NodeRegistry nodeRegistry = NodeRegistry.getInstance();
-        nodeRegistry.setNodes(nodeList);
     }
 
     /**
@@ -61,7 +67,7 @@ public class NodeRegistryApplication extends SpringBootServletInitializer  {
     @Override
     protected SpringApplicationBuilder configure(final SpringApplicationBuilder
     application) {
-        return application.sources(NodeRegistry.class);
+        return application.sources(NodeRegistryApplication.class);
     }
 
     /**
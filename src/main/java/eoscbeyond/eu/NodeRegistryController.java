@@ -16,18 +16,41 @@
 
 package eoscbeyond.eu;
 
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.net.URI;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
 
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.InvalidMediaTypeException;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.CrossOrigin;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.media.ArraySchema;
+import io.swagger.v3.oas.annotations.media.Content;
+import io.swagger.v3.oas.annotations.media.Schema;
+import io.swagger.v3.oas.annotations.responses.ApiResponse;
 import io.swagger.v3.oas.annotations.tags.Tag;
 
 @RestController
@@ -37,46 +60,604 @@ import io.swagger.v3.oas.annotations.tags.Tag;
 "Endpoints for managing node registry")
 public class NodeRegistryController {
 
+    /** Media type of the binary node representation. */
+    private static final MediaType BINARY_MEDIA_TYPE =
+    MediaType.parseMediaType(NodeBinaryCodec.MEDIA_TYPE);
+
+    /** Maximum number of IDs in one batch summary request. */
+    static final int MAX_SUMMARY_IDS = 1000;
+
+    /** Maximum number of IDs in one batch node request. */
+    static final int MAX_BATCH_IDS = 5000;
+
+    /** Maximum total size of cached search results, in bytes. */
+    static final long SEARCH_CACHE_BYTES = 8L * 1024 * 1024;
+
+    /** Maximum total size of cached responses for past versions. */
+    static final long HISTORY_CACHE_BYTES = 8L * 1024 * 1024;
+
+    /**
+     * Version under which responses for past versions are cached. Past
+     * snapshots never change, so the registry version is part of the key
+     * and the cache is never invalidated.
+     */
+    private static final long HISTORY_CACHE_VERSION = 0;
+
+    /**
+     * Cache key shared by every search that matches no node. Capability
+     * names are trimmed, so no capability has this name.
+     */
+    private static final String NO_MATCH = " ";
+
     /** Get the sole NodeRegistry instance. */
     private NodeRegistry nodeRegistry = NodeRegistry.getInstance();
 
+    /** Serialised and compressed response bodies. */
+    private CompressedResponseCache responseCache =
+    new CompressedResponseCache();
+
+    /** Serialised search results. */
+    private SearchResultCache searchCache =
+    new SearchResultCache(SEARCH_CACHE_BYTES);
+
+    /**
+     * Serialised responses for past versions, kept apart so they do not
+     * displace responses for the current version.
+     */
+    private SearchResultCache historyCache =
+    new SearchResultCache(HISTORY_CACHE_BYTES);
+
+    /** Picks capability endpoints. */
+    private CapabilityRouter router = CapabilityRouter.getInstance();
+
     /**
-     * @return ResponseEntity<List<EoscNode>>
+     * @param accept         media types accepted by the client
+     * @param acceptEncoding content codings accepted by the client
+     * @param asOf           registry version or ISO-8601 instant to read
+     *                       as of; the current version if absent
+     * @return ResponseEntity<byte[]> list of all EoscNodes, as JSON or, if
+     *         the client prefers it, in the binary representation; 406 if
+     *         acceptEncoding rules out every encoding it could be sent in
      */
     @Operation(summary = "Get all nodes", description =
-    "Retrieves the list of all registered nodes.")
+    "Retrieves the list of all registered nodes. Clients that send Accept: "
+    + NodeBinaryCodec.MEDIA_TYPE + " receive the compact binary form. With "
+    + "asOf, the list is read as of a past version or time.")
+    @ApiResponse(responseCode = "200", content = {
+        @Content(mediaType = MediaType.APPLICATION_JSON_VALUE,
+        array = @ArraySchema(schema = @Schema(implementation =
+        EoscNode.class))),
+        @Content(mediaType = NodeBinaryCodec.MEDIA_TYPE,
+        array = @ArraySchema(schema = @Schema(implementation =
+        EoscNode.class)))})
     @GetMapping
-    public ResponseEntity<List<EoscNode>> getAllNodes() {
-        return ResponseEntity.ok(nodeRegistry.getNodes());
+    public ResponseEntity<byte[]> getAllNodes(@RequestHeader(value =
+    HttpHeaders.ACCEPT, required = false) final String accept,
+    @RequestHeader(value = HttpHeaders.ACCEPT_ENCODING, required = false)
+    final String acceptEncoding, @RequestParam(required = false)
+    final String asOf) {
+        RegistrySnapshot snapshot;
+        try {
+            snapshot = snapshotAsOf(asOf);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(null);
+        }
+        if (snapshot == null) {
+            return ResponseEntity.status(HttpStatus.NOT_FOUND).body(null);
+        }
+        boolean binary = prefersBinary(accept);
+        Supplier<byte[]> body = RegistryTracing.timed("serialize", binary
+        ? () -> toBinaryBytes(snapshot.getNodes())
+        : () -> NodeJsonWriter.local().writeNodes(snapshot.getNodes())
+        .toByteArray());
+        String key = binary ? "nodes:binary" : "nodes";
+        MediaType contentType = binary ? BINARY_MEDIA_TYPE
+        : MediaType.APPLICATION_JSON;
+        if (isPast(snapshot)) {
+            if (!CompressedResponseCache.acceptsIdentity(acceptEncoding)) {
+                return notAcceptable();
+            }
+            return pastResponse(snapshot, key, body, contentType);
+        }
+        CompressedResponseCache.Encoding encoding =
+        CompressedResponseCache.negotiate(acceptEncoding);
+        if (encoding == null) {
+            return notAcceptable();
+        }
+        return encodedResponse(RegistryTracing.phase("cache",
+            () -> responseCache.get(key, snapshot.getVersion(), body)),
+            encoding, contentType);
     }
 
     /**
      * @param id EoscNode ID
-     * @return ResponseEntity<String> List of EoscNode summary details
+     * @param acceptEncoding content codings accepted by the client
+     * @param asOf registry version or ISO-8601 instant to read as of; the
+     *             current version if absent
+     * @return ResponseEntity<byte[]> EoscNode summary (endpoint and
+     *         capabilities) as a JSON object; 406 if acceptEncoding rules
+     *         out every encoding it could be sent in
      */
     @Operation(summary = "Search for node by ID", description =
     "Retrieves endpoint and capapility info for a node by its ID.")
+    @ApiResponse(responseCode = "200", content = @Content(
+        mediaType = MediaType.APPLICATION_JSON_VALUE,
+        schema = @Schema(implementation = NodeSummary.class)))
     @GetMapping("/{id}")
-    public ResponseEntity<String> getNodeById(@PathVariable
-    final String id) {
-        String nodeSummary = nodeRegistry.searchNodeSummaryById(id);
-        if (nodeSummary != null) {
-            return ResponseEntity.ok(nodeSummary);
+    public ResponseEntity<byte[]> getNodeById(@PathVariable
+    final String id, @RequestHeader(value = HttpHeaders.ACCEPT_ENCODING,
+    required = false) final String acceptEncoding,
+    @RequestParam(required = false) final String asOf) {
+        RegistrySnapshot snapshot;
+        try {
+            snapshot = snapshotAsOf(asOf);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(null);
+        }
+        if (snapshot == null) {
+            return ResponseEntity.status(HttpStatus.NOT_FOUND).body(null);
+        }
+        if (isPast(snapshot)) {
+            if (RegistryTracing.phase("lookup",
+                () -> snapshot.getNode(id)) == null) {
+                return ResponseEntity.status(HttpStatus.NOT_FOUND).body(null);
+            }
+            if (!CompressedResponseCache.acceptsIdentity(acceptEncoding)) {
+                return notAcceptable();
+            }
+            return pastResponse(snapshot, "node:" + id,
+                RegistryTracing.timed("serialize",
+                () -> snapshot.getSummaryJson(id)),
+                MediaType.APPLICATION_JSON);
+        }
+        CompressedResponseCache.Encoding encoding =
+        CompressedResponseCache.negotiate(acceptEncoding);
+        if (encoding == null) {
+            return notAcceptable();
+        }
+        CompressedResponseCache.CompressedBody body = RegistryTracing.phase(
+            "cache", () -> responseCache.get("node:" + id,
+            snapshot.getVersion(), RegistryTracing.timed("serialize",
+            () -> snapshot.getSummaryJson(id))));
+        if (body != null) {
+            return encodedResponse(body, encoding,
+            MediaType.APPLICATION_JSON);
         } else {
             return ResponseEntity.status(HttpStatus.NOT_FOUND).body(null);
         }
     }
 
     /**
-     * @param capability name of EoscCapability to search for
-     * @return ResponseEntity<String> List of EoscNodes that have the capability
+     * @param ids EoscNode IDs, comma separated or repeated
+     * @return ResponseEntity<byte[]> JSON object with the summaries found,
+     *         keyed by ID, and the list of IDs that were not found
+     */
+    @Operation(summary = "Get summaries of several nodes", description =
+    "Retrieves endpoint and capability info for up to "
+    + MAX_SUMMARY_IDS + " nodes in one request. IDs that are not found are "
+    + "listed in the missing array.")
+    @GetMapping("/summary")
+    public ResponseEntity<byte[]> getNodeSummaries(@RequestParam
+    final List<String> ids) {
+        if (ids.size() > MAX_SUMMARY_IDS) {
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(null);
+        }
+        RegistrySnapshot snapshot = nodeRegistry.getSnapshot();
+        Map<String, NodeSummary> summaries = new LinkedHashMap<>();
+        Set<String> missing = new LinkedHashSet<>();
+        try (RegistryTracing.Phase phase = RegistryTracing.phase("lookup")) {
+            for (String id : ids) {
+                NodeSummary summary = snapshot.getSummary(id);
+                if (summary != null) {
+                    summaries.put(id, summary);
+                } else {
+                    missing.add(id);
+                }
+            }
+            phase.setAttribute("registry.result_size", summaries.size());
+        }
+        return ResponseEntity.ok().contentType(MediaType.APPLICATION_JSON)
+        .body(RegistryTracing.phase("serialize", () -> NodeJsonWriter.local()
+        .writeSummaries(summaries, missing).toByteArray()));
+    }
+
+    /**
+     * @param ids EoscNode IDs, as a JSON array
+     * @return ResponseEntity<StreamingResponseBody> JSON object with the
+     *         nodes found, in request order, and the list of IDs that were
+     *         not found
+     */
+    @Operation(summary = "Get several nodes by ID", description =
+    "Retrieves up to " + MAX_BATCH_IDS + " nodes in one request. The body is "
+    + "a JSON array of node IDs. Nodes are streamed in request order and IDs "
+    + "that are not found are listed in the missing array.")
+    @PostMapping(value = "/batch", consumes = MediaType.APPLICATION_JSON_VALUE)
+    public ResponseEntity<StreamingResponseBody> getNodesByIds(@RequestBody
+    final List<String> ids) {
+        if (ids.size() > MAX_BATCH_IDS) {
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(null);
+        }
+        RegistrySnapshot snapshot = nodeRegistry.getSnapshot();
+        NodeOrdinals ordinals = snapshot.getOrdinals();
+        List<String> uniqueIds = new ArrayList<>(ids.size());
+        BitSet seen = new BitSet(ordinals.size());
+        Set<String> unknown = new HashSet<>();
+        try (RegistryTracing.Phase phase = RegistryTracing.phase("lookup")) {
+            for (String id : ids) {
+                int ordinal = ordinals.ordinalOf(id);
+                if (ordinal == NodeOrdinals.NOT_FOUND) {
+                    if (unknown.add(id)) {
+                        uniqueIds.add(id);
+                    }
+                } else if (!seen.get(ordinal)) {
+                    seen.set(ordinal);
+                    uniqueIds.add(id);
+                }
+            }
+            phase.setAttribute("registry.result_size",
+                uniqueIds.size() - unknown.size());
+        }
+        StreamingResponseBody body = out -> NodeJsonWriter.local()
+        .writeNodeBatch(uniqueIds, snapshot::getNode, out);
+        return ResponseEntity.ok().contentType(MediaType.APPLICATION_JSON)
+        .body(body);
+    }
+
+    /**
+     * @param capability name of EoscCapability to search for, matched
+     *                   exactly, case and whitespace included; results are
+     *                   cached under the name, which for any match is the
+     *                   trimmed name the capability index holds, and all
+     *                   searches that match nothing share one entry
+     * @param asOf       registry version or ISO-8601 instant to read as of;
+     *                   the current version if absent
+     * @return ResponseEntity<byte[]> JSON list of EoscNodes that have the
+     *         capability
      */
     @Operation(summary = "Search for nodes by capability", description =
     "Finds nodes that offer a specific capability.")
+    @ApiResponse(responseCode = "200", content = @Content(
+        mediaType = MediaType.APPLICATION_JSON_VALUE,
+        array = @ArraySchema(schema = @Schema(implementation =
+        EoscNode.class))))
     @GetMapping("/search")
-    public ResponseEntity<List<EoscNode>> searchNodesByCapability(@RequestParam
-    final String capability) {
-        List<EoscNode> nodes = nodeRegistry.searchNodesByCapability(capability);
-        return ResponseEntity.ok(nodes);
+    public ResponseEntity<byte[]> searchNodesByCapability(@RequestParam
+    final String capability, @RequestParam(required = false)
+    final String asOf) {
+        RegistrySnapshot snapshot;
+        try {
+            snapshot = snapshotAsOf(asOf);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(null);
+        }
+        if (snapshot == null) {
+            return ResponseEntity.status(HttpStatus.NOT_FOUND).body(null);
+        }
+        List<EoscNode> nodes;
+        try (RegistryTracing.Phase phase = RegistryTracing.phase("lookup")) {
+            nodes = snapshot.getNodesWithCapability(capability);
+            phase.setAttribute("registry.capability", capability)
+            .setAttribute("registry.result_size", nodes.size());
+        }
+        // Matching is exact, so a name that matches is an index key as is
+        String key = nodes.isEmpty() ? NO_MATCH : capability;
+        Supplier<byte[]> json = RegistryTracing.timed("serialize",
+            () -> NodeJsonWriter.local().writeNodes(nodes).toByteArray());
+        if (isPast(snapshot)) {
+            return pastResponse(snapshot, "search:" + key, json,
+                MediaType.APPLICATION_JSON);
+        }
+        byte[] body = RegistryTracing.phase("cache",
+            () -> searchCache.get(snapshot.getVersion(), key, json));
+        return ResponseEntity.ok().contentType(MediaType.APPLICATION_JSON)
+        .body(body);
+    }
+
+    /**
+     * @param id EoscNode ID
+     * @return ResponseEntity<byte[]> JSON list of the metadata harvested
+     *         from the capability endpoints of the node
+     */
+    @Operation(summary = "Get harvested capability metadata", description =
+    "Retrieves the metadata harvested from the capability endpoints of a "
+    + "node. Endpoints that have not been harvested yet are left out.")
+    @ApiResponse(responseCode = "200", content = @Content(
+        mediaType = MediaType.APPLICATION_JSON_VALUE,
+        array = @ArraySchema(schema = @Schema(implementation =
+        CapabilityMetadata.class))))
+    @GetMapping("/{id}/metadata")
+    public ResponseEntity<byte[]> getNodeMetadata(@PathVariable
+    final String id) {
+        List<CapabilityMetadata> metadata =
+        nodeRegistry.getSnapshot().getNodeMetadata(id);
+        if (metadata == null) {
+            return ResponseEntity.status(HttpStatus.NOT_FOUND).body(null);
+        }
+        return ResponseEntity.ok().contentType(MediaType.APPLICATION_JSON)
+        .body(NodeJsonWriter.local().writeMetadata(metadata).toByteArray());
+    }
+
+    /**
+     * @param capability name of EoscCapability to route to
+     * @param strategy   round-robin, least-latency or hash
+     * @param key        client key, required by the hash strategy
+     * @return ResponseEntity<byte[]> the chosen endpoint and the ID of the
+     *         node that offers it, as a JSON object
+     */
+    @Operation(summary = "Get an endpoint for a capability", description =
+    "Picks one endpoint among the nodes that offer a capability, by "
+    + "weighted round-robin, least latency, or hashing of a client key "
+    + "so the client keeps the same endpoint.")
+    @ApiResponse(responseCode = "200", content = @Content(
+        mediaType = MediaType.APPLICATION_JSON_VALUE,
+        schema = @Schema(implementation = CapabilityRoute.class)))
+    @GetMapping("/route")
+    public ResponseEntity<byte[]> routeCapability(@RequestParam
+    final String capability, @RequestParam(defaultValue = "round-robin")
+    final String strategy, @RequestParam(required = false)
+    final String key) {
+        CapabilityRouter.Strategy chosen;
+        try {
+            chosen = CapabilityRouter.Strategy.fromParameter(strategy);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(null);
+        }
+        if (chosen == CapabilityRouter.Strategy.HASH && key == null) {
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(null);
+        }
+        CapabilityRoute route = router.route(capability, chosen, key);
+        if (route == null) {
+            return ResponseEntity.status(HttpStatus.NOT_FOUND).body(null);
+        }
+        return ResponseEntity.ok().contentType(MediaType.APPLICATION_JSON)
+        .body(NodeJsonWriter.local().writeRoute(route).toByteArray());
+    }
+
+    /**
+     * @param endpoint  capability endpoint the client called
+     * @param latencyMs time the call took, in milliseconds
+     * @param success   whether the call succeeded
+     * @return ResponseEntity<Void> 204, or 404 if the endpoint is not a
+     *         registered capability endpoint; 401 without the feedback
+     *         token, checked by {@link RouteFeedbackFilter}
+     */
+    @Operation(summary = "Report the outcome of a call to an endpoint",
+    description = "Feeds the latency or failure of a call to a capability "
+    + "endpoint into routing. Requires the X-Feedback-Token header; not "
+    + "found unless routing.feedback-token is set. Latencies above 10 s "
+    + "count as 10 s, as a failure does.")
+    @PostMapping("/route/feedback")
+    public ResponseEntity<Void> routeFeedback(@RequestParam
+    final URI endpoint, @RequestParam(defaultValue = "0")
+    final long latencyMs, @RequestParam(defaultValue = "true")
+    final boolean success) {
+        if (!nodeRegistry.getSnapshot().getCapabilityEndpoints()
+            .contains(endpoint)) {
+            return ResponseEntity.status(HttpStatus.NOT_FOUND).build();
+        }
+        if (success) {
+            router.recordLatency(endpoint,
+            TimeUnit.MILLISECONDS.toNanos(latencyMs));
+        } else {
+            router.recordFailure(endpoint);
+        }
+        return ResponseEntity.noContent().build();
+    }
+
+    /**
+     * @return ResponseEntity<Map<String, Object>> write and checkpoint
+     *         statistics of the registry log, or 404 if changes are not
+     *         logged
+     */
+    @Operation(summary = "Get registry log statistics", description =
+    "Reports the records, group commits and checkpoints of the write-ahead "
+    + "log of node changes.")
+    @GetMapping("/stats/log")
+    public ResponseEntity<Map<String, Object>> getLogStatistics() {
+        RegistryLog log = nodeRegistry.getLog();
+        if (log == null) {
+            return ResponseEntity.status(HttpStatus.NOT_FOUND).body(null);
+        }
+        return ResponseEntity.ok(log.getStatistics());
+    }
+
+    /**
+     * @return ResponseEntity<List<Map<String, Object>>> the registry
+     *         versions that can be read with asOf, oldest first
+     */
+    @Operation(summary = "List registry versions", description =
+    "Lists the registry versions that can be read with the asOf parameter, "
+    + "with the time each was published and its number of nodes.")
+    @GetMapping("/history")
+    public ResponseEntity<List<Map<String, Object>>> getHistory() {
+        return ResponseEntity.ok(nodeRegistry.getHistory().getVersions());
+    }
+
+    /**
+     * @return ResponseEntity<Map<String, Object>> compression ratios and
+     *         cache hit rates of the precompressed response cache
+     */
+    @Operation(summary = "Get compression statistics", description =
+    "Reports compression ratios and cache hit rates for node responses.")
+    @GetMapping("/stats/compression")
+    public ResponseEntity<Map<String, Object>> getCompressionStatistics() {
+        return ResponseEntity.ok(responseCache.getStatistics());
+    }
+
+    /**
+     * @return ResponseEntity<Map<String, Object>> size, hit rate, evictions
+     *         and invalidations of the search result cache
+     */
+    @Operation(summary = "Get search cache statistics", description =
+    "Reports size, hit rate and evictions of the capability search cache.")
+    @GetMapping("/stats/search")
+    public ResponseEntity<Map<String, Object>> getSearchStatistics() {
+        return ResponseEntity.ok(searchCache.getStatistics());
+    }
+
+    /**
+     * @return ResponseEntity<Map<String, Object>> requests routed per
+     *         strategy and latency samples recorded
+     */
+    @Operation(summary = "Get routing statistics", description =
+    "Reports requests routed per strategy and latency samples recorded.")
+    @GetMapping("/stats/routing")
+    public ResponseEntity<Map<String, Object>> getRoutingStatistics() {
+        return ResponseEntity.ok(router.getStatistics());
+    }
+
+    /**
+     * @param traceId only spans of this trace; all spans if absent
+     * @param limit   maximum number of spans returned
+     * @return ResponseEntity<Map<String, Object>> the most recently
+     *         recorded spans, newest first, with the numbers of spans
+     *         kept and dropped, or 404 if tracing is off
+     */
+    @Operation(summary = "Get recent trace spans", description =
+    "Lists the most recently recorded spans of node requests and registry "
+    + "loads, newest first: the request itself, lookups, serialisation, "
+    + "cache and the writing of the body.")
+    @GetMapping("/stats/traces")
+    public ResponseEntity<Map<String, Object>> getTraces(
+    @RequestParam(required = false) final String traceId,
+    @RequestParam(defaultValue = "100") final int limit) {
+        RecentSpanExporter exporter = RegistryTracing.getExporter();
+        if (exporter == null) {
+            return ResponseEntity.status(HttpStatus.NOT_FOUND).body(null);
+        }
+        if (limit <= 0) {
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(null);
+        }
+        Map<String, Object> traces = exporter.getStatistics();
+        traces.put("spans", exporter.getSpans(traceId, limit));
+        return ResponseEntity.ok(traces);
+    }
+
+    /**
+     * Builds a response carrying a cached body in the encoding negotiated
+     * with the client.
+     *
+     * @param body        the cached body
+     * @param encoding    the negotiated encoding
+     * @param contentType media type of the body
+     * @return ResponseEntity<byte[]> the encoded body
+     */
+    private static ResponseEntity<byte[]> encodedResponse(
+            final CompressedResponseCache.CompressedBody body,
+            final CompressedResponseCache.Encoding encoding,
+            final MediaType contentType) {
+        ResponseEntity.BodyBuilder builder = ResponseEntity.ok()
+        .contentType(contentType)
+        .header(HttpHeaders.VARY, HttpHeaders.ACCEPT,
+        HttpHeaders.ACCEPT_ENCODING);
+        if (encoding != CompressedResponseCache.Encoding.IDENTITY) {
+            builder.header(HttpHeaders.CONTENT_ENCODING, encoding.getToken());
+        }
+        return builder.body(body.bytes(encoding));
+    }
+
+    /**
+     * Builds the response for a client whose Accept-Encoding header rules
+     * out every encoding the response could be sent in.
+     *
+     * @return ResponseEntity<byte[]> 406 Not Acceptable
+     */
+    private static ResponseEntity<byte[]> notAcceptable() {
+        return ResponseEntity.status(HttpStatus.NOT_ACCEPTABLE)
+        .header(HttpHeaders.VARY, HttpHeaders.ACCEPT,
+        HttpHeaders.ACCEPT_ENCODING)
+        .body(null);
+    }
+
+    /**
+     * Gets the snapshot to read as of a version or time.
+     *
+     * @param asOf registry version or ISO-8601 instant; null for the
+     *             current version
+     * @return the snapshot, or null if no retained version matches
+     * @throws IllegalArgumentException if asOf is neither a version nor an
+     *                                  instant
+     */
+    private RegistrySnapshot snapshotAsOf(final String asOf) {
+        if (asOf == null) {
+            return nodeRegistry.getSnapshot();
+        }
+        return nodeRegistry.getHistory().resolve(asOf);
+    }
+
+    /**
+     * Tells whether a snapshot is older than the current version.
+     *
+     * @param snapshot the snapshot
+     * @return true if a newer version has been published
+     */
+    private boolean isPast(final RegistrySnapshot snapshot) {
+        return snapshot.getVersion() < nodeRegistry.getVersion();
+    }
+
+    /**
+     * Serves a response for a past version from the history cache. These
+     * are rare enough that they are not precompressed.
+     *
+     * @param snapshot    the past snapshot
+     * @param key         the response key
+     * @param body        builds the body
+     * @param contentType media type of the body
+     * @return ResponseEntity<byte[]> the body
+     */
+    private ResponseEntity<byte[]> pastResponse(
+            final RegistrySnapshot snapshot, final String key,
+            final Supplier<byte[]> body, final MediaType contentType) {
+        return ResponseEntity.ok().contentType(contentType)
+        .header(HttpHeaders.VARY, HttpHeaders.ACCEPT)
+        .body(RegistryTracing.phase("cache", () -> historyCache.get(
+            HISTORY_CACHE_VERSION, snapshot.getVersion() + ":" + key,
+            body)));
+    }
+
+    /**
+     * Serialises nodes to the binary representation.
+     *
+     * @param nodes the nodes to serialise
+     * @return the binary bytes
+     */
+    private static byte[] toBinaryBytes(final List<EoscNode> nodes) {
+        try {
+            return NodeBinaryCodec.encode(nodes);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Decides whether the client prefers the binary representation, i.e.
+     * it explicitly accepts it with a quality at least as high as JSON.
+     *
+     * @param accept the Accept header, may be null
+     * @return true if the binary representation should be served
+     */
+    static boolean prefersBinary(final String accept) {
+        if (accept == null) {
+            return false;
+        }
+        List<MediaType> mediaTypes;
+        try {
+            mediaTypes = MediaType.parseMediaTypes(accept);
+        } catch (InvalidMediaTypeException e) {
+            return false;
+        }
+        double binaryQuality = 0.0;
+        double jsonQuality = 0.0;
+        for (MediaType mediaType : mediaTypes) {
+            if (mediaType.equalsTypeAndSubtype(BINARY_MEDIA_TYPE)) {
+                binaryQuality = Math.max(binaryQuality,
+                mediaType.getQualityValue());
+            } else if (!mediaType.isWildcardSubtype()
+            && mediaType.isCompatibleWith(MediaType.APPLICATION_JSON)) {
+                jsonQuality = Math.max(jsonQuality,
+                mediaType.getQualityValue());
+            }
+        }
+        return binaryQuality > 0.0 && binaryQuality >= jsonQuality;
     }
 }
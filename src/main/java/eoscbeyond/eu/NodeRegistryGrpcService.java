@@ -0,0 +1,397 @@
+/*
+ * Copyright © 2025 EOSC Beyond (${email})
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package eoscbeyond.eu;
+
+import java.util.Iterator;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Consumer;
+
+import eoscbeyond.eu.grpc.NodeRegistryProtos;
+import eoscbeyond.eu.grpc.NodeRegistryServiceGrpc;
+
+import io.grpc.Status;
+import io.grpc.stub.ServerCallStreamObserver;
+import io.grpc.stub.StreamObserver;
+
+/**
+ * The {@code NodeRegistryGrpcService} class implements the gRPC API of the
+ * node registry, defined in {@code src/main/proto/node_registry.proto}.
+ * <p>
+ * Lookups by ID, capability searches and listings read one registry
+ * snapshot, like the REST endpoints. Searches and listings stream their
+ * results in pages of about {@value #PAGE_BYTES} bytes, with flow control:
+ * pages are sent only while the client's transport can take them, so a
+ * large listing neither buffers whole in memory nor outruns a slow client.
+ * Pages amortise the cost of a stream message over many nodes; sending
+ * nodes one per message made a listing several times slower than the REST
+ * endpoint. Messages are built once per node and reused until the node
+ * changes.
+ * </p>
+ *
+ * <p>
+ * A watch streams the changes made after it starts, in version order,
+ * optionally after every current node. Changes are queued for each watch
+ * and sent as its client reads them; a watch whose client falls more than
+ * {@code grpc.watch-backlog} changes behind is ended with
+ * {@code RESOURCE_EXHAUSTED}, and the client watches again with the
+ * current nodes.
+ * </p>
+ *
+ * <p>
+ * Example usage:
+ * </p>
+ *
+ * <pre>
+ * Server server = Grpc.newServerBuilderForPort(9090,
+ *     InsecureServerCredentials.create())
+ *     .addService(new NodeRegistryGrpcService(registry, 1024))
+ *     .build().start();
+ * </pre>
+ *
+ */
+public class NodeRegistryGrpcService
+        extends NodeRegistryServiceGrpc.NodeRegistryServiceImplBase
+        implements AutoCloseable {
+    /** Size at which a page of nodes is sent, in serialised bytes. */
+    static final int PAGE_BYTES = 16 * 1024;
+
+    /** The node registry served. */
+    private final NodeRegistry registry;
+    /** Changes queued for a watch before it is ended. */
+    private final int watchBacklog;
+    /** Executor sending queued changes to watch clients. */
+    private final ExecutorService executor =
+    Executors.newVirtualThreadPerTaskExecutor();
+    /** Messages built for nodes, by node ID. */
+    private final Map<String, CachedMessage> messages =
+    new ConcurrentHashMap<>();
+    /** Listener dropping the messages of changed nodes. */
+    private final Consumer<NodeRegistry.Change> invalidator =
+    this::invalidate;
+    /** Watches in progress. */
+    private final Set<WatchStream> watches = ConcurrentHashMap.newKeySet();
+
+    /**
+     * Constructor.
+     *
+     * @param xRegistry     the node registry served
+     * @param xWatchBacklog changes queued for a watch before it is ended
+     */
+    public NodeRegistryGrpcService(final NodeRegistry xRegistry,
+            final int xWatchBacklog) {
+        this.registry = xRegistry;
+        this.watchBacklog = xWatchBacklog;
+        registry.addListener(invalidator);
+    }
+
+    /**
+     * Gets a node by its ID.
+     *
+     * @param xRequest  the request
+     * @param xObserver receives the node, or {@code NOT_FOUND}
+     */
+    @Override
+    public void getNode(final NodeRegistryProtos.GetNodeRequest xRequest,
+            final StreamObserver<NodeRegistryProtos.EoscNode> xObserver) {
+        if (!checkReady(xObserver)) {
+            return;
+        }
+        if (xRequest.getId().isEmpty()) {
+            xObserver.onError(Status.INVALID_ARGUMENT
+                .withDescription("id is required").asRuntimeException());
+            return;
+        }
+        EoscNode node = registry.getSnapshot().getNode(xRequest.getId());
+        if (node == null) {
+            xObserver.onError(Status.NOT_FOUND
+                .withDescription("No node " + xRequest.getId())
+                .asRuntimeException());
+            return;
+        }
+        xObserver.onNext(message(node));
+        xObserver.onCompleted();
+    }
+
+    /**
+     * Streams the nodes that offer a capability.
+     *
+     * @param xRequest  the request
+     * @param xObserver receives the nodes, in pages
+     */
+    @Override
+    public void searchByCapability(
+            final NodeRegistryProtos.SearchRequest xRequest,
+            final StreamObserver<NodeRegistryProtos.NodePage> xObserver) {
+        if (!checkReady(xObserver)) {
+            return;
+        }
+        if (xRequest.getCapability().isEmpty()) {
+            xObserver.onError(Status.INVALID_ARGUMENT
+                .withDescription("capability is required")
+                .asRuntimeException());
+            return;
+        }
+        stream(registry.getSnapshot()
+            .getNodesWithCapability(xRequest.getCapability()).iterator(),
+            xObserver);
+    }
+
+    /**
+     * Streams every node.
+     *
+     * @param xRequest  the request
+     * @param xObserver receives the nodes, in pages
+     */
+    @Override
+    public void listNodes(final NodeRegistryProtos.ListNodesRequest xRequest,
+            final StreamObserver<NodeRegistryProtos.NodePage> xObserver) {
+        if (!checkReady(xObserver)) {
+            return;
+        }
+        stream(registry.getSnapshot().getNodes().iterator(), xObserver);
+    }
+
+    /**
+     * Streams the changes made from now on, until the client cancels.
+     *
+     * @param xRequest  the request
+     * @param xObserver receives the changes
+     */
+    @Override
+    public void watch(final NodeRegistryProtos.WatchRequest xRequest,
+            final StreamObserver<NodeRegistryProtos.NodeChange> xObserver) {
+        ServerCallStreamObserver<NodeRegistryProtos.NodeChange> call =
+        (ServerCallStreamObserver<NodeRegistryProtos.NodeChange>) xObserver;
+        WatchStream watch = new WatchStream(call);
+        call.setOnCancelHandler(watch::close);
+        call.setOnReadyHandler(watch::drain);
+        watches.add(watch);
+        RegistrySnapshot snapshot = registry.addListener(watch);
+        watch.start(xRequest.getIncludeCurrent() ? snapshot : null,
+            snapshot.getVersion());
+    }
+
+    /**
+     * Ends the watches in progress and stops listening to the registry.
+     */
+    @Override
+    public void close() {
+        registry.removeListener(invalidator);
+        for (WatchStream watch : watches) {
+            watch.finish();
+        }
+        executor.shutdown();
+    }
+
+    private boolean checkReady(final StreamObserver<?> xObserver) {
+        if (registry.isReady()) {
+            return true;
+        }
+        xObserver.onError(Status.UNAVAILABLE
+            .withDescription("Node registry is loading").asRuntimeException());
+        return false;
+    }
+
+    /**
+     * Sends pages of nodes as the client's transport can take them, then
+     * completes.
+     */
+    private void stream(final Iterator<EoscNode> xNodes,
+            final StreamObserver<NodeRegistryProtos.NodePage> xObserver) {
+        ServerCallStreamObserver<NodeRegistryProtos.NodePage> call =
+        (ServerCallStreamObserver<NodeRegistryProtos.NodePage>) xObserver;
+        // Without a cancel handler, sending after a cancel throws
+        call.setOnCancelHandler(() -> { });
+        call.setOnReadyHandler(new Runnable() {
+            private boolean completed;
+
+            @Override
+            public void run() {
+                while (!completed && call.isReady()) {
+                    if (!xNodes.hasNext()) {
+                        completed = true;
+                        call.onCompleted();
+                        return;
+                    }
+                    call.onNext(page(xNodes));
+                }
+            }
+        });
+    }
+
+    private NodeRegistryProtos.NodePage page(final Iterator<EoscNode> xNodes) {
+        NodeRegistryProtos.NodePage.Builder page =
+        NodeRegistryProtos.NodePage.newBuilder();
+        int bytes = 0;
+        while (bytes < PAGE_BYTES && xNodes.hasNext()) {
+            NodeRegistryProtos.EoscNode message = message(xNodes.next());
+            page.addNodes(message);
+            bytes += message.getSerializedSize();
+        }
+        return page.build();
+    }
+
+    private NodeRegistryProtos.EoscNode message(final EoscNode xNode) {
+        String id = xNode.getId();
+        CachedMessage cached = id == null ? null : messages.get(id);
+        if (cached != null && cached.node() == xNode) {
+            return cached.message();
+        }
+        NodeRegistryProtos.EoscNode message = NodeMessages.toMessage(xNode);
+        if (id != null) {
+            messages.put(id, new CachedMessage(xNode, message));
+        }
+        return message;
+    }
+
+    private void invalidate(final NodeRegistry.Change xChange) {
+        if (xChange.isReload()) {
+            messages.clear();
+        } else if (xChange.removedId() != null) {
+            messages.remove(xChange.removedId());
+        } else if (xChange.node().getId() != null) {
+            messages.remove(xChange.node().getId());
+        }
+    }
+
+    private NodeRegistryProtos.NodeChange changeMessage(
+            final NodeRegistry.Change xChange) {
+        NodeRegistryProtos.NodeChange.Builder builder =
+        NodeRegistryProtos.NodeChange.newBuilder()
+        .setVersion(xChange.version());
+        if (xChange.isReload()) {
+            builder.setReload(true);
+        } else if (xChange.removedId() != null) {
+            builder.setRemovedId(xChange.removedId());
+        } else {
+            builder.setPut(message(xChange.node()));
+        }
+        return builder.build();
+    }
+
+    /**
+     * A message built for a node.
+     *
+     * @param node    the node it was built for
+     * @param message the message
+     */
+    private record CachedMessage(EoscNode node,
+        NodeRegistryProtos.EoscNode message) {
+    }
+
+    /**
+     * A watch in progress: the registry listener queueing its changes, and
+     * the sender draining the queue while the client can take them.
+     */
+    private final class WatchStream
+            implements Consumer<NodeRegistry.Change> {
+        /** The call changes are sent on. */
+        private final ServerCallStreamObserver<NodeRegistryProtos.NodeChange>
+        call;
+        /** Changes not yet sent. */
+        private final BlockingQueue<NodeRegistry.Change> pending;
+        /** Whether a drain has been handed to the executor. */
+        private final AtomicBoolean scheduled = new AtomicBoolean();
+        /** Whether changes did not fit in the queue. */
+        private volatile boolean overflowed;
+        /** Current nodes still to send; null once sent or not asked for. */
+        private Iterator<EoscNode> current;
+        /** Version of the current nodes. */
+        private long currentVersion;
+        /** Whether sending may begin. */
+        private boolean started;
+        /** Whether the watch has ended. */
+        private boolean closed;
+
+        WatchStream(final ServerCallStreamObserver<NodeRegistryProtos
+                .NodeChange> xCall) {
+            this.call = xCall;
+            this.pending = new ArrayBlockingQueue<>(watchBacklog);
+        }
+
+        /** Queues a change; called holding the registry lock. */
+        @Override
+        public void accept(final NodeRegistry.Change xChange) {
+            if (!pending.offer(xChange)) {
+                overflowed = true;
+            }
+            if (scheduled.compareAndSet(false, true)) {
+                executor.execute(() -> {
+                    scheduled.set(false);
+                    drain();
+                });
+            }
+        }
+
+        synchronized void start(final RegistrySnapshot xCurrent,
+                final long xVersion) {
+            current = xCurrent == null ? null
+            : xCurrent.getNodes().iterator();
+            currentVersion = xVersion;
+            started = true;
+            drain();
+        }
+
+        synchronized void drain() {
+            if (!started || closed) {
+                return;
+            }
+            if (overflowed) {
+                close();
+                call.onError(Status.RESOURCE_EXHAUSTED.withDescription(
+                    "Watch fell more than " + watchBacklog
+                    + " changes behind").asRuntimeException());
+                return;
+            }
+            while (call.isReady()) {
+                if (current != null && current.hasNext()) {
+                    call.onNext(NodeRegistryProtos.NodeChange.newBuilder()
+                        .setVersion(currentVersion)
+                        .setPut(message(current.next())).build());
+                    continue;
+                }
+                current = null;
+                NodeRegistry.Change change = pending.poll();
+                if (change == null) {
+                    return;
+                }
+                call.onNext(changeMessage(change));
+            }
+        }
+
+        synchronized void finish() {
+            if (!closed) {
+                close();
+                call.onCompleted();
+            }
+        }
+
+        synchronized void close() {
+            closed = true;
+            registry.removeListener(this);
+            watches.remove(this);
+        }
+    }
+}
@@ -0,0 +1,41 @@
+/*
+ * Copyright © 2025 EOSC Beyond (${email})
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package eoscbeyond.eu;
+
+import org.springframework.boot.actuate.health.Health;
+import org.springframework.boot.actuate.health.HealthIndicator;
+import org.springframework.stereotype.Component;
+
+/**
+ * The {@code NodeRegistryHealthIndicator} class reports whether the node
+ * registry has been loaded. It is part of the readiness group, so
+ * {@code /actuator/health/readiness} is only UP once nodes can be served.
+ *
+ */
+@Component
+public class NodeRegistryHealthIndicator implements HealthIndicator {
+    /** Get the sole NodeRegistry instance. */
+    private final NodeRegistry nodeRegistry = NodeRegistry.getInstance();
+
+    @Override
+    public Health health() {
+        RegistrySnapshot snapshot = nodeRegistry.getSnapshot();
+        Health.Builder builder = nodeRegistry.isReady() ? Health.up()
+        : Health.outOfService();
+        return builder.withDetail("version", snapshot.getVersion())
+        .withDetail("nodes", snapshot.getNodes().size()).build();
+    }
+}
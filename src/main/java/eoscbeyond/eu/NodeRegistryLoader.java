@@ -0,0 +1,173 @@
+/*
+ * Copyright © 2025 EOSC Beyond (${email})
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package eoscbeyond.eu;
+
+import java.io.IOException;
+import java.net.URISyntaxException;
+import java.util.List;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.springframework.beans.factory.InitializingBean;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.DependsOn;
+import org.springframework.stereotype.Component;
+
+import eoscbeyond.eu.data.Configuration;
+import eoscbeyond.eu.data.RegistryLogConfiguration;
+import eoscbeyond.eu.data.ReplicationConfiguration;
+import eoscbeyond.eu.data.ShardingConfiguration;
+
+/**
+ * The {@code NodeRegistryLoader} class loads the node registry as part of
+ * the application lifecycle.
+ * <p>
+ * The nodes file is read while the application context is refreshed, before
+ * the web server starts accepting connections, so the first request always
+ * sees a loaded registry. This also happens when the application is deployed
+ * as a WAR, where {@code NodeRegistryApplication.main} is never called. If
+ * the file cannot be read, startup fails rather than serving an empty
+ * registry.
+ * </p>
+ *
+ * <p>
+ * When the registry log is enabled, the latest checkpoint is loaded
+ * instead of the nodes file, if there is one, and the changes logged
+ * after it are replayed before the log is attached to the registry.
+ * </p>
+ *
+ * <p>
+ * A replication follower loads nothing: its registry stays not ready
+ * until the {@link ReplicationFollower} has applied a snapshot of the
+ * leader's.
+ * </p>
+ *
+ * <p>
+ * A shard of a sharded registry keeps only the nodes that belong to it.
+ * </p>
+ *
+ * <p>
+ * The loader is created after the {@link RegistryEventMonitor}, so that
+ * the flight recorder events of the load are summarised.
+ * </p>
+ *
+ */
+@Component
+@DependsOn("registryEventMonitor")
+public class NodeRegistryLoader implements InitializingBean {
+    /** Logger. */
+    private static final Logger LOGGER =
+    LogManager.getLogger(NodeRegistryLoader.class);
+    /** Nanoseconds per millisecond. */
+    private static final long NANOS_PER_MILLI = 1_000_000L;
+
+    /** Application configuration. */
+    private final Configuration configuration;
+    /** Registry log settings. */
+    private final RegistryLogConfiguration logConfiguration;
+    /** Replication settings. */
+    private final ReplicationConfiguration replicationConfiguration;
+    /** Sharding settings. */
+    private final ShardingConfiguration shardingConfiguration;
+
+    /**
+     * Constructor.
+     *
+     * @param xConfiguration            application configuration, giving
+     *                                  the path of the nodes file and the
+     *                                  number of versions to keep
+     * @param xLogConfiguration         registry log settings
+     * @param xReplicationConfiguration replication settings
+     * @param xShardingConfiguration    sharding settings
+     */
+    @Autowired
+    public NodeRegistryLoader(final Configuration xConfiguration,
+            final RegistryLogConfiguration xLogConfiguration,
+            final ReplicationConfiguration xReplicationConfiguration,
+            final ShardingConfiguration xShardingConfiguration) {
+        this.configuration = xConfiguration;
+        this.logConfiguration = xLogConfiguration;
+        this.replicationConfiguration = xReplicationConfiguration;
+        this.shardingConfiguration = xShardingConfiguration;
+    }
+
+    /**
+     * Constructor for tests, with the registry log, replication and
+     * sharding disabled.
+     *
+     * @param xConfiguration application configuration, giving the path of
+     *                       the nodes file and the number of versions to
+     *                       keep
+     */
+    NodeRegistryLoader(final Configuration xConfiguration) {
+        this(xConfiguration, RegistryLogConfiguration.defaults(),
+            ReplicationConfiguration.defaults(),
+            ShardingConfiguration.defaults());
+    }
+
+    /**
+     * Reads the nodes file, or the registry log, and initialises the sole
+     * NodeRegistry instance.
+     *
+     * @throws IOException        if the nodes file or the log cannot be
+     *                            read
+     * @throws URISyntaxException if the nodes file cannot be parsed
+     */
+    @Override
+    public void afterPropertiesSet() throws IOException, URISyntaxException {
+        long start = System.nanoTime();
+        NodeRegistry registry = NodeRegistry.getInstance();
+        registry.getHistory().setMaxVersions(configuration.historySize());
+        if (replicationConfiguration.role()
+        == ReplicationConfiguration.Role.FOLLOWER) {
+            LOGGER.info("Node registry waits for a snapshot from leader {}",
+            replicationConfiguration.leaderUrl());
+            return;
+        }
+        RegistryLog log = null;
+        List<EoscNode> nodeList = null;
+        String source = configuration.nodesFile();
+        if (logConfiguration.enabled()) {
+            log = RegistryLog.open(logConfiguration.directory(),
+                logConfiguration.groupCommitWindow(),
+                logConfiguration.retainedChanges());
+            nodeList = log.getCheckpoint();
+            source = "checkpoint in " + logConfiguration.directory();
+        }
+        if (nodeList == null) {
+            nodeList = new ReadNodeDetails(configuration.nodesFile())
+            .getNodes();
+            source = configuration.nodesFile();
+        }
+        if (shardingConfiguration.enabled()) {
+            ShardMap shards = new ShardMap(shardingConfiguration.shards(),
+                shardingConfiguration.index());
+            nodeList = nodeList.stream()
+            .filter(node -> shards.isLocal(node.getId())).toList();
+            source += " (shard " + shards.getIndex() + " of "
+            + shards.getShards().size() + ")";
+        }
+        registry.setNodes(nodeList);
+        int replayed = 0;
+        if (log != null) {
+            replayed = log.replay(registry::putNode, registry::removeNode);
+            registry.attachLog(log);
+        }
+        LOGGER.info("Node registry loaded with {} nodes from {} and {} "
+        + "logged changes in {} ms", registry.getNodes().size(), source,
+        replayed, (System.nanoTime() - start) / NANOS_PER_MILLI);
+    }
+}
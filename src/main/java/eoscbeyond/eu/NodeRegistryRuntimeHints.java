@@ -0,0 +1,49 @@
+/*
+ * Copyright © 2025 EOSC Beyond (${email})
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package eoscbeyond.eu;
+
+import org.springframework.aot.hint.BindingReflectionHintsRegistrar;
+import org.springframework.aot.hint.RuntimeHints;
+import org.springframework.aot.hint.RuntimeHintsRegistrar;
+
+/**
+ * The {@code NodeRegistryRuntimeHints} class declares what a GraalVM native
+ * image of the application needs beyond what Spring AOT detects itself.
+ * <p>
+ * The node model classes are only named in OpenAPI annotations, so their
+ * properties are registered for reflection for springdoc to build the API
+ * schema. JSON and binary serialisation of nodes is hand-written and needs
+ * no hints. The nodes file on the classpath is registered as a resource.
+ * </p>
+ *
+ */
+public class NodeRegistryRuntimeHints implements RuntimeHintsRegistrar {
+    /** Classes of the node model, as documented in the API. */
+    private static final Class<?>[] MODEL_CLASSES = {
+        EoscNode.class, LegalEntity.class, EoscCapability.class,
+        NodeSummary.class};
+
+    /** Default nodes file, read from the classpath. */
+    private static final String NODES_FILE = "nodes.csv";
+
+    @Override
+    public void registerHints(final RuntimeHints hints,
+            final ClassLoader classLoader) {
+        new BindingReflectionHintsRegistrar().registerReflectionHints(
+            hints.reflection(), MODEL_CLASSES);
+        hints.resources().registerPattern(NODES_FILE);
+    }
+}
@@ -0,0 +1,54 @@
+/*
+ * Copyright © 2025 EOSC Beyond (${email})
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package eoscbeyond.eu;
+
+import java.net.URI;
+import java.util.List;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+
+/**
+ * Summary projection of an {@code EoscNode}: its endpoint and the
+ * capabilities it offers.
+ *
+ * @param nodeEndpoint address of the endpoint of the node
+ * @param capabilities capabilities of the node
+ */
+@Schema(description = "Endpoint and capabilities of a node.")
+public record NodeSummary(URI nodeEndpoint,
+        List<EoscCapability> capabilities) {
+
+    /**
+     * Creates the summary of a node.
+     *
+     * @param xNode the node
+     * @return the node summary
+     */
+    public static NodeSummary of(final EoscNode xNode) {
+        return new NodeSummary(xNode.getNodeEndpoint(),
+        xNode.getCapabilityList());
+    }
+
+    /**
+     * Converts this summary to a JSON representation.
+     *
+     * @return JSON string representation of this summary
+     */
+    public String toJson() {
+        return NodeJsonWriter.local().writeSummary(this).toString();
+    }
+}
@@ -0,0 +1,448 @@
+/*
+ * Copyright © 2025 EOSC Beyond (${email})
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package eoscbeyond.eu;
+
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.function.ObjIntConsumer;
+
+/**
+ * The {@code OrdinalTrie} class is an immutable, sparse array indexed by
+ * non-negative int, that shares structure between versions.
+ * <p>
+ * It is a radix trie with 32 slots per node, so an index is found in at
+ * most seven steps and {@link #set(int, Object)} copies only the nodes on
+ * the path to the index. Earlier versions stay valid and unchanged. Each
+ * node counts the values below it, so the trie can also find its n-th
+ * value, in index order, in logarithmic time; subtrees left empty are
+ * dropped. It holds the nodes of a registry snapshot by ordinal and by
+ * position, and the capability postings.
+ * </p>
+ *
+ * <p>
+ * Example usage:
+ * </p>
+ *
+ * <pre>
+ * OrdinalTrie<String> v1 = OrdinalTrie.<String>empty().set(40, "a");
+ * OrdinalTrie<String> v2 = v1.set(3, "b");
+ * v2.nth(0);       // "b"
+ * v1.count();      // 1, v1 is unchanged
+ * </pre>
+ *
+ * @param <T> the type of values
+ */
+public final class OrdinalTrie<T> implements Iterable<T> {
+    /** Bits of the index consumed per level. */
+    private static final int BITS = 5;
+    /** Slots per node. */
+    private static final int WIDTH = 1 << BITS;
+    /** Mask of the bits consumed per level. */
+    private static final int MASK = WIDTH - 1;
+    /** Trie with no values. */
+    private static final OrdinalTrie<?> EMPTY = new OrdinalTrie<>(null, 0);
+
+    /** Root node, or null if there are no values. */
+    private final Node root;
+    /** Shift of the root level; leaves are at shift zero. */
+    private final int shift;
+
+    private OrdinalTrie(final Node xRoot, final int xShift) {
+        this.root = xRoot;
+        this.shift = xShift;
+    }
+
+    /**
+     * Gets the trie with no values.
+     *
+     * @param <T> the type of values
+     * @return the empty trie
+     */
+    @SuppressWarnings("unchecked")
+    public static <T> OrdinalTrie<T> empty() {
+        return (OrdinalTrie<T>) EMPTY;
+    }
+
+    /**
+     * Creates a builder, for filling a new trie without copying.
+     *
+     * @param <T> the type of values
+     * @return the builder
+     */
+    public static <T> Builder<T> builder() {
+        return new Builder<>();
+    }
+
+    /**
+     * Gets the number of values.
+     *
+     * @return the number of non-null values
+     */
+    public int count() {
+        return root == null ? 0 : root.count;
+    }
+
+    /**
+     * Gets the value at an index.
+     *
+     * @param xIndex the index
+     * @return the value, or null if there is none
+     */
+    @SuppressWarnings("unchecked")
+    public T get(final int xIndex) {
+        if (xIndex < 0 || !fits(xIndex, shift) || root == null) {
+            return null;
+        }
+        Node node = root;
+        for (int level = shift; level > 0; level -= BITS) {
+            node = (Node) node.slots[(xIndex >>> level) & MASK];
+            if (node == null) {
+                return null;
+            }
+        }
+        return (T) node.slots[xIndex & MASK];
+    }
+
+    /**
+     * Gets a trie with the value at an index set.
+     *
+     * @param xIndex the index
+     * @param xValue the value, or null to clear the index
+     * @return the new trie, or this trie if the index already holds the
+     *         value
+     */
+    public OrdinalTrie<T> set(final int xIndex, final T xValue) {
+        if (xIndex < 0) {
+            throw new IndexOutOfBoundsException(xIndex);
+        }
+        int level = shift;
+        Node top = root;
+        if (!fits(xIndex, level)) {
+            if (xValue == null) {
+                return this;
+            }
+            while (!fits(xIndex, level)) {
+                level += BITS;
+                if (top != null) {
+                    Object[] slots = new Object[WIDTH];
+                    slots[0] = top;
+                    top = new Node(slots, top.count);
+                }
+            }
+        }
+        Node changed = set(top, level, xIndex, xValue);
+        if (changed == root && level == shift) {
+            return this;
+        }
+        return changed == null ? empty() : new OrdinalTrie<>(changed, level);
+    }
+
+    /**
+     * Gets the n-th value, in index order.
+     *
+     * @param xN the position of the value among all values
+     * @return the value
+     * @throws IndexOutOfBoundsException if there are not that many values
+     */
+    @SuppressWarnings("unchecked")
+    public T nth(final int xN) {
+        return (T) leafOf(xN, null);
+    }
+
+    /**
+     * Gets the index of the n-th value, in index order.
+     *
+     * @param xN the position of the value among all values
+     * @return the index
+     * @throws IndexOutOfBoundsException if there are not that many values
+     */
+    public int indexOfNth(final int xN) {
+        int[] index = new int[1];
+        leafOf(xN, index);
+        return index[0];
+    }
+
+    /**
+     * Calls an action for every value, in index order.
+     *
+     * @param xAction the action, given the value and its index
+     */
+    public void forEachIndexed(final ObjIntConsumer<? super T> xAction) {
+        if (root != null) {
+            forEachIndexed(root, shift, 0, xAction);
+        }
+    }
+
+    /**
+     * Gets the indexes of all values, in ascending order.
+     *
+     * @return the indexes
+     */
+    public int[] indexes() {
+        int[] indexes = new int[count()];
+        int[] next = new int[1];
+        forEachIndexed((value, index) -> indexes[next[0]++] = index);
+        return indexes;
+    }
+
+    /**
+     * Iterates over the values in index order.
+     *
+     * @return the iterator
+     */
+    @Override
+    public Iterator<T> iterator() {
+        return new ValueIterator();
+    }
+
+    private Object leafOf(final int xN, final int[] xIndex) {
+        if (xN < 0 || xN >= count()) {
+            throw new IndexOutOfBoundsException(xN);
+        }
+        Node node = root;
+        int remaining = xN;
+        int index = 0;
+        for (int level = shift;; level -= BITS) {
+            for (int slot = 0; slot < WIDTH; slot++) {
+                Object child = node.slots[slot];
+                if (child == null) {
+                    continue;
+                }
+                int below = level == 0 ? 1 : ((Node) child).count;
+                if (remaining < below) {
+                    index |= slot << level;
+                    if (level == 0) {
+                        if (xIndex != null) {
+                            xIndex[0] = index;
+                        }
+                        return child;
+                    }
+                    node = (Node) child;
+                    break;
+                }
+                remaining -= below;
+            }
+        }
+    }
+
+    private static boolean fits(final int xIndex, final int xShift) {
+        return xShift + BITS >= Integer.SIZE || xIndex >>> (xShift + BITS) == 0;
+    }
+
+    private static Node set(final Node xNode, final int xShift,
+            final int xIndex, final Object xValue) {
+        int slot = (xIndex >>> xShift) & MASK;
+        Object old = xNode == null ? null : xNode.slots[slot];
+        Object changed;
+        int delta;
+        if (xShift == 0) {
+            if (old == xValue) {
+                return xNode;
+            }
+            changed = xValue;
+            delta = (xValue == null ? 0 : 1) - (old == null ? 0 : 1);
+        } else {
+            Node child = (Node) old;
+            Node changedChild = set(child, xShift - BITS, xIndex, xValue);
+            if (changedChild == child) {
+                return xNode;
+            }
+            changed = changedChild;
+            delta = (changedChild == null ? 0 : changedChild.count)
+            - (child == null ? 0 : child.count);
+        }
+        int count = (xNode == null ? 0 : xNode.count) + delta;
+        if (count == 0) {
+            return null;
+        }
+        Object[] slots = xNode == null ? new Object[WIDTH]
+        : xNode.slots.clone();
+        slots[slot] = changed;
+        return new Node(slots, count);
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <T> void forEachIndexed(final Node xNode,
+            final int xShift, final int xBase,
+            final ObjIntConsumer<? super T> xAction) {
+        for (int slot = 0; slot < WIDTH; slot++) {
+            Object child = xNode.slots[slot];
+            if (child == null) {
+                continue;
+            }
+            int index = xBase | (slot << xShift);
+            if (xShift == 0) {
+                xAction.accept((T) child, index);
+            } else {
+                forEachIndexed((Node) child, xShift - BITS, index,
+                    xAction);
+            }
+        }
+    }
+
+    /**
+     * Node of the trie: child nodes, or values at the leaves, and the
+     * number of values below.
+     */
+    private static final class Node {
+        /** Child nodes, or values. */
+        private final Object[] slots;
+        /** Number of values below this node. */
+        private int count;
+
+        Node(final Object[] xSlots, final int xCount) {
+            this.slots = xSlots;
+            this.count = xCount;
+        }
+    }
+
+    /**
+     * Fills a new trie in place. Nodes are only shared once
+     * {@link #build()} has been called, after which the builder must not
+     * be used.
+     *
+     * @param <T> the type of values
+     */
+    public static final class Builder<T> {
+        /** Root node, or null if nothing has been set. */
+        private Node root;
+        /** Shift of the root level. */
+        private int shift;
+
+        private Builder() {
+        }
+
+        /**
+         * Sets the value at an index that has none yet.
+         *
+         * @param xIndex the index
+         * @param xValue the value
+         * @return this builder
+         * @throws IllegalStateException if the index already has a value
+         */
+        public Builder<T> set(final int xIndex, final T xValue) {
+            if (xIndex < 0) {
+                throw new IndexOutOfBoundsException(xIndex);
+            }
+            if (root == null) {
+                root = new Node(new Object[WIDTH], 0);
+            }
+            while (!fits(xIndex, shift)) {
+                Object[] slots = new Object[WIDTH];
+                slots[0] = root;
+                root = new Node(slots, root.count);
+                shift += BITS;
+            }
+            Node node = root;
+            for (int level = shift; level > 0; level -= BITS) {
+                int slot = (xIndex >>> level) & MASK;
+                if (node.slots[slot] == null) {
+                    node.slots[slot] = new Node(new Object[WIDTH], 0);
+                }
+                node = (Node) node.slots[slot];
+            }
+            if (node.slots[xIndex & MASK] != null) {
+                throw new IllegalStateException("Index " + xIndex + " is set");
+            }
+            node.slots[xIndex & MASK] = xValue;
+            node = root;
+            for (int level = shift; level > 0; level -= BITS) {
+                node.count++;
+                node = (Node) node.slots[(xIndex >>> level) & MASK];
+            }
+            node.count++;
+            return this;
+        }
+
+        /**
+         * Gets the value at an index.
+         *
+         * @param xIndex the index
+         * @return the value, or null if there is none
+         */
+        public T get(final int xIndex) {
+            return new OrdinalTrie<T>(root, shift).get(xIndex);
+        }
+
+        /**
+         * Gets the trie filled so far.
+         *
+         * @return the trie
+         */
+        public OrdinalTrie<T> build() {
+            return root == null || root.count == 0 ? empty()
+            : new OrdinalTrie<>(root, shift);
+        }
+    }
+
+    /**
+     * Iterator over the values, in index order.
+     */
+    private final class ValueIterator implements Iterator<T> {
+        /** Nodes on the path to the next value, by depth. */
+        private final Node[] path = new Node[Integer.SIZE / BITS + 1];
+        /** Next slot to visit, by depth. */
+        private final int[] next = new int[path.length];
+        /** Depth of the leaf level. */
+        private final int leaf = shift / BITS;
+        /** Current depth, or -1 when done. */
+        private int depth;
+        /** Next value, or null if it must be found. */
+        private Object pending;
+
+        ValueIterator() {
+            if (root == null) {
+                depth = -1;
+            } else {
+                path[0] = root;
+            }
+        }
+
+        @Override
+        public boolean hasNext() {
+            while (pending == null && depth >= 0) {
+                if (next[depth] == WIDTH) {
+                    depth--;
+                    continue;
+                }
+                Object child = path[depth].slots[next[depth]++];
+                if (child == null) {
+                    continue;
+                }
+                if (depth == leaf) {
+                    pending = child;
+                } else {
+                    depth++;
+                    path[depth] = (Node) child;
+                    next[depth] = 0;
+                }
+            }
+            return pending != null;
+        }
+
+        @Override
+        @SuppressWarnings("unchecked")
+        public T next() {
+            if (!hasNext()) {
+                throw new NoSuchElementException();
+            }
+            T value = (T) pending;
+            pending = null;
+            return value;
+        }
+    }
+}
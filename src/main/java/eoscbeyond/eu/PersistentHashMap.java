@@ -0,0 +1,539 @@
+/*
+ * Copyright © 2025 EOSC Beyond (${email})
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package eoscbeyond.eu;
+
+import java.util.AbstractMap;
+import java.util.AbstractSet;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.function.BiConsumer;
+
+/**
+ * The {@code PersistentHashMap} class is an immutable hash map that shares
+ * structure between versions.
+ * <p>
+ * It is a hash array mapped trie: each level consumes five bits of the key
+ * hash and holds a 32-bit bitmap of the slots in use, so a node only has
+ * as many array elements as it has entries. {@link #put(Object, Object)}
+ * and {@link #remove(Object)} copy the path from the root to the changed
+ * entry, at most seven small arrays, and share the rest of the trie with
+ * the previous version. Earlier versions stay valid and unchanged, so
+ * readers holding one need no lock. Entries are inlined at the shallowest
+ * level where their hash is unique (the CHAMP layout), and keys whose
+ * hashes are equal are kept in a collision node at the bottom.
+ * </p>
+ *
+ * <p>
+ * Neither keys nor values may be null.
+ * </p>
+ *
+ * <p>
+ * Example usage:
+ * </p>
+ *
+ * <pre>
+ * PersistentHashMap<String, Integer> v1 = PersistentHashMap.empty();
+ * PersistentHashMap<String, Integer> v2 = v1.put("a", 1);
+ * v2.get("a");     // 1
+ * v1.get("a");     // null, v1 is unchanged
+ * </pre>
+ *
+ * @param <K> the type of keys
+ * @param <V> the type of values
+ */
+public final class PersistentHashMap<K, V> {
+    /** Bits of the hash consumed per level. */
+    private static final int BITS = 5;
+    /** Mask of the bits consumed per level. */
+    private static final int MASK = (1 << BITS) - 1;
+    /** Map with no entries. */
+    private static final PersistentHashMap<?, ?> EMPTY =
+    new PersistentHashMap<>(new BitmapNode(0, 0, new Object[0]), 0);
+
+    /** Root of the trie. */
+    private final Node root;
+    /** Number of entries. */
+    private final int size;
+
+    private PersistentHashMap(final Node xRoot, final int xSize) {
+        this.root = xRoot;
+        this.size = xSize;
+    }
+
+    /**
+     * Gets the map with no entries.
+     *
+     * @param <K> the type of keys
+     * @param <V> the type of values
+     * @return the empty map
+     */
+    @SuppressWarnings("unchecked")
+    public static <K, V> PersistentHashMap<K, V> empty() {
+        return (PersistentHashMap<K, V>) EMPTY;
+    }
+
+    /**
+     * Gets the number of entries.
+     *
+     * @return the number of entries
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Gets the value of a key.
+     *
+     * @param xKey the key
+     * @return the value, or null if the key is not in the map
+     */
+    @SuppressWarnings("unchecked")
+    public V get(final Object xKey) {
+        return xKey == null ? null : (V) root.find(xKey, hash(xKey), 0);
+    }
+
+    /**
+     * Tells whether a key is in the map.
+     *
+     * @param xKey the key
+     * @return true if the map holds the key
+     */
+    public boolean containsKey(final Object xKey) {
+        return get(xKey) != null;
+    }
+
+    /**
+     * Gets a map with a key set to a value.
+     *
+     * @param xKey   the key
+     * @param xValue the value
+     * @return the new map, or this map if the key already has the value
+     */
+    public PersistentHashMap<K, V> put(final K xKey, final V xValue) {
+        Objects.requireNonNull(xKey);
+        Objects.requireNonNull(xValue);
+        Change change = new Change();
+        Node changed = root.put(xKey, xValue, hash(xKey), 0, change);
+        return changed == root ? this
+        : new PersistentHashMap<>(changed, size + change.delta);
+    }
+
+    /**
+     * Gets a map without a key.
+     *
+     * @param xKey the key
+     * @return the new map, or this map if the key is not in it
+     */
+    public PersistentHashMap<K, V> remove(final Object xKey) {
+        if (xKey == null) {
+            return this;
+        }
+        Change change = new Change();
+        Node changed = root.remove(xKey, hash(xKey), 0, change);
+        return changed == root ? this
+        : new PersistentHashMap<>(changed, size + change.delta);
+    }
+
+    /**
+     * Calls an action for every entry, in no particular order.
+     *
+     * @param xAction the action
+     */
+    @SuppressWarnings("unchecked")
+    public void forEach(final BiConsumer<? super K, ? super V> xAction) {
+        root.forEach((BiConsumer<Object, Object>) xAction);
+    }
+
+    /**
+     * Gets a read-only {@code Map} view of this map. Lookups go to the
+     * trie; iteration lists the entries first.
+     *
+     * @return the view
+     */
+    public Map<K, V> asMap() {
+        return new MapView();
+    }
+
+    private static int hash(final Object xKey) {
+        int h = xKey.hashCode();
+        return h ^ (h >>> 16);
+    }
+
+    private static int fragment(final int xHash, final int xShift) {
+        return (xHash >>> xShift) & MASK;
+    }
+
+    /**
+     * Builds the node holding two entries that share the hash bits above
+     * a level.
+     */
+    private static Node merge(final Object xKey1, final Object xValue1,
+            final int xHash1, final Object xKey2, final Object xValue2,
+            final int xHash2, final int xShift) {
+        if (xShift >= Integer.SIZE) {
+            return new CollisionNode(xHash1, new Object[] {xKey1, xValue1,
+                xKey2, xValue2});
+        }
+        int fragment1 = fragment(xHash1, xShift);
+        int fragment2 = fragment(xHash2, xShift);
+        if (fragment1 == fragment2) {
+            return new BitmapNode(0, 1 << fragment1, new Object[] {
+                merge(xKey1, xValue1, xHash1, xKey2, xValue2, xHash2,
+                    xShift + BITS)});
+        }
+        Object[] content = fragment1 < fragment2
+        ? new Object[] {xKey1, xValue1, xKey2, xValue2}
+        : new Object[] {xKey2, xValue2, xKey1, xValue1};
+        return new BitmapNode((1 << fragment1) | (1 << fragment2), 0,
+            content);
+    }
+
+    /**
+     * Change in the number of entries made by an update.
+     */
+    private static final class Change {
+        /** Entries added, or removed if negative. */
+        private int delta;
+    }
+
+    /**
+     * Node of the trie.
+     */
+    private abstract static class Node {
+        abstract Object find(Object xKey, int xHash, int xShift);
+
+        abstract Node put(Object xKey, Object xValue, int xHash, int xShift,
+            Change xChange);
+
+        abstract Node remove(Object xKey, int xHash, int xShift,
+            Change xChange);
+
+        abstract void forEach(BiConsumer<Object, Object> xAction);
+
+        /** @return true if the node holds one entry and no sub-nodes */
+        abstract boolean isSingleEntry();
+
+        abstract Object key(int xIndex);
+
+        abstract Object value(int xIndex);
+    }
+
+    /**
+     * Node with entries and sub-nodes indexed by bitmaps. Entries come
+     * first, as key and value pairs; sub-nodes follow, in reverse order.
+     */
+    private static final class BitmapNode extends Node {
+        /** Slots holding an entry. */
+        private final int dataMap;
+        /** Slots holding a sub-node. */
+        private final int nodeMap;
+        /** Entries, then sub-nodes. */
+        private final Object[] content;
+
+        BitmapNode(final int xDataMap, final int xNodeMap,
+                final Object[] xContent) {
+            this.dataMap = xDataMap;
+            this.nodeMap = xNodeMap;
+            this.content = xContent;
+        }
+
+        private int dataIndex(final int xBit) {
+            return 2 * Integer.bitCount(dataMap & (xBit - 1));
+        }
+
+        private int nodeIndex(final int xBit) {
+            return content.length - 1 - Integer.bitCount(nodeMap & (xBit - 1));
+        }
+
+        @Override
+        Object find(final Object xKey, final int xHash, final int xShift) {
+            int bit = 1 << fragment(xHash, xShift);
+            if ((dataMap & bit) != 0) {
+                int index = dataIndex(bit);
+                return xKey.equals(content[index]) ? content[index + 1] : null;
+            }
+            if ((nodeMap & bit) != 0) {
+                return ((Node) content[nodeIndex(bit)]).find(xKey, xHash,
+                    xShift + BITS);
+            }
+            return null;
+        }
+
+        @Override
+        Node put(final Object xKey, final Object xValue, final int xHash,
+                final int xShift, final Change xChange) {
+            int bit = 1 << fragment(xHash, xShift);
+            if ((dataMap & bit) != 0) {
+                int index = dataIndex(bit);
+                Object key = content[index];
+                if (xKey.equals(key)) {
+                    if (content[index + 1] == xValue) {
+                        return this;
+                    }
+                    Object[] copy = content.clone();
+                    copy[index + 1] = xValue;
+                    return new BitmapNode(dataMap, nodeMap, copy);
+                }
+                xChange.delta = 1;
+                Node merged = merge(key, content[index + 1], hash(key), xKey,
+                    xValue, xHash, xShift + BITS);
+                return entryToNode(bit, index, merged);
+            }
+            if ((nodeMap & bit) != 0) {
+                int index = nodeIndex(bit);
+                Node child = (Node) content[index];
+                Node changed = child.put(xKey, xValue, xHash, xShift + BITS,
+                    xChange);
+                if (changed == child) {
+                    return this;
+                }
+                Object[] copy = content.clone();
+                copy[index] = changed;
+                return new BitmapNode(dataMap, nodeMap, copy);
+            }
+            xChange.delta = 1;
+            int index = dataIndex(bit);
+            Object[] copy = new Object[content.length + 2];
+            System.arraycopy(content, 0, copy, 0, index);
+            copy[index] = xKey;
+            copy[index + 1] = xValue;
+            System.arraycopy(content, index, copy, index + 2,
+                content.length - index);
+            return new BitmapNode(dataMap | bit, nodeMap, copy);
+        }
+
+        @Override
+        Node remove(final Object xKey, final int xHash, final int xShift,
+                final Change xChange) {
+            int bit = 1 << fragment(xHash, xShift);
+            if ((dataMap & bit) != 0) {
+                int index = dataIndex(bit);
+                if (!xKey.equals(content[index])) {
+                    return this;
+                }
+                xChange.delta = -1;
+                Object[] copy = new Object[content.length - 2];
+                System.arraycopy(content, 0, copy, 0, index);
+                System.arraycopy(content, index + 2, copy, index,
+                    content.length - index - 2);
+                return new BitmapNode(dataMap ^ bit, nodeMap, copy);
+            }
+            if ((nodeMap & bit) != 0) {
+                int index = nodeIndex(bit);
+                Node child = (Node) content[index];
+                Node changed = child.remove(xKey, xHash, xShift + BITS,
+                    xChange);
+                if (changed == child) {
+                    return this;
+                }
+                if (changed.isSingleEntry()) {
+                    // a sub-node left with one entry is inlined here
+                    return nodeToEntry(bit, index, changed.key(0),
+                        changed.value(0));
+                }
+                Object[] copy = content.clone();
+                copy[index] = changed;
+                return new BitmapNode(dataMap, nodeMap, copy);
+            }
+            return this;
+        }
+
+        private Node entryToNode(final int xBit, final int xDataIndex,
+                final Node xNode) {
+            int nodeIndex = content.length - 2
+            - Integer.bitCount(nodeMap & (xBit - 1));
+            Object[] copy = new Object[content.length - 1];
+            System.arraycopy(content, 0, copy, 0, xDataIndex);
+            System.arraycopy(content, xDataIndex + 2, copy, xDataIndex,
+                nodeIndex - xDataIndex);
+            copy[nodeIndex] = xNode;
+            System.arraycopy(content, nodeIndex + 2, copy, nodeIndex + 1,
+                content.length - nodeIndex - 2);
+            return new BitmapNode(dataMap ^ xBit, nodeMap | xBit, copy);
+        }
+
+        private Node nodeToEntry(final int xBit, final int xNodeIndex,
+                final Object xKey, final Object xValue) {
+            int dataIndex = dataIndex(xBit);
+            Object[] copy = new Object[content.length + 1];
+            System.arraycopy(content, 0, copy, 0, dataIndex);
+            copy[dataIndex] = xKey;
+            copy[dataIndex + 1] = xValue;
+            System.arraycopy(content, dataIndex, copy, dataIndex + 2,
+                xNodeIndex - dataIndex);
+            System.arraycopy(content, xNodeIndex + 1, copy, xNodeIndex + 2,
+                content.length - xNodeIndex - 1);
+            return new BitmapNode(dataMap | xBit, nodeMap ^ xBit, copy);
+        }
+
+        @Override
+        void forEach(final BiConsumer<Object, Object> xAction) {
+            int entries = 2 * Integer.bitCount(dataMap);
+            for (int i = 0; i < entries; i += 2) {
+                xAction.accept(content[i], content[i + 1]);
+            }
+            for (int i = entries; i < content.length; i++) {
+                ((Node) content[i]).forEach(xAction);
+            }
+        }
+
+        @Override
+        boolean isSingleEntry() {
+            return nodeMap == 0 && Integer.bitCount(dataMap) == 1;
+        }
+
+        @Override
+        Object key(final int xIndex) {
+            return content[2 * xIndex];
+        }
+
+        @Override
+        Object value(final int xIndex) {
+            return content[2 * xIndex + 1];
+        }
+    }
+
+    /**
+     * Node holding keys whose hashes are all equal.
+     */
+    private static final class CollisionNode extends Node {
+        /** Hash of every key. */
+        private final int hash;
+        /** Keys and values, in pairs. */
+        private final Object[] content;
+
+        CollisionNode(final int xHash, final Object[] xContent) {
+            this.hash = xHash;
+            this.content = xContent;
+        }
+
+        private int indexOf(final Object xKey) {
+            for (int i = 0; i < content.length; i += 2) {
+                if (xKey.equals(content[i])) {
+                    return i;
+                }
+            }
+            return -1;
+        }
+
+        @Override
+        Object find(final Object xKey, final int xHash, final int xShift) {
+            int index = indexOf(xKey);
+            return index < 0 ? null : content[index + 1];
+        }
+
+        @Override
+        Node put(final Object xKey, final Object xValue, final int xHash,
+                final int xShift, final Change xChange) {
+            int index = indexOf(xKey);
+            if (index >= 0) {
+                if (content[index + 1] == xValue) {
+                    return this;
+                }
+                Object[] copy = content.clone();
+                copy[index + 1] = xValue;
+                return new CollisionNode(hash, copy);
+            }
+            xChange.delta = 1;
+            Object[] copy = new Object[content.length + 2];
+            System.arraycopy(content, 0, copy, 0, content.length);
+            copy[content.length] = xKey;
+            copy[content.length + 1] = xValue;
+            return new CollisionNode(hash, copy);
+        }
+
+        @Override
+        Node remove(final Object xKey, final int xHash, final int xShift,
+                final Change xChange) {
+            int index = indexOf(xKey);
+            if (index < 0) {
+                return this;
+            }
+            xChange.delta = -1;
+            Object[] copy = new Object[content.length - 2];
+            System.arraycopy(content, 0, copy, 0, index);
+            System.arraycopy(content, index + 2, copy, index,
+                content.length - index - 2);
+            return new CollisionNode(hash, copy);
+        }
+
+        @Override
+        void forEach(final BiConsumer<Object, Object> xAction) {
+            for (int i = 0; i < content.length; i += 2) {
+                xAction.accept(content[i], content[i + 1]);
+            }
+        }
+
+        @Override
+        boolean isSingleEntry() {
+            return content.length == 2;
+        }
+
+        @Override
+        Object key(final int xIndex) {
+            return content[2 * xIndex];
+        }
+
+        @Override
+        Object value(final int xIndex) {
+            return content[2 * xIndex + 1];
+        }
+    }
+
+    /**
+     * Read-only {@code Map} view of the map.
+     */
+    private final class MapView extends AbstractMap<K, V> {
+        @Override
+        public V get(final Object xKey) {
+            return PersistentHashMap.this.get(xKey);
+        }
+
+        @Override
+        public boolean containsKey(final Object xKey) {
+            return PersistentHashMap.this.containsKey(xKey);
+        }
+
+        @Override
+        public int size() {
+            return size;
+        }
+
+        @Override
+        public Set<Entry<K, V>> entrySet() {
+            return new AbstractSet<>() {
+                @Override
+                public Iterator<Entry<K, V>> iterator() {
+                    List<Entry<K, V>> entries = new ArrayList<>(size);
+                    PersistentHashMap.this.forEach((key, value) ->
+                        entries.add(Map.entry(key, value)));
+                    return Collections.unmodifiableList(entries).iterator();
+                }
+
+                @Override
+                public int size() {
+                    return size;
+                }
+            };
+        }
+    }
+}
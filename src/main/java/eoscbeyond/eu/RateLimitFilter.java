@@ -0,0 +1,172 @@
+/*
+ * Copyright © 2025 EOSC Beyond (${email})
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package eoscbeyond.eu;
+
+import java.io.IOException;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import eoscbeyond.eu.data.RateLimitConfiguration;
+import jakarta.servlet.AsyncEvent;
+import jakarta.servlet.AsyncListener;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+
+/**
+ * The {@code RateLimitFilter} class applies the {@link RateLimiter} to
+ * requests for nodes, refusing them with 429 (Too Many Requests) and a
+ * Retry-After header before they reach the controller.
+ * <p>
+ * Clients are identified as {@link ClientKeys} tells: by remote address,
+ * or by the client key header from trusted addresses. The full node list,
+ * batch lookups and batch summaries are bulk requests; all other node
+ * requests are interactive, as are requests across shards, which the
+ * shards they reach limit again under the same client key. Replication
+ * requests are limited too, so that guesses at the replication token are;
+ * a follower's snapshot is bulk, its long polls for changes interactive.
+ * It is enabled unless {@code rate-limit.enabled} is false.
+ * </p>
+ *
+ */
+@Component
+@ConditionalOnProperty(prefix = "rate-limit", name = "enabled",
+havingValue = "true", matchIfMissing = true)
+public class RateLimitFilter extends OncePerRequestFilter {
+    /** Path prefix of the node endpoints. */
+    private static final String NODES_PATH = "/nodes";
+    /** Path prefix of the endpoints across shards. */
+    private static final String SHARDS_PATH = "/shards";
+    /** Path prefix of the replication endpoints. */
+    private static final String REPLICATION_PATH = "/replication";
+    /** Paths of the bulk endpoints. */
+    private static final Set<String> BULK_PATHS = Set.of(NODES_PATH,
+        NODES_PATH + "/", NODES_PATH + "/batch", NODES_PATH + "/summary",
+        REPLICATION_PATH + "/snapshot");
+
+    /** The limiter. */
+    private final RateLimiter limiter;
+    /** Identifies the client of a request. */
+    private final ClientKeys clientKeys;
+
+    /**
+     * Constructor.
+     *
+     * @param xConfig limiter settings
+     */
+    @Autowired
+    public RateLimitFilter(final RateLimitConfiguration xConfig) {
+        this(new RateLimiter(xConfig), ClientKeys.of(xConfig));
+    }
+
+    /**
+     * Constructor - applies the given limiter.
+     *
+     * @param xLimiter    the limiter
+     * @param xClientKeys identifies the client of a request
+     */
+    RateLimitFilter(final RateLimiter xLimiter,
+            final ClientKeys xClientKeys) {
+        this.limiter = xLimiter;
+        this.clientKeys = xClientKeys;
+    }
+
+    /**
+     * Gets the limiter.
+     *
+     * @return the limiter
+     */
+    public RateLimiter getLimiter() {
+        return limiter;
+    }
+
+    @Override
+    protected boolean shouldNotFilter(final HttpServletRequest request) {
+        String uri = request.getRequestURI();
+        String context = request.getContextPath();
+        return !uri.startsWith(context + NODES_PATH)
+        && !uri.startsWith(context + SHARDS_PATH)
+        && !uri.startsWith(context + REPLICATION_PATH);
+    }
+
+    @Override
+    protected void doFilterInternal(final HttpServletRequest request,
+            final HttpServletResponse response, final FilterChain chain)
+            throws ServletException, IOException {
+        long wait = limiter.tryAcquire(clientKeys.clientOf(request),
+            priorityOf(request));
+        if (wait > 0) {
+            response.setHeader(HttpHeaders.RETRY_AFTER, Long.toString(
+                Math.max(1, TimeUnit.NANOSECONDS.toSeconds(wait
+                + TimeUnit.SECONDS.toNanos(1) - 1))));
+            response.sendError(HttpStatus.TOO_MANY_REQUESTS.value(),
+            "Too many requests");
+            return;
+        }
+        boolean async = false;
+        try {
+            chain.doFilter(request, response);
+            if (request.isAsyncStarted()) {
+                // Streamed responses are in progress until they complete
+                request.getAsyncContext().addListener(new Release());
+                async = true;
+            }
+        } finally {
+            if (!async) {
+                limiter.release();
+            }
+        }
+    }
+
+    private static RateLimiter.Priority priorityOf(
+            final HttpServletRequest request) {
+        String path = request.getRequestURI().substring(
+            request.getContextPath().length());
+        return BULK_PATHS.contains(path) ? RateLimiter.Priority.BULK
+        : RateLimiter.Priority.INTERACTIVE;
+    }
+
+    /** Releases an admitted request when its asynchronous part ends. */
+    private final class Release implements AsyncListener {
+        @Override
+        public void onComplete(final AsyncEvent event) {
+            limiter.release();
+        }
+
+        @Override
+        public void onTimeout(final AsyncEvent event) {
+            // onComplete follows
+        }
+
+        @Override
+        public void onError(final AsyncEvent event) {
+            // onComplete follows
+        }
+
+        @Override
+        public void onStartAsync(final AsyncEvent event) {
+            // not re-registered on later dispatches
+        }
+    }
+}
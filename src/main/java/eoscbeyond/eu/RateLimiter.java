@@ -0,0 +1,241 @@
+/*
+ * Copyright © 2025 EOSC Beyond (${email})
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package eoscbeyond.eu;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.LongSupplier;
+
+import eoscbeyond.eu.data.RateLimitConfiguration;
+
+/**
+ * The {@code RateLimiter} class decides whether to admit a request, before
+ * any work is done for it.
+ * <p>
+ * Requests belong to a priority class. Each client has a
+ * {@link TokenBucket} per class, so a client polling the bulk endpoints
+ * uses up its bulk allowance without touching its interactive one. On top
+ * of that, the number of requests in progress is bounded: bulk requests are
+ * shed first, at a lower limit, so interactive requests still get through
+ * when the server is busy.
+ * </p>
+ *
+ * <p>
+ * Buckets live in a concurrent map keyed by client and are updated with a
+ * single compare-and-set, so admission takes no lock. Buckets that have
+ * refilled are dropped when the number of clients grows large. If that
+ * frees no room, for example under a flood of new client keys, the map
+ * stops growing and new clients share one overflow allowance until it
+ * does.
+ * </p>
+ *
+ * <p>
+ * Example usage:
+ * </p>
+ *
+ * <pre>
+ * long wait = limiter.tryAcquire(client, RateLimiter.Priority.BULK);
+ * if (wait == 0) {
+ *     try {
+ *         handle(request);
+ *     } finally {
+ *         limiter.release();
+ *     }
+ * }
+ * </pre>
+ *
+ */
+public class RateLimiter {
+    /** Priority classes of requests. */
+    public enum Priority {
+        /** Requests for single nodes or small results. */
+        INTERACTIVE,
+        /** Requests for many nodes at once. */
+        BULK
+    }
+
+    /** Number of clients above which full buckets are dropped, and new
+     * clients share the overflow buckets. */
+    static final int MAX_CLIENTS = 10_000;
+    /** Wait suggested to a request shed because the server is busy. */
+    static final long OVERLOAD_WAIT_NANOS = TimeUnit.SECONDS.toNanos(1);
+    /** Minimum time between sweeps of full buckets. */
+    private static final long SWEEP_INTERVAL_NANOS =
+    TimeUnit.SECONDS.toNanos(1);
+
+    /** Limiter settings. */
+    private final RateLimitConfiguration config;
+    /** Source of the current time, in nanoseconds. */
+    private final LongSupplier clock;
+    /** Token buckets, by client, indexed by priority. */
+    private final Map<String, TokenBucket[]> buckets =
+    new ConcurrentHashMap<>();
+    /** Buckets shared by clients that find the map full, indexed by
+     * priority. */
+    private final TokenBucket[] overflow;
+    /** Requests in progress. */
+    private final AtomicInteger inFlight = new AtomicInteger();
+    /** Earliest time of the next sweep, in nanoseconds. */
+    private final AtomicLong nextSweep = new AtomicLong(Long.MIN_VALUE);
+
+    /** Number of requests admitted. */
+    private final LongAdder admitted = new LongAdder();
+    /** Number of requests refused because the client exceeded its rate. */
+    private final LongAdder rateLimited = new LongAdder();
+    /** Number of requests shed because the server was busy. */
+    private final LongAdder shed = new LongAdder();
+    /** Number of requests charged to the overflow buckets. */
+    private final LongAdder overflowed = new LongAdder();
+
+    /**
+     * Constructor.
+     *
+     * @param xConfig limiter settings
+     */
+    public RateLimiter(final RateLimitConfiguration xConfig) {
+        this(xConfig, System::nanoTime);
+    }
+
+    /**
+     * Constructor with a given clock, for tests.
+     *
+     * @param xConfig limiter settings
+     * @param xClock  source of the current time, in nanoseconds
+     */
+    RateLimiter(final RateLimitConfiguration xConfig,
+            final LongSupplier xClock) {
+        this.config = xConfig;
+        this.clock = xClock;
+        this.overflow = newBuckets();
+    }
+
+    /**
+     * Admits a request if its client is within its rate and the server is
+     * not busy. An admitted request must be followed by {@link #release()}.
+     *
+     * @param xClient  key of the client
+     * @param xPriority priority class of the request
+     * @return 0 if the request is admitted, otherwise the nanoseconds the
+     *         client should wait before retrying
+     */
+    public long tryAcquire(final String xClient, final Priority xPriority) {
+        int limit = xPriority == Priority.BULK ? config.bulkMaxInFlight()
+        : config.maxInFlight();
+        if (inFlight.incrementAndGet() > limit) {
+            inFlight.decrementAndGet();
+            shed.increment();
+            return OVERLOAD_WAIT_NANOS;
+        }
+        long now = clock.getAsLong();
+        long wait = bucketsOf(xClient, now)[xPriority.ordinal()]
+        .tryAcquire(now);
+        if (wait > 0) {
+            inFlight.decrementAndGet();
+            rateLimited.increment();
+            return wait;
+        }
+        admitted.increment();
+        return 0;
+    }
+
+    /** Ends an admitted request. */
+    public void release() {
+        inFlight.decrementAndGet();
+    }
+
+    /**
+     * Gets limiter statistics.
+     *
+     * @return requests admitted, refused for rate and shed for load,
+     *         requests in progress, clients tracked and requests charged
+     *         to the overflow allowance
+     */
+    public Map<String, Object> getStatistics() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("admitted", admitted.sum());
+        stats.put("rateLimited", rateLimited.sum());
+        stats.put("shed", shed.sum());
+        stats.put("inFlight", inFlight.get());
+        stats.put("clients", buckets.size());
+        stats.put("overflow", overflowed.sum());
+        return stats;
+    }
+
+    /**
+     * Gets the buckets of a client, creating them if there is room. A new
+     * client that finds the map full after a sweep gets the overflow
+     * buckets. Concurrent new clients may overshoot the limit by at most
+     * one each.
+     *
+     * @param xClient key of the client
+     * @param xNow    the current time, in nanoseconds
+     * @return the buckets, indexed by priority
+     */
+    private TokenBucket[] bucketsOf(final String xClient, final long xNow) {
+        TokenBucket[] clientBuckets = buckets.get(xClient);
+        if (clientBuckets == null) {
+            if (buckets.size() >= MAX_CLIENTS) {
+                sweep(xNow);
+                if (buckets.size() >= MAX_CLIENTS) {
+                    overflowed.increment();
+                    return overflow;
+                }
+            }
+            clientBuckets = buckets.computeIfAbsent(xClient,
+                k -> newBuckets());
+        }
+        return clientBuckets;
+    }
+
+    /**
+     * Creates full buckets for a client.
+     *
+     * @return the buckets, indexed by priority
+     */
+    private TokenBucket[] newBuckets() {
+        return new TokenBucket[] {
+            new TokenBucket(config.interactiveRate(),
+            config.interactiveBurst()),
+            new TokenBucket(config.bulkRate(), config.bulkBurst())};
+    }
+
+    /**
+     * Drops the buckets of clients that have no requests outstanding
+     * against their rate. Runs at most once per sweep interval.
+     *
+     * @param xNow the current time, in nanoseconds
+     */
+    private void sweep(final long xNow) {
+        long next = nextSweep.get();
+        if (xNow < next
+            || !nextSweep.compareAndSet(next, xNow + SWEEP_INTERVAL_NANOS)) {
+            return;
+        }
+        buckets.values().removeIf(clientBuckets -> {
+            for (TokenBucket bucket : clientBuckets) {
+                if (!bucket.isFull(xNow)) {
+                    return false;
+                }
+            }
+            return true;
+        });
+    }
+}
@@ -0,0 +1,163 @@
+/*
+ * Copyright © 2025 EOSC Beyond (${email})
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package eoscbeyond.eu;
+
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DataBufferFactory;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.web.reactive.function.BodyInserters;
+import org.springframework.web.reactive.function.server.RouterFunction;
+import org.springframework.web.reactive.function.server.RouterFunctions;
+import org.springframework.web.reactive.function.server.ServerRequest;
+import org.springframework.web.reactive.function.server.ServerResponse;
+
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+/**
+ * The {@code ReactiveNodeHandler} class serves the node routes of
+ * {@link NodeRegistryController} without blocking: {@code /nodes},
+ * {@code /nodes/{id}} and {@code /nodes/search?capability=}, with the same
+ * JSON bodies, read from the current registry version.
+ * <p>
+ * Node lists are not materialised as one body. They are written as a
+ * {@code Flux} of chunks of {@value #CHUNK_NODES} nodes, each serialised
+ * only when the connection asks for more, so a slow consumer holds back
+ * serialisation instead of buffering the whole list, and a connection
+ * costs memory only for the chunks in flight.
+ * </p>
+ *
+ * <p>
+ * Example usage:
+ * </p>
+ *
+ * <pre>
+ * HttpHandler handler = RouterFunctions.toHttpHandler(
+ *     new ReactiveNodeHandler(NodeRegistry.getInstance()).routes());
+ * </pre>
+ *
+ */
+public class ReactiveNodeHandler {
+    /** Nodes serialised per chunk of a node list. */
+    static final int CHUNK_NODES = 64;
+    /** Start of a JSON array. */
+    private static final byte[] OPEN = "[".getBytes(StandardCharsets.UTF_8);
+    /** End of a JSON array. */
+    private static final byte[] CLOSE = "]".getBytes(StandardCharsets.UTF_8);
+
+    /** The node registry served. */
+    private final NodeRegistry registry;
+
+    /**
+     * Constructor.
+     *
+     * @param xRegistry the node registry served
+     */
+    public ReactiveNodeHandler(final NodeRegistry xRegistry) {
+        this.registry = xRegistry;
+    }
+
+    /**
+     * Gets the routes.
+     *
+     * @return the node routes
+     */
+    public RouterFunction<ServerResponse> routes() {
+        return RouterFunctions.route()
+        .GET("/nodes/search", this::searchNodesByCapability)
+        .GET("/nodes/{id}", this::getNodeById)
+        .GET("/nodes", this::getAllNodes)
+        .build();
+    }
+
+    /**
+     * Streams every node as a JSON array.
+     *
+     * @param xRequest the request
+     * @return the response
+     */
+    Mono<ServerResponse> getAllNodes(final ServerRequest xRequest) {
+        if (!registry.isReady()) {
+            return unavailable();
+        }
+        return nodeArray(xRequest, registry.getSnapshot().getNodes());
+    }
+
+    /**
+     * Gets the summary of a node.
+     *
+     * @param xRequest the request
+     * @return the response; 404 if there is no such node
+     */
+    Mono<ServerResponse> getNodeById(final ServerRequest xRequest) {
+        if (!registry.isReady()) {
+            return unavailable();
+        }
+        byte[] summary = registry.getSnapshot()
+        .getSummaryJson(xRequest.pathVariable("id"));
+        if (summary == null) {
+            return ServerResponse.notFound().build();
+        }
+        return ServerResponse.ok().contentType(MediaType.APPLICATION_JSON)
+        .bodyValue(summary);
+    }
+
+    /**
+     * Streams the nodes that offer a capability as a JSON array.
+     *
+     * @param xRequest the request
+     * @return the response; 400 without a capability
+     */
+    Mono<ServerResponse> searchNodesByCapability(
+            final ServerRequest xRequest) {
+        if (!registry.isReady()) {
+            return unavailable();
+        }
+        String capability = xRequest.queryParam("capability").orElse(null);
+        if (capability == null) {
+            return ServerResponse.badRequest().build();
+        }
+        return nodeArray(xRequest, registry.getSnapshot()
+            .getNodesWithCapability(capability));
+    }
+
+    private Mono<ServerResponse> nodeArray(final ServerRequest xRequest,
+            final List<EoscNode> xNodes) {
+        DataBufferFactory factory = xRequest.exchange().getResponse()
+        .bufferFactory();
+        Flux<DataBuffer> chunks = Flux.fromIterable(xNodes)
+        .buffer(CHUNK_NODES)
+        .index()
+        .map(chunk -> factory.wrap(NodeJsonWriter.local()
+            .writeNodeElements(chunk.getT2(), chunk.getT1() == 0)
+            .toByteArray()));
+        Flux<DataBuffer> body = Flux.concat(
+            Mono.fromSupplier(() -> factory.wrap(OPEN)), chunks,
+            Mono.fromSupplier(() -> factory.wrap(CLOSE)));
+        return ServerResponse.ok().contentType(MediaType.APPLICATION_JSON)
+        .body(BodyInserters.fromDataBuffers(body));
+    }
+
+    private static Mono<ServerResponse> unavailable() {
+        return ServerResponse.status(HttpStatus.SERVICE_UNAVAILABLE).build();
+    }
+}
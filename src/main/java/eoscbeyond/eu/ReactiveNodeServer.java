@@ -0,0 +1,129 @@
+/*
+ * Copyright © 2025 EOSC Beyond (${email})
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package eoscbeyond.eu;
+
+import java.time.Duration;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.apache.logging.log4j.util.Unbox;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.InitializingBean;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.http.server.reactive.ReactorHttpHandlerAdapter;
+import org.springframework.stereotype.Component;
+import org.springframework.web.reactive.function.server.RouterFunctions;
+
+import eoscbeyond.eu.data.ReactiveConfiguration;
+
+import reactor.netty.DisposableServer;
+import reactor.netty.http.server.HttpServer;
+import reactor.netty.resources.LoopResources;
+
+/**
+ * The {@code ReactiveNodeServer} class serves the reactive node API,
+ * {@link ReactiveNodeHandler}, on Reactor Netty, on its own port next to
+ * the servlet stack. All connections are served by
+ * {@code reactive.event-loop-threads} event loop threads, so an idle or
+ * slow connection costs a channel and its buffers, not a thread.
+ * <p>
+ * It is only created when {@code reactive.enabled} is {@code true}. The
+ * servlet filters, such as the rate limits, do not apply to it.
+ * </p>
+ *
+ */
+@Component
+@ConditionalOnProperty(prefix = "reactive", name = "enabled",
+havingValue = "true")
+public class ReactiveNodeServer implements InitializingBean, DisposableBean {
+    /** Logger. */
+    private static final Logger LOGGER =
+    LogManager.getLogger(ReactiveNodeServer.class);
+    /** Time responses in progress are given to complete on shutdown. */
+    private static final Duration SHUTDOWN_TIMEOUT = Duration.ofSeconds(5);
+
+    /** Reactive settings. */
+    private final ReactiveConfiguration config;
+    /** The node registry served. */
+    private final NodeRegistry registry;
+    /** Event loop threads. */
+    private LoopResources loops;
+    /** The server; null until started. */
+    private DisposableServer server;
+
+    /**
+     * Constructor.
+     *
+     * @param xConfig reactive settings
+     */
+    @Autowired
+    public ReactiveNodeServer(final ReactiveConfiguration xConfig) {
+        this(xConfig, NodeRegistry.getInstance());
+    }
+
+    /**
+     * Constructor for tests.
+     *
+     * @param xConfig   reactive settings
+     * @param xRegistry the node registry served
+     */
+    ReactiveNodeServer(final ReactiveConfiguration xConfig,
+            final NodeRegistry xRegistry) {
+        this.config = xConfig;
+        this.registry = xRegistry;
+    }
+
+    /** Starts the server. */
+    @Override
+    public void afterPropertiesSet() {
+        loops = LoopResources.create("reactive-nodes",
+            config.eventLoopThreads(), true);
+        ReactorHttpHandlerAdapter adapter = new ReactorHttpHandlerAdapter(
+            RouterFunctions.toHttpHandler(
+                new ReactiveNodeHandler(registry).routes()));
+        server = HttpServer.create()
+        .port(config.port())
+        .runOn(loops)
+        .handle(adapter)
+        .bindNow();
+        LOGGER.info("Reactive node API listening on port {} with {} event "
+            + "loop threads", Unbox.box(server.port()),
+            Unbox.box(config.eventLoopThreads()));
+    }
+
+    /** Stops the server. */
+    @Override
+    public void destroy() {
+        if (server != null) {
+            server.disposeNow(SHUTDOWN_TIMEOUT);
+        }
+        if (loops != null) {
+            loops.disposeLater().block(SHUTDOWN_TIMEOUT);
+        }
+    }
+
+    /**
+     * Gets the port the server listens on.
+     *
+     * @return the port, or -1 if the server has not started
+     */
+    public int getPort() {
+        return server == null ? -1 : server.port();
+    }
+}
@@ -32,6 +32,7 @@ import java.util.stream.Collectors;
 
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
+import org.apache.logging.log4j.util.Unbox;
 
 /**
  * The {@code ReadNodeDetails} class is responsible for reading and parsing node
@@ -102,6 +103,12 @@ public class ReadNodeDetails {
     private static final int NODE_ENDPOINT_CHUNK = 5;
     /** Position in line of Node Capabilities chunk. */
     private static final int NODE_CAPABILITIES_CHUNK = 6;
+    /** Number of skipped lines logged individually per file. */
+    static final int MAX_LOGGED_SKIPS = 5;
+    /** Nanoseconds per millisecond. */
+    private static final long NANOS_PER_MILLI = 1_000_000L;
+    /** Lines per ingestion batch event. */
+    static final int LINES_PER_BATCH = 1000;
 
 
     /**
@@ -111,7 +118,6 @@ public class ReadNodeDetails {
      */
     public ReadNodeDetails(final String filePath) throws URISyntaxException,
     IOException {
-        LOGGER.info("Reading nodes from CSV file: {} ", filePath);
         this.nodes = this.readNodesFromCSV(filePath);
     }
 
@@ -126,49 +132,125 @@ public class ReadNodeDetails {
 
     /**
      * Reads node data from a CSV file and converts it into a list of
-     * {@code EoscNode} objects.
+     * {@code EoscNode} objects. One summary is logged per file; per line
+     * details are only logged at DEBUG level, and only the first
+     * {@link #MAX_LOGGED_SKIPS} skipped lines are logged individually.
+     * Reading the file is traced as an {@code ingest} phase, with a
+     * {@code parse} phase per line, and recorded as an
+     * {@link RegistryEvents.IngestFile} event, with an
+     * {@link RegistryEvents.IngestBatch} event per
+     * {@link #LINES_PER_BATCH} lines.
      *
      * @param filePath the path to the CSV file containing node details
      * @return a list of {@code EoscNode} objects parsed from the file
      */
     public List<EoscNode> readNodesFromCSV(final String filePath)
             throws URISyntaxException, IOException {
+        long start = System.nanoTime();
+        RegistryEvents.IngestFile fileEvent = new RegistryEvents.IngestFile();
+        fileEvent.start();
+        RegistryEvents.IngestBatch batch = null;
         List<EoscNode> nodesList = new ArrayList<>();
         List<EoscNode> tempNodesList = new ArrayList<>();
+        int lineNumber = 0;
+        int skipped = 0;
+        int capabilities = 0;
 
-        String fileContents = getResourceFileAsString(filePath);
-        Path path = Path.of(filePath);
-        if (Files.exists(path)) {
-            fileContents = Files.readString(path, StandardCharsets.UTF_8);
-        } else {
-            fileContents = getResourceFileAsString(filePath);
-        }
+        try (RegistryTracing.Phase phase = RegistryTracing.phase("ingest")) {
+            phase.setAttribute("registry.file", filePath);
+            String fileContents;
+            Path path = Path.of(filePath);
+            if (Files.exists(path)) {
+                fileContents = Files.readString(path, StandardCharsets.UTF_8);
+            } else {
+                fileContents = getResourceFileAsString(filePath);
+            }
 
-        if (fileContents == null) {
-            throw new IOException("File not found: " + filePath);
-        }
+            if (fileContents == null) {
+                throw new IOException("File not found: " + filePath);
+            }
 
-        try (BufferedReader br = new BufferedReader(new
-        StringReader(fileContents))) {
-            String line;
-            while ((line = br.readLine()) != null) {
-                String[] values = line.split(",");
-                if (values.length == ELEMENTS_PER_LINE) {
-                    tempNodesList = parseNodeDetail(values);
-                    nodesList.addAll(tempNodesList);
-                    LOGGER.info("Node values available");
-                } else {
-                    LOGGER.info("Node values not available. Line length = {}",
-                    values.length);
+            try (BufferedReader br = new BufferedReader(new
+            StringReader(fileContents))) {
+                String line;
+                while ((line = br.readLine()) != null) {
+                    if (lineNumber % LINES_PER_BATCH == 0) {
+                        finishBatch(batch, lineNumber, nodesList.size());
+                        batch = startBatch(lineNumber + 1, nodesList.size());
+                    }
+                    lineNumber++;
+                    String[] values = line.split(",");
+                    if (values.length == ELEMENTS_PER_LINE) {
+                        tempNodesList = parseNodeDetail(values);
+                        for (EoscNode node : tempNodesList) {
+                            capabilities += node.getCapabilityList().size();
+                        }
+                        nodesList.addAll(tempNodesList);
+                    } else {
+                        skipped++;
+                        if (skipped <= MAX_LOGGED_SKIPS) {
+                            LOGGER.warn("Skipping line {} of {}: {} fields "
+                            + "instead of {}", Unbox.box(lineNumber),
+                            filePath, Unbox.box(values.length),
+                            Unbox.box(ELEMENTS_PER_LINE));
+                        }
+                    }
                 }
+            } catch (IOException e) {
+                LOGGER.error("Error reading file: {}", e.getMessage());
             }
-        } catch (IOException e) {
-            LOGGER.error("Error reading file: {}", e.getMessage());
+            finishBatch(batch, lineNumber, nodesList.size());
+            phase.setAttribute("registry.nodes", nodesList.size())
+            .setAttribute("registry.capabilities", capabilities)
+            .setAttribute("registry.lines", lineNumber)
+            .setAttribute("registry.skipped_lines", skipped);
         }
-        LOGGER.info("Node list size = {}", nodesList.size());
+        fileEvent.file = filePath;
+        fileEvent.lines = lineNumber;
+        fileEvent.skipped = skipped;
+        fileEvent.nodes = nodesList.size();
+        fileEvent.finish();
+        LOGGER.info("Read {} nodes with {} capabilities from {} in {} ms; "
+        + "skipped {} of {} lines", Unbox.box(nodesList.size()),
+        Unbox.box(capabilities), filePath,
+        Unbox.box((System.nanoTime() - start) / NANOS_PER_MILLI),
+        Unbox.box(skipped), Unbox.box(lineNumber));
         return nodesList;
     }
 
+    /**
+     * Starts an ingestion batch event.
+     *
+     * @param xFirstLine number of the first line of the batch, from 1
+     * @param xNodesRead nodes parsed before the batch
+     * @return the event
+     */
+    private static RegistryEvents.IngestBatch startBatch(
+            final int xFirstLine, final int xNodesRead) {
+        RegistryEvents.IngestBatch batch = new RegistryEvents.IngestBatch();
+        batch.firstLine = xFirstLine;
+        // counts the nodes parsed before the batch until it finishes
+        batch.nodes = xNodesRead;
+        batch.start();
+        return batch;
+    }
+
+    /**
+     * Ends and commits an ingestion batch event.
+     *
+     * @param xBatch     the batch, or null if none was started
+     * @param xLastLine  number of the last line of the batch
+     * @param xNodesRead nodes parsed so far
+     */
+    private static void finishBatch(final RegistryEvents.IngestBatch xBatch,
+            final int xLastLine, final int xNodesRead) {
+        if (xBatch != null) {
+            xBatch.lines = xLastLine - xBatch.firstLine + 1;
+            xBatch.nodes = xNodesRead - xBatch.nodes;
+            xBatch.finish();
+        }
+    }
+
     /**
      * Parses a string containing legal entity data and returns a
      * {@code LegalEntity} object.
@@ -188,10 +270,9 @@ public class ReadNodeDetails {
         if (parts.length == ELEMENTS_PER_LEGALENTITY) {
             legalEntity.setName(parts[0]);
             legalEntity.setRorId(new URI(parts[1]));
-            LOGGER.info("Legal Entity values available.");
         } else {
-            LOGGER.info("Legal Entity values not available. Line length = {}",
-            parts.length);
+            LOGGER.debug("Legal Entity values not available. Length = {}",
+            Unbox.box(parts.length));
         }
         return legalEntity;
     }
@@ -218,11 +299,10 @@ public class ReadNodeDetails {
                 capabilities.add(new EoscCapability(parts[0],
                 new URI(parts[1]), parts[2]));
             } else {
-                LOGGER.info("Capability values not available. Length = {}",
-                parts.length);
+                LOGGER.debug("Capability values not available. Length = {}",
+                Unbox.box(parts.length));
             }
         }
-        LOGGER.info("Number of Capabilities found = {}", capabilities.size());
         return capabilities;
     }
 
@@ -235,7 +315,9 @@ public class ReadNodeDetails {
      */
     static String getResourceFileAsString(final String fileName)
     throws IOException {
-        ClassLoader classLoader = ClassLoader.getSystemClassLoader();
+        // not the system class loader, which cannot see resources packed
+        // in an executable jar or a WAR
+        ClassLoader classLoader = ReadNodeDetails.class.getClassLoader();
 
         try (InputStream is = classLoader.getResourceAsStream(fileName)) {
             if (is == null) {
@@ -252,7 +334,8 @@ public class ReadNodeDetails {
     }
 
     /**
-     * Parses the contents of a line from the CVS data file.
+     * Parses the contents of a line from the CVS data file, as a
+     * {@code parse} phase.
      *
      * @param values
      * @return nodeList<EoscNode>
@@ -262,12 +345,14 @@ public class ReadNodeDetails {
     public static List<EoscNode> parseNodeDetail(final String[] values)
             throws NumberFormatException, URISyntaxException {
         List<EoscNode> nodesList = new ArrayList<>();
-        try {
+        try (RegistryTracing.Phase phase =
+        RegistryTracing.linePhase("parse")) {
             // get Node ID
             String id = values[NODE_ID_CHUNK].trim();
+            phase.setAttribute("node.id", id);
             // get Node name
             String name = values[NODE_NAME_CHUNK].trim();
-            LOGGER.info("Getting details for {}", name);
+            LOGGER.debug("Getting details for {}", name);
             // get Node Legal Entity logo
             URI logo = new URI(values[LEGALENT_LOGO_CHUNK].trim());
             // get Node PID
@@ -0,0 +1,180 @@
+/*
+ * Copyright © 2025 EOSC Beyond (${email})
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package eoscbeyond.eu;
+
+import java.time.Instant;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Deque;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import io.opentelemetry.api.trace.SpanContext;
+import io.opentelemetry.api.trace.StatusCode;
+import io.opentelemetry.sdk.common.CompletableResultCode;
+import io.opentelemetry.sdk.trace.data.SpanData;
+import io.opentelemetry.sdk.trace.export.SpanExporter;
+
+/**
+ * The {@code RecentSpanExporter} class keeps the most recently ended spans
+ * in memory, so that traces can be read from the application itself
+ * without a collector.
+ * <p>
+ * At most the configured number of spans are kept; the oldest are dropped
+ * first. Spans are exported one at a time as they end, so the exporter
+ * holds its lock only briefly.
+ * </p>
+ *
+ * <p>
+ * Example usage:
+ * </p>
+ *
+ * <pre>
+ * RecentSpanExporter exporter = new RecentSpanExporter(2048);
+ * SdkTracerProvider provider = SdkTracerProvider.builder()
+ *     .addSpanProcessor(SimpleSpanProcessor.create(exporter)).build();
+ * ...
+ * List&lt;Map&lt;String, Object&gt;&gt; spans = exporter.getSpans(null, 100);
+ * </pre>
+ *
+ */
+public final class RecentSpanExporter implements SpanExporter {
+    /** Nanoseconds per millisecond. */
+    private static final double NANOS_PER_MILLI = 1_000_000.0;
+
+    /** Maximum number of spans kept. */
+    private final int capacity;
+    /** The spans kept, oldest first. */
+    private final Deque<SpanData> spans = new ArrayDeque<>();
+    /** Number of spans exported. */
+    private long exported;
+    /** Number of spans dropped to make room. */
+    private long dropped;
+
+    /**
+     * Constructor.
+     *
+     * @param xCapacity maximum number of spans kept
+     */
+    public RecentSpanExporter(final int xCapacity) {
+        if (xCapacity <= 0) {
+            throw new IllegalArgumentException("Capacity must be positive: "
+            + xCapacity);
+        }
+        this.capacity = xCapacity;
+    }
+
+    @Override
+    public synchronized CompletableResultCode export(
+            final Collection<SpanData> xSpans) {
+        for (SpanData span : xSpans) {
+            if (spans.size() == capacity) {
+                spans.removeFirst();
+                dropped++;
+            }
+            spans.addLast(span);
+            exported++;
+        }
+        return CompletableResultCode.ofSuccess();
+    }
+
+    @Override
+    public CompletableResultCode flush() {
+        return CompletableResultCode.ofSuccess();
+    }
+
+    @Override
+    public synchronized CompletableResultCode shutdown() {
+        spans.clear();
+        return CompletableResultCode.ofSuccess();
+    }
+
+    /**
+     * Gets the spans kept, most recently ended first.
+     *
+     * @param xTraceId only spans of this trace; all spans if null
+     * @param xLimit   maximum number of spans returned
+     * @return the spans, each as a map of its fields and attributes
+     */
+    public List<Map<String, Object>> getSpans(final String xTraceId,
+            final int xLimit) {
+        List<SpanData> matching = new ArrayList<>();
+        synchronized (this) {
+            Iterator<SpanData> newestFirst = spans.descendingIterator();
+            while (newestFirst.hasNext() && matching.size() < xLimit) {
+                SpanData span = newestFirst.next();
+                if (xTraceId == null || xTraceId.equals(span.getTraceId())) {
+                    matching.add(span);
+                }
+            }
+        }
+        List<Map<String, Object>> result = new ArrayList<>(matching.size());
+        for (SpanData span : matching) {
+            result.add(toMap(span));
+        }
+        return result;
+    }
+
+    /**
+     * Gets the numbers of spans kept, exported and dropped.
+     *
+     * @return the statistics, by name
+     */
+    public synchronized Map<String, Object> getStatistics() {
+        Map<String, Object> statistics = new LinkedHashMap<>();
+        statistics.put("capacity", capacity);
+        statistics.put("retained", spans.size());
+        statistics.put("exported", exported);
+        statistics.put("dropped", dropped);
+        return statistics;
+    }
+
+    /**
+     * Converts a span to a map that serialises to readable JSON.
+     *
+     * @param xSpan the span
+     * @return its IDs, name, kind, start, duration, status and attributes
+     */
+    static Map<String, Object> toMap(final SpanData xSpan) {
+        Map<String, Object> map = new LinkedHashMap<>();
+        map.put("traceId", xSpan.getTraceId());
+        map.put("spanId", xSpan.getSpanId());
+        SpanContext parent = xSpan.getParentSpanContext();
+        if (parent.isValid()) {
+            map.put("parentSpanId", parent.getSpanId());
+        }
+        map.put("name", xSpan.getName());
+        map.put("kind", xSpan.getKind().name());
+        map.put("start", Instant.ofEpochSecond(0, xSpan.getStartEpochNanos())
+        .toString());
+        map.put("durationMs", (xSpan.getEndEpochNanos()
+        - xSpan.getStartEpochNanos()) / NANOS_PER_MILLI);
+        if (xSpan.getStatus().getStatusCode() == StatusCode.ERROR) {
+            map.put("status", StatusCode.ERROR.name());
+        }
+        Map<String, Object> attributes = new LinkedHashMap<>();
+        xSpan.getAttributes().forEach((key, value) ->
+        attributes.put(key.getKey(), value));
+        if (!attributes.isEmpty()) {
+            map.put("attributes", attributes);
+        }
+        return map;
+    }
+}
@@ -0,0 +1,79 @@
+/*
+ * Copyright © 2025 EOSC Beyond (${email})
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package eoscbeyond.eu;
+
+import java.io.IOException;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.scheduling.annotation.EnableScheduling;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+/**
+ * The {@code RegistryCheckpointScheduler} class writes checkpoints of the
+ * node registry to its log periodically, so the log stays short and
+ * startup replays few changes.
+ * <p>
+ * It is only created when {@code registry-log.enabled} is true. A last
+ * checkpoint is written on shutdown, after which the log is closed.
+ * </p>
+ *
+ */
+@Component
+@EnableScheduling
+@ConditionalOnProperty(prefix = "registry-log", name = "enabled",
+havingValue = "true")
+public class RegistryCheckpointScheduler implements DisposableBean {
+    /** Logger. */
+    private static final Logger LOGGER =
+    LogManager.getLogger(RegistryCheckpointScheduler.class);
+    /** Nanoseconds per millisecond. */
+    private static final long NANOS_PER_MILLI = 1_000_000L;
+
+    /** The node registry. */
+    private final NodeRegistry nodeRegistry = NodeRegistry.getInstance();
+
+    /** Writes a checkpoint of the registry. */
+    @Scheduled(fixedDelayString = "${registry-log.checkpoint-interval:PT5M}",
+    initialDelayString = "${registry-log.checkpoint-interval:PT5M}")
+    public void checkpoint() {
+        long start = System.nanoTime();
+        try {
+            nodeRegistry.checkpoint();
+        } catch (IOException e) {
+            LOGGER.error("Registry checkpoint failed", e);
+            return;
+        }
+        RegistryLog log = nodeRegistry.getLog();
+        LOGGER.info("Registry checkpoint written in {} ms {}",
+        (System.nanoTime() - start) / NANOS_PER_MILLI,
+        log == null ? "" : log.getStatistics());
+    }
+
+    /** Writes a last checkpoint and closes the log. */
+    @Override
+    public void destroy() {
+        checkpoint();
+        RegistryLog log = nodeRegistry.detachLog();
+        if (log != null) {
+            log.close();
+        }
+    }
+}
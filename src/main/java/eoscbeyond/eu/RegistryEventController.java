@@ -0,0 +1,77 @@
+/*
+ * Copyright © 2025 EOSC Beyond (${email})
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package eoscbeyond.eu;
+
+import java.util.Map;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.CrossOrigin;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.tags.Tag;
+
+/**
+ * The {@code RegistryEventController} class serves the rolling summaries
+ * of the registry's flight recorder events kept by the
+ * {@link RegistryEventMonitor}. They are not found when the monitor is
+ * disabled.
+ */
+@RestController
+@CrossOrigin(origins = "*") // Allow all origins
+@RequestMapping("/nodes/stats")
+@Tag(name = "Node Registry", description =
+"Endpoints for managing node registry")
+public class RegistryEventController {
+
+    /** Keeps the summaries. */
+    private final RegistryEventMonitor monitor;
+
+    /**
+     * Constructor.
+     *
+     * @param xMonitor keeps the summaries
+     */
+    @Autowired
+    public RegistryEventController(final RegistryEventMonitor xMonitor) {
+        this.monitor = xMonitor;
+    }
+
+    /**
+     * @return ResponseEntity<Map<String, Object>> for each registry event,
+     *         the count, rate, duration percentiles, allocation and mean
+     *         result size over the window, or 404 if events are not
+     *         summarised
+     */
+    @Operation(summary = "Get registry event summaries", description =
+    "Summarises the flight recorder events of the registry over a rolling "
+    + "window: snapshot publications, ID and capability lookups, ingestion "
+    + "of the nodes file and serialisation, with their rate, latency "
+    + "percentiles, allocation and result sizes.")
+    @GetMapping("/events")
+    public ResponseEntity<Map<String, Object>> getEventSummaries() {
+        Map<String, Object> summaries = monitor.getSummaries();
+        if (summaries == null) {
+            return ResponseEntity.status(HttpStatus.NOT_FOUND).body(null);
+        }
+        return ResponseEntity.ok(summaries);
+    }
+}
@@ -0,0 +1,193 @@
+/*
+ * Copyright © 2025 EOSC Beyond (${email})
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package eoscbeyond.eu;
+
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.InitializingBean;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import eoscbeyond.eu.data.JfrConfiguration;
+import jdk.jfr.Event;
+import jdk.jfr.EventType;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingStream;
+
+/**
+ * The {@code RegistryEventMonitor} class records the
+ * {@link RegistryEvents registry's flight recorder events} in process and
+ * keeps rolling summaries of their durations, allocations and result
+ * sizes, so that problems can be diagnosed without attaching a profiler.
+ * <p>
+ * It streams the events from a JFR recording of its own, which enables
+ * only the registry events, without stack traces. The recording runs
+ * alongside any other, such as one started with {@code jcmd JFR.start},
+ * which can still record the same events to a file. Events reach the
+ * summaries about a second after they end, when the recording is
+ * flushed.
+ * </p>
+ *
+ * <p>
+ * The monitor is created before {@link NodeRegistryLoader}, so that the
+ * ingestion of the nodes file at startup is recorded. It records nothing
+ * when {@code jfr.enabled} is false.
+ * </p>
+ *
+ */
+@Component
+public class RegistryEventMonitor implements InitializingBean,
+DisposableBean {
+    /** Logger. */
+    private static final Logger LOGGER =
+    LogManager.getLogger(RegistryEventMonitor.class);
+    /** The events summarised. */
+    static final List<Class<? extends Event>> EVENTS = List.of(
+        RegistryEvents.SnapshotPublished.class,
+        RegistryEvents.IdLookup.class,
+        RegistryEvents.CapabilityLookup.class,
+        RegistryEvents.IngestFile.class,
+        RegistryEvents.IngestBatch.class,
+        RegistryEvents.Serialization.class);
+
+    /** Period the summaries cover; null if disabled. */
+    private final Duration window;
+    /** Statistics by event class simple name, in the order of EVENTS. */
+    private final Map<String, RollingEventStatistics> statistics =
+    new LinkedHashMap<>();
+    /** Streams the events; null until started or if disabled. */
+    private RecordingStream stream;
+
+    /**
+     * Constructor.
+     *
+     * @param xConfig monitor settings
+     */
+    @Autowired
+    public RegistryEventMonitor(final JfrConfiguration xConfig) {
+        this(xConfig.enabled() ? xConfig.window() : null);
+    }
+
+    /**
+     * Constructor for tests.
+     *
+     * @param xWindow period the summaries cover; null to disable
+     */
+    RegistryEventMonitor(final Duration xWindow) {
+        this.window = xWindow;
+        if (xWindow != null) {
+            for (Class<? extends Event> event : EVENTS) {
+                statistics.put(event.getSimpleName(),
+                    new RollingEventStatistics(xWindow));
+            }
+        }
+    }
+
+    /** Starts streaming the events. */
+    @Override
+    public void afterPropertiesSet() {
+        if (window == null) {
+            return;
+        }
+        try {
+            RecordingStream events = new RecordingStream();
+            events.setReuse(true);
+            events.setOrdered(false);
+            for (Class<? extends Event> event : EVENTS) {
+                String name = EventType.getEventType(event).getName();
+                RollingEventStatistics summary =
+                statistics.get(event.getSimpleName());
+                events.enable(name).withoutStackTrace();
+                events.onEvent(name, recorded -> record(summary, recorded));
+            }
+            events.startAsync();
+            stream = events;
+        } catch (IllegalStateException | SecurityException e) {
+            LOGGER.warn("Flight recorder not available; registry events "
+            + "are not summarised: {}", e.getMessage());
+        }
+    }
+
+    /** Stops streaming the events. */
+    @Override
+    public void destroy() {
+        if (stream != null) {
+            stream.close();
+        }
+    }
+
+    /**
+     * Tells whether events are being summarised.
+     *
+     * @return true once the stream has started
+     */
+    public boolean isRunning() {
+        return stream != null;
+    }
+
+    /**
+     * Summarises each kind of event over the window.
+     *
+     * @return the window and, by event name, the count, rate, mean,
+     *         median, 99th percentile and maximum duration, allocation and
+     *         mean result size; null if disabled
+     */
+    public Map<String, Object> getSummaries() {
+        if (window == null) {
+            return null;
+        }
+        long now = System.nanoTime();
+        Map<String, Object> events = new LinkedHashMap<>();
+        for (Map.Entry<String, RollingEventStatistics> entry
+            : statistics.entrySet()) {
+            events.put(entry.getKey(), entry.getValue().getSummary(now));
+        }
+        Map<String, Object> summaries = new LinkedHashMap<>();
+        summaries.put("window", window.toString());
+        summaries.put("running", isRunning());
+        summaries.put("events", events);
+        return summaries;
+    }
+
+    /**
+     * Adds an event to its summary. Allocation is read from the
+     * {@code allocated} field and the result size from the
+     * {@code resultSize} or {@code nodes} field, where the event has one.
+     *
+     * @param xSummary the summary
+     * @param xEvent   the event
+     */
+    static void record(final RollingEventStatistics xSummary,
+            final RecordedEvent xEvent) {
+        long allocated = xEvent.hasField("allocated")
+        ? xEvent.getLong("allocated") : 0;
+        long size = 0;
+        if (xEvent.hasField("resultSize")) {
+            size = xEvent.getLong("resultSize");
+        } else if (xEvent.hasField("nodes")) {
+            size = xEvent.getLong("nodes");
+        }
+        xSummary.record(System.nanoTime(), xEvent.getDuration().toNanos(),
+            allocated, size);
+    }
+}
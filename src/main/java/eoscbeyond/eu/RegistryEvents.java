@@ -0,0 +1,240 @@
+/*
+ * Copyright © 2025 EOSC Beyond (${email})
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package eoscbeyond.eu;
+
+import java.lang.management.ManagementFactory;
+
+import jdk.jfr.Category;
+import jdk.jfr.DataAmount;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * The {@code RegistryEvents} class defines the Java Flight Recorder events
+ * of the node registry: publication of snapshots, lookups by ID and by
+ * capability, ingestion of the nodes file, per file and per batch of
+ * lines, and serialisation of responses.
+ * <p>
+ * The events are recorded by any JFR recording that enables them, such as
+ * {@code -XX:StartFlightRecording} or {@code jcmd <pid> JFR.start}, and
+ * summarised in process by {@link RegistryEventMonitor}. Without a
+ * recording, creating and committing them costs next to nothing. Except
+ * for lookups, which are too short for it to be worth measuring, events
+ * also record the bytes the thread allocated while they ran.
+ * </p>
+ *
+ * <p>
+ * Example usage:
+ * </p>
+ *
+ * <pre>
+ * RegistryEvents.Serialization event = new RegistryEvents.Serialization();
+ * event.start();
+ * byte[] json = NodeJsonWriter.local().writeNodes(nodes).toByteArray();
+ * event.format = "json";
+ * event.nodes = nodes.size();
+ * event.bytes = json.length;
+ * event.finish();
+ * </pre>
+ *
+ */
+public final class RegistryEvents {
+    /** Category of all registry events. */
+    static final String CATEGORY = "Node Registry";
+
+    /** Allocation counters of threads, or null if unsupported. */
+    private static final com.sun.management.ThreadMXBean THREADS =
+    threads();
+
+    private RegistryEvents() {
+    }
+
+    /**
+     * Gets the bytes allocated by the current thread so far.
+     *
+     * @return the bytes allocated, or 0 if the JVM does not count them
+     */
+    static long allocatedBytes() {
+        return THREADS == null ? 0 : THREADS.getCurrentThreadAllocatedBytes();
+    }
+
+    private static com.sun.management.ThreadMXBean threads() {
+        if (ManagementFactory.getThreadMXBean()
+        instanceof com.sun.management.ThreadMXBean threads
+        && threads.isThreadAllocatedMemorySupported()
+        && threads.isThreadAllocatedMemoryEnabled()) {
+            return threads;
+        }
+        return null;
+    }
+
+    /**
+     * An event that records the bytes the thread allocated while it ran.
+     * It is started with {@link #start()} and ended and committed with
+     * {@link #finish()}, on the same thread.
+     */
+    abstract static class AllocatingEvent extends Event {
+        /** Bytes allocated by the thread while the event ran. */
+        @Label("Allocated")
+        @DataAmount
+        public long allocated;
+
+        /** Bytes allocated by the thread when the event started. */
+        private transient long allocatedAtStart;
+
+        /** Starts the event, if it is enabled. */
+        public void start() {
+            if (isEnabled()) {
+                allocatedAtStart = allocatedBytes();
+                begin();
+            }
+        }
+
+        /** Ends the event and commits it, if it is enabled. */
+        public void finish() {
+            if (isEnabled()) {
+                end();
+                if (shouldCommit()) {
+                    allocated = allocatedBytes() - allocatedAtStart;
+                    commit();
+                }
+            }
+        }
+    }
+
+    /** Publication of a registry snapshot. */
+    @Name("eoscbeyond.eu.SnapshotPublished")
+    @Label("Snapshot Published")
+    @Category(CATEGORY)
+    @Description("Building a new version of the registry, published at once "
+    + "or, for a logged change, once it is durable")
+    @StackTrace(false)
+    public static final class SnapshotPublished extends AllocatingEvent {
+        /** Version published. */
+        @Label("Version")
+        public long version;
+
+        /** Nodes in the version. */
+        @Label("Nodes")
+        public int nodes;
+
+        /** What changed: reload, put, remove or metadata. */
+        @Label("Change")
+        public String change;
+    }
+
+    /** Lookup of a node by ID. */
+    @Name("eoscbeyond.eu.IdLookup")
+    @Label("ID Lookup")
+    @Category(CATEGORY)
+    @Description("Lookup of a node by ID in a registry snapshot")
+    @StackTrace(false)
+    public static final class IdLookup extends Event {
+        /** Nodes found: 0 or 1. */
+        @Label("Result Size")
+        public int resultSize;
+    }
+
+    /** Lookup of the nodes offering a capability. */
+    @Name("eoscbeyond.eu.CapabilityLookup")
+    @Label("Capability Lookup")
+    @Category(CATEGORY)
+    @Description("Lookup of the nodes offering a capability in a registry "
+    + "snapshot")
+    @StackTrace(false)
+    public static final class CapabilityLookup extends Event {
+        /** The capability. */
+        @Label("Capability")
+        public String capability;
+
+        /** Nodes found. */
+        @Label("Result Size")
+        public int resultSize;
+    }
+
+    /** Ingestion of a nodes file. */
+    @Name("eoscbeyond.eu.IngestFile")
+    @Label("Ingest File")
+    @Category(CATEGORY)
+    @Description("Reading and parsing a nodes file")
+    @StackTrace(false)
+    public static final class IngestFile extends AllocatingEvent {
+        /** Path of the file. */
+        @Label("File")
+        public String file;
+
+        /** Lines read. */
+        @Label("Lines")
+        public int lines;
+
+        /** Lines skipped. */
+        @Label("Skipped Lines")
+        public int skipped;
+
+        /** Nodes parsed. */
+        @Label("Nodes")
+        public int nodes;
+    }
+
+    /** Parsing of a batch of lines of a nodes file. */
+    @Name("eoscbeyond.eu.IngestBatch")
+    @Label("Ingest Batch")
+    @Category(CATEGORY)
+    @Description("Parsing a batch of lines of a nodes file")
+    @StackTrace(false)
+    public static final class IngestBatch extends AllocatingEvent {
+        /** Number of the first line of the batch, from 1. */
+        @Label("First Line")
+        public int firstLine;
+
+        /** Lines in the batch. */
+        @Label("Lines")
+        public int lines;
+
+        /** Nodes parsed. */
+        @Label("Nodes")
+        public int nodes;
+    }
+
+    /** Serialisation of nodes for a response. */
+    @Name("eoscbeyond.eu.Serialization")
+    @Label("Serialization")
+    @Category(CATEGORY)
+    @Description("Serialising nodes or summaries for a response")
+    @StackTrace(false)
+    public static final class Serialization extends AllocatingEvent {
+        /** Representation: json or smile. */
+        @Label("Format")
+        public String format;
+
+        /** What was written: nodes, elements, summaries or batch. */
+        @Label("Content")
+        public String content;
+
+        /** Nodes or summaries written. */
+        @Label("Nodes")
+        public int nodes;
+
+        /** Bytes written. */
+        @Label("Bytes")
+        @DataAmount
+        public long bytes;
+    }
+}
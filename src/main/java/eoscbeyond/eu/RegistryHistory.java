@@ -0,0 +1,301 @@
+/*
+ * Copyright © 2025 EOSC Beyond (${email})
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package eoscbeyond.eu;
+
+import java.time.DateTimeException;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * The {@code RegistryHistory} class keeps the most recent versions of the
+ * registry, with the time each was published, so the registry can be read
+ * as it was at a past version or time.
+ * <p>
+ * Snapshots are persistent structures, so a version retained here costs
+ * only what it does not share with its neighbours: for a single-node
+ * update, the few trie paths that were copied. The number of versions is
+ * bounded; the oldest is dropped when a new one is recorded.
+ * </p>
+ *
+ * <p>
+ * The retained versions are held in sorted arrays that are replaced, not
+ * changed, on each record, so lookups are lock-free binary searches.
+ * </p>
+ *
+ * <p>
+ * Example usage:
+ * </p>
+ *
+ * <pre>
+ * RegistryHistory history = NodeRegistry.getInstance().getHistory();
+ * RegistrySnapshot then = history.asOf(Instant.parse(
+ *         "2025-03-01T14:02:00Z"));
+ * List<EoscNode> nodes = then.getNodesWithCapability("Order Management");
+ * </pre>
+ *
+ */
+public final class RegistryHistory {
+    /** Default number of versions retained. */
+    public static final int DEFAULT_MAX_VERSIONS = 100;
+    /** Length of an instant in UTC to the second. */
+    private static final int UTC_SECONDS_LENGTH = 20;
+
+    /** Retained versions, oldest first. */
+    private volatile Window window = new Window(new long[0], new long[0],
+        new RegistrySnapshot[0]);
+    /** Maximum number of versions retained. Guarded by this. */
+    private int maxVersions = DEFAULT_MAX_VERSIONS;
+
+    /**
+     * Sets the maximum number of versions retained, dropping the oldest if
+     * there are more.
+     *
+     * @param xMaxVersions the maximum, at least one
+     * @throws IllegalArgumentException if the maximum is less than one
+     */
+    public synchronized void setMaxVersions(final int xMaxVersions) {
+        if (xMaxVersions < 1) {
+            throw new IllegalArgumentException(
+                "At least one version must be retained");
+        }
+        maxVersions = xMaxVersions;
+        window = window.last(maxVersions);
+    }
+
+    /**
+     * Records a newly published version. Versions must be recorded in
+     * increasing order; a publication time earlier than the previous one
+     * is raised to it, so times never go backwards.
+     *
+     * @param xSnapshot    the snapshot
+     * @param xPublishedAt when it was published
+     */
+    synchronized void record(final RegistrySnapshot xSnapshot,
+            final Instant xPublishedAt) {
+        Window current = window;
+        int count = current.versions.length;
+        long at = xPublishedAt.toEpochMilli();
+        if (count > 0) {
+            if (xSnapshot.getVersion() <= current.versions[count - 1]) {
+                throw new IllegalArgumentException("Version "
+                    + xSnapshot.getVersion() + " is not newer than "
+                    + current.versions[count - 1]);
+            }
+            at = Math.max(at, current.publishedAt[count - 1]);
+        }
+        long[] versions = Arrays.copyOf(current.versions, count + 1);
+        long[] publishedAt = Arrays.copyOf(current.publishedAt, count + 1);
+        RegistrySnapshot[] snapshots = Arrays.copyOf(current.snapshots,
+            count + 1);
+        versions[count] = xSnapshot.getVersion();
+        publishedAt[count] = at;
+        snapshots[count] = xSnapshot;
+        window = new Window(versions, publishedAt, snapshots)
+        .last(maxVersions);
+    }
+
+    /**
+     * Gets the snapshot of a version.
+     *
+     * @param xVersion the version
+     * @return the snapshot, or null if the version is not retained
+     */
+    public RegistrySnapshot atVersion(final long xVersion) {
+        Window current = window;
+        int index = Arrays.binarySearch(current.versions, xVersion);
+        return index < 0 ? null : current.snapshots[index];
+    }
+
+    /**
+     * Gets the snapshot that was current at a time: the last one published
+     * at or before it.
+     *
+     * @param xTime the time
+     * @return the snapshot, or null if the time is before the oldest
+     *         version retained
+     */
+    public RegistrySnapshot asOf(final Instant xTime) {
+        Window current = window;
+        long at = xTime.toEpochMilli();
+        int low = 0;
+        int high = current.publishedAt.length - 1;
+        int found = -1;
+        while (low <= high) {
+            int mid = (low + high) >>> 1;
+            if (current.publishedAt[mid] <= at) {
+                found = mid;
+                low = mid + 1;
+            } else {
+                high = mid - 1;
+            }
+        }
+        return found < 0 ? null : current.snapshots[found];
+    }
+
+    /**
+     * Gets the snapshot named by a version number or an ISO-8601 instant,
+     * such as {@code 42} or {@code 2025-03-01T14:02:00Z}.
+     *
+     * @param xAsOf the version or instant
+     * @return the snapshot, or null if no retained version matches
+     * @throws IllegalArgumentException if the value is neither a version
+     *                                  nor an instant
+     */
+    public RegistrySnapshot resolve(final String xAsOf) {
+        if (isDigits(xAsOf)) {
+            try {
+                return atVersion(Long.parseLong(xAsOf));
+            } catch (NumberFormatException e) {
+                return null; // more digits than any version has
+            }
+        }
+        try {
+            return asOf(parseInstant(xAsOf));
+        } catch (DateTimeException e) {
+            throw new IllegalArgumentException("Not a version or an instant: "
+                + xAsOf, e);
+        }
+    }
+
+    /**
+     * Parses an ISO-8601 instant. The common form, UTC to the second such
+     * as {@code 2025-03-01T14:02:00Z}, is parsed directly, which is much
+     * faster than the general formatter.
+     *
+     * @param xText the instant
+     * @return the instant
+     * @throws DateTimeException if the text is not an instant
+     */
+    static Instant parseInstant(final String xText) {
+        if (xText.length() != UTC_SECONDS_LENGTH
+        || xText.charAt(4) != '-' || xText.charAt(7) != '-'
+        || xText.charAt(10) != 'T' || xText.charAt(13) != ':'
+        || xText.charAt(16) != ':' || xText.charAt(19) != 'Z') {
+            return Instant.parse(xText);
+        }
+        int year = digits(xText, 0, 4);
+        int month = digits(xText, 5, 7);
+        int day = digits(xText, 8, 10);
+        int hour = digits(xText, 11, 13);
+        int minute = digits(xText, 14, 16);
+        int second = digits(xText, 17, 19);
+        try {
+            return LocalDateTime.of(year, month, day, hour, minute, second)
+            .toInstant(ZoneOffset.UTC);
+        } catch (DateTimeException e) {
+            // not digits, or an end of day or leap second the formatter
+            // accepts
+            return Instant.parse(xText);
+        }
+    }
+
+    /**
+     * Tells whether a string is a non-empty run of ASCII digits.
+     *
+     * @param xText the string
+     * @return true if it is all digits
+     */
+    private static boolean isDigits(final String xText) {
+        if (xText.isEmpty()) {
+            return false;
+        }
+        for (int i = 0; i < xText.length(); i++) {
+            char c = xText.charAt(i);
+            if (c < '0' || c > '9') {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Parses a run of ASCII digits.
+     *
+     * @param xText the string
+     * @param xFrom index of the first digit
+     * @param xTo   index after the last digit
+     * @return the value, or -1 if a character is not a digit, which no
+     *         date or time field accepts
+     */
+    private static int digits(final String xText, final int xFrom,
+            final int xTo) {
+        int value = 0;
+        for (int i = xFrom; i < xTo; i++) {
+            char c = xText.charAt(i);
+            if (c < '0' || c > '9') {
+                return -1;
+            }
+            value = value * 10 + (c - '0');
+        }
+        return value;
+    }
+
+    /**
+     * Lists the retained versions, with their publication times and node
+     * counts.
+     *
+     * @return one map per version, oldest first
+     */
+    public List<Map<String, Object>> getVersions() {
+        Window current = window;
+        List<Map<String, Object>> versions =
+        new ArrayList<>(current.versions.length);
+        for (int i = 0; i < current.versions.length; i++) {
+            Map<String, Object> version = new LinkedHashMap<>();
+            version.put("version", current.versions[i]);
+            version.put("publishedAt",
+                Instant.ofEpochMilli(current.publishedAt[i]).toString());
+            version.put("nodes", current.snapshots[i].getNodes().size());
+            versions.add(version);
+        }
+        return versions;
+    }
+
+    /**
+     * Retained versions, in parallel arrays sorted by version.
+     *
+     * @param versions    the versions
+     * @param publishedAt publication times, in epoch milliseconds
+     * @param snapshots   the snapshots
+     */
+    private record Window(long[] versions, long[] publishedAt,
+            RegistrySnapshot[] snapshots) {
+
+        /**
+         * Gets the most recent versions of this window.
+         *
+         * @param xCount the number of versions
+         * @return this window, or a copy with only the last versions
+         */
+        Window last(final int xCount) {
+            int from = versions.length - xCount;
+            if (from <= 0) {
+                return this;
+            }
+            return new Window(
+                Arrays.copyOfRange(versions, from, versions.length),
+                Arrays.copyOfRange(publishedAt, from, publishedAt.length),
+                Arrays.copyOfRange(snapshots, from, snapshots.length));
+        }
+    }
+}
@@ -0,0 +1,927 @@
+/*
+ * Copyright © 2025 EOSC Beyond (${email})
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package eoscbeyond.eu;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+import java.util.zip.CRC32C;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.apache.logging.log4j.util.Unbox;
+
+/**
+ * The {@code RegistryLog} class is a write-ahead log of the nodes added,
+ * replaced and removed at runtime, so the changes survive a restart.
+ * <p>
+ * Each change is appended as a checksummed record with a sequence number.
+ * Writers do not sync the file themselves: a flusher thread writes every
+ * change appended so far at once and syncs once, then releases every
+ * writer in the batch. Changes made while a sync runs go into the next
+ * batch, so batches grow with the load. A group commit window makes the
+ * flusher wait for more changes before each write, trading latency for
+ * fewer syncs.
+ * </p>
+ *
+ * <p>
+ * A checkpoint writes the whole node list and the sequence number it
+ * includes, then deletes the log segments it makes redundant. On startup
+ * the log loads the latest checkpoint and keeps the records after it for
+ * replay. A record cut short by a crash, or whose checksum does not match,
+ * ends its segment: the segment is truncated there. Records are never
+ * appended to a segment that was open before the restart.
+ * </p>
+ *
+ * <p>
+ * The most recent durable records are also kept in memory, so a leader can
+ * ship them to followers ({@link #readAfter(long, int)}) without
+ * reading the segments, and readers waiting for the next one are called
+ * back ({@link #whenDurableAfter(long, Runnable)}) rather than blocked. A follower that has fallen further behind starts
+ * again from a snapshot.
+ * </p>
+ *
+ * <p>
+ * Example usage:
+ * </p>
+ *
+ * <pre>
+ * RegistryLog log = RegistryLog.open(Path.of("data"), Duration.ZERO);
+ * List<EoscNode> nodes = log.getCheckpoint();
+ * registry.setNodes(nodes != null ? nodes : readNodesFile());
+ * log.replay(registry::putNode, registry::removeNode);
+ * registry.attachLog(log);
+ * </pre>
+ *
+ */
+public final class RegistryLog implements AutoCloseable {
+    /** Logger. */
+    private static final Logger LOGGER =
+    LogManager.getLogger(RegistryLog.class);
+
+    /** Record type of a node added or replaced. */
+    static final byte PUT = 1;
+    /** Record type of a node removed. */
+    static final byte REMOVE = 2;
+    /** Bytes of a record header: length, checksum, type and sequence. */
+    static final int HEADER_BYTES = 17;
+    /** Offset in a record of the first byte covered by the checksum. */
+    private static final int CHECKSUM_FROM = 8;
+    /** Bytes of the type and sequence number, covered by the checksum. */
+    private static final int TYPE_AND_SEQUENCE_BYTES = 9;
+    /** Longest payload read; longer lengths are corrupt. */
+    private static final int MAX_PAYLOAD_BYTES = 16 << 20;
+    /** First bytes of a checkpoint file. */
+    private static final int CHECKPOINT_MAGIC = 0x4E524350;
+    /** Bytes of a checkpoint header. */
+    private static final int CHECKPOINT_HEADER_BYTES = 28;
+    /** Default number of records kept in memory for followers. */
+    public static final int DEFAULT_RETAINED_CHANGES = 16384;
+    /** Name of the checkpoint file. */
+    static final String CHECKPOINT_FILE = "checkpoint.bin";
+    /** Name of a checkpoint being written. */
+    private static final String CHECKPOINT_TEMP_FILE = "checkpoint.tmp";
+    /** Prefix of segment file names. */
+    private static final String SEGMENT_PREFIX = "segment-";
+    /** Suffix of segment file names. */
+    private static final String SEGMENT_SUFFIX = ".log";
+
+    /** Directory holding the segments and the checkpoint. */
+    private final Path directory;
+    /** Group commit window, in nanoseconds. */
+    private final long windowNanos;
+    /** Thread writing and syncing batches of records. */
+    private final Thread flusher;
+
+    /** Nodes of the checkpoint loaded on open; null once replayed. */
+    private List<EoscNode> checkpointNodes;
+    /** Changes logged after the checkpoint; empty once replayed. */
+    private List<Change> tail;
+
+    /** Records appended but not yet written. Guarded by this. */
+    private List<ByteBuffer> pending = new ArrayList<>();
+    /** Sequence number of the last record appended. Guarded by this. */
+    private long lastSequence;
+    /** Sequence number of the last record synced. Guarded by this. */
+    private long durableSequence;
+    /** Error that stopped the flusher, if any. Guarded by this. */
+    private IOException failure;
+    /** Whether the log has been closed. */
+    private volatile boolean closed;
+    /** Actions waiting for the next durable record. Guarded by this. */
+    private List<Runnable> waiters = new ArrayList<>();
+
+    /** Recent durable records, by sequence number. Guarded by this. */
+    private final byte[][] retained;
+    /** Sequence number of the oldest retained record. Guarded by this. */
+    private long retainedFirst;
+    /** Number of retained records. Guarded by this. */
+    private int retainedCount;
+
+    /** Lock held while writing to or switching the current segment. */
+    private final Object io = new Object();
+    /** Segment records are written to. Guarded by io. */
+    private FileChannel segment;
+    /** Number of the current segment. Guarded by io. */
+    private long segmentNumber;
+    /** Sequence number of the last record written to the current segment,
+     * or to an earlier one. Guarded by io. */
+    private long writtenSequence;
+
+    /** Lock held while writing a checkpoint. */
+    private final Object checkpointLock = new Object();
+    /** Sequence number included in the latest checkpoint. */
+    private volatile long checkpointSequence;
+
+    /** Number of records written. */
+    private final LongAdder records = new LongAdder();
+    /** Number of batches written, each with one sync. */
+    private final LongAdder batches = new LongAdder();
+    /** Number of bytes written. */
+    private final LongAdder bytes = new LongAdder();
+    /** Number of checkpoints written. */
+    private final LongAdder checkpoints = new LongAdder();
+
+    private RegistryLog(final Path xDirectory, final Duration xWindow,
+            final int xRetainedChanges) throws IOException {
+        this.directory = xDirectory;
+        this.windowNanos = xWindow.toNanos();
+        this.retained = new byte[xRetainedChanges][];
+        Checkpoint checkpoint = readCheckpoint(
+            xDirectory.resolve(CHECKPOINT_FILE));
+        long sequence = 0;
+        long firstSegment = 1;
+        if (checkpoint != null) {
+            checkpointNodes = checkpoint.nodes();
+            sequence = checkpoint.sequence();
+            firstSegment = checkpoint.firstSegment();
+            checkpointSequence = sequence;
+        }
+        List<Change> changes = new ArrayList<>();
+        long nextSegment = firstSegment;
+        for (Path path : listSegments(xDirectory)) {
+            long number = segmentNumber(path);
+            if (number < firstSegment) {
+                // left behind by a checkpoint interrupted before cleanup
+                Files.delete(path);
+            } else {
+                sequence = readSegment(path, sequence, changes);
+                nextSegment = number + 1;
+            }
+        }
+        tail = changes;
+        for (Change change : changes) {
+            retain(change.sequence(), change.record());
+        }
+        lastSequence = sequence;
+        durableSequence = sequence;
+        writtenSequence = sequence;
+        segmentNumber = nextSegment;
+        segment = openSegment(nextSegment);
+        flusher = Thread.ofPlatform().daemon().name("registry-log")
+        .unstarted(this::flush);
+    }
+
+    /**
+     * Opens the log in a directory, creating the directory if needed, and
+     * loads the latest checkpoint and the changes logged after it.
+     *
+     * @param xDirectory         directory of the log
+     * @param xGroupCommitWindow time to wait for more changes before a
+     *                           sync; may be zero
+     * @return the log, ready for appends
+     * @throws IOException if the log cannot be read or a segment created,
+     *                     or the checkpoint is corrupt
+     */
+    public static RegistryLog open(final Path xDirectory,
+            final Duration xGroupCommitWindow) throws IOException {
+        return open(xDirectory, xGroupCommitWindow,
+            DEFAULT_RETAINED_CHANGES);
+    }
+
+    /**
+     * Opens the log in a directory, creating the directory if needed, and
+     * loads the latest checkpoint and the changes logged after it.
+     *
+     * @param xDirectory         directory of the log
+     * @param xGroupCommitWindow time to wait for more changes before a
+     *                           sync; may be zero
+     * @param xRetainedChanges   number of recent records kept in memory
+     *                           for followers, at least one
+     * @return the log, ready for appends
+     * @throws IOException if the log cannot be read or a segment created,
+     *                     or the checkpoint is corrupt
+     */
+    public static RegistryLog open(final Path xDirectory,
+            final Duration xGroupCommitWindow, final int xRetainedChanges)
+            throws IOException {
+        Files.createDirectories(xDirectory);
+        RegistryLog log = new RegistryLog(xDirectory, xGroupCommitWindow,
+            xRetainedChanges);
+        log.flusher.start();
+        LOGGER.info("Registry log {} opened at sequence {}, {} changes to "
+        + "replay", xDirectory, Unbox.box(log.lastSequence),
+        Unbox.box(log.tail.size()));
+        return log;
+    }
+
+    /**
+     * Gets the nodes of the checkpoint loaded on open.
+     *
+     * @return the nodes, or null if there is no checkpoint or the log has
+     *         been replayed
+     */
+    public List<EoscNode> getCheckpoint() {
+        return checkpointNodes;
+    }
+
+    /**
+     * Replays the changes logged after the checkpoint, in order, and
+     * releases the recovered state. Apply the checkpoint first, and
+     * replay before any change is appended.
+     *
+     * @param xPut    applies a node added or replaced
+     * @param xRemove applies the removal of the node with an ID
+     * @return the number of changes replayed
+     */
+    public int replay(final Consumer<EoscNode> xPut,
+            final Consumer<String> xRemove) {
+        List<Change> changes = tail;
+        tail = List.of();
+        checkpointNodes = null;
+        for (Change change : changes) {
+            if (change.node() != null) {
+                xPut.accept(change.node());
+            } else {
+                xRemove.accept(change.removedId());
+            }
+        }
+        return changes.size();
+    }
+
+    /**
+     * Appends a node added or replaced. The record is not durable until
+     * {@link #awaitDurable(long)} returns for its sequence number.
+     *
+     * @param xNode the node
+     * @return the sequence number of the record
+     * @throws IllegalStateException if the log is closed or has failed
+     */
+    long appendPut(final EoscNode xNode) {
+        try {
+            return append(PUT, NodeBinaryCodec.encode(List.of(xNode)));
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Appends the removal of a node.
+     *
+     * @param xId the node ID
+     * @return the sequence number of the record
+     * @throws IllegalStateException if the log is closed or has failed
+     */
+    long appendRemove(final String xId) {
+        return append(REMOVE, xId.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private synchronized long append(final byte xType,
+            final byte[] xPayload) {
+        if (closed) {
+            throw new IllegalStateException("Registry log is closed");
+        }
+        if (failure != null) {
+            throw new IllegalStateException("Registry log failed", failure);
+        }
+        long sequence = ++lastSequence;
+        ByteBuffer record = ByteBuffer.allocate(HEADER_BYTES
+            + xPayload.length);
+        record.putInt(xPayload.length).putInt(0).put(xType).putLong(sequence)
+        .put(xPayload);
+        CRC32C crc = new CRC32C();
+        crc.update(record.array(), CHECKSUM_FROM,
+            TYPE_AND_SEQUENCE_BYTES + xPayload.length);
+        record.putInt(Integer.BYTES, (int) crc.getValue()).flip();
+        pending.add(record);
+        if (pending.size() == 1) {
+            notifyAll();
+        }
+        return sequence;
+    }
+
+    /**
+     * Waits until a record has been written and synced.
+     *
+     * @param xSequence the sequence number of the record
+     * @throws UncheckedIOException if the log could not be written
+     */
+    synchronized void awaitDurable(final long xSequence) {
+        boolean interrupted = false;
+        while (durableSequence < xSequence && failure == null) {
+            try {
+                wait();
+            } catch (InterruptedException e) {
+                interrupted = true;
+            }
+        }
+        if (interrupted) {
+            Thread.currentThread().interrupt();
+        }
+        if (durableSequence < xSequence) {
+            throw new UncheckedIOException("Registry log write failed",
+                failure);
+        }
+    }
+
+    /**
+     * Gets the sequence number of the last record written and synced.
+     *
+     * @return the sequence number, zero if nothing is durable yet
+     */
+    synchronized long getDurableSequence() {
+        return durableSequence;
+    }
+
+    /**
+     * Gets the sequence number of the last record appended. Read it while
+     * no change can be appended to know which changes a registry snapshot
+     * includes.
+     *
+     * @return the sequence number, zero if nothing was ever logged
+     */
+    synchronized long getLastSequence() {
+        return lastSequence;
+    }
+
+    /**
+     * Gets the durable records that follow a sequence number.
+     *
+     * @param xAfter    sequence number of the last record the reader has
+     * @param xMaxBytes size of the records returned, beyond which no more
+     *                  are added; at least one is returned if any
+     * @return the records, possibly none, and the sequence number of the
+     *         last durable record; or null if the records after the
+     *         sequence number are no longer retained, or the sequence
+     *         number is ahead of the log
+     */
+    synchronized Shipment readAfter(final long xAfter, final int xMaxBytes) {
+        if (xAfter > durableSequence || xAfter < durableSequence
+        && (retainedCount == 0 || xAfter + 1 < retainedFirst)) {
+            return null;
+        }
+        ByteArrayOutputStream records = new ByteArrayOutputStream();
+        for (long sequence = xAfter + 1; sequence <= durableSequence
+        && records.size() < xMaxBytes; sequence++) {
+            records.writeBytes(retained[slot(sequence)]);
+        }
+        return new Shipment(records.toByteArray(), durableSequence);
+    }
+
+    /**
+     * Runs an action once a record after a sequence number is durable, or
+     * the log stops, without holding up the caller. The action runs at
+     * once on the calling thread if there is no need to wait, and
+     * otherwise on the flusher thread, so it must be quick.
+     *
+     * @param xAfter  sequence number of the last record the reader has
+     * @param xAction the action
+     */
+    void whenDurableAfter(final long xAfter, final Runnable xAction) {
+        synchronized (this) {
+            if (durableSequence == xAfter && !closed && failure == null) {
+                waiters.add(xAction);
+                return;
+            }
+        }
+        xAction.run();
+    }
+
+    /**
+     * Drops an action passed to {@link #whenDurableAfter(long, Runnable)}
+     * that is no longer wanted.
+     *
+     * @param xAction the action
+     */
+    synchronized void cancelWaiter(final Runnable xAction) {
+        waiters.remove(xAction);
+    }
+
+    /**
+     * Runs the waiting actions, outside the lock. An action that throws is
+     * logged and does not stop the others.
+     */
+    private void runWaiters() {
+        List<Runnable> ready;
+        synchronized (this) {
+            if (waiters.isEmpty()) {
+                return;
+            }
+            ready = waiters;
+            waiters = new ArrayList<>();
+        }
+        for (Runnable waiter : ready) {
+            try {
+                waiter.run();
+            } catch (RuntimeException e) {
+                LOGGER.error("Registry log waiter failed", e);
+            }
+        }
+    }
+
+    /**
+     * Keeps a durable record for followers, dropping the oldest if the
+     * capacity is reached. Must be called holding the lock, in sequence
+     * order.
+     *
+     * @param xSequence the sequence number
+     * @param xRecord   the record
+     */
+    private void retain(final long xSequence, final byte[] xRecord) {
+        retained[slot(xSequence)] = xRecord;
+        if (retainedCount == 0) {
+            retainedFirst = xSequence;
+            retainedCount = 1;
+        } else if (retainedCount < retained.length) {
+            retainedCount++;
+        } else {
+            retainedFirst++;
+        }
+    }
+
+    private int slot(final long xSequence) {
+        return (int) (xSequence % retained.length);
+    }
+
+    /**
+     * Starts a new segment, so that a checkpoint of the registry as it was
+     * at a sequence number can delete the earlier ones. Changes may still be
+     * appended meanwhile: if some after the sequence number were already
+     * written to the current segment, the checkpoint keeps that segment.
+     *
+     * @param xSequence the sequence number the checkpoint includes, read
+     *                  together with the registry state it will hold
+     * @return the sequence number the checkpoint includes and the first
+     *         segment it needs
+     * @throws IOException if the new segment cannot be created
+     */
+    Mark roll(final long xSequence) throws IOException {
+        synchronized (io) {
+            FileChannel previous = segment;
+            segment = openSegment(segmentNumber + 1);
+            segmentNumber++;
+            previous.close();
+            return new Mark(xSequence, writtenSequence > xSequence
+                ? segmentNumber - 1 : segmentNumber);
+        }
+    }
+
+    /**
+     * Writes a checkpoint and deletes the segments it makes redundant. The
+     * checkpoint is written to a temporary file, synced and renamed, so a
+     * crash leaves either the previous checkpoint or this one.
+     *
+     * @param xNodes the nodes of the registry at the sequence number
+     *               passed to {@link #roll(long)}
+     * @param xMark  what {@link #roll(long)} returned
+     * @throws IOException if the checkpoint cannot be written
+     */
+    void checkpoint(final List<EoscNode> xNodes, final Mark xMark)
+            throws IOException {
+        ByteBuffer data = ByteBuffer.wrap(encodeCheckpoint(xNodes,
+            xMark.sequence(), xMark.segment()));
+        synchronized (checkpointLock) {
+            if (xMark.sequence() < checkpointSequence) {
+                return; // a later checkpoint has been written
+            }
+            Path temp = directory.resolve(CHECKPOINT_TEMP_FILE);
+            try (FileChannel channel = FileChannel.open(temp,
+                StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING)) {
+                while (data.hasRemaining()) {
+                    channel.write(data);
+                }
+                channel.force(true);
+            }
+            Files.move(temp, directory.resolve(CHECKPOINT_FILE),
+                StandardCopyOption.ATOMIC_MOVE,
+                StandardCopyOption.REPLACE_EXISTING);
+            syncDirectory();
+            checkpointSequence = xMark.sequence();
+            checkpoints.increment();
+            for (Path path : listSegments(directory)) {
+                if (segmentNumber(path) < xMark.segment()) {
+                    Files.deleteIfExists(path);
+                }
+            }
+        }
+    }
+
+    /**
+     * Gets the log statistics: records, batches and bytes written, records
+     * per sync, sequence numbers appended, synced and checkpointed, and
+     * the current segment.
+     *
+     * @return map of statistic name to value
+     */
+    public Map<String, Object> getStatistics() {
+        long recordCount = records.sum();
+        long batchCount = batches.sum();
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("records", recordCount);
+        stats.put("batches", batchCount);
+        stats.put("recordsPerBatch", batchCount == 0 ? 0.0
+        : (double) recordCount / batchCount);
+        stats.put("bytes", bytes.sum());
+        synchronized (this) {
+            stats.put("sequence", lastSequence);
+            stats.put("durableSequence", durableSequence);
+            stats.put("waiters", waiters.size());
+        }
+        stats.put("checkpoints", checkpoints.sum());
+        stats.put("checkpointSequence", checkpointSequence);
+        synchronized (io) {
+            stats.put("segment", segmentNumber);
+        }
+        return stats;
+    }
+
+    /**
+     * Writes the records still pending, stops the flusher and closes the
+     * current segment. Appends fail from then on.
+     */
+    @Override
+    public void close() {
+        synchronized (this) {
+            if (closed) {
+                return;
+            }
+            closed = true;
+            notifyAll();
+        }
+        boolean interrupted = false;
+        while (flusher.isAlive()) {
+            try {
+                flusher.join();
+            } catch (InterruptedException e) {
+                interrupted = true;
+            }
+        }
+        if (interrupted) {
+            Thread.currentThread().interrupt();
+        }
+        runWaiters();
+        synchronized (io) {
+            try {
+                segment.close();
+            } catch (IOException e) {
+                LOGGER.warn("Could not close registry log segment", e);
+            }
+        }
+    }
+
+    /**
+     * Body of the flusher thread: waits for records, waits out the group
+     * commit window, then writes and syncs everything appended so far.
+     */
+    private void flush() {
+        while (true) {
+            synchronized (this) {
+                while (pending.isEmpty() && !closed) {
+                    try {
+                        wait();
+                    } catch (InterruptedException e) {
+                        // only close() stops the flusher
+                    }
+                }
+                if (pending.isEmpty()) {
+                    return;
+                }
+            }
+            if (windowNanos > 0 && !closed) {
+                LockSupport.parkNanos(windowNanos);
+            }
+            List<ByteBuffer> batch;
+            long sequence;
+            synchronized (this) {
+                batch = pending;
+                pending = new ArrayList<>();
+                sequence = lastSequence;
+            }
+            try {
+                write(batch, sequence);
+            } catch (IOException e) {
+                LOGGER.error("Registry log write failed; changes are no "
+                + "longer accepted", e);
+                synchronized (this) {
+                    failure = e;
+                    notifyAll();
+                }
+                runWaiters();
+                return;
+            }
+            synchronized (this) {
+                long first = sequence - batch.size() + 1;
+                for (int i = 0; i < batch.size(); i++) {
+                    retain(first + i, batch.get(i).array());
+                }
+                durableSequence = sequence;
+                notifyAll();
+            }
+            runWaiters();
+        }
+    }
+
+    private void write(final List<ByteBuffer> xBatch, final long xSequence)
+            throws IOException {
+        ByteBuffer[] buffers = xBatch.toArray(new ByteBuffer[0]);
+        long size = 0;
+        for (ByteBuffer buffer : buffers) {
+            size += buffer.remaining();
+        }
+        synchronized (io) {
+            long written = 0;
+            while (written < size) {
+                written += segment.write(buffers);
+            }
+            segment.force(false);
+            writtenSequence = xSequence;
+        }
+        records.add(buffers.length);
+        batches.increment();
+        bytes.add(size);
+    }
+
+    private FileChannel openSegment(final long xNumber) throws IOException {
+        FileChannel channel = FileChannel.open(directory.resolve(
+            String.format("%s%012d%s", SEGMENT_PREFIX, xNumber,
+            SEGMENT_SUFFIX)), StandardOpenOption.CREATE,
+            StandardOpenOption.WRITE, StandardOpenOption.APPEND);
+        syncDirectory();
+        return channel;
+    }
+
+    /** Makes file creations and renames in the directory durable. */
+    private void syncDirectory() {
+        try (FileChannel channel = FileChannel.open(directory,
+            StandardOpenOption.READ)) {
+            channel.force(true);
+        } catch (IOException e) {
+            // not supported on every platform
+            LOGGER.debug("Could not sync directory {}", directory, e);
+        }
+    }
+
+    /**
+     * Reads the records of a segment that follow a sequence number. The
+     * segment is truncated at the first incomplete or corrupt record.
+     *
+     * @param xPath     the segment
+     * @param xSequence sequence number of the last change already read
+     * @param xChanges  receives the changes read
+     * @return sequence number of the last change read
+     * @throws IOException if the segment cannot be read, or changes are
+     *                     missing
+     */
+    private static long readSegment(final Path xPath, final long xSequence,
+            final List<Change> xChanges) throws IOException {
+        byte[] data = Files.readAllBytes(xPath);
+        int valid = readRecords(data, xSequence, xChanges);
+        if (valid < data.length) {
+            LOGGER.warn("Truncating registry log {} after {} bytes: "
+            + "incomplete or corrupt record", xPath, Unbox.box(valid));
+            try (FileChannel channel = FileChannel.open(xPath,
+                StandardOpenOption.WRITE)) {
+                channel.truncate(valid);
+                channel.force(true);
+            }
+        }
+        return xChanges.isEmpty() ? xSequence
+        : Math.max(xSequence, xChanges.get(xChanges.size() - 1).sequence());
+    }
+
+    /**
+     * Reads records, as written to a segment or shipped to a follower, up
+     * to the first incomplete or corrupt one. Records up to a sequence
+     * number are skipped.
+     *
+     * @param xData     the records
+     * @param xSequence sequence number of the last change already read
+     * @param xChanges  receives the changes read
+     * @return number of bytes of complete, valid records
+     * @throws IOException if changes are missing between the sequence
+     *                     number and the records, or a record cannot be
+     *                     decoded
+     */
+    static int readRecords(final byte[] xData, final long xSequence,
+            final List<Change> xChanges) throws IOException {
+        ByteBuffer buffer = ByteBuffer.wrap(xData);
+        CRC32C crc = new CRC32C();
+        long sequence = xSequence;
+        int valid = 0;
+        while (buffer.remaining() >= HEADER_BYTES) {
+            int start = buffer.position();
+            int length = buffer.getInt();
+            int checksum = buffer.getInt();
+            if (length < 0 || length > MAX_PAYLOAD_BYTES
+            || buffer.remaining() < TYPE_AND_SEQUENCE_BYTES + length) {
+                break;
+            }
+            crc.reset();
+            crc.update(xData, start + CHECKSUM_FROM,
+                TYPE_AND_SEQUENCE_BYTES + length);
+            if ((int) crc.getValue() != checksum) {
+                break;
+            }
+            byte type = buffer.get();
+            long recordSequence = buffer.getLong();
+            byte[] payload = new byte[length];
+            buffer.get(payload);
+            if (recordSequence > sequence) {
+                if (recordSequence != sequence + 1) {
+                    throw new IOException("Registry log is missing changes "
+                    + (sequence + 1) + " to " + (recordSequence - 1));
+                }
+                xChanges.add(Change.decode(recordSequence, type, payload,
+                    Arrays.copyOfRange(xData, start, buffer.position())));
+                sequence = recordSequence;
+            }
+            valid = buffer.position();
+        }
+        return valid;
+    }
+
+    /**
+     * Encodes a checkpoint, as written to the checkpoint file or sent to a
+     * follower.
+     *
+     * @param xNodes        the nodes
+     * @param xSequence     sequence number of the last change included
+     * @param xFirstSegment first segment to replay after it
+     * @return the checkpoint bytes
+     * @throws IOException if the nodes cannot be encoded
+     */
+    static byte[] encodeCheckpoint(final List<EoscNode> xNodes,
+            final long xSequence, final long xFirstSegment)
+            throws IOException {
+        byte[] payload = NodeBinaryCodec.encode(xNodes);
+        CRC32C crc = new CRC32C();
+        crc.update(payload);
+        return ByteBuffer.allocate(CHECKPOINT_HEADER_BYTES + payload.length)
+        .putInt(CHECKPOINT_MAGIC).putLong(xSequence).putLong(xFirstSegment)
+        .putInt(payload.length).putInt((int) crc.getValue()).put(payload)
+        .array();
+    }
+
+    /**
+     * Decodes a checkpoint.
+     *
+     * @param xData the checkpoint bytes
+     * @return the checkpoint
+     * @throws IOException if the bytes are not a valid checkpoint
+     */
+    static Checkpoint decodeCheckpoint(final byte[] xData)
+            throws IOException {
+        ByteBuffer buffer = ByteBuffer.wrap(xData);
+        if (xData.length < CHECKPOINT_HEADER_BYTES
+        || buffer.getInt() != CHECKPOINT_MAGIC) {
+            throw new IOException("Not a registry checkpoint");
+        }
+        long sequence = buffer.getLong();
+        long firstSegment = buffer.getLong();
+        int length = buffer.getInt();
+        int checksum = buffer.getInt();
+        CRC32C crc = new CRC32C();
+        crc.update(xData, CHECKPOINT_HEADER_BYTES,
+            xData.length - CHECKPOINT_HEADER_BYTES);
+        if (length != xData.length - CHECKPOINT_HEADER_BYTES
+        || (int) crc.getValue() != checksum) {
+            throw new IOException("Corrupt registry checkpoint");
+        }
+        return new Checkpoint(NodeBinaryCodec.decode(Arrays.copyOfRange(
+            xData, CHECKPOINT_HEADER_BYTES, xData.length)), sequence,
+            firstSegment);
+    }
+
+    private static Checkpoint readCheckpoint(final Path xPath)
+            throws IOException {
+        if (!Files.exists(xPath)) {
+            return null;
+        }
+        try {
+            return decodeCheckpoint(Files.readAllBytes(xPath));
+        } catch (IOException e) {
+            throw new IOException(e.getMessage() + ": " + xPath, e);
+        }
+    }
+
+    private static List<Path> listSegments(final Path xDirectory)
+            throws IOException {
+        try (Stream<Path> files = Files.list(xDirectory)) {
+            return files.filter(path -> {
+                String name = path.getFileName().toString();
+                return name.startsWith(SEGMENT_PREFIX)
+                && name.endsWith(SEGMENT_SUFFIX);
+            }).sorted(Comparator.comparingLong(RegistryLog::segmentNumber))
+            .toList();
+        }
+    }
+
+    private static long segmentNumber(final Path xPath) {
+        String name = xPath.getFileName().toString();
+        return Long.parseLong(name.substring(SEGMENT_PREFIX.length(),
+            name.length() - SEGMENT_SUFFIX.length()));
+    }
+
+    /**
+     * Position of a checkpoint in the log.
+     *
+     * @param sequence sequence number of the last change it includes
+     * @param segment  first segment holding changes after it
+     */
+    record Mark(long sequence, long segment) {
+    }
+
+    /**
+     * Records shipped to a follower.
+     *
+     * @param records  the records, in sequence order
+     * @param sequence sequence number of the last durable record
+     */
+    record Shipment(byte[] records, long sequence) {
+    }
+
+    /**
+     * A checkpoint.
+     *
+     * @param nodes        the nodes
+     * @param sequence     sequence number of the last change included
+     * @param firstSegment first segment to replay
+     */
+    record Checkpoint(List<EoscNode> nodes, long sequence,
+            long firstSegment) {
+    }
+
+    /**
+     * A logged change: a node added or replaced, or the ID of a node
+     * removed.
+     *
+     * @param sequence  the sequence number
+     * @param node      the node, or null for a removal
+     * @param removedId the ID of the node removed, or null
+     * @param record    the record the change was read from
+     */
+    record Change(long sequence, EoscNode node, String removedId,
+            byte[] record) {
+
+        static Change decode(final long xSequence, final byte xType,
+                final byte[] xPayload, final byte[] xRecord)
+                throws IOException {
+            if (xType == PUT) {
+                List<EoscNode> nodes = NodeBinaryCodec.decode(xPayload);
+                if (nodes.size() != 1) {
+                    throw new IOException("Registry log record holds "
+                    + nodes.size() + " nodes");
+                }
+                return new Change(xSequence, nodes.get(0), null, xRecord);
+            } else if (xType == REMOVE) {
+                return new Change(xSequence, null,
+                    new String(xPayload, StandardCharsets.UTF_8), xRecord);
+            }
+            throw new IOException("Unknown registry log record type "
+            + xType);
+        }
+    }
+}
@@ -0,0 +1,78 @@
+/*
+ * Copyright © 2025 EOSC Beyond (${email})
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package eoscbeyond.eu;
+
+import java.io.IOException;
+
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+
+/**
+ * The {@code RegistryReadinessFilter} class refuses requests for nodes with
+ * 503 (Service Unavailable) until the node registry has been loaded, instead
+ * of answering them from an empty registry.
+ *
+ */
+@Component
+public class RegistryReadinessFilter extends OncePerRequestFilter {
+    /** Path prefix of the node endpoints. */
+    private static final String NODES_PATH = "/nodes";
+    /** Seconds the client is asked to wait before retrying. */
+    private static final String RETRY_AFTER_SECONDS = "1";
+
+    /** Registry whose readiness is checked. */
+    private final NodeRegistry nodeRegistry;
+
+    /** Constructor - checks the sole NodeRegistry instance. */
+    public RegistryReadinessFilter() {
+        this(NodeRegistry.getInstance());
+    }
+
+    /**
+     * Constructor - checks the given registry.
+     *
+     * @param xNodeRegistry the registry
+     */
+    RegistryReadinessFilter(final NodeRegistry xNodeRegistry) {
+        this.nodeRegistry = xNodeRegistry;
+    }
+
+    @Override
+    protected boolean shouldNotFilter(final HttpServletRequest request) {
+        return !request.getRequestURI().startsWith(request.getContextPath()
+        + NODES_PATH);
+    }
+
+    @Override
+    protected void doFilterInternal(final HttpServletRequest request,
+            final HttpServletResponse response, final FilterChain chain)
+            throws ServletException, IOException {
+        if (nodeRegistry.isReady()) {
+            chain.doFilter(request, response);
+        } else {
+            response.setHeader(HttpHeaders.RETRY_AFTER, RETRY_AFTER_SECONDS);
+            response.sendError(HttpStatus.SERVICE_UNAVAILABLE.value(),
+            "Node registry is loading");
+        }
+    }
+}
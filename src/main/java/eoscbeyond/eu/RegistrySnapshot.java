@@ -0,0 +1,599 @@
+/*
+ * Copyright © 2025 EOSC Beyond (${email})
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package eoscbeyond.eu;
+
+import java.net.URI;
+import java.util.AbstractList;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.RandomAccess;
+import java.util.Set;
+
+/**
+ * The {@code RegistrySnapshot} class is an immutable view of the registry
+ * contents at one version.
+ * <p>
+ * Besides the list of nodes, a snapshot holds the data derived from it: an
+ * index of nodes by ID, an index of nodes by capability name, the summary
+ * projection of every node and the metadata harvested from capability
+ * endpoints. The serialised form of each summary is built on first use and
+ * cached with the node. {@code NodeRegistry} publishes a new snapshot
+ * whenever its contents change, so readers always see a consistent set of
+ * nodes and derived data.
+ * </p>
+ *
+ * <p>
+ * Nodes are indexed by their {@link NodeOrdinals ordinal}, and all the
+ * data is held in persistent structures ({@link OrdinalTrie} and
+ * {@link PersistentHashMap}). {@link #withNode(long, EoscNode)} and
+ * {@link #withoutNode(long, String)} derive the next version in
+ * O(log N), copying only the paths to what changed and sharing the rest,
+ * including the cached summaries of the other nodes. Earlier snapshots
+ * stay valid for the readers that hold them.
+ * </p>
+ *
+ */
+public final class RegistrySnapshot {
+    /** Snapshot with no nodes, used before the registry is loaded. */
+    static final RegistrySnapshot EMPTY = new RegistrySnapshot(0,
+        Collections.emptyList());
+
+    /** Version of the registry contents. */
+    private final long version;
+    /** Ordinals of the node IDs. */
+    private final NodeOrdinals ordinals;
+    /** Indexed nodes, by ordinal. */
+    private final OrdinalTrie<NodeEntry> entries;
+    /** All nodes, by position in registry order; removals leave gaps. */
+    private final OrdinalTrie<EoscNode> positions;
+    /** Position given to the next node added. */
+    private final int nextPosition;
+    /** Indexed nodes that offer a capability, by name, then by ordinal. */
+    private final PersistentHashMap<String, OrdinalTrie<EoscNode>> postings;
+    /** Number of capabilities of indexed nodes, by endpoint. */
+    private final PersistentHashMap<URI, Integer> endpoints;
+    /** Harvested metadata, by capability endpoint. */
+    private final PersistentHashMap<URI, CapabilityMetadata> metadata;
+
+    /**
+     * Creates a snapshot. If several nodes share an ID, the first one is
+     * indexed, as the previous linear search did.
+     *
+     * @param xVersion version of the registry contents
+     * @param xNodes   the registered nodes
+     */
+    RegistrySnapshot(final long xVersion, final List<EoscNode> xNodes) {
+        this(xVersion, xNodes, Collections.emptyMap());
+    }
+
+    /**
+     * Creates a snapshot with harvested capability metadata. Metadata for
+     * endpoints that no node offers any more is dropped.
+     *
+     * @param xVersion  version of the registry contents
+     * @param xNodes    the registered nodes
+     * @param xMetadata harvested metadata, by capability endpoint
+     */
+    RegistrySnapshot(final long xVersion, final List<EoscNode> xNodes,
+            final Map<URI, CapabilityMetadata> xMetadata) {
+        this(xVersion, xNodes, xMetadata, NodeOrdinals.EMPTY);
+    }
+
+    /**
+     * Creates a snapshot, keeping the ordinals of an earlier version. IDs
+     * that are new in this version get new ordinals.
+     *
+     * @param xVersion  version of the registry contents
+     * @param xNodes    the registered nodes
+     * @param xMetadata harvested metadata, by capability endpoint
+     * @param xOrdinals ordinals of the earlier version
+     */
+    RegistrySnapshot(final long xVersion, final List<EoscNode> xNodes,
+            final Map<URI, CapabilityMetadata> xMetadata,
+            final NodeOrdinals xOrdinals) {
+        this.version = xVersion;
+        this.ordinals = xOrdinals.withIds(xNodes);
+        OrdinalTrie.Builder<EoscNode> byPosition = OrdinalTrie.builder();
+        OrdinalTrie.Builder<NodeEntry> byOrdinal = OrdinalTrie.builder();
+        Map<String, OrdinalTrie.Builder<EoscNode>> byCapability =
+        new HashMap<>();
+        Map<URI, Integer> endpointCounts = new HashMap<>();
+        for (int position = 0; position < xNodes.size(); position++) {
+            EoscNode node = Objects.requireNonNull(xNodes.get(position));
+            byPosition.set(position, node);
+            int ordinal = ordinals.ordinalOf(node.getId());
+            if (ordinal == NodeOrdinals.NOT_FOUND
+                || byOrdinal.get(ordinal) != null) {
+                continue;
+            }
+            byOrdinal.set(ordinal, new NodeEntry(node, position));
+            for (String name : capabilityNames(node)) {
+                byCapability.computeIfAbsent(name,
+                    k -> OrdinalTrie.builder()).set(ordinal, node);
+            }
+            for (URI endpoint : capabilityEndpoints(node)) {
+                endpointCounts.merge(endpoint, 1, Integer::sum);
+            }
+        }
+        this.positions = byPosition.build();
+        this.nextPosition = xNodes.size();
+        this.entries = byOrdinal.build();
+        PersistentHashMap<String, OrdinalTrie<EoscNode>> index =
+        PersistentHashMap.empty();
+        for (Map.Entry<String, OrdinalTrie.Builder<EoscNode>> posting
+            : byCapability.entrySet()) {
+            index = index.put(posting.getKey(), posting.getValue().build());
+        }
+        this.postings = index;
+        PersistentHashMap<URI, Integer> counts = PersistentHashMap.empty();
+        PersistentHashMap<URI, CapabilityMetadata> current =
+        PersistentHashMap.empty();
+        for (Map.Entry<URI, Integer> count : endpointCounts.entrySet()) {
+            counts = counts.put(count.getKey(), count.getValue());
+            CapabilityMetadata harvested = xMetadata.get(count.getKey());
+            if (harvested != null) {
+                current = current.put(count.getKey(), harvested);
+            }
+        }
+        this.endpoints = counts;
+        this.metadata = current;
+    }
+
+    private RegistrySnapshot(final long xVersion,
+            final NodeOrdinals xOrdinals,
+            final OrdinalTrie<NodeEntry> xEntries,
+            final OrdinalTrie<EoscNode> xPositions, final int xNextPosition,
+            final PersistentHashMap<String, OrdinalTrie<EoscNode>> xPostings,
+            final PersistentHashMap<URI, Integer> xEndpoints,
+            final PersistentHashMap<URI, CapabilityMetadata> xMetadata) {
+        this.version = xVersion;
+        this.ordinals = xOrdinals;
+        this.entries = xEntries;
+        this.positions = xPositions;
+        this.nextPosition = xNextPosition;
+        this.postings = xPostings;
+        this.endpoints = xEndpoints;
+        this.metadata = xMetadata;
+    }
+
+    /**
+     * Derives a snapshot in which a node is added, or replaces the node
+     * with the same ID in place. Costs O(log N) plus the number of
+     * capabilities of the two nodes.
+     *
+     * @param xVersion version of the new snapshot
+     * @param xNode    the node
+     * @return the new snapshot
+     * @throws IllegalArgumentException if the node has no ID
+     */
+    RegistrySnapshot withNode(final long xVersion, final EoscNode xNode) {
+        if (xNode.getId() == null) {
+            throw new IllegalArgumentException("Node has no ID");
+        }
+        NodeOrdinals nextOrdinals = ordinals.withId(xNode.getId());
+        int ordinal = nextOrdinals.ordinalOf(xNode.getId());
+        NodeEntry old = entries.get(ordinal);
+        int position = old == null ? nextPosition : old.position();
+        Update update = new Update(this);
+        update.unindex(ordinal, old == null ? null : old.node());
+        update.index(ordinal, xNode);
+        return new RegistrySnapshot(xVersion, nextOrdinals,
+            entries.set(ordinal, new NodeEntry(xNode, position)),
+            positions.set(position, xNode),
+            old == null ? nextPosition + 1 : nextPosition,
+            update.postings, update.endpoints, update.metadata);
+    }
+
+    /**
+     * Derives a snapshot without the node with an ID. Costs O(log N) plus
+     * the number of capabilities of the node. The ID keeps its ordinal.
+     *
+     * @param xVersion version of the new snapshot
+     * @param xId      the node ID
+     * @return the new snapshot, or this snapshot if there is no node with
+     *         that ID
+     */
+    RegistrySnapshot withoutNode(final long xVersion, final String xId) {
+        int ordinal = ordinals.ordinalOf(xId);
+        NodeEntry old = entries.get(ordinal);
+        if (old == null) {
+            return this;
+        }
+        Update update = new Update(this);
+        update.unindex(ordinal, old.node());
+        return new RegistrySnapshot(xVersion, ordinals,
+            entries.set(ordinal, null), positions.set(old.position(), null),
+            nextPosition, update.postings, update.endpoints, update.metadata);
+    }
+
+    /**
+     * Derives a snapshot with harvested metadata merged in. Metadata for
+     * endpoints that no node offers is ignored. Costs O(log N) per entry.
+     *
+     * @param xVersion  version of the new snapshot
+     * @param xMetadata harvested metadata, by capability endpoint
+     * @return the new snapshot
+     */
+    RegistrySnapshot withMetadata(final long xVersion,
+            final Map<URI, CapabilityMetadata> xMetadata) {
+        PersistentHashMap<URI, CapabilityMetadata> merged = metadata;
+        for (Map.Entry<URI, CapabilityMetadata> harvested
+            : xMetadata.entrySet()) {
+            if (endpoints.containsKey(harvested.getKey())) {
+                merged = merged.put(harvested.getKey(), harvested.getValue());
+            }
+        }
+        return new RegistrySnapshot(xVersion, ordinals, entries, positions,
+            nextPosition, postings, endpoints, merged);
+    }
+
+    /**
+     * Gets the version of the registry contents.
+     *
+     * @return the version
+     */
+    public long getVersion() {
+        return version;
+    }
+
+    /**
+     * Gets the registered nodes, including any that repeat the ID of an
+     * earlier node.
+     *
+     * @return unmodifiable list of nodes, in registry order; a replaced
+     *         node keeps its place and an added node comes last
+     */
+    public List<EoscNode> getNodes() {
+        return new TrieList(positions);
+    }
+
+    /**
+     * Gets the ordinals of the node IDs. They cover every ID in this
+     * version, and may cover IDs of earlier versions too.
+     *
+     * @return the ordinals
+     */
+    public NodeOrdinals getOrdinals() {
+        return ordinals;
+    }
+
+    /**
+     * Gets a node by ID.
+     *
+     * @param xId the node ID
+     * @return the node, or null if there is no node with that ID
+     */
+    public EoscNode getNode(final String xId) {
+        NodeEntry entry = lookup(xId);
+        return entry == null ? null : entry.node();
+    }
+
+    /**
+     * Gets a node by ordinal.
+     *
+     * @param xOrdinal the ordinal
+     * @return the node, or null if there is no node with that ordinal in
+     *         this version
+     */
+    public EoscNode getNode(final int xOrdinal) {
+        NodeEntry entry = entries.get(xOrdinal);
+        return entry == null ? null : entry.node();
+    }
+
+    /**
+     * Gets the nodes that offer a capability. Names are indexed trimmed
+     * and matched exactly, case and whitespace included, as the registry
+     * has always matched them: a name with surrounding whitespace matches
+     * no node.
+     *
+     * @param xCapability the capability name
+     * @return unmodifiable list of nodes, in ordinal order, which is the
+     *         order in which their IDs entered the registry; empty if no
+     *         node offers the capability
+     */
+    public List<EoscNode> getNodesWithCapability(final String xCapability) {
+        RegistryEvents.CapabilityLookup event =
+        new RegistryEvents.CapabilityLookup();
+        event.begin();
+        OrdinalTrie<EoscNode> posting = postings.get(xCapability);
+        List<EoscNode> nodes = posting == null ? Collections.emptyList()
+        : new TrieList(posting);
+        event.end();
+        if (event.shouldCommit()) {
+            event.capability = xCapability;
+            event.resultSize = nodes.size();
+            event.commit();
+        }
+        return nodes;
+    }
+
+    /**
+     * Gets the ordinals of the nodes that offer a capability.
+     *
+     * @param xCapability the capability name
+     * @return the ordinals, in ascending order; empty if no node offers the
+     *         capability
+     */
+    public int[] getOrdinalsWithCapability(final String xCapability) {
+        OrdinalTrie<EoscNode> posting = postings.get(xCapability);
+        return posting == null ? new int[0] : posting.indexes();
+    }
+
+    /**
+     * Gets the distinct endpoints of the capabilities of all nodes.
+     *
+     * @return unmodifiable set of capability endpoints, in no particular
+     *         order
+     */
+    public Set<URI> getCapabilityEndpoints() {
+        return endpoints.asMap().keySet();
+    }
+
+    /**
+     * Gets the harvested metadata of all capability endpoints.
+     *
+     * @return unmodifiable map of metadata, by capability endpoint
+     */
+    public Map<URI, CapabilityMetadata> getMetadata() {
+        return metadata.asMap();
+    }
+
+    /**
+     * Gets the harvested metadata of the capabilities of a node.
+     *
+     * @param xId the node ID
+     * @return the metadata harvested so far, in capability order, or null
+     *         if there is no node with that ID
+     */
+    public List<CapabilityMetadata> getNodeMetadata(final String xId) {
+        EoscNode node = getNode(xId);
+        if (node == null) {
+            return null;
+        }
+        List<CapabilityMetadata> nodeMetadata = new ArrayList<>();
+        if (node.getCapabilityList() != null) {
+            for (EoscCapability capability : node.getCapabilityList()) {
+                CapabilityMetadata harvested =
+                metadata.get(capability.getEndpoint());
+                if (harvested != null) {
+                    nodeMetadata.add(harvested);
+                }
+            }
+        }
+        return nodeMetadata;
+    }
+
+    /**
+     * Gets the summary of a node.
+     *
+     * @param xId the node ID
+     * @return the node summary, or null if there is no node with that ID
+     */
+    public NodeSummary getSummary(final String xId) {
+        NodeEntry entry = lookup(xId);
+        return entry == null ? null : entry.summary();
+    }
+
+    /**
+     * Gets the serialised summary of a node.
+     *
+     * @param xId the node ID
+     * @return the JSON bytes, or null if there is no node with that ID
+     */
+    public byte[] getSummaryJson(final String xId) {
+        NodeEntry entry = lookup(xId);
+        return entry == null ? null : entry.summaryJson();
+    }
+
+    /**
+     * Finds the entry of a node by ID, recording an ID lookup event.
+     *
+     * @param xId the node ID
+     * @return the entry, or null if there is no node with that ID
+     */
+    private NodeEntry lookup(final String xId) {
+        RegistryEvents.IdLookup event = new RegistryEvents.IdLookup();
+        event.begin();
+        NodeEntry entry = entries.get(ordinals.ordinalOf(xId));
+        event.end();
+        if (event.shouldCommit()) {
+            event.resultSize = entry == null ? 0 : 1;
+            event.commit();
+        }
+        return entry;
+    }
+
+    /**
+     * Gets the names a node is indexed under: its capability names,
+     * trimmed, each once.
+     *
+     * @param xNode the node, may be null
+     * @return the names
+     */
+    private static Set<String> capabilityNames(final EoscNode xNode) {
+        Set<String> names = new LinkedHashSet<>();
+        if (xNode != null && xNode.getCapabilityList() != null) {
+            for (EoscCapability capability : xNode.getCapabilityList()) {
+                if (capability.getCapabilityType() != null) {
+                    names.add(capability.getCapabilityType().trim());
+                }
+            }
+        }
+        return names;
+    }
+
+    /**
+     * Gets the endpoints of the capabilities of a node, once per
+     * capability.
+     *
+     * @param xNode the node, may be null
+     * @return the endpoints
+     */
+    private static List<URI> capabilityEndpoints(final EoscNode xNode) {
+        List<URI> uris = new ArrayList<>();
+        if (xNode != null && xNode.getCapabilityList() != null) {
+            for (EoscCapability capability : xNode.getCapabilityList()) {
+                if (capability.getEndpoint() != null) {
+                    uris.add(capability.getEndpoint());
+                }
+            }
+        }
+        return uris;
+    }
+
+    /**
+     * Indexed node, with its position in registry order and its summary.
+     * Entries are shared by the snapshots that hold the same node, and so
+     * is the serialised summary.
+     */
+    private static final class NodeEntry {
+        /** The node. */
+        private final EoscNode node;
+        /** Position in registry order. */
+        private final int position;
+        /** Summary projection of the node. */
+        private final NodeSummary summary;
+        /** Serialised summary, built on first use. */
+        private volatile byte[] summaryJson;
+
+        NodeEntry(final EoscNode xNode, final int xPosition) {
+            this.node = xNode;
+            this.position = xPosition;
+            this.summary = NodeSummary.of(xNode);
+        }
+
+        EoscNode node() {
+            return node;
+        }
+
+        int position() {
+            return position;
+        }
+
+        NodeSummary summary() {
+            return summary;
+        }
+
+        byte[] summaryJson() {
+            byte[] json = summaryJson;
+            if (json == null) {
+                synchronized (this) {
+                    json = summaryJson;
+                    if (json == null) {
+                        RegistryEvents.Serialization event =
+                        new RegistryEvents.Serialization();
+                        event.start();
+                        json = NodeJsonWriter.local().writeSummary(summary)
+                        .toByteArray();
+                        summaryJson = json;
+                        event.format = "json";
+                        event.content = "summary";
+                        event.nodes = 1;
+                        event.bytes = json.length;
+                        event.finish();
+                    }
+                }
+            }
+            return json;
+        }
+    }
+
+    /**
+     * Changes to the capability index, endpoints and metadata made by
+     * replacing one node.
+     */
+    private static final class Update {
+        /** Postings being changed. */
+        private PersistentHashMap<String, OrdinalTrie<EoscNode>> postings;
+        /** Endpoint counts being changed. */
+        private PersistentHashMap<URI, Integer> endpoints;
+        /** Metadata being changed. */
+        private PersistentHashMap<URI, CapabilityMetadata> metadata;
+
+        Update(final RegistrySnapshot xFrom) {
+            this.postings = xFrom.postings;
+            this.endpoints = xFrom.endpoints;
+            this.metadata = xFrom.metadata;
+        }
+
+        void unindex(final int xOrdinal, final EoscNode xNode) {
+            for (String name : capabilityNames(xNode)) {
+                OrdinalTrie<EoscNode> posting =
+                postings.get(name).set(xOrdinal, null);
+                postings = posting.count() == 0 ? postings.remove(name)
+                : postings.put(name, posting);
+            }
+            for (URI endpoint : capabilityEndpoints(xNode)) {
+                int count = endpoints.get(endpoint) - 1;
+                if (count == 0) {
+                    endpoints = endpoints.remove(endpoint);
+                    metadata = metadata.remove(endpoint);
+                } else {
+                    endpoints = endpoints.put(endpoint, count);
+                }
+            }
+        }
+
+        void index(final int xOrdinal, final EoscNode xNode) {
+            for (String name : capabilityNames(xNode)) {
+                OrdinalTrie<EoscNode> posting = postings.get(name);
+                postings = postings.put(name, (posting == null
+                    ? OrdinalTrie.<EoscNode>empty() : posting)
+                    .set(xOrdinal, xNode));
+            }
+            for (URI endpoint : capabilityEndpoints(xNode)) {
+                Integer count = endpoints.get(endpoint);
+                endpoints = endpoints.put(endpoint,
+                    count == null ? 1 : count + 1);
+            }
+        }
+    }
+
+    /**
+     * Read-only list of the values of a trie, in index order.
+     */
+    private static final class TrieList extends AbstractList<EoscNode>
+            implements RandomAccess {
+        /** The trie. */
+        private final OrdinalTrie<EoscNode> trie;
+
+        TrieList(final OrdinalTrie<EoscNode> xTrie) {
+            this.trie = xTrie;
+        }
+
+        @Override
+        public EoscNode get(final int xIndex) {
+            return trie.nth(xIndex);
+        }
+
+        @Override
+        public int size() {
+            return trie.count();
+        }
+
+        @Override
+        public Iterator<EoscNode> iterator() {
+            return trie.iterator();
+        }
+    }
+}
@@ -0,0 +1,253 @@
+/*
+ * Copyright © 2025 EOSC Beyond (${email})
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package eoscbeyond.eu;
+
+import java.util.function.Supplier;
+
+import io.opentelemetry.api.trace.Span;
+import io.opentelemetry.api.trace.Tracer;
+import io.opentelemetry.context.Scope;
+
+/**
+ * The {@code RegistryTracing} class times the phases of registry work,
+ * such as lookups, serialisation and ingestion of the nodes file, as
+ * OpenTelemetry spans and as entries of the Server-Timing header of the
+ * request being served.
+ * <p>
+ * A phase is a child of the span current on the calling thread, and is
+ * current itself until it is closed, so nested phases nest as spans too.
+ * No spans are created until a tracer is installed, which
+ * {@link TracingFilter} does at startup, and none outside a request
+ * unless one is. Phases for single lines of the nodes file, of which
+ * there may be many thousands, are only recorded when line spans are
+ * installed too. The time of a phase entered on a request thread is added
+ * to the request's {@link ServerTiming} whether or not the request is
+ * sampled. With neither a tracer nor a request, a phase costs nothing.
+ * </p>
+ *
+ * <p>
+ * Example usage:
+ * </p>
+ *
+ * <pre>
+ * try (RegistryTracing.Phase phase = RegistryTracing.phase("lookup")) {
+ *     nodes = snapshot.getNodesWithCapability(capability);
+ *     phase.setAttribute("registry.result_size", nodes.size());
+ * }
+ * byte[] json = RegistryTracing.phase("serialize",
+ *     () -> NodeJsonWriter.local().writeNodes(nodes).toByteArray());
+ * </pre>
+ *
+ */
+public final class RegistryTracing {
+    /** Name of the instrumentation scope of the spans. */
+    static final String SCOPE = "eoscbeyond.eu.node-registry";
+
+    /** Phase that records nothing. */
+    private static final Phase NONE = new Phase(null, null, null, null);
+
+    /** Timing of the request served by the current thread. */
+    private static final ThreadLocal<ServerTiming> TIMING =
+    new ThreadLocal<>();
+
+    /** The installed tracer, or null. */
+    private static volatile Tracer tracer;
+
+    /** Keeps the recorded spans of the installed tracer, or null. */
+    private static volatile RecentSpanExporter exporter;
+
+    /** Whether line phases are recorded. */
+    private static volatile boolean lineSpans;
+
+    private RegistryTracing() {
+    }
+
+    /**
+     * Installs the tracer that phases create spans with, replacing any
+     * installed before.
+     *
+     * @param xTracer    the tracer
+     * @param xExporter  keeps the spans the tracer records
+     * @param xLineSpans whether line phases are recorded
+     */
+    static synchronized void install(final Tracer xTracer,
+            final RecentSpanExporter xExporter, final boolean xLineSpans) {
+        exporter = xExporter;
+        lineSpans = xLineSpans;
+        tracer = xTracer;
+    }
+
+    /**
+     * Removes a tracer, unless another has been installed since.
+     *
+     * @param xTracer the tracer
+     */
+    static synchronized void uninstall(final Tracer xTracer) {
+        if (tracer == xTracer) {
+            tracer = null;
+            exporter = null;
+            lineSpans = false;
+        }
+    }
+
+    /**
+     * Gets the spans recorded by the installed tracer.
+     *
+     * @return the exporter keeping them, or null if tracing is off
+     */
+    public static RecentSpanExporter getExporter() {
+        return exporter;
+    }
+
+    /**
+     * Starts timing the request served by the current thread.
+     *
+     * @return the request's timing
+     */
+    static ServerTiming startRequest() {
+        ServerTiming timing = new ServerTiming();
+        TIMING.set(timing);
+        return timing;
+    }
+
+    /** Stops timing the request served by the current thread. */
+    static void endRequest() {
+        TIMING.remove();
+    }
+
+    /**
+     * Enters a phase. It ends when the returned phase is closed, on the
+     * same thread.
+     *
+     * @param xName the phase name, a token usable in Server-Timing
+     * @return the phase
+     */
+    public static Phase phase(final String xName) {
+        Tracer current = tracer;
+        ServerTiming timing = TIMING.get();
+        if (current == null && timing == null) {
+            return NONE;
+        }
+        Span span = null;
+        if (current != null) {
+            span = current.spanBuilder(xName).startSpan();
+        }
+        return new Phase(xName, timing, span,
+            span == null ? null : span.makeCurrent());
+    }
+
+    /**
+     * Enters a phase for one line of a bulk operation, such as reading the
+     * nodes file. It records nothing unless line spans are installed.
+     *
+     * @param xName the phase name
+     * @return the phase
+     */
+    public static Phase linePhase(final String xName) {
+        return lineSpans ? phase(xName) : NONE;
+    }
+
+    /**
+     * Runs work as a phase.
+     *
+     * @param <T>   type of the result
+     * @param xName the phase name
+     * @param xWork the work
+     * @return the result of the work
+     */
+    public static <T> T phase(final String xName, final Supplier<T> xWork) {
+        try (Phase phase = phase(xName)) {
+            return xWork.get();
+        }
+    }
+
+    /**
+     * Wraps work so that it runs as a phase whenever it is run.
+     *
+     * @param <T>   type of the result
+     * @param xName the phase name
+     * @param xWork the work
+     * @return the wrapped work
+     */
+    public static <T> Supplier<T> timed(final String xName,
+            final Supplier<T> xWork) {
+        return () -> phase(xName, xWork);
+    }
+
+    /** A phase in progress. */
+    public static final class Phase implements AutoCloseable {
+        /** Phase name. */
+        private final String name;
+        /** Timing of the request, or null outside a request. */
+        private final ServerTiming timing;
+        /** The span, or null without a tracer. */
+        private final Span span;
+        /** Makes the span current until the phase ends. */
+        private final Scope scope;
+        /** Start, from {@link System#nanoTime()}. */
+        private final long start;
+
+        private Phase(final String xName, final ServerTiming xTiming,
+                final Span xSpan, final Scope xScope) {
+            this.name = xName;
+            this.timing = xTiming;
+            this.span = xSpan;
+            this.scope = xScope;
+            this.start = xName == null ? 0 : System.nanoTime();
+        }
+
+        /**
+         * Sets an attribute of the span, if it is recorded.
+         *
+         * @param xKey   attribute key
+         * @param xValue attribute value
+         * @return this phase
+         */
+        public Phase setAttribute(final String xKey, final long xValue) {
+            if (span != null) {
+                span.setAttribute(xKey, xValue);
+            }
+            return this;
+        }
+
+        /**
+         * Sets an attribute of the span, if it is recorded.
+         *
+         * @param xKey   attribute key
+         * @param xValue attribute value
+         * @return this phase
+         */
+        public Phase setAttribute(final String xKey, final String xValue) {
+            if (span != null) {
+                span.setAttribute(xKey, xValue);
+            }
+            return this;
+        }
+
+        /** Ends the phase. */
+        @Override
+        public void close() {
+            if (timing != null) {
+                timing.add(name, System.nanoTime() - start);
+            }
+            if (span != null) {
+                scope.close();
+                span.end();
+            }
+        }
+    }
+}
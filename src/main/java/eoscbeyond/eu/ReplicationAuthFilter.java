@@ -0,0 +1,93 @@
+/*
+ * Copyright © 2025 EOSC Beyond (${email})
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package eoscbeyond.eu;
+
+import java.io.IOException;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import eoscbeyond.eu.data.ReplicationConfiguration;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+
+/**
+ * The {@code ReplicationAuthFilter} class refuses requests for the
+ * replication endpoints with 401 (Unauthorized) unless they carry the
+ * {@code replication.token} in the X-Replication-Token header.
+ * <p>
+ * This covers node changes on the leader and the snapshot and changes it
+ * ships to followers, which present the same token. Only
+ * {@code /replication/status} is open. Without a token, as on a standalone
+ * instance, every other replication request is refused.
+ * </p>
+ *
+ */
+@Component
+public class ReplicationAuthFilter extends OncePerRequestFilter {
+    /** Header carrying the replication token. */
+    static final String TOKEN_HEADER = "X-Replication-Token";
+    /** Path prefix of the replication endpoints. */
+    private static final String REPLICATION_PATH = "/replication";
+    /** Path of the replication status, open to all. */
+    private static final String STATUS_PATH = REPLICATION_PATH + "/status";
+
+    /** The token requests must carry. */
+    private final SharedSecret token;
+
+    /**
+     * Constructor.
+     *
+     * @param xConfig replication settings
+     */
+    @Autowired
+    public ReplicationAuthFilter(final ReplicationConfiguration xConfig) {
+        this(new SharedSecret(TOKEN_HEADER, xConfig.token()));
+    }
+
+    /**
+     * Constructor - checks the given token.
+     *
+     * @param xToken the token requests must carry
+     */
+    ReplicationAuthFilter(final SharedSecret xToken) {
+        this.token = xToken;
+    }
+
+    @Override
+    protected boolean shouldNotFilter(final HttpServletRequest request) {
+        String path = request.getRequestURI().substring(
+            request.getContextPath().length());
+        return !path.startsWith(REPLICATION_PATH) || path.equals(STATUS_PATH);
+    }
+
+    @Override
+    protected void doFilterInternal(final HttpServletRequest request,
+            final HttpServletResponse response, final FilterChain chain)
+            throws ServletException, IOException {
+        if (token.accepts(request)) {
+            chain.doFilter(request, response);
+        } else {
+            response.sendError(HttpStatus.UNAUTHORIZED.value(),
+            "Missing or wrong replication token");
+        }
+    }
+}
@@ -0,0 +1,303 @@
+/*
+ * Copyright © 2025 EOSC Beyond (${email})
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package eoscbeyond.eu;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.DeleteMapping;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PutMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.context.request.async.DeferredResult;
+
+import eoscbeyond.eu.data.RegistryLogConfiguration;
+import eoscbeyond.eu.data.ReplicationConfiguration;
+import eoscbeyond.eu.data.ReplicationConfiguration.Role;
+
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.tags.Tag;
+
+/**
+ * The {@code ReplicationController} class serves replication between
+ * registry instances.
+ * <p>
+ * A leader accepts node changes, logs them, and serves its log to
+ * followers: a snapshot to start from, then the changes after a sequence
+ * number, as records in the format of the log. A follower serves only its
+ * replication state. Node changes are accepted only by the leader, so
+ * that every change has one place in the order followers apply.
+ * </p>
+ */
+@RestController
+@RequestMapping("/replication")
+@Tag(name = "Replication", description =
+"Endpoints for replication between registry instances")
+public class ReplicationController {
+
+    /** Header giving the sequence number of the leader's last durable
+     * change. */
+    static final String SEQUENCE_HEADER = "X-Log-Sequence";
+
+    /** Path of the snapshot, relative to the base URL of the leader. */
+    static final String SNAPSHOT_PATH = "replication/snapshot";
+
+    /** Path of the changes, relative to the base URL of the leader. */
+    static final String LOG_PATH = "replication/log";
+
+    /** Size of the changes in one response, beyond which no more are
+     * added. */
+    static final int MAX_SHIPMENT_BYTES = 1024 * 1024;
+
+    /** Longest time a request for changes may wait, in milliseconds. */
+    static final long MAX_WAIT_MILLIS = 30_000;
+
+    /** Role of this instance. */
+    private final Role role;
+
+    /** Follower state, if this instance is a follower. */
+    private final ReplicationFollower follower;
+
+    /** Get the sole NodeRegistry instance. */
+    private NodeRegistry nodeRegistry = NodeRegistry.getInstance();
+
+    /**
+     * Constructor.
+     *
+     * @param xConfig    replication settings
+     * @param xLogConfig write-ahead log settings
+     * @param xFollower  the follower, if this instance is one
+     */
+    @Autowired
+    public ReplicationController(final ReplicationConfiguration xConfig,
+            final RegistryLogConfiguration xLogConfig,
+            final ObjectProvider<ReplicationFollower> xFollower) {
+        this(xConfig.role(), xFollower.getIfAvailable());
+        if (role == Role.LEADER && !xLogConfig.enabled()) {
+            throw new IllegalStateException(
+                "replication.role=leader requires registry-log.enabled=true");
+        }
+    }
+
+    /**
+     * Constructor for tests.
+     *
+     * @param xRole     role of this instance
+     * @param xFollower the follower, if this instance is one
+     */
+    ReplicationController(final Role xRole,
+            final ReplicationFollower xFollower) {
+        this.role = xRole;
+        this.follower = xFollower;
+    }
+
+    /**
+     * @return ResponseEntity<Map<String, Object>> the role of this instance
+     *         and, for a leader, its log statistics, or for a follower, its
+     *         replication state and lag
+     */
+    @Operation(summary = "Get replication status", description =
+    "Reports the log of a leader, or the replication state and lag of a "
+    + "follower. Not found on a standalone instance.")
+    @GetMapping("/status")
+    public ResponseEntity<Map<String, Object>> getStatus() {
+        if (role == Role.FOLLOWER && follower != null) {
+            return ResponseEntity.ok(follower.getStatistics());
+        }
+        RegistryLog log = leaderLog();
+        if (log == null) {
+            return ResponseEntity.status(HttpStatus.NOT_FOUND).body(null);
+        }
+        Map<String, Object> status = new LinkedHashMap<>();
+        status.put("role", "leader");
+        status.putAll(log.getStatistics());
+        return ResponseEntity.ok(status);
+    }
+
+    /**
+     * @param after sequence number of the last change the follower has
+     * @param wait  longest time to wait for a change, in milliseconds
+     * @return DeferredResult<ResponseEntity<byte[]>> the durable changes
+     *         after the sequence number, as log records, with the sequence
+     *         number of the last durable change in the X-Log-Sequence
+     *         header; 410 if they are no longer retained. A request that
+     *         waits holds no thread: it completes when the log makes a
+     *         change durable, or when the wait ends.
+     */
+    @Operation(summary = "Get changes for a follower", description =
+    "Returns the durable node changes after a sequence number, in log "
+    + "record format, waiting up to the given time for one. Gone if the "
+    + "changes are no longer retained; the follower then starts from a new "
+    + "snapshot.")
+    @GetMapping(value = "/log",
+        produces = MediaType.APPLICATION_OCTET_STREAM_VALUE)
+    public DeferredResult<ResponseEntity<byte[]>> getLog(
+            @RequestParam final long after,
+            @RequestParam(defaultValue = "0") final long wait) {
+        RegistryLog log = leaderLog();
+        if (log == null) {
+            return completed(
+                ResponseEntity.status(HttpStatus.NOT_FOUND).body(null));
+        }
+        if (after < 0 || wait < 0) {
+            return completed(
+                ResponseEntity.status(HttpStatus.BAD_REQUEST).body(null));
+        }
+        if (wait == 0) {
+            return completed(ship(log, after));
+        }
+        DeferredResult<ResponseEntity<byte[]>> result =
+        new DeferredResult<>(Math.min(wait, MAX_WAIT_MILLIS),
+            () -> ship(log, after));
+        Runnable waiter = () -> result.setResult(ship(log, after));
+        result.onCompletion(() -> log.cancelWaiter(waiter));
+        log.whenDurableAfter(after, waiter);
+        return result;
+    }
+
+    /**
+     * @return ResponseEntity<byte[]> the current nodes and the sequence
+     *         number of the last change they include, in checkpoint format
+     */
+    @Operation(summary = "Get a snapshot for a follower", description =
+    "Returns the current nodes and the sequence number of the last change "
+    + "they include, in checkpoint format, for a follower to start from.")
+    @GetMapping(value = "/snapshot",
+        produces = MediaType.APPLICATION_OCTET_STREAM_VALUE)
+    public ResponseEntity<byte[]> getSnapshot() {
+        RegistryLog log = leaderLog();
+        NodeRegistry.LoggedSnapshot snapshot = log == null ? null
+        : nodeRegistry.getLoggedSnapshot();
+        if (snapshot == null) {
+            return ResponseEntity.status(HttpStatus.NOT_FOUND).body(null);
+        }
+        // Followers must never see a change the leader could lose.
+        log.awaitDurable(snapshot.sequence());
+        byte[] body;
+        try {
+            body = RegistryLog.encodeCheckpoint(
+                snapshot.snapshot().getNodes(), snapshot.sequence(), 0);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return ResponseEntity.ok()
+        .header(SEQUENCE_HEADER, Long.toString(snapshot.sequence()))
+        .contentType(MediaType.APPLICATION_OCTET_STREAM)
+        .body(body);
+    }
+
+    /**
+     * @param id   ID of the node
+     * @param body the node, as JSON; its ID may be left out
+     * @return ResponseEntity<Void> 204 once the change is durable; 400 if
+     *         the node is invalid or has another ID
+     */
+    @Operation(summary = "Add or replace a node", description =
+    "Adds or replaces a node on the leader. Returns once the change is "
+    + "durable; followers apply it in log order.")
+    @PutMapping(value = "/nodes/{id}",
+        consumes = MediaType.APPLICATION_JSON_VALUE)
+    public ResponseEntity<Void> putNode(@PathVariable final String id,
+            @RequestBody final byte[] body) {
+        if (leaderLog() == null) {
+            return ResponseEntity.status(HttpStatus.NOT_FOUND).body(null);
+        }
+        EoscNode node;
+        try {
+            node = NodeBinaryCodec.decodeJson(body);
+        } catch (IOException e) {
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(null);
+        }
+        if (node.getId() == null) {
+            node.setId(id);
+        } else if (!node.getId().equals(id)) {
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(null);
+        }
+        nodeRegistry.putNode(node);
+        return ResponseEntity.noContent().build();
+    }
+
+    /**
+     * @param id ID of the node
+     * @return ResponseEntity<Void> 204 once the change is durable; 404 if
+     *         there is no such node
+     */
+    @Operation(summary = "Remove a node", description =
+    "Removes a node on the leader. Returns once the change is durable; "
+    + "followers apply it in log order.")
+    @DeleteMapping("/nodes/{id}")
+    public ResponseEntity<Void> removeNode(@PathVariable final String id) {
+        if (leaderLog() == null || !nodeRegistry.removeNode(id)) {
+            return ResponseEntity.status(HttpStatus.NOT_FOUND).body(null);
+        }
+        return ResponseEntity.noContent().build();
+    }
+
+    /**
+     * Reads the durable changes after a sequence number for a follower.
+     *
+     * @param xLog   the log
+     * @param xAfter sequence number of the last change the follower has
+     * @return the changes, or 410 if they are no longer retained
+     */
+    private static ResponseEntity<byte[]> ship(final RegistryLog xLog,
+            final long xAfter) {
+        RegistryLog.Shipment shipment = xLog.readAfter(xAfter,
+            MAX_SHIPMENT_BYTES);
+        if (shipment == null) {
+            return ResponseEntity.status(HttpStatus.GONE).body(null);
+        }
+        return ResponseEntity.ok()
+        .header(SEQUENCE_HEADER, Long.toString(shipment.sequence()))
+        .contentType(MediaType.APPLICATION_OCTET_STREAM)
+        .body(shipment.records());
+    }
+
+    /**
+     * Wraps a response that is ready at once.
+     *
+     * @param xResponse the response
+     * @return a result already set to the response
+     */
+    private static DeferredResult<ResponseEntity<byte[]>> completed(
+            final ResponseEntity<byte[]> xResponse) {
+        DeferredResult<ResponseEntity<byte[]>> result = new DeferredResult<>();
+        result.setResult(xResponse);
+        return result;
+    }
+
+    /**
+     * Gets the log this instance ships, if it is a leader.
+     *
+     * @return the log, or null if this instance is not a leader or its log
+     *         is not attached yet
+     */
+    private RegistryLog leaderLog() {
+        return role == Role.LEADER ? nodeRegistry.getLog() : null;
+    }
+}
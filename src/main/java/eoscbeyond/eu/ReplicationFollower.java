@@ -0,0 +1,355 @@
+/*
+ * Copyright © 2025 EOSC Beyond (${email})
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package eoscbeyond.eu;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.apache.logging.log4j.util.Unbox;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.InitializingBean;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import eoscbeyond.eu.data.ReplicationConfiguration;
+
+/**
+ * The {@code ReplicationFollower} class keeps the node registry of a
+ * follower instance in step with the leader.
+ * <p>
+ * It starts from a snapshot of the leader's registry, taken together with
+ * the sequence number of the last logged change it includes, then asks the
+ * leader for the changes after that number and applies them in order. The
+ * requests are long polls: the leader answers as soon as there are changes,
+ * or after {@code replication.poll-timeout} if there are none. If the
+ * leader no longer has the changes the follower needs, for example after
+ * the follower was down for long, the follower starts from a new snapshot.
+ * Connection errors are retried after {@code replication.retry-delay}.
+ * So is a snapshot or change that could not be applied, from a new
+ * snapshot, as the registry may hold only part of it.
+ * Requests carry {@code replication.token}, which the leader checks.
+ * </p>
+ *
+ * <p>
+ * Reads are served from the local registry and never wait for the leader.
+ * Until the first snapshot has been applied the registry is not ready, and
+ * requests for nodes get 503. A follower does not keep the changes across
+ * restarts: it starts from a snapshot again, then catches up.
+ * </p>
+ *
+ * <p>
+ * It is only created when {@code replication.role} is {@code follower}.
+ * </p>
+ *
+ */
+@Component
+@ConditionalOnProperty(prefix = "replication", name = "role",
+havingValue = "follower")
+public class ReplicationFollower implements InitializingBean,
+        DisposableBean {
+    /** Logger. */
+    private static final Logger LOGGER =
+    LogManager.getLogger(ReplicationFollower.class);
+    /** Timeout of a connection to the leader. */
+    private static final Duration CONNECT_TIMEOUT = Duration.ofSeconds(5);
+    /** Time a response may take beyond the poll timeout. */
+    private static final Duration RESPONSE_MARGIN = Duration.ofSeconds(5);
+    /** Nanoseconds per millisecond. */
+    private static final long NANOS_PER_MILLI = 1_000_000L;
+    /** HTTP status code of success. */
+    private static final int OK = 200;
+    /** HTTP status code of changes the leader no longer has. */
+    private static final int GONE = 410;
+
+    /** Replication state of a follower. */
+    public enum State {
+        /** Fetching a snapshot of the leader's registry. */
+        BOOTSTRAPPING,
+        /** Applying the leader's changes as they are made. */
+        STREAMING,
+        /** Waiting to retry after an error. */
+        DISCONNECTED,
+        /** Stopped. */
+        STOPPED
+    }
+
+    /** Replication settings. */
+    private final ReplicationConfiguration config;
+    /** The node registry changes are applied to. */
+    private final NodeRegistry registry;
+    /** HTTP client for requests to the leader. */
+    private final HttpClient client;
+    /** Thread fetching and applying changes. */
+    private final Thread thread;
+
+    /** Whether the follower has been stopped. */
+    private volatile boolean stopped;
+    /** Current state. */
+    private volatile State state = State.BOOTSTRAPPING;
+    /** Sequence number of the last change applied; -1 before the first
+     * snapshot. */
+    private volatile long appliedSequence = -1;
+    /** Sequence number of the leader's last durable change, as last
+     * reported; -1 if unknown. */
+    private volatile long leaderSequence = -1;
+    /** When the follower was last known to be up to date, in
+     * {@code System.nanoTime} terms. */
+    private volatile long caughtUpAt = System.nanoTime();
+    /** When the leader last answered, in {@code System.nanoTime} terms;
+     * zero if it never has. */
+    private volatile long lastContactAt;
+
+    /** Number of changes applied. */
+    private final LongAdder applied = new LongAdder();
+    /** Number of snapshots applied. */
+    private final LongAdder bootstraps = new LongAdder();
+    /** Number of failed requests. */
+    private final LongAdder errors = new LongAdder();
+
+    /**
+     * Constructor.
+     *
+     * @param xConfig replication settings
+     */
+    @Autowired
+    public ReplicationFollower(final ReplicationConfiguration xConfig) {
+        this(xConfig, NodeRegistry.getInstance());
+    }
+
+    /**
+     * Constructor for tests.
+     *
+     * @param xConfig   replication settings
+     * @param xRegistry the node registry changes are applied to
+     */
+    ReplicationFollower(final ReplicationConfiguration xConfig,
+            final NodeRegistry xRegistry) {
+        this.config = xConfig;
+        this.registry = xRegistry;
+        this.client = HttpClient.newBuilder()
+        .connectTimeout(CONNECT_TIMEOUT)
+        .build();
+        this.thread = Thread.ofPlatform().daemon()
+        .name("replication-follower").unstarted(this::run);
+    }
+
+    /** Starts following the leader. */
+    @Override
+    public void afterPropertiesSet() {
+        LOGGER.info("Following leader {}", config.leaderUrl());
+        thread.start();
+    }
+
+    /** Stops following the leader. */
+    @Override
+    public void destroy() throws InterruptedException {
+        stopped = true;
+        thread.interrupt();
+        thread.join(CONNECT_TIMEOUT.toMillis());
+    }
+
+    /**
+     * Gets the replication state and lag. The lag is given both as the
+     * number of changes the leader has that the follower has not applied,
+     * and as the time since the follower was last known to be up to date;
+     * both are zero while it is. Unknown values are -1.
+     *
+     * @return map of statistic name to value
+     */
+    public Map<String, Object> getStatistics() {
+        long now = System.nanoTime();
+        long appliedNow = appliedSequence;
+        long leaderNow = leaderSequence;
+        State stateNow = state;
+        boolean upToDate = stateNow == State.STREAMING
+        && appliedNow >= leaderNow;
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("role", "follower");
+        stats.put("leader", config.leaderUrl().toString());
+        stats.put("state", stateNow.name().toLowerCase());
+        stats.put("appliedSequence", appliedNow);
+        stats.put("leaderSequence", leaderNow);
+        stats.put("lagChanges", appliedNow < 0 || leaderNow < 0 ? -1
+        : Math.max(0, leaderNow - appliedNow));
+        stats.put("lagMillis", upToDate ? 0
+        : (now - caughtUpAt) / NANOS_PER_MILLI);
+        long contact = lastContactAt;
+        stats.put("lastContactMillis", contact == 0 ? -1
+        : (now - contact) / NANOS_PER_MILLI);
+        stats.put("applied", applied.sum());
+        stats.put("bootstraps", bootstraps.sum());
+        stats.put("errors", errors.sum());
+        return stats;
+    }
+
+    /**
+     * Gets the sequence number of the last change applied.
+     *
+     * @return the sequence number, or -1 before the first snapshot
+     */
+    public long getAppliedSequence() {
+        return appliedSequence;
+    }
+
+    /** Body of the follower thread. */
+    private void run() {
+        while (!stopped) {
+            try {
+                if (appliedSequence < 0) {
+                    bootstrap();
+                } else {
+                    poll();
+                }
+            } catch (IOException e) {
+                errors.increment();
+                if (state != State.DISCONNECTED) {
+                    LOGGER.warn("Replication from {} failed, retrying: {}",
+                    config.leaderUrl(), e.toString());
+                } else {
+                    LOGGER.debug("Replication from {} failed again: {}",
+                    config.leaderUrl(), e.toString());
+                }
+                state = State.DISCONNECTED;
+                pause();
+            } catch (InterruptedException e) {
+                // stopped, or retry at once
+            } catch (RuntimeException e) {
+                // The registry may hold part of what failed: start over
+                errors.increment();
+                LOGGER.warn("Could not apply replication from {}, "
+                + "replicating a new snapshot", config.leaderUrl(), e);
+                appliedSequence = -1;
+                state = State.DISCONNECTED;
+                pause();
+            }
+        }
+        state = State.STOPPED;
+    }
+
+    /**
+     * Replaces the registry with a snapshot of the leader's.
+     *
+     * @throws IOException          if the snapshot cannot be fetched
+     * @throws InterruptedException if the follower is stopped
+     */
+    private void bootstrap() throws IOException, InterruptedException {
+        state = State.BOOTSTRAPPING;
+        HttpResponse<byte[]> response = send(
+            ReplicationController.SNAPSHOT_PATH, CONNECT_TIMEOUT);
+        if (response.statusCode() != OK) {
+            throw new IOException("Leader answered " + response.statusCode()
+            + " to a snapshot request");
+        }
+        RegistryLog.Checkpoint snapshot =
+        RegistryLog.decodeCheckpoint(response.body());
+        registry.setNodes(snapshot.nodes());
+        appliedSequence = snapshot.sequence();
+        leaderSequence = Math.max(leaderSequence, snapshot.sequence());
+        caughtUpAt = System.nanoTime();
+        bootstraps.increment();
+        state = State.STREAMING;
+        LOGGER.info("Replicated snapshot of {} nodes at sequence {} from {}",
+        Unbox.box(snapshot.nodes().size()), Unbox.box(snapshot.sequence()),
+        config.leaderUrl());
+    }
+
+    /**
+     * Fetches the changes after the last one applied and applies them.
+     *
+     * @throws IOException          if the changes cannot be fetched
+     * @throws InterruptedException if the follower is stopped
+     */
+    private void poll() throws IOException, InterruptedException {
+        long after = appliedSequence;
+        HttpResponse<byte[]> response = send(ReplicationController.LOG_PATH
+            + "?after=" + after + "&wait=" + config.pollTimeout().toMillis(),
+            config.pollTimeout().plus(RESPONSE_MARGIN));
+        if (response.statusCode() == GONE) {
+            LOGGER.info("Leader no longer has the changes after {}; "
+            + "replicating a new snapshot", Unbox.box(after));
+            appliedSequence = -1;
+            return;
+        }
+        if (response.statusCode() != OK) {
+            throw new IOException("Leader answered " + response.statusCode()
+            + " to a request for changes");
+        }
+        long leader = response.headers().firstValueAsLong(
+            ReplicationController.SEQUENCE_HEADER).orElseThrow(
+            () -> new IOException("Leader did not give its sequence"));
+        byte[] records = response.body();
+        List<RegistryLog.Change> changes = new ArrayList<>();
+        if (RegistryLog.readRecords(records, after, changes)
+        != records.length) {
+            throw new IOException("Corrupt changes from leader");
+        }
+        for (RegistryLog.Change change : changes) {
+            if (change.node() != null) {
+                registry.putNode(change.node());
+            } else {
+                registry.removeNode(change.removedId());
+            }
+            appliedSequence = change.sequence();
+            applied.increment();
+        }
+        leaderSequence = leader;
+        if (appliedSequence >= leader) {
+            caughtUpAt = System.nanoTime();
+        }
+        state = State.STREAMING;
+    }
+
+    private HttpResponse<byte[]> send(final String xPath,
+            final Duration xTimeout) throws IOException,
+            InterruptedException {
+        HttpRequest request = HttpRequest.newBuilder(
+            leaderUri(xPath)).timeout(xTimeout)
+        .header(ReplicationAuthFilter.TOKEN_HEADER, config.token())
+        .GET().build();
+        HttpResponse<byte[]> response = client.send(request,
+            HttpResponse.BodyHandlers.ofByteArray());
+        lastContactAt = System.nanoTime();
+        return response;
+    }
+
+    private URI leaderUri(final String xPath) {
+        String base = config.leaderUrl().toString();
+        return URI.create(base.endsWith("/") ? base + xPath
+        : base + "/" + xPath);
+    }
+
+    /** Waits before retrying, unless stopped. */
+    private void pause() {
+        try {
+            Thread.sleep(config.retryDelay());
+        } catch (InterruptedException e) {
+            // stopped
+        }
+    }
+}
@@ -0,0 +1,240 @@
+/*
+ * Copyright © 2025 EOSC Beyond (${email})
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package eoscbeyond.eu;
+
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * The {@code RollingEventStatistics} class summarises the durations,
+ * allocations and result sizes of one kind of event over a window that
+ * ends now.
+ * <p>
+ * The window is divided into slices; a slice older than the window is
+ * cleared before it is reused, so events age out a slice at a time and
+ * the memory used is fixed. Durations are counted in a log-linear
+ * histogram with four buckets per power of two, so percentiles are
+ * reported as the upper bound of their bucket, within 25% of the actual
+ * value.
+ * </p>
+ *
+ * <p>
+ * Example usage:
+ * </p>
+ *
+ * <pre>
+ * RollingEventStatistics lookups =
+ *     new RollingEventStatistics(Duration.ofMinutes(1));
+ * lookups.record(System.nanoTime(), durationNanos, allocatedBytes, 1);
+ * Map&lt;String, Object&gt; summary = lookups.getSummary(System.nanoTime());
+ * </pre>
+ *
+ */
+final class RollingEventStatistics {
+    /** Number of slices of the window. */
+    static final int SLICES = 12;
+    /** Buckets per power of two, as a shift. */
+    private static final int SUB_BUCKET_BITS = 2;
+    /** Buckets per power of two. */
+    private static final int SUB_BUCKETS = 1 << SUB_BUCKET_BITS;
+    /** Number of histogram buckets, enough for any long. */
+    private static final int BUCKETS = Long.SIZE * SUB_BUCKETS;
+    /** Median. */
+    private static final double P50 = 0.5;
+    /** 99th percentile. */
+    private static final double P99 = 0.99;
+    /** Nanoseconds per millisecond. */
+    private static final double NANOS_PER_MILLI = 1_000_000.0;
+    /** Nanoseconds per second. */
+    private static final double NANOS_PER_SECOND = 1_000_000_000.0;
+
+    /** Length of the window, in nanoseconds. */
+    private final long windowNanos;
+    /** Length of a slice, in nanoseconds. */
+    private final long sliceNanos;
+    /** The slices, indexed by slice number modulo their count. */
+    private final Slice[] slices = new Slice[SLICES];
+
+    /**
+     * Constructor.
+     *
+     * @param xWindow period the summary covers
+     */
+    RollingEventStatistics(final Duration xWindow) {
+        this.sliceNanos = Math.max(1, xWindow.toNanos() / SLICES);
+        this.windowNanos = sliceNanos * SLICES;
+        for (int i = 0; i < SLICES; i++) {
+            slices[i] = new Slice();
+        }
+    }
+
+    /**
+     * Records an event.
+     *
+     * @param xNow       the time it ended, from {@link System#nanoTime()}
+     * @param xDuration  its duration, in nanoseconds
+     * @param xAllocated bytes allocated while it ran
+     * @param xSize      its result size, such as the nodes it found
+     */
+    synchronized void record(final long xNow, final long xDuration,
+            final long xAllocated, final long xSize) {
+        Slice slice = current(xNow);
+        slice.count++;
+        slice.totalNanos += xDuration;
+        slice.maxNanos = Math.max(slice.maxNanos, xDuration);
+        slice.allocated += xAllocated;
+        slice.size += xSize;
+        slice.histogram[bucketOf(xDuration)]++;
+    }
+
+    /**
+     * Summarises the events of the window.
+     *
+     * @param xNow the end of the window, from {@link System#nanoTime()}
+     * @return count, rate, mean, median, 99th percentile and maximum
+     *         duration, allocation and mean result size, by name
+     */
+    synchronized Map<String, Object> getSummary(final long xNow) {
+        long sliceNumber = Math.floorDiv(xNow, sliceNanos);
+        long count = 0;
+        long totalNanos = 0;
+        long maxNanos = 0;
+        long allocated = 0;
+        long size = 0;
+        long[] histogram = new long[BUCKETS];
+        for (Slice slice : slices) {
+            if (slice.number <= sliceNumber - SLICES) {
+                continue;
+            }
+            count += slice.count;
+            totalNanos += slice.totalNanos;
+            maxNanos = Math.max(maxNanos, slice.maxNanos);
+            allocated += slice.allocated;
+            size += slice.size;
+            for (int i = 0; i < BUCKETS; i++) {
+                histogram[i] += slice.histogram[i];
+            }
+        }
+        Map<String, Object> summary = new LinkedHashMap<>();
+        summary.put("count", count);
+        summary.put("perSecond", count * NANOS_PER_SECOND / windowNanos);
+        if (count > 0) {
+            summary.put("meanMs", totalNanos / NANOS_PER_MILLI / count);
+            summary.put("p50Ms", Math.min(maxNanos,
+                percentile(histogram, count, P50)) / NANOS_PER_MILLI);
+            summary.put("p99Ms", Math.min(maxNanos,
+                percentile(histogram, count, P99)) / NANOS_PER_MILLI);
+            summary.put("maxMs", maxNanos / NANOS_PER_MILLI);
+            summary.put("allocatedBytes", allocated);
+            summary.put("allocatedBytesPerEvent", allocated / count);
+            summary.put("meanSize", (double) size / count);
+        }
+        return summary;
+    }
+
+    /**
+     * Gets the slice for a time, clearing it if it last held an older
+     * slice.
+     *
+     * @param xNow the time, from {@link System#nanoTime()}
+     * @return the slice
+     */
+    private Slice current(final long xNow) {
+        long sliceNumber = Math.floorDiv(xNow, sliceNanos);
+        Slice slice = slices[(int) Math.floorMod(sliceNumber, SLICES)];
+        if (slice.number != sliceNumber) {
+            slice.clear(sliceNumber);
+        }
+        return slice;
+    }
+
+    /**
+     * Gets the histogram bucket of a duration: values below four have
+     * their own buckets; above, each power of two is split in four.
+     *
+     * @param xNanos the duration
+     * @return the bucket
+     */
+    static int bucketOf(final long xNanos) {
+        if (xNanos < SUB_BUCKETS) {
+            return (int) Math.max(0, xNanos);
+        }
+        int exponent = Long.SIZE - 1 - Long.numberOfLeadingZeros(xNanos);
+        int sub = (int) (xNanos >>> (exponent - SUB_BUCKET_BITS))
+        & (SUB_BUCKETS - 1);
+        return exponent * SUB_BUCKETS + sub;
+    }
+
+    /**
+     * Gets the largest duration in a bucket.
+     *
+     * @param xBucket the bucket
+     * @return the upper bound, in nanoseconds
+     */
+    static long upperBoundOf(final int xBucket) {
+        if (xBucket < SUB_BUCKETS) {
+            return xBucket;
+        }
+        int exponent = xBucket / SUB_BUCKETS;
+        long step = 1L << (exponent - SUB_BUCKET_BITS);
+        long lower = (SUB_BUCKETS + xBucket % SUB_BUCKETS) * step;
+        return lower + step - 1;
+    }
+
+    private static long percentile(final long[] xHistogram, final long xCount,
+            final double xFraction) {
+        long rank = (long) Math.ceil(xFraction * xCount);
+        long seen = 0;
+        for (int i = 0; i < BUCKETS; i++) {
+            seen += xHistogram[i];
+            if (seen >= rank) {
+                return upperBoundOf(i);
+            }
+        }
+        return upperBoundOf(BUCKETS - 1);
+    }
+
+    /** Events of one slice of time. */
+    private static final class Slice {
+        /** Slice number: time divided by the slice length. */
+        private long number = Long.MIN_VALUE;
+        /** Events. */
+        private long count;
+        /** Total duration, in nanoseconds. */
+        private long totalNanos;
+        /** Longest duration, in nanoseconds. */
+        private long maxNanos;
+        /** Bytes allocated. */
+        private long allocated;
+        /** Total result size. */
+        private long size;
+        /** Events per duration bucket. */
+        private final long[] histogram = new long[BUCKETS];
+
+        void clear(final long xNumber) {
+            number = xNumber;
+            count = 0;
+            totalNanos = 0;
+            maxNanos = 0;
+            allocated = 0;
+            size = 0;
+            Arrays.fill(histogram, 0);
+        }
+    }
+}
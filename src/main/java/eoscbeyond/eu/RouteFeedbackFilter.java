@@ -0,0 +1,93 @@
+/*
+ * Copyright © 2025 EOSC Beyond (${email})
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package eoscbeyond.eu;
+
+import java.io.IOException;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import eoscbeyond.eu.data.RoutingConfiguration;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+
+/**
+ * The {@code RouteFeedbackFilter} class refuses reports of the outcome of
+ * calls to capability endpoints with 401 (Unauthorized) unless they carry
+ * the {@code routing.feedback-token} in the X-Feedback-Token header.
+ * <p>
+ * Feedback moves the routing of every client, so only known callers, such
+ * as a gateway that measures the calls it forwards, may give it. Without a
+ * token, feedback is not accepted at all and gets 404; latencies then come
+ * from the harvester only.
+ * </p>
+ *
+ */
+@Component
+public class RouteFeedbackFilter extends OncePerRequestFilter {
+    /** Header carrying the feedback token. */
+    static final String TOKEN_HEADER = "X-Feedback-Token";
+    /** Path of the feedback endpoint. */
+    private static final String FEEDBACK_PATH = "/nodes/route/feedback";
+
+    /** The token requests must carry. */
+    private final SharedSecret token;
+
+    /**
+     * Constructor.
+     *
+     * @param xConfig routing settings
+     */
+    @Autowired
+    public RouteFeedbackFilter(final RoutingConfiguration xConfig) {
+        this(new SharedSecret(TOKEN_HEADER, xConfig.feedbackToken()));
+    }
+
+    /**
+     * Constructor - checks the given token.
+     *
+     * @param xToken the token requests must carry
+     */
+    RouteFeedbackFilter(final SharedSecret xToken) {
+        this.token = xToken;
+    }
+
+    @Override
+    protected boolean shouldNotFilter(final HttpServletRequest request) {
+        return !request.getRequestURI().substring(
+            request.getContextPath().length()).equals(FEEDBACK_PATH);
+    }
+
+    @Override
+    protected void doFilterInternal(final HttpServletRequest request,
+            final HttpServletResponse response, final FilterChain chain)
+            throws ServletException, IOException {
+        if (!token.isSet()) {
+            response.sendError(HttpStatus.NOT_FOUND.value(),
+            "Routing feedback is not enabled");
+        } else if (token.accepts(request)) {
+            chain.doFilter(request, response);
+        } else {
+            response.sendError(HttpStatus.UNAUTHORIZED.value(),
+            "Missing or wrong feedback token");
+        }
+    }
+}
@@ -0,0 +1,202 @@
+/*
+ * Copyright © 2025 EOSC Beyond (${email})
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package eoscbeyond.eu;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+/**
+ * The {@code SearchResultCache} class holds serialised search results,
+ * bounded by their total size in bytes.
+ * <p>
+ * Entries are keyed by query and belong to one registry version. The first
+ * request for a newer version drops every entry, so results are never
+ * served from an older snapshot. When the size limit is reached, the least
+ * recently used entries are evicted. Results larger than the whole cache
+ * are not cached. Concurrent misses for the same query share one
+ * computation.
+ * </p>
+ *
+ * <p>
+ * Example usage:
+ * </p>
+ *
+ * <pre>
+ * SearchResultCache cache = new SearchResultCache(8 * 1024 * 1024);
+ * byte[] json = cache.get(snapshot.getVersion(), capability,
+ *         () -> serialise(snapshot.getNodesWithCapability(capability)));
+ * </pre>
+ *
+ */
+public class SearchResultCache {
+    /** Estimated bytes used by an entry besides its key and value. */
+    private static final int ENTRY_OVERHEAD = 96;
+    /** Bytes per character of a key. */
+    private static final int BYTES_PER_CHAR = 2;
+    /** Initial capacity of the entry map. */
+    private static final int INITIAL_CAPACITY = 16;
+    /** Load factor of the entry map. */
+    private static final float LOAD_FACTOR = 0.75f;
+
+    /** Maximum total size of the entries, in bytes. */
+    private final long maxBytes;
+    /** Cached results, least recently used first. Guarded by this. */
+    private final LinkedHashMap<String, byte[]> entries =
+    new LinkedHashMap<>(INITIAL_CAPACITY, LOAD_FACTOR, true);
+    /** Registry version of the cached results. Guarded by this. */
+    private long version = -1;
+    /** Total size of the entries, in bytes. Guarded by this. */
+    private long bytes;
+
+    /** Searches being computed, by version and query. */
+    private final SingleFlight<Flight, byte[]> flights = new SingleFlight<>();
+
+    /** Number of requests served from the cache. */
+    private final LongAdder hits = new LongAdder();
+    /** Number of requests that had to compute a result. */
+    private final LongAdder misses = new LongAdder();
+    /** Number of entries evicted to stay within the size limit. */
+    private final LongAdder evictions = new LongAdder();
+    /** Number of entries dropped because a new version was published. */
+    private final LongAdder invalidations = new LongAdder();
+
+    /**
+     * Constructor.
+     *
+     * @param xMaxBytes maximum total size of the cached results, in bytes
+     */
+    public SearchResultCache(final long xMaxBytes) {
+        this.maxBytes = xMaxBytes;
+    }
+
+    /**
+     * Gets the cached result for a query, computing and caching it if it is
+     * absent. The result is computed outside the lock, so slow searches do
+     * not block hits on other queries, and only once for concurrent
+     * requests with the same query.
+     *
+     * @param xVersion  version of the snapshot the query runs against
+     * @param xKey      the normalised query
+     * @param xSupplier computes the serialised result
+     * @return the serialised result
+     */
+    public byte[] get(final long xVersion, final String xKey,
+            final Supplier<byte[]> xSupplier) {
+        synchronized (this) {
+            if (xVersion > version) {
+                invalidations.add(entries.size());
+                entries.clear();
+                bytes = 0;
+                version = xVersion;
+            }
+            byte[] cached = entries.get(xKey);
+            if (cached != null && xVersion == version) {
+                hits.increment();
+                return cached;
+            }
+        }
+        misses.increment();
+        return flights.execute(new Flight(xVersion, xKey), () -> {
+            synchronized (this) {
+                // cached by a computation that finished since the check
+                byte[] cached = entries.get(xKey);
+                if (cached != null && xVersion == version) {
+                    return cached;
+                }
+            }
+            byte[] result = xSupplier.get();
+            synchronized (this) {
+                // a newer version may have been published in the meantime
+                if (xVersion == version) {
+                    put(xKey, result);
+                }
+            }
+            return result;
+        });
+    }
+
+    /**
+     * Gets the cache statistics: size, hit and miss counts, hit rate,
+     * misses that shared another request's computation, evictions and
+     * invalidations.
+     *
+     * @return map of statistic name to value
+     */
+    public Map<String, Object> getStatistics() {
+        long hitCount = hits.sum();
+        long missCount = misses.sum();
+        long requests = hitCount + missCount;
+        Map<String, Object> stats = new LinkedHashMap<>();
+        synchronized (this) {
+            stats.put("version", version);
+            stats.put("entries", entries.size());
+            stats.put("bytes", bytes);
+        }
+        stats.put("maxBytes", maxBytes);
+        stats.put("hits", hitCount);
+        stats.put("misses", missCount);
+        stats.put("hitRate", requests == 0 ? 0.0
+        : (double) hitCount / requests);
+        stats.put("coalesced", flights.getShared());
+        stats.put("evictions", evictions.sum());
+        stats.put("invalidations", invalidations.sum());
+        return stats;
+    }
+
+    /**
+     * Adds an entry and evicts least recently used entries until the cache
+     * is within its size limit. Must be called holding the lock.
+     *
+     * @param xKey   the normalised query
+     * @param xValue the serialised result
+     */
+    private void put(final String xKey, final byte[] xValue) {
+        long weight = weight(xKey, xValue);
+        if (weight > maxBytes) {
+            return;
+        }
+        byte[] previous = entries.put(xKey, xValue);
+        if (previous != null) {
+            bytes -= weight(xKey, previous);
+        }
+        bytes += weight;
+        Iterator<Map.Entry<String, byte[]>> eldest =
+        entries.entrySet().iterator();
+        while (bytes > maxBytes) {
+            Map.Entry<String, byte[]> entry = eldest.next();
+            bytes -= weight(entry.getKey(), entry.getValue());
+            eldest.remove();
+            evictions.increment();
+        }
+    }
+
+    private static long weight(final String xKey, final byte[] xValue) {
+        return ENTRY_OVERHEAD + (long) BYTES_PER_CHAR * xKey.length()
+        + xValue.length;
+    }
+
+    /**
+     * Key of a search being computed.
+     *
+     * @param version registry version
+     * @param query   the normalised query
+     */
+    private record Flight(long version, String query) {
+    }
+}
@@ -0,0 +1,104 @@
+/*
+ * Copyright © 2025 EOSC Beyond (${email})
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package eoscbeyond.eu;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * The {@code ServerTiming} class adds up the time one request spends in
+ * each phase and formats it as a Server-Timing header.
+ * <p>
+ * Durations of a phase entered several times are summed. Phases may nest,
+ * so they need not add up to the total, which is reported as {@code app}
+ * and runs from the creation of this object to the formatting of the
+ * header. It is used by the thread serving the request only.
+ * </p>
+ *
+ * <p>
+ * Example usage:
+ * </p>
+ *
+ * <pre>
+ * ServerTiming timing = new ServerTiming();
+ * timing.add("lookup", lookupNanos);
+ * timing.add("serialize", serializeNanos);
+ * response.setHeader("Server-Timing", timing.toHeader());
+ * // lookup;dur=0.012, serialize;dur=3.407, app;dur=3.511
+ * </pre>
+ *
+ */
+final class ServerTiming {
+    /** Name of the total duration. */
+    static final String TOTAL = "app";
+    /** Nanoseconds per microsecond. */
+    private static final long NANOS_PER_MICRO = 1_000L;
+    /** Microseconds per millisecond. */
+    private static final long MICROS_PER_MILLI = 1_000L;
+
+    /** Start of the request, from {@link System#nanoTime()}. */
+    private final long start = System.nanoTime();
+    /** Nanoseconds spent per phase, in the order phases were first seen. */
+    private final Map<String, Long> phases = new LinkedHashMap<>();
+
+    /**
+     * Adds time spent in a phase.
+     *
+     * @param xName  the phase name, a token
+     * @param xNanos the time spent, in nanoseconds
+     */
+    void add(final String xName, final long xNanos) {
+        phases.merge(xName, xNanos, Long::sum);
+    }
+
+    /**
+     * Gets the time spent in a phase so far.
+     *
+     * @param xName the phase name
+     * @return the time spent, in nanoseconds; 0 if the phase was not seen
+     */
+    long getNanos(final String xName) {
+        return phases.getOrDefault(xName, 0L);
+    }
+
+    /**
+     * Formats the phases and the total time so far as the value of a
+     * Server-Timing header, with durations in milliseconds.
+     *
+     * @return the header value
+     */
+    String toHeader() {
+        StringBuilder header = new StringBuilder();
+        for (Map.Entry<String, Long> phase : phases.entrySet()) {
+            appendMetric(header, phase.getKey(), phase.getValue());
+            header.append(", ");
+        }
+        appendMetric(header, TOTAL, System.nanoTime() - start);
+        return header.toString();
+    }
+
+    private static void appendMetric(final StringBuilder xHeader,
+            final String xName, final long xNanos) {
+        long micros = xNanos / NANOS_PER_MICRO;
+        // three digits of fraction, with leading zeros
+        String fraction = Long.toString(MICROS_PER_MILLI
+        + micros % MICROS_PER_MILLI);
+        xHeader.append(xName).append(";dur=")
+        .append(micros / MICROS_PER_MILLI).append('.')
+        .append(fraction, 1, fraction.length());
+    }
+}
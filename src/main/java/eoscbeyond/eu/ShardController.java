@@ -0,0 +1,154 @@
+/*
+ * Copyright © 2025 EOSC Beyond (${email})
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package eoscbeyond.eu;
+
+import java.util.Map;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.CrossOrigin;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import eoscbeyond.eu.data.RateLimitConfiguration;
+import eoscbeyond.eu.data.ShardingConfiguration;
+
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import jakarta.servlet.http.HttpServletRequest;
+
+/**
+ * The {@code ShardController} class serves the whole registry from any
+ * shard of a sharded registry. The {@code /nodes} endpoints of a shard
+ * serve only the nodes that belong to it; the endpoints here find nodes
+ * wherever they are. They are not found when sharding is disabled.
+ */
+@RestController
+@CrossOrigin(origins = "*") // Allow all origins
+@RequestMapping("/shards")
+@Tag(name = "Shards", description =
+"Endpoints spanning the shards of a sharded registry")
+public class ShardController {
+
+    /** Header giving the shard a node belongs to. */
+    static final String SHARD_HEADER = "X-Shard";
+
+    /** Answers requests across shards; null if sharding is disabled. */
+    private final ShardRouter router;
+
+    /** Identifies the client of a request, whose key is forwarded. */
+    private final ClientKeys clientKeys;
+
+    /**
+     * Constructor.
+     *
+     * @param xConfig          sharding settings
+     * @param xRateLimitConfig rate limit settings, giving how clients are
+     *                         identified
+     */
+    @Autowired
+    public ShardController(final ShardingConfiguration xConfig,
+            final RateLimitConfiguration xRateLimitConfig) {
+        this(xConfig.enabled() ? new ShardRouter(new ShardMap(
+            xConfig.shards(), xConfig.index()), xConfig.timeout(),
+            xRateLimitConfig.clientHeader()) : null,
+            ClientKeys.of(xRateLimitConfig));
+    }
+
+    /**
+     * Constructor for tests.
+     *
+     * @param xRouter     answers requests across shards; null if sharding
+     *                    is disabled
+     * @param xClientKeys identifies the client of a request
+     */
+    ShardController(final ShardRouter xRouter,
+            final ClientKeys xClientKeys) {
+        this.router = xRouter;
+        this.clientKeys = xClientKeys;
+    }
+
+    /**
+     * @param id      EoscNode ID
+     * @param request the request, giving the client key
+     * @return ResponseEntity<byte[]> summary of the node, from the shard it
+     *         belongs to, given in the X-Shard header; 504 or 502 if that
+     *         shard did not answer in time or gave an error
+     */
+    @Operation(summary = "Search for node by ID in its shard", description =
+    "Retrieves endpoint and capability info for a node from the shard it "
+    + "belongs to, by consistent hashing of its ID.")
+    @GetMapping("/nodes/{id}")
+    public ResponseEntity<byte[]> getNodeById(@PathVariable final String id,
+            final HttpServletRequest request) {
+        if (router == null) {
+            return ResponseEntity.status(HttpStatus.NOT_FOUND).body(null);
+        }
+        ShardRouter.Lookup lookup = router.getNode(id, clientOf(request));
+        return ResponseEntity.status(lookup.status())
+        .header(SHARD_HEADER, Integer.toString(lookup.shard()))
+        .contentType(MediaType.APPLICATION_JSON)
+        .body(lookup.body());
+    }
+
+    /**
+     * @param capability the capability
+     * @param request    the request, giving the client key
+     * @return ResponseEntity<byte[]> JSON object with the nodes that have
+     *         the capability in every shard that answered in time, and the
+     *         shards that did not
+     */
+    @Operation(summary = "Search every shard for nodes by capability",
+    description = "Searches every shard in parallel and merges the results. "
+    + "Shards that do not answer within sharding.timeout are left out, "
+    + "listed under failed, and partial is true.")
+    @GetMapping("/search")
+    public ResponseEntity<byte[]> searchNodesByCapability(
+            @RequestParam final String capability,
+            final HttpServletRequest request) {
+        if (router == null) {
+            return ResponseEntity.status(HttpStatus.NOT_FOUND).body(null);
+        }
+        return ResponseEntity.ok().contentType(MediaType.APPLICATION_JSON)
+        .body(router.search(capability, clientOf(request)));
+    }
+
+    /**
+     * @return ResponseEntity<Map<String, Object>> the shards, this
+     *         instance's position among them, and statistics of requests
+     *         across shards
+     */
+    @Operation(summary = "Get shard statistics", description =
+    "Reports the shards, the position of this instance, its number of "
+    + "nodes, and the searches and lookups across shards.")
+    @GetMapping("/stats")
+    public ResponseEntity<Map<String, Object>> getStatistics() {
+        if (router == null) {
+            return ResponseEntity.status(HttpStatus.NOT_FOUND).body(null);
+        }
+        return ResponseEntity.ok(router.getStatistics());
+    }
+
+    private String clientOf(final HttpServletRequest xRequest) {
+        return clientKeys.clientOf(xRequest);
+    }
+}
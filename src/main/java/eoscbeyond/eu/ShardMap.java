@@ -0,0 +1,131 @@
+/*
+ * Copyright © 2025 EOSC Beyond (${email})
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package eoscbeyond.eu;
+
+import java.net.URI;
+import java.util.List;
+
+/**
+ * The {@code ShardMap} class assigns node IDs to shards.
+ * <p>
+ * A node belongs to the shard with the highest rendezvous hash of its ID
+ * and the shard's URL, the scheme {@link CapabilityRouter} uses to pick an
+ * endpoint for a client key. Every instance listing the same shards
+ * computes the same owner, without coordination. Adding or removing a
+ * shard moves only the nodes that belong to it, about one in N. Shards
+ * are hashed by URL, so their order in the list does not matter, but
+ * every instance must spell the URLs the same way.
+ * </p>
+ *
+ * Example usage:
+ *
+ * <pre>
+ * ShardMap map = new ShardMap(List.of(URI.create("http://a:8080/"),
+ *     URI.create("http://b:8080/")), 0);
+ * if (map.isLocal(node.getId())) {
+ *     // keep the node
+ * }
+ * </pre>
+ */
+public final class ShardMap {
+    /** Base URLs of the shards. */
+    private final List<URI> shards;
+    /** Position of this instance in the list of shards. */
+    private final int index;
+    /** Mixed hashes of the shard URLs. */
+    private final long[] hashes;
+
+    /**
+     * Constructor.
+     *
+     * @param xShards base URLs of every shard, this instance included
+     * @param xIndex  position of this instance in the list
+     */
+    public ShardMap(final List<URI> xShards, final int xIndex) {
+        if (xShards.isEmpty()) {
+            throw new IllegalArgumentException("No shards");
+        }
+        if (xIndex < 0 || xIndex >= xShards.size()) {
+            throw new IllegalArgumentException("Shard index " + xIndex
+                + " out of range");
+        }
+        this.shards = List.copyOf(xShards);
+        this.index = xIndex;
+        this.hashes = new long[shards.size()];
+        for (int i = 0; i < hashes.length; i++) {
+            hashes[i] = CapabilityRouter.mix(CapabilityRouter.GOLDEN
+            * key(shards.get(i)).hashCode());
+        }
+    }
+
+    /**
+     * Gets the shard a node belongs to.
+     *
+     * @param xId ID of the node
+     * @return position of the shard in the list
+     */
+    public int owner(final String xId) {
+        long idHash = xId.hashCode();
+        int best = 0;
+        long bestScore = Long.MIN_VALUE;
+        for (int i = 0; i < hashes.length; i++) {
+            long score = CapabilityRouter.mix(idHash ^ hashes[i]);
+            if (score > bestScore) {
+                bestScore = score;
+                best = i;
+            }
+        }
+        return best;
+    }
+
+    /**
+     * Tells whether a node belongs to this instance.
+     *
+     * @param xId ID of the node
+     * @return true if this instance is the node's shard
+     */
+    public boolean isLocal(final String xId) {
+        return owner(xId) == index;
+    }
+
+    /**
+     * Gets the base URLs of the shards.
+     *
+     * @return the shards, in configured order
+     */
+    public List<URI> getShards() {
+        return shards;
+    }
+
+    /**
+     * Gets the position of this instance in the list of shards.
+     *
+     * @return the position
+     */
+    public int getIndex() {
+        return index;
+    }
+
+    /**
+     * Gets the string a shard is hashed by: its URL without a trailing
+     * slash, so that both spellings of the same URL agree.
+     */
+    private static String key(final URI xShard) {
+        String url = xShard.normalize().toString();
+        return url.endsWith("/") ? url.substring(0, url.length() - 1) : url;
+    }
+}
@@ -0,0 +1,307 @@
+/*
+ * Copyright © 2025 EOSC Beyond (${email})
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package eoscbeyond.eu;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.URLEncoder;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.net.http.HttpTimeoutException;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.LongAdder;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.springframework.http.HttpStatus;
+
+/**
+ * The {@code ShardRouter} class answers requests that span the shards of
+ * a sharded registry.
+ * <p>
+ * Lookups by ID are answered by the shard the node belongs to, in this
+ * instance or forwarded to another. Searches by capability are sent to
+ * every other shard at once, answered locally meanwhile, and merged. A
+ * search waits at most the configured timeout for the other shards; the
+ * shards that have not answered by then, or gave an error, are left out
+ * and listed in the response, so that the latency of a search is bounded
+ * and clients can tell when results are missing.
+ * </p>
+ *
+ * <p>
+ * Requests to other shards carry the client key of the original request,
+ * so that each shard rate limits the client rather than the shard. Shards
+ * only believe it from the addresses in their
+ * {@code rate-limit.trusted-addresses}, which should list the routers.
+ * </p>
+ *
+ * Example usage:
+ *
+ * <pre>
+ * ShardRouter router = new ShardRouter(map, Duration.ofMillis(500),
+ *     "X-Client-Key");
+ * byte[] json = router.search("Helpdesk", clientKey);
+ * </pre>
+ */
+public class ShardRouter {
+    /** Logger. */
+    private static final Logger LOGGER =
+    LogManager.getLogger(ShardRouter.class);
+    /** Timeout of a connection to another shard. */
+    private static final Duration CONNECT_TIMEOUT = Duration.ofSeconds(2);
+
+    /** Result of a lookup by ID. */
+    public record Lookup(HttpStatus status, byte[] body, int shard) {
+    }
+
+    /** The shards. */
+    private final ShardMap map;
+    /** Time a request waits for other shards. */
+    private final Duration timeout;
+    /** Header carrying the client key. */
+    private final String clientHeader;
+    /** HTTP client for requests to other shards. */
+    private final HttpClient client;
+    /** The registry of this shard. */
+    private final NodeRegistry nodeRegistry;
+
+    /** Number of searches. */
+    private final LongAdder searches = new LongAdder();
+    /** Number of searches that missed the results of a shard. */
+    private final LongAdder partialSearches = new LongAdder();
+    /** Number of lookups forwarded to another shard. */
+    private final LongAdder forwardedLookups = new LongAdder();
+    /** Number of requests to other shards that timed out. */
+    private final LongAdder shardTimeouts = new LongAdder();
+    /** Number of requests to other shards that failed. */
+    private final LongAdder shardErrors = new LongAdder();
+
+    /**
+     * Constructor.
+     *
+     * @param xMap          the shards
+     * @param xTimeout      time a request waits for other shards
+     * @param xClientHeader header carrying the client key
+     */
+    public ShardRouter(final ShardMap xMap, final Duration xTimeout,
+            final String xClientHeader) {
+        this(xMap, xTimeout, xClientHeader, NodeRegistry.getInstance());
+    }
+
+    /**
+     * Constructor for tests.
+     *
+     * @param xMap          the shards
+     * @param xTimeout      time a request waits for other shards
+     * @param xClientHeader header carrying the client key
+     * @param xRegistry     the registry of this shard
+     */
+    ShardRouter(final ShardMap xMap, final Duration xTimeout,
+            final String xClientHeader, final NodeRegistry xRegistry) {
+        this.map = xMap;
+        this.timeout = xTimeout;
+        this.clientHeader = xClientHeader;
+        this.nodeRegistry = xRegistry;
+        this.client = HttpClient.newBuilder()
+        .version(HttpClient.Version.HTTP_1_1)
+        .connectTimeout(CONNECT_TIMEOUT)
+        .build();
+    }
+
+    /**
+     * Gets the shards.
+     *
+     * @return the shard map
+     */
+    public ShardMap getMap() {
+        return map;
+    }
+
+    /**
+     * Looks a node up in the shard it belongs to.
+     *
+     * @param xId     ID of the node
+     * @param xClient client key of the request
+     * @return the summary of the node as JSON, as served at
+     *         {@code /nodes/{id}}, with status 200; or 404 if there is no such
+     *         node, 504 if its shard did not answer in time, 502 if it
+     *         gave an error
+     */
+    public Lookup getNode(final String xId, final String xClient) {
+        int owner = map.owner(xId);
+        if (owner == map.getIndex()) {
+            byte[] summary = nodeRegistry.getSnapshot().getSummaryJson(xId);
+            return summary == null
+            ? new Lookup(HttpStatus.NOT_FOUND, null, owner)
+            : new Lookup(HttpStatus.OK, summary, owner);
+        }
+        forwardedLookups.increment();
+        try {
+            HttpResponse<byte[]> response = client.send(request(owner,
+                "nodes/" + encode(xId), xClient), HttpResponse.BodyHandlers
+                .ofByteArray());
+            return switch (response.statusCode()) {
+                case 200 -> new Lookup(HttpStatus.OK, response.body(), owner);
+                case 404 -> new Lookup(HttpStatus.NOT_FOUND, null, owner);
+                default -> {
+                    shardErrors.increment();
+                    yield new Lookup(HttpStatus.BAD_GATEWAY, null, owner);
+                }
+            };
+        } catch (HttpTimeoutException e) {
+            shardTimeouts.increment();
+            return new Lookup(HttpStatus.GATEWAY_TIMEOUT, null, owner);
+        } catch (IOException e) {
+            shardErrors.increment();
+            LOGGER.warn("Lookup in shard {} failed: {}", map.getShards()
+            .get(owner), e.toString());
+            return new Lookup(HttpStatus.BAD_GATEWAY, null, owner);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return new Lookup(HttpStatus.GATEWAY_TIMEOUT, null, owner);
+        }
+    }
+
+    /**
+     * Searches every shard for nodes with a capability, waiting at most the
+     * timeout for the other shards.
+     *
+     * @param xCapability the capability
+     * @param xClient     client key of the request
+     * @return the merged results as JSON, as written by
+     *         {@link NodeJsonWriter#writeGathered}
+     */
+    public byte[] search(final String xCapability, final String xClient) {
+        searches.increment();
+        long deadline = System.nanoTime() + timeout.toNanos();
+        List<URI> shards = map.getShards();
+        List<CompletableFuture<HttpResponse<byte[]>>> pending =
+        new ArrayList<>(shards.size());
+        String path = "nodes/search?capability=" + encode(xCapability);
+        for (int i = 0; i < shards.size(); i++) {
+            pending.add(i == map.getIndex() ? null : client.sendAsync(
+                request(i, path, xClient),
+                HttpResponse.BodyHandlers.ofByteArray()));
+        }
+        List<byte[]> arrays = new ArrayList<>(shards.size());
+        List<String> failed = new ArrayList<>();
+        for (int i = 0; i < shards.size(); i++) {
+            if (i == map.getIndex()) {
+                arrays.add(NodeJsonWriter.local().writeNodes(nodeRegistry
+                    .searchNodesByCapability(xCapability)).toByteArray());
+                continue;
+            }
+            byte[] array = await(pending.get(i), deadline);
+            if (array == null) {
+                failed.add(shards.get(i).toString());
+            } else {
+                arrays.add(array);
+            }
+        }
+        if (!failed.isEmpty()) {
+            partialSearches.increment();
+        }
+        return NodeJsonWriter.local().writeGathered(arrays, shards.size(),
+            failed).toByteArray();
+    }
+
+    /**
+     * Gets statistics of requests across shards.
+     *
+     * @return map of statistic name to value
+     */
+    public Map<String, Object> getStatistics() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("shard", map.getIndex());
+        stats.put("shards", map.getShards().stream().map(URI::toString)
+            .toList());
+        stats.put("localNodes", nodeRegistry.getNodes().size());
+        stats.put("searches", searches.sum());
+        stats.put("partialSearches", partialSearches.sum());
+        stats.put("forwardedLookups", forwardedLookups.sum());
+        stats.put("shardTimeouts", shardTimeouts.sum());
+        stats.put("shardErrors", shardErrors.sum());
+        return stats;
+    }
+
+    /**
+     * Waits for the results of a shard until the deadline.
+     *
+     * @return the JSON node array, or null if the shard did not answer in
+     *         time, gave an error or an unexpected body
+     */
+    private byte[] await(final CompletableFuture<HttpResponse<byte[]>>
+            xResponse, final long xDeadline) {
+        try {
+            HttpResponse<byte[]> response = xResponse.get(
+                Math.max(0, xDeadline - System.nanoTime()),
+                TimeUnit.NANOSECONDS);
+            byte[] body = response.body();
+            if (response.statusCode() == HttpStatus.OK.value()
+            && isArray(body)) {
+                return body;
+            }
+            shardErrors.increment();
+        } catch (TimeoutException e) {
+            xResponse.cancel(true);
+            shardTimeouts.increment();
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof HttpTimeoutException) {
+                shardTimeouts.increment();
+            } else {
+                shardErrors.increment();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            xResponse.cancel(true);
+        }
+        return null;
+    }
+
+    private HttpRequest request(final int xShard, final String xPath,
+            final String xClient) {
+        String base = map.getShards().get(xShard).toString();
+        HttpRequest.Builder builder = HttpRequest.newBuilder(URI.create(
+            base.endsWith("/") ? base + xPath : base + "/" + xPath))
+        .timeout(timeout)
+        .header("Accept", "application/json");
+        if (xClient != null) {
+            builder.header(clientHeader, xClient);
+        }
+        return builder.GET().build();
+    }
+
+    private static boolean isArray(final byte[] xBody) {
+        return xBody != null && xBody.length >= 2 && xBody[0] == '['
+        && xBody[xBody.length - 1] == ']';
+    }
+
+    private static String encode(final String xValue) {
+        return URLEncoder.encode(xValue, StandardCharsets.UTF_8)
+        .replace("+", "%20");
+    }
+}
@@ -0,0 +1,94 @@
+/*
+ * Copyright © 2025 EOSC Beyond (${email})
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package eoscbeyond.eu;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+
+import jakarta.servlet.http.HttpServletRequest;
+
+/**
+ * The {@code SharedSecret} class checks the secret a request carries in a
+ * header against the configured one, for endpoints that only known callers
+ * may use.
+ * <p>
+ * Secrets are compared in constant time, so that the time of a refusal does
+ * not tell how much of a guess was right. Without a configured secret every
+ * request is refused.
+ * </p>
+ *
+ * <p>
+ * Example usage:
+ * </p>
+ *
+ * <pre>
+ * SharedSecret secret = new SharedSecret("X-Replication-Token", token);
+ * if (!secret.accepts(request)) {
+ *     response.sendError(401);
+ * }
+ * </pre>
+ *
+ */
+final class SharedSecret {
+    /** Header carrying the secret. */
+    private final String header;
+    /** The secret, as UTF-8; null if none is configured. */
+    private final byte[] secret;
+
+    /**
+     * Constructor.
+     *
+     * @param xHeader header carrying the secret
+     * @param xSecret the secret; null or empty if none is configured
+     */
+    SharedSecret(final String xHeader, final String xSecret) {
+        this.header = xHeader;
+        this.secret = xSecret == null || xSecret.isEmpty() ? null
+        : xSecret.getBytes(StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Gets the header carrying the secret.
+     *
+     * @return the header name
+     */
+    String getHeader() {
+        return header;
+    }
+
+    /**
+     * Tells whether a secret is configured.
+     *
+     * @return true if one is
+     */
+    boolean isSet() {
+        return secret != null;
+    }
+
+    /**
+     * Tells whether a request carries the secret.
+     *
+     * @param xRequest the request
+     * @return true if a secret is configured and the request's header
+     *         matches it
+     */
+    boolean accepts(final HttpServletRequest xRequest) {
+        String given = xRequest.getHeader(header);
+        return secret != null && given != null && MessageDigest.isEqual(
+            secret, given.getBytes(StandardCharsets.UTF_8));
+    }
+}
@@ -0,0 +1,118 @@
+/*
+ * Copyright © 2025 EOSC Beyond (${email})
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package eoscbeyond.eu;
+
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+/**
+ * The {@code SingleFlight} class coalesces concurrent computations of the
+ * same key.
+ * <p>
+ * The first caller for a key runs the computation; callers that arrive
+ * with the same key while it is running wait for it and get the same
+ * result, or the same exception. Once it finishes, the key is forgotten,
+ * so a later call computes afresh. Results are not cached here; callers
+ * put them in a cache themselves, and check that cache inside the
+ * computation to catch a result stored just before the call started.
+ * </p>
+ *
+ * <p>
+ * Example usage:
+ * </p>
+ *
+ * <pre>
+ * SingleFlight<String, byte[]> flights = new SingleFlight<>();
+ * byte[] json = flights.execute(capability, () -> serialise(capability));
+ * </pre>
+ *
+ * @param <K> type of the keys
+ * @param <V> type of the results
+ */
+public final class SingleFlight<K, V> {
+    /** Computations in progress, by key. */
+    private final Map<K, CompletableFuture<V>> calls =
+    new ConcurrentHashMap<>();
+    /** Number of computations run. */
+    private final LongAdder executions = new LongAdder();
+    /** Number of callers that shared another caller's computation. */
+    private final LongAdder shared = new LongAdder();
+
+    /**
+     * Gets the result for a key, joining a computation already in progress
+     * for it or, if there is none, running one.
+     *
+     * @param xKey      the key
+     * @param xSupplier computes the result; may return null
+     * @return the result
+     */
+    public V execute(final K xKey, final Supplier<V> xSupplier) {
+        CompletableFuture<V> call = new CompletableFuture<>();
+        CompletableFuture<V> running = calls.putIfAbsent(xKey, call);
+        if (running != null) {
+            shared.increment();
+            return await(running);
+        }
+        executions.increment();
+        try {
+            V result = xSupplier.get();
+            call.complete(result);
+            return result;
+        } catch (RuntimeException | Error e) {
+            call.completeExceptionally(e);
+            throw e;
+        } finally {
+            calls.remove(xKey, call);
+        }
+    }
+
+    /**
+     * Gets the number of computations run.
+     *
+     * @return the number of computations
+     */
+    public long getExecutions() {
+        return executions.sum();
+    }
+
+    /**
+     * Gets the number of callers that got the result of another caller's
+     * computation instead of running their own.
+     *
+     * @return the number of shared results
+     */
+    public long getShared() {
+        return shared.sum();
+    }
+
+    private static <V> V await(final CompletableFuture<V> xCall) {
+        try {
+            return xCall.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            if (e.getCause() instanceof Error cause) {
+                throw cause;
+            }
+            throw e;
+        }
+    }
+}
@@ -0,0 +1,96 @@
+/*
+ * Copyright © 2025 EOSC Beyond (${email})
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package eoscbeyond.eu;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * The {@code TokenBucket} class is a lock-free token bucket.
+ * <p>
+ * Instead of a token count refilled by a timer, the bucket keeps a single
+ * timestamp: the time at which it would be full again (the generic cell
+ * rate algorithm). Taking a token moves that time one emission interval
+ * into the future; the request is refused if that would put it more than a
+ * burst ahead of now. Both checks and the update are one compare-and-set,
+ * so concurrent requests from the same client need no lock.
+ * </p>
+ *
+ * <p>
+ * Example usage:
+ * </p>
+ *
+ * <pre>
+ * TokenBucket bucket = new TokenBucket(10, 20);
+ * long wait = bucket.tryAcquire(System.nanoTime());
+ * if (wait > 0) {
+ *     // refuse, and ask the client to retry after wait nanoseconds
+ * }
+ * </pre>
+ *
+ */
+public final class TokenBucket {
+    /** Nanoseconds between tokens. */
+    private final long emissionNanos;
+    /** Nanoseconds of tokens the bucket holds when full. */
+    private final long capacityNanos;
+    /** Time at which the bucket is full again, in nanoseconds. */
+    private final AtomicLong fullAt = new AtomicLong(Long.MIN_VALUE);
+
+    /**
+     * Creates a full bucket.
+     *
+     * @param xRatePerSecond tokens added per second
+     * @param xBurst         tokens the bucket holds when full
+     */
+    public TokenBucket(final double xRatePerSecond, final int xBurst) {
+        this.emissionNanos = Math.max(1L,
+            (long) (TimeUnit.SECONDS.toNanos(1) / xRatePerSecond));
+        this.capacityNanos = emissionNanos * xBurst;
+    }
+
+    /**
+     * Takes a token if one is available.
+     *
+     * @param xNow the current time, in nanoseconds
+     * @return 0 if a token was taken, otherwise the nanoseconds until one
+     *         will be available
+     */
+    public long tryAcquire(final long xNow) {
+        while (true) {
+            long current = fullAt.get();
+            long next = Math.max(current, xNow) + emissionNanos;
+            long excess = next - xNow - capacityNanos;
+            if (excess > 0) {
+                return excess;
+            }
+            if (fullAt.compareAndSet(current, next)) {
+                return 0;
+            }
+        }
+    }
+
+    /**
+     * Checks whether the bucket is full, and so can be dropped and
+     * recreated without changing the outcome of later requests.
+     *
+     * @param xNow the current time, in nanoseconds
+     * @return true if the bucket is full
+     */
+    public boolean isFull(final long xNow) {
+        return fullAt.get() <= xNow;
+    }
+}
@@ -0,0 +1,336 @@
+/*
+ * Copyright © 2025 EOSC Beyond (${email})
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package eoscbeyond.eu;
+
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.util.concurrent.TimeUnit;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.servlet.HandlerMapping;
+
+import eoscbeyond.eu.data.TracingConfiguration;
+import io.opentelemetry.api.common.AttributeKey;
+import io.opentelemetry.api.common.Attributes;
+import io.opentelemetry.api.trace.Span;
+import io.opentelemetry.api.trace.SpanKind;
+import io.opentelemetry.api.trace.StatusCode;
+import io.opentelemetry.api.trace.Tracer;
+import io.opentelemetry.context.Context;
+import io.opentelemetry.context.Scope;
+import io.opentelemetry.sdk.common.Clock;
+import io.opentelemetry.sdk.resources.Resource;
+import io.opentelemetry.sdk.trace.SdkTracerProvider;
+import io.opentelemetry.sdk.trace.export.SimpleSpanProcessor;
+import io.opentelemetry.sdk.trace.samplers.Sampler;
+import jakarta.servlet.AsyncEvent;
+import jakarta.servlet.AsyncListener;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.ServletOutputStream;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import jakarta.servlet.http.HttpServletResponseWrapper;
+
+/**
+ * The {@code TracingFilter} class traces requests for nodes and answers
+ * them with a Server-Timing header.
+ * <p>
+ * Each request gets a server span, named after the matched route, under
+ * which the {@link RegistryTracing} phases of the controller nest. Once
+ * the body starts being written, a {@code write} span runs until the
+ * response is complete, so time spent sending a large or streamed body
+ * shows apart from time spent producing it. Spans are kept in memory by
+ * a {@link RecentSpanExporter}; the registry's own statistics endpoints
+ * are not traced.
+ * </p>
+ *
+ * <p>
+ * The Server-Timing header lists the time spent in each phase and the
+ * total so far, as of the moment the body starts being written, and is
+ * sent for every request whether or not it is sampled. Timing-Allow-Origin
+ * lets browsers show it for cross-origin requests too.
+ * </p>
+ *
+ * <p>
+ * The filter installs its tracer when it is created, which the embedded
+ * server does before the registry is loaded, so reading the nodes file
+ * at startup is traced too. It is enabled unless {@code tracing.enabled}
+ * is false.
+ * </p>
+ *
+ */
+@Component
+@ConditionalOnProperty(prefix = "tracing", name = "enabled",
+havingValue = "true", matchIfMissing = true)
+@Order(Ordered.HIGHEST_PRECEDENCE)
+public class TracingFilter extends OncePerRequestFilter {
+    /** Server-Timing response header. */
+    static final String SERVER_TIMING = "Server-Timing";
+    /** Timing-Allow-Origin response header. */
+    static final String TIMING_ALLOW_ORIGIN = "Timing-Allow-Origin";
+    /** Name of the span covering the writing of the body. */
+    static final String WRITE_SPAN = "write";
+    /** Name under which the service reports its spans. */
+    private static final String SERVICE_NAME = "node-registry";
+    /** Path prefix of the node endpoints. */
+    private static final String NODES_PATH = "/nodes";
+    /** Path prefix of the statistics endpoints, which are not traced. */
+    private static final String STATS_PATH = NODES_PATH + "/stats/";
+    /** Path prefix of the endpoints across shards. */
+    private static final String SHARDS_PATH = "/shards";
+    /** Lowest status code of server errors. */
+    private static final int SERVER_ERROR = 500;
+
+    /** Records and exports the spans. */
+    private final SdkTracerProvider provider;
+    /** Creates the spans. */
+    private final Tracer tracer;
+    /** Keeps the spans. */
+    private final RecentSpanExporter exporter;
+
+    /**
+     * Constructor.
+     *
+     * @param xConfig tracing settings
+     */
+    @Autowired
+    public TracingFilter(final TracingConfiguration xConfig) {
+        this(new RecentSpanExporter(xConfig.retainedSpans()),
+            Sampler.parentBased(Sampler.traceIdRatioBased(
+                xConfig.samplingRatio())), xConfig.lineSpans());
+    }
+
+    /**
+     * Constructor - exports spans to the given exporter.
+     *
+     * @param xExporter  keeps the spans
+     * @param xSampler   decides which traces are recorded
+     * @param xLineSpans whether reading the nodes file records a span per
+     *                   line
+     */
+    TracingFilter(final RecentSpanExporter xExporter,
+            final Sampler xSampler, final boolean xLineSpans) {
+        this.exporter = xExporter;
+        this.provider = SdkTracerProvider.builder()
+        .setResource(Resource.getDefault().merge(Resource.create(
+            Attributes.of(AttributeKey.stringKey("service.name"),
+            SERVICE_NAME))))
+        .setSampler(xSampler)
+        .addSpanProcessor(SimpleSpanProcessor.create(xExporter))
+        .build();
+        this.tracer = provider.get(RegistryTracing.SCOPE);
+        RegistryTracing.install(tracer, exporter, xLineSpans);
+    }
+
+    /**
+     * Gets the exporter keeping the spans.
+     *
+     * @return the exporter
+     */
+    public RecentSpanExporter getExporter() {
+        return exporter;
+    }
+
+    /** Removes the tracer and drops the spans kept. */
+    @Override
+    public void destroy() {
+        RegistryTracing.uninstall(tracer);
+        provider.shutdown().join(1, TimeUnit.SECONDS);
+    }
+
+    @Override
+    protected boolean shouldNotFilter(final HttpServletRequest request) {
+        String uri = request.getRequestURI();
+        String context = request.getContextPath();
+        return !uri.startsWith(context + NODES_PATH)
+        && !uri.startsWith(context + SHARDS_PATH)
+        || uri.startsWith(context + STATS_PATH);
+    }
+
+    @Override
+    protected void doFilterInternal(final HttpServletRequest request,
+            final HttpServletResponse response, final FilterChain chain)
+            throws ServletException, IOException {
+        Span span = tracer.spanBuilder(request.getMethod())
+        .setSpanKind(SpanKind.SERVER)
+        .setAttribute("http.request.method", request.getMethod())
+        .setAttribute("url.path", request.getRequestURI())
+        .startSpan();
+        TimedResponse timed = new TimedResponse(response,
+            RegistryTracing.startRequest());
+        boolean async = false;
+        try (Scope scope = span.makeCurrent()) {
+            chain.doFilter(request, timed);
+            if (request.isAsyncStarted()) {
+                // Streamed responses are written until they complete
+                request.getAsyncContext().addListener(new End(span, timed));
+                async = true;
+            }
+        } catch (IOException | ServletException | RuntimeException e) {
+            span.recordException(e);
+            span.setStatus(StatusCode.ERROR);
+            throw e;
+        } finally {
+            RegistryTracing.endRequest();
+            timed.sendTiming();
+            if (!async) {
+                end(request, timed, span);
+            }
+        }
+    }
+
+    /**
+     * Ends the span of a request, and its write span if the body was
+     * written.
+     *
+     * @param request the request
+     * @param timed   the response
+     * @param span    the server span
+     */
+    private void end(final HttpServletRequest request,
+            final TimedResponse timed, final Span span) {
+        Object route = request.getAttribute(
+            HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE);
+        if (route != null) {
+            span.updateName(request.getMethod() + " " + route);
+            span.setAttribute("http.route", route.toString());
+        }
+        int status = timed.getStatus();
+        span.setAttribute("http.response.status_code", status);
+        if (status >= SERVER_ERROR) {
+            span.setStatus(StatusCode.ERROR);
+        }
+        if (timed.writeStart != 0) {
+            tracer.spanBuilder(WRITE_SPAN)
+            .setParent(Context.root().with(span))
+            .setStartTimestamp(timed.writeStart, TimeUnit.NANOSECONDS)
+            .startSpan()
+            .end();
+        }
+        span.end();
+    }
+
+    /**
+     * Sends the Server-Timing header just before the response is
+     * committed, and notes when the body starts being written.
+     */
+    private static final class TimedResponse
+    extends HttpServletResponseWrapper {
+        /** Timing of the request. */
+        private final ServerTiming timing;
+        /** Whether the header has been sent. */
+        private boolean sent;
+        /** Epoch nanoseconds when writing started; 0 until it does. */
+        private volatile long writeStart;
+
+        TimedResponse(final HttpServletResponse xResponse,
+                final ServerTiming xTiming) {
+            super(xResponse);
+            this.timing = xTiming;
+        }
+
+        /** Sets the Server-Timing header, unless it is too late. */
+        void sendTiming() {
+            if (!sent && !isCommitted()) {
+                setHeader(SERVER_TIMING, timing.toHeader());
+                setHeader(TIMING_ALLOW_ORIGIN, "*");
+            }
+            sent = true;
+        }
+
+        private void startWrite() {
+            if (writeStart == 0) {
+                sendTiming();
+                writeStart = Clock.getDefault().now();
+            }
+        }
+
+        @Override
+        public ServletOutputStream getOutputStream() throws IOException {
+            startWrite();
+            return super.getOutputStream();
+        }
+
+        @Override
+        public PrintWriter getWriter() throws IOException {
+            startWrite();
+            return super.getWriter();
+        }
+
+        @Override
+        public void flushBuffer() throws IOException {
+            startWrite();
+            super.flushBuffer();
+        }
+
+        @Override
+        public void sendError(final int sc) throws IOException {
+            sendTiming();
+            super.sendError(sc);
+        }
+
+        @Override
+        public void sendError(final int sc, final String msg)
+                throws IOException {
+            sendTiming();
+            super.sendError(sc, msg);
+        }
+    }
+
+    /** Ends the span of a streamed response when it completes. */
+    private final class End implements AsyncListener {
+        /** The server span. */
+        private final Span span;
+        /** The response. */
+        private final TimedResponse timed;
+
+        End(final Span xSpan, final TimedResponse xTimed) {
+            this.span = xSpan;
+            this.timed = xTimed;
+        }
+
+        @Override
+        public void onComplete(final AsyncEvent event) {
+            end((HttpServletRequest) event.getAsyncContext().getRequest(),
+                timed, span);
+        }
+
+        @Override
+        public void onTimeout(final AsyncEvent event) {
+            span.setStatus(StatusCode.ERROR, "timeout");
+        }
+
+        @Override
+        public void onError(final AsyncEvent event) {
+            if (event.getThrowable() != null) {
+                span.recordException(event.getThrowable());
+            }
+            span.setStatus(StatusCode.ERROR);
+        }
+
+        @Override
+        public void onStartAsync(final AsyncEvent event) {
+            // not re-registered on later dispatches
+        }
+    }
+}
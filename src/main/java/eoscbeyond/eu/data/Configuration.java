@@ -24,12 +24,20 @@ import org.springframework.boot.context.properties.ConfigurationProperties;
 
 @ConfigurationProperties
 public record Configuration(
-    URI noderegistryUrl
+    URI noderegistryUrl,
+    String nodesFile,
+    Integer historySize
 ) {
     /** Defult URL. */
     private static final URI DEFAULT_NODEREGISTRY_URL =
     URI.create("http://localhost:1336/");
 
+    /** Default nodes file. */
+    private static final String DEFAULT_NODES_FILE = "nodes.csv";
+
+    /** Default number of registry versions kept. */
+    private static final int DEFAULT_HISTORY_SIZE = 100;
+
    /** Logger. */
     private static final Logger LOGGER =
     LogManager.getLogger(Configuration.class);
@@ -50,5 +58,14 @@ public record Configuration(
             DEFAULT_NODEREGISTRY_URL);
             noderegistryUrl = DEFAULT_NODEREGISTRY_URL;
         }
+        if (nodesFile == null || nodesFile.isBlank()) {
+            nodesFile = DEFAULT_NODES_FILE;
+        }
+        if (historySize == null) {
+            historySize = DEFAULT_HISTORY_SIZE;
+        } else if (historySize < 1) {
+            throw new IllegalStateException("Invalid history size "
+            + historySize + "; at least one version must be kept");
+        }
     }
 }
@@ -0,0 +1,60 @@
+/*
+ * Copyright © 2025 EOSC Beyond (${email})
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package eoscbeyond.eu.data;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+/**
+ * Settings of the gRPC API, bound from the {@code grpc.*} properties.
+ * Unset values take the defaults below.
+ *
+ * @param enabled      whether the gRPC server is started
+ * @param port         port of the gRPC server; 0 picks a free port
+ * @param watchBacklog changes queued for a watch stream whose client reads
+ *                     too slowly, before the stream is ended
+ */
+@ConfigurationProperties("grpc")
+public record GrpcConfiguration(
+    boolean enabled,
+    Integer port,
+    int watchBacklog
+) {
+    /** Default port. */
+    private static final int DEFAULT_PORT = 9090;
+    /** Default watch backlog. */
+    private static final int DEFAULT_WATCH_BACKLOG = 1024;
+
+    /** Constructor. */
+    public GrpcConfiguration {
+        if (port == null || port < 0) {
+            port = DEFAULT_PORT;
+        }
+        if (watchBacklog <= 0) {
+            watchBacklog = DEFAULT_WATCH_BACKLOG;
+        }
+    }
+
+    /**
+     * Gets the default settings, with the gRPC server disabled.
+     *
+     * @return the default settings
+     */
+    public static GrpcConfiguration defaults() {
+        return new GrpcConfiguration(false, null, 0);
+    }
+}
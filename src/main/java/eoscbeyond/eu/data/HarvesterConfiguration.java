@@ -0,0 +1,102 @@
+/*
+ * Copyright © 2025 EOSC Beyond (${email})
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package eoscbeyond.eu.data;
+
+import java.time.Duration;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+/**
+ * Settings of the capability metadata harvester, bound from the
+ * {@code harvester.*} properties. Unset values take the defaults below.
+ *
+ * @param enabled               whether metadata is harvested periodically
+ * @param interval              delay between the end of one harvest and
+ *                              the start of the next
+ * @param maxConcurrentPerHost  maximum requests in flight to one host
+ * @param maxAttempts           maximum attempts per endpoint and harvest
+ * @param initialBackoff        delay before the first retry; doubled for
+ *                              each further retry
+ * @param requestTimeout        timeout of one request
+ * @param failureThreshold      consecutive failures that open the circuit
+ *                              breaker of a host
+ * @param openDuration          time an open circuit breaker rejects
+ *                              requests before letting a trial through
+ */
+@ConfigurationProperties("harvester")
+public record HarvesterConfiguration(
+    boolean enabled,
+    Duration interval,
+    int maxConcurrentPerHost,
+    int maxAttempts,
+    Duration initialBackoff,
+    Duration requestTimeout,
+    int failureThreshold,
+    Duration openDuration
+) {
+    /** Default harvest interval. */
+    private static final Duration DEFAULT_INTERVAL = Duration.ofMinutes(15);
+    /** Default maximum requests in flight per host. */
+    private static final int DEFAULT_MAX_CONCURRENT_PER_HOST = 4;
+    /** Default maximum attempts per endpoint. */
+    private static final int DEFAULT_MAX_ATTEMPTS = 3;
+    /** Default delay before the first retry. */
+    private static final Duration DEFAULT_INITIAL_BACKOFF =
+    Duration.ofMillis(200);
+    /** Default request timeout. */
+    private static final Duration DEFAULT_REQUEST_TIMEOUT =
+    Duration.ofSeconds(5);
+    /** Default failures before a circuit breaker opens. */
+    private static final int DEFAULT_FAILURE_THRESHOLD = 5;
+    /** Default time a circuit breaker stays open. */
+    private static final Duration DEFAULT_OPEN_DURATION =
+    Duration.ofSeconds(30);
+
+    /** Constructor. */
+    public HarvesterConfiguration {
+        if (interval == null) {
+            interval = DEFAULT_INTERVAL;
+        }
+        if (maxConcurrentPerHost <= 0) {
+            maxConcurrentPerHost = DEFAULT_MAX_CONCURRENT_PER_HOST;
+        }
+        if (maxAttempts <= 0) {
+            maxAttempts = DEFAULT_MAX_ATTEMPTS;
+        }
+        if (initialBackoff == null) {
+            initialBackoff = DEFAULT_INITIAL_BACKOFF;
+        }
+        if (requestTimeout == null) {
+            requestTimeout = DEFAULT_REQUEST_TIMEOUT;
+        }
+        if (failureThreshold <= 0) {
+            failureThreshold = DEFAULT_FAILURE_THRESHOLD;
+        }
+        if (openDuration == null) {
+            openDuration = DEFAULT_OPEN_DURATION;
+        }
+    }
+
+    /**
+     * Gets the default settings, with harvesting disabled.
+     *
+     * @return the default settings
+     */
+    public static HarvesterConfiguration defaults() {
+        return new HarvesterConfiguration(false, null, 0, 0, null, null, 0,
+        null);
+    }
+}
@@ -0,0 +1,57 @@
+/*
+ * Copyright © 2025 EOSC Beyond (${email})
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package eoscbeyond.eu.data;
+
+import java.time.Duration;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+/**
+ * Settings of the in-process summaries of the registry's flight recorder
+ * events, bound from the {@code jfr.*} properties. Unset values take the
+ * defaults below.
+ *
+ * @param enabled whether the events are recorded and summarised
+ * @param window  period the summaries cover, ending now
+ */
+@ConfigurationProperties("jfr")
+public record JfrConfiguration(
+    Boolean enabled,
+    Duration window
+) {
+    /** Default summary window. */
+    private static final Duration DEFAULT_WINDOW = Duration.ofMinutes(1);
+
+    /** Constructor. */
+    public JfrConfiguration {
+        if (enabled == null) {
+            enabled = Boolean.TRUE;
+        }
+        if (window == null || window.isNegative() || window.isZero()) {
+            window = DEFAULT_WINDOW;
+        }
+    }
+
+    /**
+     * Gets the default settings.
+     *
+     * @return the default settings
+     */
+    public static JfrConfiguration defaults() {
+        return new JfrConfiguration(null, null);
+    }
+}
@@ -0,0 +1,109 @@
+/*
+ * Copyright © 2025 EOSC Beyond (${email})
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package eoscbeyond.eu.data;
+
+import java.util.List;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+/**
+ * Settings of the per-client rate limiter, bound from the
+ * {@code rate-limit.*} properties. Unset values take the defaults below.
+ *
+ * @param enabled            whether node requests are rate limited
+ * @param interactiveRate    sustained interactive requests per second and
+ *                           client
+ * @param interactiveBurst   interactive requests a client may send at once
+ * @param bulkRate           sustained bulk requests per second and client
+ * @param bulkBurst          bulk requests a client may send at once
+ * @param maxInFlight        node requests in progress above which further
+ *                           requests are shed
+ * @param bulkMaxInFlight    node requests in progress above which bulk
+ *                           requests are shed
+ * @param clientHeader       request header identifying the client, only
+ *                           believed from the trusted addresses
+ * @param trustedAddresses   remote addresses whose client header is
+ *                           believed, such as shard routers or a gateway
+ *                           that authenticates clients; other clients are
+ *                           identified by their remote address
+ */
+@ConfigurationProperties("rate-limit")
+public record RateLimitConfiguration(
+    Boolean enabled,
+    double interactiveRate,
+    int interactiveBurst,
+    double bulkRate,
+    int bulkBurst,
+    int maxInFlight,
+    int bulkMaxInFlight,
+    String clientHeader,
+    List<String> trustedAddresses
+) {
+    /** Default sustained interactive requests per second. */
+    private static final double DEFAULT_INTERACTIVE_RATE = 20;
+    /** Default interactive burst. */
+    private static final int DEFAULT_INTERACTIVE_BURST = 40;
+    /** Default sustained bulk requests per second. */
+    private static final double DEFAULT_BULK_RATE = 2;
+    /** Default bulk burst. */
+    private static final int DEFAULT_BULK_BURST = 5;
+    /** Default limit of requests in progress. */
+    private static final int DEFAULT_MAX_IN_FLIGHT = 64;
+    /** Default limit of requests in progress for bulk requests. */
+    private static final int DEFAULT_BULK_MAX_IN_FLIGHT = 16;
+    /** Default client header. */
+    private static final String DEFAULT_CLIENT_HEADER = "X-Client-Key";
+
+    /** Constructor. */
+    public RateLimitConfiguration {
+        if (enabled == null) {
+            enabled = Boolean.TRUE;
+        }
+        if (interactiveRate <= 0) {
+            interactiveRate = DEFAULT_INTERACTIVE_RATE;
+        }
+        if (interactiveBurst <= 0) {
+            interactiveBurst = DEFAULT_INTERACTIVE_BURST;
+        }
+        if (bulkRate <= 0) {
+            bulkRate = DEFAULT_BULK_RATE;
+        }
+        if (bulkBurst <= 0) {
+            bulkBurst = DEFAULT_BULK_BURST;
+        }
+        if (maxInFlight <= 0) {
+            maxInFlight = DEFAULT_MAX_IN_FLIGHT;
+        }
+        if (bulkMaxInFlight <= 0) {
+            bulkMaxInFlight = Math.min(DEFAULT_BULK_MAX_IN_FLIGHT,
+            maxInFlight);
+        }
+        if (clientHeader == null || clientHeader.isBlank()) {
+            clientHeader = DEFAULT_CLIENT_HEADER;
+        }
+        trustedAddresses = trustedAddresses == null ? List.of()
+        : List.copyOf(trustedAddresses);
+    }
+
+    /**
+     * Gets the default settings.
+     *
+     * @return the default settings
+     */
+    public static RateLimitConfiguration defaults() {
+        return new RateLimitConfiguration(null, 0, 0, 0, 0, 0, 0, null, null);
+    }
+}
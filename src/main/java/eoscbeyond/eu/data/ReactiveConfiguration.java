@@ -0,0 +1,58 @@
+/*
+ * Copyright © 2025 EOSC Beyond (${email})
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package eoscbeyond.eu.data;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+/**
+ * Settings of the reactive node API, bound from the {@code reactive.*}
+ * properties. Unset values take the defaults below.
+ *
+ * @param enabled          whether the reactive server is started
+ * @param port             port of the reactive server; 0 picks a free port
+ * @param eventLoopThreads event loop threads serving all connections; the
+ *                         number of processors if unset
+ */
+@ConfigurationProperties("reactive")
+public record ReactiveConfiguration(
+    boolean enabled,
+    Integer port,
+    int eventLoopThreads
+) {
+    /** Default port. */
+    private static final int DEFAULT_PORT = 8081;
+
+    /** Constructor. */
+    public ReactiveConfiguration {
+        if (port == null || port < 0) {
+            port = DEFAULT_PORT;
+        }
+        if (eventLoopThreads <= 0) {
+            eventLoopThreads = Runtime.getRuntime().availableProcessors();
+        }
+    }
+
+    /**
+     * Gets the default settings, with the reactive server disabled.
+     *
+     * @return the default settings
+     */
+    public static ReactiveConfiguration defaults() {
+        return new ReactiveConfiguration(false, null, 0);
+    }
+}
@@ -0,0 +1,81 @@
+/*
+ * Copyright © 2025 EOSC Beyond (${email})
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package eoscbeyond.eu.data;
+
+import java.nio.file.Path;
+import java.time.Duration;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+/**
+ * Settings of the registry write-ahead log, bound from the
+ * {@code registry-log.*} properties. Unset values take the defaults below.
+ *
+ * @param enabled            whether node changes are logged and the
+ *                           registry is recovered from the log on startup
+ * @param directory          directory holding the log and checkpoint
+ * @param groupCommitWindow  time the log waits for more changes before
+ *                           writing and syncing them together; by default
+ *                           zero, which syncs as soon as the previous sync
+ *                           has finished, together with every change made
+ *                           while it ran
+ * @param checkpointInterval delay between checkpoints of the registry
+ * @param retainedChanges    number of recent changes kept in memory to
+ *                           ship to replication followers
+ */
+@ConfigurationProperties("registry-log")
+public record RegistryLogConfiguration(
+    boolean enabled,
+    Path directory,
+    Duration groupCommitWindow,
+    Duration checkpointInterval,
+    int retainedChanges
+) {
+    /** Default log directory. */
+    private static final Path DEFAULT_DIRECTORY = Path.of("data");
+    /** Default checkpoint interval. */
+    private static final Duration DEFAULT_CHECKPOINT_INTERVAL =
+    Duration.ofMinutes(5);
+    /** Default number of changes kept for followers. */
+    private static final int DEFAULT_RETAINED_CHANGES = 16384;
+
+    /** Constructor. */
+    public RegistryLogConfiguration {
+        if (directory == null) {
+            directory = DEFAULT_DIRECTORY;
+        }
+        if (groupCommitWindow == null || groupCommitWindow.isNegative()) {
+            groupCommitWindow = Duration.ZERO;
+        }
+        if (checkpointInterval == null || checkpointInterval.isNegative()
+        || checkpointInterval.isZero()) {
+            checkpointInterval = DEFAULT_CHECKPOINT_INTERVAL;
+        }
+        if (retainedChanges <= 0) {
+            retainedChanges = DEFAULT_RETAINED_CHANGES;
+        }
+    }
+
+    /**
+     * Gets the default settings, with the log disabled.
+     *
+     * @return the default settings
+     */
+    public static RegistryLogConfiguration defaults() {
+        return new RegistryLogConfiguration(false, null, null, null, 0);
+    }
+}
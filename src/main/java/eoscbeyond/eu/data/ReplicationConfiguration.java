@@ -0,0 +1,89 @@
+/*
+ * Copyright © 2025 EOSC Beyond (${email})
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package eoscbeyond.eu.data;
+
+import java.net.URI;
+import java.time.Duration;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+/**
+ * Settings of replication between registry instances, bound from the
+ * {@code replication.*} properties. Unset values take the defaults below.
+ *
+ * @param role         role of this instance
+ * @param leaderUrl    base URL of the leader; required for a follower
+ * @param pollTimeout  longest time a follower's request for changes waits
+ *                     at the leader when there are none
+ * @param retryDelay   delay before a follower retries after an error
+ * @param token        shared secret a follower and writers present to the
+ *                     leader; required for a leader or follower
+ */
+@ConfigurationProperties("replication")
+public record ReplicationConfiguration(
+    Role role,
+    URI leaderUrl,
+    Duration pollTimeout,
+    Duration retryDelay,
+    String token
+) {
+    /** Default poll timeout. */
+    private static final Duration DEFAULT_POLL_TIMEOUT =
+    Duration.ofSeconds(10);
+    /** Default retry delay. */
+    private static final Duration DEFAULT_RETRY_DELAY = Duration.ofSeconds(1);
+
+    /** Role of a registry instance. */
+    public enum Role {
+        /** Not replicated: loads and serves its own nodes. */
+        STANDALONE,
+        /** Accepts node changes and ships its log to followers. */
+        LEADER,
+        /** Applies the changes of a leader and serves reads. */
+        FOLLOWER
+    }
+
+    /** Constructor. */
+    public ReplicationConfiguration {
+        if (role == null) {
+            role = Role.STANDALONE;
+        }
+        if (role == Role.FOLLOWER && leaderUrl == null) {
+            throw new IllegalStateException(
+                "replication.leader-url is required for a follower");
+        }
+        if (role != Role.STANDALONE && (token == null || token.isEmpty())) {
+            throw new IllegalStateException(
+                "replication.token is required for a leader or follower");
+        }
+        if (pollTimeout == null || pollTimeout.isNegative()) {
+            pollTimeout = DEFAULT_POLL_TIMEOUT;
+        }
+        if (retryDelay == null || retryDelay.isNegative()) {
+            retryDelay = DEFAULT_RETRY_DELAY;
+        }
+    }
+
+    /**
+     * Gets the default settings, for a standalone instance.
+     *
+     * @return the default settings
+     */
+    public static ReplicationConfiguration defaults() {
+        return new ReplicationConfiguration(null, null, null, null, null);
+    }
+}
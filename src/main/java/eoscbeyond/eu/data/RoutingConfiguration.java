@@ -0,0 +1,41 @@
+/*
+ * Copyright © 2025 EOSC Beyond (${email})
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package eoscbeyond.eu.data;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+/**
+ * Settings of capability routing, bound from the {@code routing.*}
+ * properties.
+ *
+ * @param feedbackToken shared secret callers present to report the outcome
+ *                      of calls to capability endpoints; without one,
+ *                      feedback is not accepted
+ */
+@ConfigurationProperties("routing")
+public record RoutingConfiguration(
+    String feedbackToken
+) {
+    /**
+     * Gets the default settings, without feedback.
+     *
+     * @return the default settings
+     */
+    public static RoutingConfiguration defaults() {
+        return new RoutingConfiguration(null);
+    }
+}
@@ -0,0 +1,73 @@
+/*
+ * Copyright © 2025 EOSC Beyond (${email})
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package eoscbeyond.eu.data;
+
+import java.net.URI;
+import java.time.Duration;
+import java.util.List;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+/**
+ * Settings of sharding, bound from the {@code sharding.*} properties.
+ * Sharding is enabled when shards are listed. Every instance must list the
+ * same shards, and give its own position in the list.
+ *
+ * @param shards  base URLs of every shard, this instance included
+ * @param index   position of this instance in the list of shards
+ * @param timeout time a search waits for the other shards before
+ *                returning the results it has
+ */
+@ConfigurationProperties("sharding")
+public record ShardingConfiguration(
+    List<URI> shards,
+    int index,
+    Duration timeout
+) {
+    /** Default search timeout. */
+    private static final Duration DEFAULT_TIMEOUT = Duration.ofMillis(500);
+
+    /** Constructor. */
+    public ShardingConfiguration {
+        shards = shards == null ? List.of() : List.copyOf(shards);
+        if (!shards.isEmpty() && (index < 0 || index >= shards.size())) {
+            throw new IllegalStateException("sharding.index must be between "
+                + "0 and " + (shards.size() - 1));
+        }
+        if (timeout == null || timeout.isNegative() || timeout.isZero()) {
+            timeout = DEFAULT_TIMEOUT;
+        }
+    }
+
+    /**
+     * Tells whether sharding is enabled.
+     *
+     * @return true if shards are listed
+     */
+    public boolean enabled() {
+        return !shards.isEmpty();
+    }
+
+    /**
+     * Gets the default settings, with sharding disabled.
+     *
+     * @return the default settings
+     */
+    public static ShardingConfiguration defaults() {
+        return new ShardingConfiguration(null, 0, null);
+    }
+}
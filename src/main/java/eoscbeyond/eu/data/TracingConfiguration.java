@@ -0,0 +1,71 @@
+/*
+ * Copyright © 2025 EOSC Beyond (${email})
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package eoscbeyond.eu.data;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+/**
+ * Settings of request tracing, bound from the {@code tracing.*}
+ * properties. Unset values take the defaults below.
+ *
+ * @param enabled       whether node requests are traced and answered with
+ *                      a Server-Timing header
+ * @param samplingRatio fraction of requests whose spans are recorded,
+ *                      between 0 and 1; Server-Timing is sent for all
+ * @param retainedSpans recorded spans kept in memory, oldest dropped first
+ * @param lineSpans     whether reading the nodes file records a span per
+ *                      line, for debugging; otherwise only the totals are
+ *                      recorded on the ingest span
+ */
+@ConfigurationProperties("tracing")
+public record TracingConfiguration(
+    Boolean enabled,
+    Double samplingRatio,
+    int retainedSpans,
+    Boolean lineSpans
+) {
+    /** Default sampling ratio. */
+    private static final double DEFAULT_SAMPLING_RATIO = 0.1;
+    /** Default number of spans kept. */
+    private static final int DEFAULT_RETAINED_SPANS = 2048;
+
+    /** Constructor. */
+    public TracingConfiguration {
+        if (enabled == null) {
+            enabled = Boolean.TRUE;
+        }
+        if (samplingRatio == null || samplingRatio < 0
+        || samplingRatio > 1) {
+            samplingRatio = DEFAULT_SAMPLING_RATIO;
+        }
+        if (retainedSpans <= 0) {
+            retainedSpans = DEFAULT_RETAINED_SPANS;
+        }
+        if (lineSpans == null) {
+            lineSpans = Boolean.FALSE;
+        }
+    }
+
+    /**
+     * Gets the default settings.
+     *
+     * @return the default settings
+     */
+    public static TracingConfiguration defaults() {
+        return new TracingConfiguration(null, null, 0, null);
+    }
+}
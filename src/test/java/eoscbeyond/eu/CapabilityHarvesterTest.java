@@ -0,0 +1,269 @@
+/*
+ * Copyright © 2025 EOSC Beyond (${email})
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package eoscbeyond.eu;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+import eoscbeyond.eu.data.HarvesterConfiguration;
+
+/**
+ * Unit tests for the {@code CapabilityHarvester} class, against a local
+ * HTTP server.
+ */
+class CapabilityHarvesterTest {
+    /** Maximum requests in flight per host. */
+    private static final int MAX_PER_HOST = 2;
+    /** Maximum attempts per endpoint. */
+    private static final int MAX_ATTEMPTS = 3;
+    /** Failures that open a host's circuit breaker. */
+    private static final int FAILURE_THRESHOLD = 2;
+    /** Time the slow endpoint takes to answer, in milliseconds. */
+    private static final long SLOW_MILLIS = 50;
+
+    /** Local server standing in for the capability endpoints. */
+    private HttpServer server;
+    /** Executor of the local server. */
+    private ExecutorService serverExecutor;
+    /** Harvester under test. */
+    private CapabilityHarvester harvester;
+    /** Number of requests received by the server. */
+    private AtomicInteger received;
+
+    /**
+     * Starts the local server and creates the harvester.
+     *
+     * @throws IOException if the server cannot be started
+     */
+    @BeforeEach
+    void setUp() throws IOException {
+        received = new AtomicInteger();
+        serverExecutor = Executors.newCachedThreadPool();
+        server = HttpServer.create(new InetSocketAddress(
+            InetAddress.getLoopbackAddress(), 0), 0);
+        server.setExecutor(serverExecutor);
+        server.start();
+        harvester = new CapabilityHarvester(new HarvesterConfiguration(true,
+            null, MAX_PER_HOST, MAX_ATTEMPTS, Duration.ofMillis(1),
+            Duration.ofSeconds(5), FAILURE_THRESHOLD, Duration.ofMinutes(1)));
+    }
+
+    /**
+     * Stops the harvester and the local server.
+     */
+    @AfterEach
+    void tearDown() {
+        harvester.close();
+        server.stop(0);
+        serverExecutor.shutdownNow();
+    }
+
+    /**
+     * Tests that the description and version are read and other fields are
+     * skipped.
+     */
+    @Test
+    void testHarvest() {
+        URI endpoint = serve("/ok", exchange -> respond(exchange, 200,
+            "{\"name\":\"x\",\"extra\":{\"a\":[1,{\"b\":2}]},"
+            + "\"description\":\"Catalogue\",\"version\":\"3.0\"}"));
+        Map<URI, CapabilityMetadata> result = harvester.harvest(
+            List.of(endpoint, URI.create("mailto:nobody@example.com"))).join();
+        assertEquals(1, result.size());
+        CapabilityMetadata metadata = result.get(endpoint);
+        assertEquals("Catalogue", metadata.description());
+        assertEquals("3.0", metadata.version());
+        assertNotNull(metadata.harvestedAt());
+    }
+
+    /**
+     * Tests that a server error is retried, honouring Retry-After.
+     */
+    @Test
+    void testRetry() {
+        URI endpoint = serve("/flaky", exchange -> {
+            if (received.get() == 1) {
+                exchange.getResponseHeaders().add("Retry-After", "0");
+                respond(exchange, 503, "");
+            } else {
+                respond(exchange, 200, "{\"version\":\"1\"}");
+            }
+        });
+        Map<URI, CapabilityMetadata> result =
+        harvester.harvest(List.of(endpoint)).join();
+        assertEquals("1", result.get(endpoint).version());
+        assertEquals(2, received.get());
+        assertEquals(1L, harvester.getStatistics().get("retries"));
+    }
+
+    /**
+     * Tests that a client error is not retried and does not count against
+     * the host.
+     */
+    @Test
+    void testClientErrorNotRetried() {
+        URI endpoint = serve("/missing", exchange -> respond(exchange, 404,
+            ""));
+        assertTrue(harvester.harvest(List.of(endpoint)).join().isEmpty());
+        assertEquals(1, received.get());
+        assertEquals(CircuitBreaker.State.CLOSED,
+            harvester.getCircuitState(endpoint));
+        assertEquals(1L, harvester.getStatistics().get("failures"));
+    }
+
+    /**
+     * Tests that repeated failures open the host's circuit breaker, which
+     * then short-circuits further requests to the host.
+     */
+    @Test
+    void testCircuitBreaker() {
+        URI down = serve("/down", exchange -> respond(exchange, 500, ""));
+        URI other = down.resolve("/other");
+        Map<URI, CapabilityMetadata> result =
+        harvester.harvest(List.of(down)).join();
+        assertTrue(result.isEmpty());
+        assertEquals(FAILURE_THRESHOLD, received.get());
+        assertEquals(CircuitBreaker.State.OPEN,
+            harvester.getCircuitState(down));
+
+        assertTrue(harvester.harvest(List.of(other)).join().isEmpty());
+        assertEquals(FAILURE_THRESHOLD, received.get());
+        Map<String, Object> stats = harvester.getStatistics();
+        assertEquals(2L, stats.get("shortCircuited"));
+        assertEquals(1L, stats.get("openCircuits"));
+    }
+
+    /**
+     * Tests that an interrupted trial request does not leave the host's
+     * circuit breaker half open, which would block the host for good.
+     */
+    @Test
+    void testInterruptedTrial() throws Exception {
+        harvester.close();
+        harvester = new CapabilityHarvester(new HarvesterConfiguration(true,
+            null, MAX_PER_HOST, 1, Duration.ofMillis(1),
+            Duration.ofSeconds(5), 1, Duration.ofMillis(1)));
+        CountDownLatch hanging = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        URI down = serve("/down", exchange -> respond(exchange, 500, ""));
+        URI hang = serve("/hang", exchange -> {
+            hanging.countDown();
+            try {
+                release.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            respond(exchange, 200, "{}");
+        });
+        URI ok = serve("/ok", exchange -> respond(exchange, 200,
+            "{\"version\":\"1\"}"));
+        assertNull(harvester.fetch(down));
+        assertEquals(CircuitBreaker.State.OPEN,
+            harvester.getCircuitState(down));
+        Thread.sleep(2);
+
+        Thread trial = new Thread(() -> harvester.fetch(hang));
+        trial.start();
+        assertTrue(hanging.await(5, TimeUnit.SECONDS));
+        trial.interrupt();
+        trial.join(5000);
+        release.countDown();
+        assertNotEquals(CircuitBreaker.State.HALF_OPEN,
+            harvester.getCircuitState(hang));
+        Thread.sleep(2);
+        assertEquals("1", harvester.fetch(ok).version());
+        assertEquals(CircuitBreaker.State.CLOSED,
+            harvester.getCircuitState(ok));
+    }
+
+    /**
+     * Tests that no more than the configured number of requests are in
+     * flight to one host.
+     */
+    @Test
+    void testConcurrencyPerHost() {
+        AtomicInteger inFlight = new AtomicInteger();
+        AtomicInteger maxInFlight = new AtomicInteger();
+        URI base = serve("/slow", exchange -> {
+            maxInFlight.accumulateAndGet(inFlight.incrementAndGet(),
+                Math::max);
+            try {
+                Thread.sleep(SLOW_MILLIS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            inFlight.decrementAndGet();
+            respond(exchange, 200, "{}");
+        });
+        List<URI> endpoints = new ArrayList<>();
+        for (int i = 0; i < 10; i++) {
+            endpoints.add(URI.create(base + "/" + i));
+        }
+        assertEquals(endpoints.size(),
+            harvester.harvest(endpoints).join().size());
+        assertEquals(MAX_PER_HOST, maxInFlight.get());
+    }
+
+    /** Handler of a request to the local server. */
+    private interface Handler {
+        void handle(HttpExchange exchange) throws IOException;
+    }
+
+    private URI serve(final String path, final Handler handler) {
+        server.createContext(path, exchange -> {
+            received.incrementAndGet();
+            handler.handle(exchange);
+        });
+        return URI.create("http://" + server.getAddress().getHostString()
+            + ":" + server.getAddress().getPort() + path);
+    }
+
+    private static void respond(final HttpExchange exchange,
+            final int status, final String body) throws IOException {
+        byte[] bytes = body.getBytes(StandardCharsets.UTF_8);
+        exchange.sendResponseHeaders(status, bytes.length == 0 ? -1
+            : bytes.length);
+        try (OutputStream out = exchange.getResponseBody()) {
+            out.write(bytes);
+        }
+    }
+}
@@ -0,0 +1,241 @@
+/*
+ * Copyright © 2025 EOSC Beyond (${email})
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package eoscbeyond.eu;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.net.URI;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Unit tests for the {@code CapabilityRouter} class.
+ */
+class CapabilityRouterTest {
+    /** Capability offered by every node. */
+    private static final String CATALOGUE = "Resource Catalogue";
+    /** */
+    private NodeRegistry nodeRegistry;
+    /** */
+    private CapabilityRouter router;
+
+    /**
+     * Registers three nodes offering the same capability.
+     */
+    @BeforeEach
+    void setUp() {
+        List<EoscNode> nodes = new ArrayList<>();
+        for (int i = 1; i <= 3; i++) {
+            nodes.add(node(String.valueOf(i)));
+        }
+        nodeRegistry = new NodeRegistry(nodes);
+        router = new CapabilityRouter(nodeRegistry);
+    }
+
+    /** */
+    @Test
+    void testUnknownCapability() {
+        assertNull(router.route("Unknown",
+            CapabilityRouter.Strategy.ROUND_ROBIN, null));
+    }
+
+    /** */
+    @Test
+    void testRoundRobinVisitsEveryEndpoint() {
+        Map<String, Integer> counts = routeMany(
+            CapabilityRouter.Strategy.ROUND_ROBIN, 3 * 16);
+        assertEquals(3, counts.size());
+        counts.values().forEach(count -> assertEquals(16, count));
+    }
+
+    /** */
+    @Test
+    void testRoundRobinTakesTurns() {
+        for (int i = 0; i < 6; i++) {
+            assertEquals(String.valueOf(i % 3 + 1), router.route(CATALOGUE,
+                CapabilityRouter.Strategy.ROUND_ROBIN, null).nodeId());
+        }
+    }
+
+    /** */
+    @Test
+    void testRoundRobinFavoursFastEndpoints() {
+        router.recordLatency(endpoint("1"), 1_000_000);
+        router.recordLatency(endpoint("2"), 4_000_000);
+        router.recordFailure(endpoint("3"));
+        Map<String, Integer> counts = routeMany(
+            CapabilityRouter.Strategy.ROUND_ROBIN, 21 * 10);
+        assertEquals(160, counts.get("1"));
+        assertEquals(40, counts.get("2"));
+        assertEquals(10, counts.get("3"));
+    }
+
+    /** */
+    @Test
+    void testLeastLatency() {
+        router.recordLatency(endpoint("1"), 3_000_000);
+        router.recordLatency(endpoint("2"), 1_000_000);
+        // an endpoint without a latency is tried first
+        assertEquals("3", router.route(CATALOGUE,
+            CapabilityRouter.Strategy.LEAST_LATENCY, null).nodeId());
+        router.recordLatency(endpoint("3"), 2_000_000);
+        assertEquals("2", router.route(CATALOGUE,
+            CapabilityRouter.Strategy.LEAST_LATENCY, null).nodeId());
+    }
+
+    /** */
+    @Test
+    void testLatencyAverage() {
+        router.recordLatency(endpoint("1"), 800);
+        assertEquals(800, router.getLatency(endpoint("1")));
+        router.recordLatency(endpoint("1"), 1600);
+        assertEquals(900, router.getLatency(endpoint("1")));
+        assertEquals(-1, router.getLatency(endpoint("2")));
+    }
+
+    /** */
+    @Test
+    void testLatencyCappedAtFailurePenalty() {
+        router.recordLatency(endpoint("1"), Long.MAX_VALUE);
+        assertEquals(CapabilityRouter.FAILURE_PENALTY_NANOS,
+            router.getLatency(endpoint("1")));
+    }
+
+    /** */
+    @Test
+    void testLatenciesOfRemovedEndpointsDropped() {
+        for (int i = 1; i <= 3; i++) {
+            router.recordLatency(endpoint(String.valueOf(i)), 1000);
+        }
+        nodeRegistry.removeNode("1");
+        assertEquals(-1, router.getLatency(endpoint("1")));
+        assertEquals(1000, router.getLatency(endpoint("2")));
+
+        nodeRegistry.putNode(new EoscNode("2", "Node 2", null, "PID2", null,
+            null, List.of()));
+        assertEquals(-1, router.getLatency(endpoint("2")));
+        assertEquals(1000, router.getLatency(endpoint("3")));
+
+        nodeRegistry.setNodes(List.of(node("1")));
+        assertEquals(-1, router.getLatency(endpoint("3")));
+        assertEquals(0, router.getStatistics().get("endpoints"));
+    }
+
+    /** */
+    @Test
+    void testHashIsSticky() {
+        Map<String, Integer> counts = new HashMap<>();
+        for (int i = 0; i < 300; i++) {
+            String key = "client-" + i;
+            CapabilityRoute first = router.route(CATALOGUE,
+                CapabilityRouter.Strategy.HASH, key);
+            assertEquals(first, router.route(CATALOGUE,
+                CapabilityRouter.Strategy.HASH, key));
+            counts.merge(first.nodeId(), 1, Integer::sum);
+        }
+        // keys spread over all endpoints
+        assertEquals(3, counts.size());
+        counts.values().forEach(count -> assertTrue(count > 50));
+    }
+
+    /** */
+    @Test
+    void testHashAvoidsFailingEndpoint() {
+        String key = "client-1";
+        CapabilityRoute before = router.route(CATALOGUE,
+            CapabilityRouter.Strategy.HASH, key);
+        router.recordFailure(before.capability().getEndpoint());
+        CapabilityRoute after = router.route(CATALOGUE,
+            CapabilityRouter.Strategy.HASH, key);
+        assertNotEquals(before.nodeId(), after.nodeId());
+    }
+
+    /** */
+    @Test
+    void testHashMovesOnlyClientsOfRemovedEndpoint() {
+        Map<String, String> before = new HashMap<>();
+        for (int i = 0; i < 300; i++) {
+            before.put("client-" + i, router.route(CATALOGUE,
+                CapabilityRouter.Strategy.HASH, "client-" + i).nodeId());
+        }
+        nodeRegistry.setNodes(List.of(node("1"), node("2")));
+        before.forEach((key, nodeId) -> {
+            String after = router.route(CATALOGUE,
+                CapabilityRouter.Strategy.HASH, key).nodeId();
+            if (!nodeId.equals("3")) {
+                assertEquals(nodeId, after);
+            }
+        });
+    }
+
+    /** */
+    @Test
+    void testFromParameter() {
+        assertEquals(CapabilityRouter.Strategy.ROUND_ROBIN,
+            CapabilityRouter.Strategy.fromParameter("round-robin"));
+        assertEquals(CapabilityRouter.Strategy.LEAST_LATENCY,
+            CapabilityRouter.Strategy.fromParameter("Least-Latency"));
+        assertEquals(CapabilityRouter.Strategy.HASH,
+            CapabilityRouter.Strategy.fromParameter("hash"));
+        assertThrows(IllegalArgumentException.class,
+            () -> CapabilityRouter.Strategy.fromParameter("random"));
+    }
+
+    /** */
+    @Test
+    void testStatistics() {
+        router.route(CATALOGUE, CapabilityRouter.Strategy.ROUND_ROBIN, null);
+        router.route(CATALOGUE, CapabilityRouter.Strategy.HASH, "k");
+        router.recordLatency(endpoint("1"), 1000);
+        Map<String, Object> stats = router.getStatistics();
+        assertEquals(1L, stats.get("round-robin"));
+        assertEquals(0L, stats.get("least-latency"));
+        assertEquals(1L, stats.get("hash"));
+        assertEquals(1L, stats.get("samples"));
+        assertEquals(3, stats.get("endpoints"));
+    }
+
+    private Map<String, Integer> routeMany(
+            final CapabilityRouter.Strategy xStrategy, final int xCount) {
+        Map<String, Integer> counts = new HashMap<>();
+        for (int i = 0; i < xCount; i++) {
+            counts.merge(router.route(CATALOGUE, xStrategy, null).nodeId(), 1,
+                Integer::sum);
+        }
+        return counts;
+    }
+
+    private static URI endpoint(final String xId) {
+        return URI.create("http://node" + xId + ".example.com/catalogue");
+    }
+
+    private static EoscNode node(final String xId) {
+        return new EoscNode(xId, "Node " + xId,
+            URI.create("http://example.com/logo" + xId), "PID" + xId,
+            null, URI.create("http://example.com/node" + xId),
+            List.of(new EoscCapability(CATALOGUE, endpoint(xId), "v1")));
+    }
+}
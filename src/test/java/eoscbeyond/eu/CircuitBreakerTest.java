@@ -0,0 +1,105 @@
+/*
+ * Copyright © 2025 EOSC Beyond (${email})
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package eoscbeyond.eu;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Unit tests for the {@code CircuitBreaker} class.
+ */
+class CircuitBreakerTest {
+    /** Time the breaker stays open. */
+    private static final Duration OPEN = Duration.ofSeconds(10);
+
+    /** Current time, in nanoseconds. */
+    private AtomicLong now;
+    /** Breaker under test. */
+    private CircuitBreaker breaker;
+
+    /**
+     * Sets up the test environment before each test.
+     */
+    @BeforeEach
+    void setUp() {
+        now = new AtomicLong();
+        breaker = new CircuitBreaker(2, OPEN, now::get);
+    }
+
+    /**
+     * Tests that the breaker opens after consecutive failures only.
+     */
+    @Test
+    void testOpensAfterThreshold() {
+        breaker.recordFailure();
+        breaker.recordSuccess();
+        breaker.recordFailure();
+        assertTrue(breaker.allowRequest());
+        breaker.recordFailure();
+        assertEquals(CircuitBreaker.State.OPEN, breaker.getState());
+        assertFalse(breaker.allowRequest());
+    }
+
+    /**
+     * Tests that a single trial request is let through once the open
+     * duration has passed, and that its outcome decides the next state.
+     */
+    @Test
+    void testHalfOpen() {
+        breaker.recordFailure();
+        breaker.recordFailure();
+        now.addAndGet(OPEN.toNanos());
+        assertTrue(breaker.allowRequest());
+        assertEquals(CircuitBreaker.State.HALF_OPEN, breaker.getState());
+        assertFalse(breaker.allowRequest());
+
+        breaker.recordFailure();
+        assertEquals(CircuitBreaker.State.OPEN, breaker.getState());
+        assertFalse(breaker.allowRequest());
+
+        now.addAndGet(OPEN.toNanos());
+        assertTrue(breaker.allowRequest());
+        breaker.recordSuccess();
+        assertEquals(CircuitBreaker.State.CLOSED, breaker.getState());
+        assertTrue(breaker.allowRequest());
+    }
+
+    /**
+     * Tests that a released trial lets the next caller make a new trial,
+     * and that releasing outside a trial does nothing.
+     */
+    @Test
+    void testReleaseTrial() {
+        breaker.releaseTrial();
+        assertEquals(CircuitBreaker.State.CLOSED, breaker.getState());
+        breaker.recordFailure();
+        breaker.recordFailure();
+        now.addAndGet(OPEN.toNanos());
+        assertTrue(breaker.allowRequest());
+        breaker.releaseTrial();
+        assertEquals(CircuitBreaker.State.OPEN, breaker.getState());
+        assertTrue(breaker.allowRequest());
+        breaker.recordSuccess();
+        assertEquals(CircuitBreaker.State.CLOSED, breaker.getState());
+    }
+}
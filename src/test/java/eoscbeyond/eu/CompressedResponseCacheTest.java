@@ -0,0 +1,152 @@
+/*
+ * Copyright © 2025 EOSC Beyond (${email})
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package eoscbeyond.eu;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.InflaterInputStream;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import eoscbeyond.eu.CompressedResponseCache.CompressedBody;
+import eoscbeyond.eu.CompressedResponseCache.Encoding;
+
+/**
+ * Unit tests for the {@code CompressedResponseCache} class.
+ */
+class CompressedResponseCacheTest {
+    /** Repetitive body, similar to the node JSON. */
+    private static final byte[] BODY = ("[" + "{\"capabilityType\":"
+    + "\"Resource Catalogue\",\"endpoint\":"
+    + "\"https://example.com/api/resource-catalogue\"},".repeat(50)
+    + "{}]").getBytes(StandardCharsets.UTF_8);
+
+    /** Cache under test. */
+    private CompressedResponseCache cache;
+    /** Number of times the body supplier has been called. */
+    private AtomicInteger builds;
+
+    @BeforeEach
+    void setUp() {
+        cache = new CompressedResponseCache();
+        builds = new AtomicInteger();
+    }
+
+    /**
+     * Tests that a body is built once per version and then served from the
+     * cache.
+     */
+    @Test
+    void testBodyBuiltOncePerVersion() {
+        CompressedBody first = cache.get("nodes", 1, this::build);
+        CompressedBody second = cache.get("nodes", 1, this::build);
+        assertSame(first, second);
+        assertEquals(1, builds.get());
+
+        CompressedBody third = cache.get("nodes", 2, this::build);
+        assertEquals(2, builds.get());
+        assertEquals(2, third.version());
+    }
+
+    /**
+     * Tests that the compressed variants decompress to the identity body.
+     */
+    @Test
+    void testCompressedVariantsRoundTrip() throws IOException {
+        CompressedBody body = cache.get("nodes", 1, this::build);
+        assertArrayEquals(BODY, body.bytes(Encoding.IDENTITY));
+        assertArrayEquals(BODY, new GZIPInputStream(new ByteArrayInputStream(
+            body.bytes(Encoding.GZIP))).readAllBytes());
+        assertArrayEquals(BODY, new InflaterInputStream(
+            new ByteArrayInputStream(body.bytes(Encoding.DEFLATE)))
+            .readAllBytes());
+        assertTrue(body.gzip().length < BODY.length / 4);
+    }
+
+    /**
+     * Tests that nothing is cached when the supplier has nothing to serve.
+     */
+    @Test
+    void testMissingBodyNotCached() {
+        assertNull(cache.get("node:99", 1, () -> null));
+        assertEquals(0, cache.getStatistics().get("entries"));
+    }
+
+    /**
+     * Tests Accept-Encoding negotiation.
+     */
+    @Test
+    void testNegotiate() {
+        assertEquals(Encoding.IDENTITY, CompressedResponseCache.negotiate(
+            null));
+        assertEquals(Encoding.IDENTITY, CompressedResponseCache.negotiate(
+            "br"));
+        assertEquals(Encoding.GZIP, CompressedResponseCache.negotiate(
+            "gzip, deflate, br"));
+        assertEquals(Encoding.DEFLATE, CompressedResponseCache.negotiate(
+            "gzip;q=0.5, deflate"));
+        assertEquals(Encoding.IDENTITY, CompressedResponseCache.negotiate(
+            "gzip;q=0"));
+        assertEquals(Encoding.GZIP, CompressedResponseCache.negotiate("*"));
+        assertEquals(Encoding.IDENTITY, CompressedResponseCache.negotiate(
+            "gzip;q=0.5, identity"));
+        assertEquals(Encoding.GZIP, CompressedResponseCache.negotiate(
+            "gzip, identity;q=0"));
+        assertEquals(Encoding.IDENTITY, CompressedResponseCache.negotiate(
+            "*;q=0, identity;q=0.1"));
+        assertNull(CompressedResponseCache.negotiate("br, identity;q=0"));
+        assertNull(CompressedResponseCache.negotiate("*;q=0"));
+        assertNull(CompressedResponseCache.negotiate(
+            "gzip;q=0, deflate;q=0, identity;q=0"));
+        assertTrue(CompressedResponseCache.acceptsIdentity(null));
+        assertTrue(CompressedResponseCache.acceptsIdentity("gzip;q=0"));
+        assertFalse(CompressedResponseCache.acceptsIdentity(
+            "gzip, identity;q=0"));
+        assertFalse(CompressedResponseCache.acceptsIdentity("*;q=0"));
+    }
+
+    /**
+     * Tests the hit rate and compression ratio statistics.
+     */
+    @Test
+    void testStatistics() {
+        cache.get("nodes", 1, this::build);
+        cache.get("nodes", 1, this::build);
+        cache.get("nodes", 1, this::build);
+        Map<String, Object> stats = cache.getStatistics();
+        assertEquals(2L, stats.get("hits"));
+        assertEquals(1L, stats.get("misses"));
+        assertTrue((double) stats.get("gzipRatio") < 1.0);
+    }
+
+    private byte[] build() {
+        builds.incrementAndGet();
+        return BODY;
+    }
+}
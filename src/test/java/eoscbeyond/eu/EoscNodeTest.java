@@ -162,7 +162,12 @@ class EoscNodeTest {
         assertEquals("Resource Catalogue", capNames.get(1));
     }
 
+    /**
+     * Tests the deprecated getBasicNodeInfo() method, kept until it is
+     * removed.
+     */
     @Test
+    @SuppressWarnings("deprecation")
     void testGetBasicNodeInfo() {
         Gson gson = new Gson();
 
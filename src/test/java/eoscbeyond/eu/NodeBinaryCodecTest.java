@@ -0,0 +1,160 @@
+/*
+ * Copyright © 2025 EOSC Beyond (${email})
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package eoscbeyond.eu;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.URISyntaxException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Unit tests for the {@code NodeBinaryCodec} class.
+ */
+class NodeBinaryCodecTest {
+    /** Nodes to encode. */
+    private List<EoscNode> nodes;
+
+    /**
+     * Sets up the test environment before each test.
+     */
+    @BeforeEach
+    void setUp() throws URISyntaxException {
+        nodes = new ArrayList<>();
+        for (int i = 1; i <= 20; i++) {
+            List<EoscCapability> capabilities = new ArrayList<>();
+            capabilities.add(new EoscCapability("Resource Catalogue",
+            new URI("https://example.com/api/resource-catalogue"), "3.0"));
+            capabilities.add(new EoscCapability("Service Monitoring",
+            new URI("https://example.com/api/service-monitoring"), "1.2"));
+            nodes.add(new EoscNode(Integer.toString(i), "Node " + i,
+            new URI("https://example.com/logo" + i), "PID" + i,
+            new LegalEntity("Entity " + i, new URI("https://ror.org/" + i)),
+            new URI("https://node" + i + ".example.com/api"),
+            capabilities));
+        }
+    }
+
+    /**
+     * Tests that encoding then decoding gives back the same nodes.
+     */
+    @Test
+    void testRoundTrip() throws IOException {
+        List<EoscNode> decoded = NodeBinaryCodec.decode(
+            NodeBinaryCodec.encode(nodes));
+        assertEquals(nodes.size(), decoded.size());
+        for (int i = 0; i < nodes.size(); i++) {
+            assertEquals(nodes.get(i).toJson(), decoded.get(i).toJson());
+        }
+    }
+
+    /**
+     * Tests that the shared string dictionary makes the binary form much
+     * smaller than the equivalent JSON.
+     */
+    @Test
+    void testSmallerThanJson() throws IOException {
+        StringBuilder json = new StringBuilder("[");
+        for (EoscNode node : nodes) {
+            json.append(node.toJson()).append(',');
+        }
+        int jsonLength = json.toString().getBytes(
+            StandardCharsets.UTF_8).length;
+        assertTrue(NodeBinaryCodec.encode(nodes).length < jsonLength / 2);
+    }
+
+    /**
+     * Tests that null fields are omitted and read back as null.
+     */
+    @Test
+    void testNullFields() throws IOException {
+        List<EoscNode> sparse = List.of(new EoscNode("1", "Node1", null,
+            "PID1", null, null, null));
+        EoscNode decoded = NodeBinaryCodec.decode(
+            NodeBinaryCodec.encode(sparse)).get(0);
+        assertEquals("Node1", decoded.getName());
+        assertNull(decoded.getLogo());
+        assertNull(decoded.getLegalEntity());
+        assertNull(decoded.getCapabilityList());
+    }
+
+    /**
+     * Tests that data which is not a node list is rejected.
+     */
+    @Test
+    void testInvalidData() {
+        assertThrows(IOException.class, () -> NodeBinaryCodec.decode(
+            "not smile".getBytes(StandardCharsets.UTF_8)));
+    }
+
+    /**
+     * Tests that JSON nulls are read as null, and that numbers, objects and
+     * arrays where a string belongs are rejected rather than stored as text.
+     */
+    @Test
+    void testJsonFieldTypes() throws IOException {
+        EoscNode decoded = NodeBinaryCodec.decodeJson(json("{\"id\":\"x\","
+            + "\"logo\":null,\"name\":null,\"legalEntity\":null,"
+            + "\"capabilityList\":null}"));
+        assertEquals("x", decoded.getId());
+        assertNull(decoded.getName());
+        assertNull(decoded.getLogo());
+        assertNull(decoded.getLegalEntity());
+        assertNull(decoded.getCapabilityList());
+        for (String invalid : List.of("{\"id\":\"x\",\"pid\":7}",
+            "{\"id\":\"x\",\"name\":true}",
+            "{\"id\":\"x\",\"name\":{\"en\":\"Node\"}}",
+            "{\"id\":\"x\",\"logo\":[\"https://example.com\"]}",
+            "{\"id\":\"x\",\"legalEntity\":{\"rorId\":1}}",
+            "{\"id\":\"x\",\"capabilityList\":[1]}",
+            "{\"id\":\"x\",\"capabilityList\":[{\"endpoint\":{}}]}",
+            "{\"id\":\"x\",\"nodeEndpoint\":\"not a uri\"}")) {
+            assertThrows(IOException.class,
+                () -> NodeBinaryCodec.decodeJson(json(invalid)), invalid);
+        }
+    }
+
+    /**
+     * Tests negotiation of the binary representation from the Accept header.
+     */
+    @Test
+    void testPrefersBinary() {
+        assertFalse(NodeRegistryController.prefersBinary(null));
+        assertFalse(NodeRegistryController.prefersBinary("*/*"));
+        assertFalse(NodeRegistryController.prefersBinary("application/json"));
+        assertTrue(NodeRegistryController.prefersBinary(
+            NodeBinaryCodec.MEDIA_TYPE));
+        assertTrue(NodeRegistryController.prefersBinary(
+            NodeBinaryCodec.MEDIA_TYPE + ", application/json;q=0.5"));
+        assertFalse(NodeRegistryController.prefersBinary(
+            NodeBinaryCodec.MEDIA_TYPE + ";q=0.5, application/json"));
+    }
+
+    private static byte[] json(final String xJson) {
+        return xJson.getBytes(StandardCharsets.UTF_8);
+    }
+}
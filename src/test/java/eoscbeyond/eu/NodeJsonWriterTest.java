@@ -0,0 +1,226 @@
+/*
+ * Copyright © 2025 EOSC Beyond (${email})
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package eoscbeyond.eu;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.net.URI;
+import java.net.URISyntaxException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import com.google.gson.Gson;
+
+/**
+ * Unit tests for the {@code NodeJsonWriter} class. Gson is used as the
+ * reference for the expected output.
+ */
+class NodeJsonWriterTest {
+    /** Reference serialiser. */
+    private final Gson gson = new Gson();
+    /** Nodes to serialise. */
+    private List<EoscNode> nodes;
+
+    /**
+     * Sets up the test environment before each test.
+     */
+    @BeforeEach
+    void setUp() throws URISyntaxException {
+        List<EoscCapability> capabilities = new ArrayList<>();
+        capabilities.add(new EoscCapability(
+            "Management System (including Helpdesk)",
+            new URI("https://example.com/api/management-system?a=1&b=2"),
+            "1.3"));
+        capabilities.add(new EoscCapability("Order <Management>",
+            new URI("https://example.com/api/order-management"), null));
+        nodes = new ArrayList<>();
+        nodes.add(new EoscNode("1", "Node \"One\"\t\\ O'Neill\u0001",
+            new URI("https://example.com/logo%20one.png"), "PID1",
+            new LegalEntity("Entité Légale   😀",
+            new URI("https://ror.org/1")),
+            new URI("https://example.com/nöde"), capabilities));
+        nodes.add(new EoscNode("2", "Node Two", null, null, null, null,
+            null));
+    }
+
+    /**
+     * Tests that nodes are written exactly as Gson writes them.
+     */
+    @Test
+    void testWriteNodeMatchesGson() {
+        for (EoscNode node : nodes) {
+            assertEquals(gson.toJson(node), NodeJsonWriter.local()
+                .writeNode(node).toString());
+        }
+        assertEquals(gson.toJson(nodes), NodeJsonWriter.local()
+            .writeNodes(nodes).toString());
+    }
+
+    /**
+     * Tests that an array written in chunks of elements is the array
+     * written whole.
+     */
+    @Test
+    void testWriteNodeElements() {
+        StringBuilder chunked = new StringBuilder("[");
+        for (int from = 0; from < nodes.size(); from++) {
+            chunked.append(NodeJsonWriter.local().writeNodeElements(
+                nodes.subList(from, from + 1), from == 0));
+        }
+        chunked.append(']');
+        assertEquals(gson.toJson(nodes), chunked.toString());
+    }
+
+    /**
+     * Tests that legal entities, capabilities and string lists are written
+     * exactly as Gson writes them.
+     */
+    @Test
+    void testWriteComponentsMatchGson() {
+        EoscNode node = nodes.get(0);
+        assertEquals(gson.toJson(node.getLegalEntity()), NodeJsonWriter.local()
+            .writeLegalEntity(node.getLegalEntity()).toString());
+        assertEquals(gson.toJson(node.getCapabilityList()),
+            NodeJsonWriter.local().writeCapabilities(
+                node.getCapabilityList()).toString());
+        List<String> strings = Arrays.asList("a=b", null, "\r\n\f\b");
+        assertEquals(gson.toJson(strings), NodeJsonWriter.local()
+            .writeStrings(strings).toString());
+        assertEquals(gson.toJson(null), NodeJsonWriter.local()
+            .writeNodes(null).toString());
+    }
+
+    /**
+     * Tests that byte and string output agree, and that the buffer is reused
+     * without leaking earlier output.
+     */
+    @Test
+    void testBufferReuse() throws IOException {
+        NodeJsonWriter writer = NodeJsonWriter.local().writeNodes(nodes);
+        byte[] bytes = writer.toByteArray();
+        assertArrayEquals(writer.toString().getBytes(StandardCharsets.UTF_8),
+            bytes);
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        writer.writeTo(out);
+        assertArrayEquals(bytes, out.toByteArray());
+
+        assertEquals(gson.toJson(nodes.get(1)), NodeJsonWriter.local()
+            .writeNode(nodes.get(1)).toString());
+    }
+
+    /**
+     * Tests that every serialisation path gives the same output.
+     */
+    @Test
+    void testPathsAgree() {
+        EoscNode node = nodes.get(0);
+        assertEquals(node.toJson(), NodeJsonWriter.local().writeNode(node)
+            .toString());
+        assertEquals(node.getLegalEntity().toJson(), NodeJsonWriter.local()
+            .writeLegalEntity(node.getLegalEntity()).toString());
+        assertEquals(node.getCapabilityList().get(0).toJson(),
+            NodeJsonWriter.local().writeCapability(
+                node.getCapabilityList().get(0)).toString());
+    }
+
+    /**
+     * Tests that a streamed batch lists the nodes found in request order and
+     * the IDs that were not found.
+     */
+    @Test
+    void testWriteNodeBatch() throws IOException {
+        Map<String, EoscNode> byId = new LinkedHashMap<>();
+        for (EoscNode node : nodes) {
+            byId.put(node.getId(), node);
+        }
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        NodeJsonWriter.local().writeNodeBatch(List.of("2", "x", "1", "y"),
+            byId::get, out);
+        Map<String, Object> expected = new LinkedHashMap<>();
+        expected.put("nodes", List.of(nodes.get(1), nodes.get(0)));
+        expected.put("missing", List.of("x", "y"));
+        assertEquals(gson.toJson(expected),
+            out.toString(StandardCharsets.UTF_8));
+
+        List<String> ids = new ArrayList<>();
+        for (int i = 0; i < 2000; i++) {
+            ids.add(i % 2 == 0 ? "1" : "missing" + i);
+        }
+        out.reset();
+        NodeJsonWriter writer = NodeJsonWriter.local();
+        writer.writeNodeBatch(ids, byId::get, out);
+        assertEquals(0, writer.size());
+        String json = out.toString(StandardCharsets.UTF_8);
+        assertEquals(1000, json.split("\"nodeEndpoint\"", -1).length - 1);
+        assertEquals(true, json.endsWith("\"missing1999\"]}"));
+    }
+
+    /**
+     * Tests that the results of several shards are merged into one array,
+     * with the shards that did not answer.
+     */
+    @Test
+    void testWriteGathered() {
+        List<byte[]> arrays = List.of(
+            NodeJsonWriter.local().writeNodes(nodes.subList(0, 1))
+            .toByteArray(),
+            NodeJsonWriter.local().writeNodes(List.of()).toByteArray(),
+            NodeJsonWriter.local().writeNodes(nodes.subList(1, 2))
+            .toByteArray());
+        Map<String, Object> expected = new LinkedHashMap<>();
+        expected.put("nodes", nodes);
+        expected.put("shards", 4);
+        expected.put("partial", true);
+        expected.put("failed", List.of("http://shard-4/"));
+        assertEquals(gson.toJson(expected), NodeJsonWriter.local()
+            .writeGathered(arrays, 4, List.of("http://shard-4/"))
+            .toString());
+        assertEquals("{\"nodes\":[],\"shards\":1,\"partial\":false,"
+            + "\"failed\":[]}", NodeJsonWriter.local()
+            .writeGathered(List.of("[]".getBytes(StandardCharsets.UTF_8)), 1,
+            List.of()).toString());
+    }
+
+    /**
+     * Tests that a per-thread writer does not keep a buffer grown for a
+     * large response.
+     */
+    @Test
+    void testOversizedBufferReleased() {
+        List<EoscNode> many = new ArrayList<>();
+        for (int i = 0; i < 4000; i++) {
+            many.add(nodes.get(i % nodes.size()));
+        }
+        NodeJsonWriter writer = NodeJsonWriter.local().writeNodes(many);
+        assertTrue(writer.capacity() > 1 << 17);
+        assertSame(writer, NodeJsonWriter.local());
+        assertTrue(writer.capacity() <= 1 << 17);
+        assertEquals("[]", writer.writeNodes(List.of()).toString());
+    }
+}
@@ -0,0 +1,82 @@
+/*
+ * Copyright © 2025 EOSC Beyond (${email})
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package eoscbeyond.eu;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.net.URI;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+
+import com.google.protobuf.InvalidProtocolBufferException;
+
+import eoscbeyond.eu.grpc.NodeRegistryProtos;
+
+/**
+ * Unit tests for the {@code NodeMessages} class.
+ */
+class NodeMessagesTest {
+
+    /**
+     * Tests that a node converted to a message and back is unchanged.
+     */
+    @Test
+    void testRoundTrip() throws InvalidProtocolBufferException {
+        List<EoscCapability> capabilities = new ArrayList<>();
+        capabilities.add(new EoscCapability("Resource Catalogue",
+            URI.create("https://example.com/api/resource-catalogue"), "3.0"));
+        capabilities.add(new EoscCapability("Service Monitoring", null,
+            null));
+        EoscNode node = new EoscNode("1", "Node 1",
+            URI.create("https://example.com/logo1"), "PID1",
+            new LegalEntity("Entity 1", URI.create("https://ror.org/1")),
+            URI.create("https://node1.example.com/api"), capabilities);
+
+        NodeRegistryProtos.EoscNode message = NodeMessages.toMessage(node);
+        assertEquals("https://ror.org/1", message.getLegalEntity().getRorId());
+        assertEquals(2, message.getCapabilitiesCount());
+        assertFalse(message.getCapabilities(1).hasEndpoint());
+        assertEquals(node.toJson(), NodeMessages.fromMessage(
+            NodeRegistryProtos.EoscNode.parseFrom(message.toByteArray()))
+            .toJson());
+    }
+
+    /**
+     * Tests that null fields are left unset and come back as null.
+     */
+    @Test
+    void testNullFields() {
+        EoscNode node = new EoscNode("1", null, null, null, null, null, null);
+        NodeRegistryProtos.EoscNode message = NodeMessages.toMessage(node);
+        assertTrue(message.hasId());
+        assertFalse(message.hasName());
+        assertFalse(message.hasLegalEntity());
+
+        EoscNode decoded = NodeMessages.fromMessage(message);
+        assertEquals("1", decoded.getId());
+        assertNull(decoded.getName());
+        assertNull(decoded.getLogo());
+        assertNull(decoded.getLegalEntity());
+        assertEquals(List.of(), decoded.getCapabilityList());
+    }
+}
@@ -0,0 +1,90 @@
+/*
+ * Copyright © 2025 EOSC Beyond (${email})
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package eoscbeyond.eu;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * Unit tests for the {@code NodeOrdinals} class.
+ */
+class NodeOrdinalsTest {
+
+    /**
+     * Tests that IDs get dense ordinals in order of first appearance, and
+     * map back to their IDs.
+     */
+    @Test
+    void testAssign() {
+        NodeOrdinals ordinals = NodeOrdinals.EMPTY.withIds(List.of(
+            node("b"), node("a"), node("b"), node(null)));
+        assertEquals(2, ordinals.size());
+        assertEquals(0, ordinals.ordinalOf("b"));
+        assertEquals(1, ordinals.ordinalOf("a"));
+        assertEquals("b", ordinals.idOf(0));
+        assertEquals("a", ordinals.idOf(1));
+        assertEquals(NodeOrdinals.NOT_FOUND, ordinals.ordinalOf("c"));
+        assertEquals(NodeOrdinals.NOT_FOUND, ordinals.ordinalOf(null));
+        assertThrows(IndexOutOfBoundsException.class,
+            () -> ordinals.idOf(2));
+    }
+
+    /**
+     * Tests that ordinals are kept when IDs are added or removed, and that
+     * the same instance is returned when there is nothing new.
+     */
+    @Test
+    void testStable() {
+        NodeOrdinals first = NodeOrdinals.EMPTY.withIds(List.of(node("a"),
+            node("b")));
+        assertSame(first, first.withIds(List.of(node("b"))));
+        NodeOrdinals second = first.withIds(List.of(node("c"), node("a")));
+        assertEquals(0, second.ordinalOf("a"));
+        assertEquals(1, second.ordinalOf("b"));
+        assertEquals(2, second.ordinalOf("c"));
+        assertEquals(NodeOrdinals.NOT_FOUND, first.ordinalOf("c"));
+    }
+
+    /**
+     * Tests lookups in a table that has been grown several times.
+     */
+    @Test
+    void testMany() {
+        NodeOrdinals ordinals = NodeOrdinals.EMPTY;
+        for (int batch = 0; batch < 10; batch++) {
+            List<EoscNode> nodes = new ArrayList<>();
+            for (int i = 0; i < 1000; i++) {
+                nodes.add(node("node-" + (batch * 1000 + i)));
+            }
+            ordinals = ordinals.withIds(nodes);
+        }
+        assertEquals(10_000, ordinals.size());
+        for (int i = 0; i < 10_000; i++) {
+            assertEquals(i, ordinals.ordinalOf("node-" + i));
+        }
+    }
+
+    private static EoscNode node(final String xId) {
+        return new EoscNode(xId, null, null, null, null, null, null);
+    }
+}
@@ -18,9 +18,17 @@ package eoscbeyond.eu;
 
 import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
+import java.net.URI;
+import java.time.Instant;
 import java.util.Arrays;
 import java.util.List;
 
@@ -32,8 +40,10 @@ import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.MediaType;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
 import org.springframework.test.web.servlet.setup.MockMvcBuilders;
 
 
@@ -108,4 +118,162 @@ class NodeRegistryControllerTest {
 
         verify(nodeRegistryMock, times(0)).searchNodesByCapability("AI");
     }
+
+    /**
+     * Test GET /nodes - A client that rules out identity gets a compressed
+     * body, or 406 if it accepts no supported encoding.
+     */
+    @Test
+    void testGetAllNodesEncoding() throws Exception {
+        when(nodeRegistryMock.getSnapshot()).thenReturn(
+            new RegistrySnapshot(1, mockNodes));
+
+        mockMvc.perform(get("/nodes")
+                .header(HttpHeaders.ACCEPT_ENCODING, "gzip, identity;q=0"))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.CONTENT_ENCODING,
+                    "gzip"));
+        mockMvc.perform(get("/nodes")
+                .header(HttpHeaders.ACCEPT_ENCODING, "br, identity;q=0"))
+                .andExpect(status().isNotAcceptable());
+        mockMvc.perform(get("/nodes")
+                .header(HttpHeaders.ACCEPT_ENCODING, "*;q=0"))
+                .andExpect(status().isNotAcceptable());
+    }
+
+    /**
+     * Test GET /nodes/search - Names are matched exactly, so only the indexed
+     * name is cached with its nodes; every other name shares the entry for
+     * no match.
+     */
+    @Test
+    void testSearchCacheKeys() throws Exception {
+        EoscNode node = new EoscNode("1", "Node1", null, "PID1", null, null,
+            List.of(new EoscCapability(" AI ", URI.create(
+                "https://example.com/ai"), "1.0")));
+        when(nodeRegistryMock.getSnapshot()).thenReturn(
+            new RegistrySnapshot(1, List.of(node)));
+
+        mockMvc.perform(get("/nodes/search").param("capability", "AI"))
+                .andExpect(status().isOk())
+                .andExpect(content().json("[{\"id\":\"1\"}]"));
+        for (String capability : List.of(" AI ", "ai", "AI\t", "AI")) {
+            mockMvc.perform(get("/nodes/search").param("capability", capability))
+                    .andExpect(status().isOk());
+        }
+        mockMvc.perform(get("/nodes/search").param("capability", " AI "))
+                .andExpect(content().json("[]"));
+        mockMvc.perform(get("/nodes/stats/search"))
+                .andExpect(content().json("{\"entries\":2,\"hits\":4,"
+                    + "\"misses\":2}"));
+    }
+
+    /**
+     * Test POST /nodes/batch - Streams the nodes found and the missing IDs.
+     */
+    @Test
+    void testGetNodesByIds() throws Exception {
+        when(nodeRegistryMock.getSnapshot()).thenReturn(
+            new RegistrySnapshot(1, mockNodes));
+
+        MvcResult result = mockMvc.perform(post("/nodes/batch")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content("[\"2\",\"99\",\"2\",\"1\"]"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        mockMvc.perform(asyncDispatch(result))
+                .andExpect(status().isOk())
+                .andExpect(content().json("{\"nodes\":[{\"id\":\"2\"},"
+                    + "{\"id\":\"1\"}],\"missing\":[\"99\"]}"));
+    }
+
+    /**
+     * Test POST /nodes/batch - Too many IDs (400).
+     */
+    @Test
+    void testGetNodesByIdsTooMany() throws Exception {
+        StringBuilder ids = new StringBuilder("[");
+        for (int i = 0; i <= NodeRegistryController.MAX_BATCH_IDS; i++) {
+            ids.append(i == 0 ? "" : ",").append('"').append(i).append('"');
+        }
+        mockMvc.perform(post("/nodes/batch")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(ids.append(']').toString()))
+                .andExpect(status().isBadRequest());
+    }
+
+    /**
+     * Test GET /nodes/route - Unknown strategy or hash without key (400).
+     */
+    @Test
+    void testRouteCapabilityBadRequest() throws Exception {
+        mockMvc.perform(get("/nodes/route")
+                .param("capability", "AI")
+                .param("strategy", "random"))
+                .andExpect(status().isBadRequest());
+        mockMvc.perform(get("/nodes/route")
+                .param("capability", "AI")
+                .param("strategy", "hash"))
+                .andExpect(status().isBadRequest());
+    }
+
+    /**
+     * Test POST /nodes/route/feedback - Unregistered endpoint (404).
+     */
+    @Test
+    void testRouteFeedbackUnknownEndpoint() throws Exception {
+        when(nodeRegistryMock.getSnapshot()).thenReturn(
+            new RegistrySnapshot(1, mockNodes));
+
+        mockMvc.perform(post("/nodes/route/feedback")
+                .param("endpoint", "http://example.com/unknown")
+                .param("latencyMs", "12"))
+                .andExpect(status().isNotFound());
+    }
+
+    /**
+     * Test GET /nodes?asOf= - Reads a past version, by version or time.
+     */
+    @Test
+    void testGetAllNodesAsOf() throws Exception {
+        RegistryHistory history = new RegistryHistory();
+        history.record(new RegistrySnapshot(1, mockNodes),
+            Instant.parse("2025-03-01T12:00:00Z"));
+        history.record(new RegistrySnapshot(2, mockNodes.subList(0, 1)),
+            Instant.parse("2025-03-01T13:00:00Z"));
+        when(nodeRegistryMock.getHistory()).thenReturn(history);
+        when(nodeRegistryMock.getVersion()).thenReturn(2L);
+
+        mockMvc.perform(get("/nodes").param("asOf", "1"))
+                .andExpect(status().isOk())
+                .andExpect(content().json("[{\"id\":\"1\"},"
+                    + "{\"id\":\"2\"}]"));
+        mockMvc.perform(get("/nodes").param("asOf", "2025-03-01T12:30:00Z"))
+                .andExpect(status().isOk())
+                .andExpect(content().json("[{\"id\":\"1\"},"
+                    + "{\"id\":\"2\"}]"));
+        mockMvc.perform(get("/nodes/search").param("capability", "AI")
+                .param("asOf", "1"))
+                .andExpect(status().isOk())
+                .andExpect(content().json("[]"));
+    }
+
+    /**
+     * Test GET /nodes?asOf= - Malformed (400) or unknown (404) version.
+     */
+    @Test
+    void testGetAllNodesAsOfInvalid() throws Exception {
+        RegistryHistory history = new RegistryHistory();
+        history.record(new RegistrySnapshot(5, mockNodes),
+            Instant.parse("2025-03-01T12:00:00Z"));
+        when(nodeRegistryMock.getHistory()).thenReturn(history);
+
+        mockMvc.perform(get("/nodes").param("asOf", "yesterday"))
+                .andExpect(status().isBadRequest());
+        mockMvc.perform(get("/nodes").param("asOf", "4"))
+                .andExpect(status().isNotFound());
+        mockMvc.perform(get("/nodes/1").param("asOf",
+                "2025-03-01T11:00:00Z"))
+                .andExpect(status().isNotFound());
+    }
 }
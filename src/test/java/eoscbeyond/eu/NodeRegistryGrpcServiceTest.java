@@ -0,0 +1,267 @@
+/*
+ * Copyright © 2025 EOSC Beyond (${email})
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package eoscbeyond.eu;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.net.URI;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import eoscbeyond.eu.grpc.NodeRegistryProtos;
+import eoscbeyond.eu.grpc.NodeRegistryServiceGrpc;
+
+import io.grpc.ManagedChannel;
+import io.grpc.Server;
+import io.grpc.Status;
+import io.grpc.StatusRuntimeException;
+import io.grpc.inprocess.InProcessChannelBuilder;
+import io.grpc.inprocess.InProcessServerBuilder;
+import io.grpc.stub.ClientCallStreamObserver;
+import io.grpc.stub.ClientResponseObserver;
+
+/**
+ * Unit tests for the {@code NodeRegistryGrpcService} class, over an
+ * in-process channel.
+ */
+class NodeRegistryGrpcServiceTest {
+    /** Nodes in the registry. */
+    private static final int NODES = 1000;
+    /** Changes queued for a watch before it is ended. */
+    private static final int WATCH_BACKLOG = 4;
+    /** Seconds to wait for a watch message. */
+    private static final long WAIT_SECONDS = 5;
+
+    /** The registry served. */
+    private final NodeRegistry registry = NodeRegistry.getInstance();
+    /** The service under test. */
+    private NodeRegistryGrpcService service;
+    /** The in-process server. */
+    private Server server;
+    /** Channel to the server. */
+    private ManagedChannel channel;
+    /** Blocking stub. */
+    private NodeRegistryServiceGrpc.NodeRegistryServiceBlockingStub stub;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        List<EoscNode> nodes = new ArrayList<>();
+        for (int i = 0; i < NODES; i++) {
+            nodes.add(node(Integer.toString(i), i % 2 == 0
+                ? "Resource Catalogue" : "Service Monitoring"));
+        }
+        registry.setNodes(nodes);
+        service = new NodeRegistryGrpcService(registry, WATCH_BACKLOG);
+        String name = InProcessServerBuilder.generateName();
+        server = InProcessServerBuilder.forName(name).addService(service)
+        .build().start();
+        channel = InProcessChannelBuilder.forName(name).build();
+        stub = NodeRegistryServiceGrpc.newBlockingStub(channel);
+    }
+
+    @AfterEach
+    void tearDown() throws InterruptedException {
+        service.close();
+        channel.shutdownNow().awaitTermination(WAIT_SECONDS,
+            TimeUnit.SECONDS);
+        server.shutdownNow().awaitTermination(WAIT_SECONDS, TimeUnit.SECONDS);
+    }
+
+    /**
+     * Tests lookups by ID, including unknown and missing IDs.
+     */
+    @Test
+    void testGetNode() {
+        NodeRegistryProtos.EoscNode node = stub.getNode(
+            NodeRegistryProtos.GetNodeRequest.newBuilder().setId("43")
+            .build());
+        assertEquals("Node 43", node.getName());
+        assertEquals("Service Monitoring",
+            node.getCapabilities(0).getCapabilityType());
+
+        StatusRuntimeException missing = assertThrows(
+            StatusRuntimeException.class, () -> stub.getNode(
+                NodeRegistryProtos.GetNodeRequest.newBuilder()
+                .setId("unknown").build()));
+        assertEquals(Status.Code.NOT_FOUND, missing.getStatus().getCode());
+        StatusRuntimeException invalid = assertThrows(
+            StatusRuntimeException.class, () -> stub.getNode(
+                NodeRegistryProtos.GetNodeRequest.getDefaultInstance()));
+        assertEquals(Status.Code.INVALID_ARGUMENT,
+            invalid.getStatus().getCode());
+    }
+
+    /**
+     * Tests that listings and searches stream every matching node, over
+     * several pages.
+     */
+    @Test
+    void testListAndSearch() {
+        Iterator<NodeRegistryProtos.NodePage> all = stub.listNodes(
+            NodeRegistryProtos.ListNodesRequest.getDefaultInstance());
+        int count = 0;
+        int pages = 0;
+        while (all.hasNext()) {
+            for (NodeRegistryProtos.EoscNode node : all.next().getNodesList()) {
+                assertEquals(Integer.toString(count), node.getId());
+                count++;
+            }
+            pages++;
+        }
+        assertEquals(NODES, count);
+        assertTrue(pages > 1);
+
+        Iterator<NodeRegistryProtos.NodePage> found = stub.searchByCapability(
+            NodeRegistryProtos.SearchRequest.newBuilder()
+            .setCapability("Resource Catalogue").build());
+        count = 0;
+        while (found.hasNext()) {
+            for (NodeRegistryProtos.EoscNode node
+                    : found.next().getNodesList()) {
+                assertEquals(0, Integer.parseInt(node.getId()) % 2);
+                count++;
+            }
+        }
+        assertEquals(NODES / 2, count);
+        assertEquals(false, stub.searchByCapability(
+            NodeRegistryProtos.SearchRequest.newBuilder()
+            .setCapability("Unknown").build()).hasNext());
+    }
+
+    /**
+     * Tests that a watch sends the current nodes, then each change.
+     */
+    @Test
+    void testWatch() throws InterruptedException {
+        registry.setNodes(List.of(node("a", "Resource Catalogue")));
+        long version = registry.getVersion();
+        BlockingQueue<Object> received = new LinkedBlockingQueue<>();
+        ClientCallStreamObserver<?> call = watch(received, Integer.MAX_VALUE);
+
+        NodeRegistryProtos.NodeChange first = next(received);
+        assertEquals("a", first.getPut().getId());
+        assertEquals(version, first.getVersion());
+
+        registry.putNode(node("b", "Resource Catalogue"));
+        registry.removeNode("a");
+        registry.setNodes(List.of());
+        NodeRegistryProtos.NodeChange put = next(received);
+        assertEquals("b", put.getPut().getId());
+        assertEquals(version + 1, put.getVersion());
+        NodeRegistryProtos.NodeChange removed = next(received);
+        assertEquals("a", removed.getRemovedId());
+        assertEquals(version + 2, removed.getVersion());
+        NodeRegistryProtos.NodeChange reload = next(received);
+        assertEquals(true, reload.getReload());
+        assertEquals(version + 3, reload.getVersion());
+
+        call.cancel("done", null);
+        assertInstanceOf(Throwable.class,
+            received.poll(WAIT_SECONDS, TimeUnit.SECONDS));
+        assertNull(received.poll(100, TimeUnit.MILLISECONDS));
+    }
+
+    /**
+     * Tests that a watch whose client does not read is ended once more
+     * changes are made than the backlog holds.
+     */
+    @Test
+    void testWatchBacklog() throws InterruptedException {
+        BlockingQueue<Object> received = new LinkedBlockingQueue<>();
+        watch(received, 0);
+        // Let the watch register before changes are made
+        Thread.sleep(100);
+        for (int i = 0; i <= WATCH_BACKLOG; i++) {
+            registry.putNode(node("new" + i, "Resource Catalogue"));
+        }
+        Object result = received.poll(WAIT_SECONDS, TimeUnit.SECONDS);
+        StatusRuntimeException error =
+        assertInstanceOf(StatusRuntimeException.class, result);
+        assertEquals(Status.Code.RESOURCE_EXHAUSTED,
+            error.getStatus().getCode());
+    }
+
+    /**
+     * Starts a watch with the current nodes, putting the messages, then
+     * the error or "completed", on a queue.
+     */
+    private ClientCallStreamObserver<?> watch(
+            final BlockingQueue<Object> xReceived, final int xRequests) {
+        List<ClientCallStreamObserver<?>> calls = new ArrayList<>();
+        NodeRegistryServiceGrpc.newStub(channel).watch(
+            NodeRegistryProtos.WatchRequest.newBuilder()
+            .setIncludeCurrent(xRequests > 0).build(),
+            new ClientResponseObserver<NodeRegistryProtos.WatchRequest,
+                    NodeRegistryProtos.NodeChange>() {
+                @Override
+                public void beforeStart(final ClientCallStreamObserver<
+                        NodeRegistryProtos.WatchRequest> xCall) {
+                    calls.add(xCall);
+                    if (xRequests < Integer.MAX_VALUE) {
+                        xCall.disableAutoRequestWithInitial(xRequests);
+                    }
+                }
+
+                @Override
+                public void onNext(
+                        final NodeRegistryProtos.NodeChange xChange) {
+                    xReceived.add(xChange);
+                }
+
+                @Override
+                public void onError(final Throwable xError) {
+                    xReceived.add(xError);
+                }
+
+                @Override
+                public void onCompleted() {
+                    xReceived.add("completed");
+                }
+            });
+        return calls.get(0);
+    }
+
+    private static NodeRegistryProtos.NodeChange next(
+            final BlockingQueue<Object> xReceived)
+            throws InterruptedException {
+        return assertInstanceOf(NodeRegistryProtos.NodeChange.class,
+            xReceived.poll(WAIT_SECONDS, TimeUnit.SECONDS));
+    }
+
+    private static EoscNode node(final String xId, final String xCapability) {
+        List<EoscCapability> capabilities = new ArrayList<>();
+        capabilities.add(new EoscCapability(xCapability,
+            URI.create("https://example.com/api/" + xId), "1.0"));
+        return new EoscNode(xId, "Node " + xId, null, "PID" + xId, null,
+            URI.create("https://node" + xId + ".example.com/api"),
+            capabilities);
+    }
+}
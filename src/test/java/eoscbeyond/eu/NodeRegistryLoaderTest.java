@@ -0,0 +1,172 @@
+/*
+ * Copyright © 2025 EOSC Beyond (${email})
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package eoscbeyond.eu;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.net.URI;
+import java.nio.file.Path;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import eoscbeyond.eu.data.Configuration;
+import eoscbeyond.eu.data.RegistryLogConfiguration;
+import eoscbeyond.eu.data.ReplicationConfiguration;
+import eoscbeyond.eu.data.ReplicationConfiguration.Role;
+import eoscbeyond.eu.data.ShardingConfiguration;
+
+/**
+ * Unit tests for the {@code NodeRegistryLoader} class.
+ */
+class NodeRegistryLoaderTest {
+
+    /**
+     * Tests that the nodes file is loaded into the registry, from the
+     * classpath when it is not on the file system.
+     */
+    @Test
+    void testLoad() throws Exception {
+        new NodeRegistryLoader(new Configuration(null, "nodes.csv", null))
+            .afterPropertiesSet();
+        NodeRegistry registry = NodeRegistry.getInstance();
+        assertTrue(registry.isReady());
+        assertEquals(10, registry.getNodes().size());
+        assertEquals("1", registry.searchNodeById("1").getId());
+    }
+
+    /**
+     * Tests that a missing nodes file fails startup.
+     */
+    @Test
+    void testMissingFile() {
+        assertThrows(IOException.class, () -> new NodeRegistryLoader(
+            new Configuration(null, "missing.csv", null))
+            .afterPropertiesSet());
+    }
+
+    /**
+     * Tests that a replication follower loads nothing, leaving the
+     * registry to the snapshot from the leader.
+     */
+    @Test
+    void testFollower() throws Exception {
+        new NodeRegistryLoader(new Configuration(null, "missing.csv", null),
+            RegistryLogConfiguration.defaults(),
+            new ReplicationConfiguration(Role.FOLLOWER,
+            URI.create("http://localhost:8080/"), null, null, "secret"),
+            ShardingConfiguration.defaults())
+            .afterPropertiesSet();
+        assertThrows(IllegalStateException.class,
+            () -> new ReplicationConfiguration(Role.FOLLOWER, null, null,
+            null, "secret"));
+        assertThrows(IllegalStateException.class,
+            () -> new ReplicationConfiguration(Role.FOLLOWER,
+            URI.create("http://localhost:8080/"), null, null, null));
+    }
+
+    /**
+     * Tests that each shard keeps only the nodes that belong to it.
+     */
+    @Test
+    void testShards() throws Exception {
+        List<URI> shards = List.of(URI.create("http://localhost:8081/"),
+            URI.create("http://localhost:8082/"));
+        Set<String> ids = new HashSet<>();
+        for (int index = 0; index < shards.size(); index++) {
+            new NodeRegistryLoader(new Configuration(null, "nodes.csv", null),
+                RegistryLogConfiguration.defaults(),
+                ReplicationConfiguration.defaults(),
+                new ShardingConfiguration(shards, index, null))
+                .afterPropertiesSet();
+            ShardMap map = new ShardMap(shards, index);
+            for (EoscNode node : NodeRegistry.getInstance().getNodes()) {
+                assertTrue(map.isLocal(node.getId()));
+                assertTrue(ids.add(node.getId()));
+            }
+        }
+        assertEquals(10, ids.size());
+    }
+
+    /**
+     * Tests the default nodes file.
+     */
+    @Test
+    void testDefaultNodesFile() {
+        assertEquals("nodes.csv",
+            new Configuration(null, null, null).nodesFile());
+    }
+
+    /**
+     * Tests the history size setting.
+     */
+    @Test
+    void testHistorySize() {
+        assertEquals(100, new Configuration(null, null, null).historySize());
+        assertEquals(5, new Configuration(null, null, 5).historySize());
+        assertThrows(IllegalStateException.class,
+            () -> new Configuration(null, null, 0));
+    }
+
+    /**
+     * Tests that node changes survive a restart when the registry log is
+     * enabled, from the log alone and after a checkpoint.
+     */
+    @Test
+    void testRecoverFromLog(@TempDir final Path directory) throws Exception {
+        NodeRegistryLoader loader = new NodeRegistryLoader(
+            new Configuration(null, "nodes.csv", null),
+            new RegistryLogConfiguration(true, directory, null, null, 0),
+            ReplicationConfiguration.defaults(),
+            ShardingConfiguration.defaults());
+        NodeRegistry registry = NodeRegistry.getInstance();
+        try {
+            loader.afterPropertiesSet();
+            registry.putNode(new EoscNode("11", "Node Eleven", null,
+                "PID11", null, null, List.of()));
+            registry.removeNode("1");
+            registry.detachLog().close();
+
+            loader.afterPropertiesSet();
+            assertEquals(10, registry.getNodes().size());
+            assertNull(registry.searchNodeById("1"));
+            assertEquals("Node Eleven", registry.searchNodeById("11")
+                .getName());
+            registry.removeNode("2");
+            registry.checkpoint();
+            registry.removeNode("3");
+            registry.detachLog().close();
+
+            loader.afterPropertiesSet();
+            assertEquals(8, registry.getNodes().size());
+            assertNull(registry.searchNodeById("3"));
+            assertEquals(3L, registry.getLog().getStatistics()
+                .get("checkpointSequence"));
+        } finally {
+            RegistryLog log = registry.detachLog();
+            if (log != null) {
+                log.close();
+            }
+        }
+    }
+}
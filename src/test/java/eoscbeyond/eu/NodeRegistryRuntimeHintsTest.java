@@ -0,0 +1,53 @@
+/*
+ * Copyright © 2025 EOSC Beyond (${email})
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package eoscbeyond.eu;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.aot.hint.MemberCategory;
+import org.springframework.aot.hint.RuntimeHints;
+import org.springframework.aot.hint.predicate.RuntimeHintsPredicates;
+
+/**
+ * Unit tests for the {@code NodeRegistryRuntimeHints} class.
+ */
+class NodeRegistryRuntimeHintsTest {
+
+    /**
+     * Tests that the node model can be introspected and the nodes file
+     * read in a native image.
+     */
+    @Test
+    void testHints() throws NoSuchMethodException {
+        RuntimeHints hints = new RuntimeHints();
+        new NodeRegistryRuntimeHints().registerHints(hints,
+            getClass().getClassLoader());
+
+        for (Class<?> type : new Class<?>[] {EoscNode.class,
+            LegalEntity.class, EoscCapability.class, NodeSummary.class}) {
+            assertTrue(RuntimeHintsPredicates.reflection().onType(type)
+                .withMemberCategory(MemberCategory.DECLARED_FIELDS)
+                .test(hints), type.getName());
+        }
+        assertTrue(RuntimeHintsPredicates.reflection().onMethod(
+            EoscNode.class.getMethod("getCapabilityList")).test(hints));
+        assertTrue(RuntimeHintsPredicates.reflection().onMethod(
+            NodeSummary.class.getMethod("nodeEndpoint")).test(hints));
+        assertTrue(RuntimeHintsPredicates.resource().forResource("nodes.csv")
+            .test(hints));
+    }
+}
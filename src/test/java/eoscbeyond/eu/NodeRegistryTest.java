@@ -16,17 +16,31 @@
 package eoscbeyond.eu;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
 import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 
+import java.io.UncheckedIOException;
 import java.net.URI;
 import java.net.URISyntaxException;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.Instant;
 import java.util.ArrayList;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Consumer;
 
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
 
 /**
  * Unit tests for the {@code NodeRegistry} class.
@@ -143,4 +157,168 @@ class NodeRegistryTest {
         assertEquals(1, testNodeRegistry.getNodes().size());
         assertEquals(node3, testNodeRegistry.getNodes().get(0));
     }
+
+    /**
+     * Tests that merged metadata publishes a new version, keeps metadata
+     * that was not harvested again and survives reloading the nodes.
+     */
+    @Test
+    void testMergeMetadata() throws URISyntaxException {
+        URI cap1 = new URI("http://example.com/cap1");
+        URI cap2 = new URI("http://example.com/cap2");
+        CapabilityMetadata first = new CapabilityMetadata(cap1, "one", "v1",
+            Instant.now());
+        CapabilityMetadata second = new CapabilityMetadata(cap2, "two", "v2",
+            Instant.now());
+        long version = testNodeRegistry.getVersion();
+        testNodeRegistry.mergeMetadata(Map.of(cap1, first));
+        assertEquals(version + 1, testNodeRegistry.getVersion());
+        testNodeRegistry.mergeMetadata(Map.of(cap2, second));
+        assertEquals(Map.of(cap1, first, cap2, second),
+            testNodeRegistry.getSnapshot().getMetadata());
+
+        testNodeRegistry.setNodes(List.of(node1));
+        assertEquals(Map.of(cap1, first),
+            testNodeRegistry.getSnapshot().getMetadata());
+    }
+
+    /**
+     * Tests that single-node updates publish new versions and leave the
+     * earlier snapshot unchanged.
+     */
+    @Test
+    void testPutAndRemoveNode() {
+        RegistrySnapshot before = testNodeRegistry.getSnapshot();
+        EoscNode node3 = new EoscNode("3", "Node Three", null, "PID3", null,
+            null, node1.getCapabilityList());
+        testNodeRegistry.putNode(node3);
+        assertEquals(before.getVersion() + 1, testNodeRegistry.getVersion());
+        assertEquals(List.of(node1, node2, node3), testNodeRegistry.getNodes());
+        assertEquals(List.of(node1, node3),
+            testNodeRegistry.searchNodesByCapability("Resource Catalogue"));
+
+        assertTrue(testNodeRegistry.removeNode("1"));
+        assertFalse(testNodeRegistry.removeNode("1"));
+        assertNull(testNodeRegistry.searchNodeById("1"));
+        assertEquals(List.of(node2, node3), testNodeRegistry.getNodes());
+        assertEquals(List.of(node1, node2), before.getNodes());
+        assertEquals(before.getVersion() + 2, testNodeRegistry.getVersion());
+    }
+
+    /**
+     * Tests that every published version is recorded in the history.
+     */
+    @Test
+    void testHistory() {
+        RegistrySnapshot before = testNodeRegistry.getSnapshot();
+        assertSame(before,
+            testNodeRegistry.getHistory().atVersion(before.getVersion()));
+        testNodeRegistry.removeNode("2");
+        RegistryHistory history = testNodeRegistry.getHistory();
+        assertSame(testNodeRegistry.getSnapshot(),
+            history.asOf(Instant.now()));
+        assertEquals(List.of(node1, node2),
+            history.atVersion(before.getVersion()).getNodes());
+        assertNull(history.atVersion(before.getVersion() + 2));
+    }
+
+    /**
+     * Tests that listeners get every change made after they were added,
+     * in version order, and none after they were removed.
+     */
+    @Test
+    void testListener() {
+        List<NodeRegistry.Change> changes = new ArrayList<>();
+        Consumer<NodeRegistry.Change> listener = changes::add;
+        RegistrySnapshot current = testNodeRegistry.addListener(listener);
+        long version = current.getVersion();
+        assertSame(testNodeRegistry.getSnapshot(), current);
+        try {
+            testNodeRegistry.putNode(node1);
+            testNodeRegistry.removeNode("2");
+            testNodeRegistry.removeNode("2");
+            testNodeRegistry.setNodes(nodeList);
+        } finally {
+            testNodeRegistry.removeListener(listener);
+        }
+        testNodeRegistry.removeNode("1");
+
+        assertEquals(List.of(
+            new NodeRegistry.Change(version + 1, node1, null),
+            new NodeRegistry.Change(version + 2, null, "2"),
+            new NodeRegistry.Change(version + 3, null, null)), changes);
+        assertTrue(changes.get(2).isReload());
+        assertFalse(changes.get(0).isReload());
+    }
+
+    /**
+     * Tests that a logged change is published, and listeners told about
+     * it, only once it is durable, and never if the log fails to write it.
+     */
+    @Test
+    void testUndurableChange(@TempDir final Path directory) throws Exception {
+        Set<Thread> flushers = flusherThreads();
+        RegistryLog log = RegistryLog.open(directory, Duration.ofSeconds(2));
+        flushers = difference(flusherThreads(), flushers);
+        List<NodeRegistry.Change> changes = new ArrayList<>();
+        Consumer<NodeRegistry.Change> listener = changes::add;
+        long version = testNodeRegistry.addListener(listener).getVersion();
+        testNodeRegistry.attachLog(log);
+        try {
+            EoscNode node3 = new EoscNode("3", "Node Three", null, "PID3",
+                null, null, List.of());
+            AtomicReference<RuntimeException> failure =
+            new AtomicReference<>();
+            Thread writer = new Thread(() -> {
+                try {
+                    testNodeRegistry.putNode(node3);
+                } catch (RuntimeException e) {
+                    failure.set(e);
+                }
+            });
+            writer.start();
+            while (log.getLastSequence() == 0) {
+                Thread.sleep(1);
+            }
+            // Logged, but waiting out the group commit window
+            assertNull(testNodeRegistry.searchNodeById("3"));
+            assertEquals(version, testNodeRegistry.getVersion());
+            assertTrue(changes.isEmpty());
+
+            // An interrupted flusher fails the write
+            while (writer.isAlive()) {
+                flushers.forEach(Thread::interrupt);
+                writer.join(10);
+            }
+            assertInstanceOf(UncheckedIOException.class, failure.get());
+            assertNull(testNodeRegistry.searchNodeById("3"));
+            assertEquals(version, testNodeRegistry.getVersion());
+            assertTrue(changes.isEmpty());
+            assertFalse(testNodeRegistry.removeNode("3"));
+            assertThrows(IllegalStateException.class,
+                () -> testNodeRegistry.putNode(node3));
+        } finally {
+            testNodeRegistry.removeListener(listener);
+            testNodeRegistry.detachLog();
+            log.close();
+        }
+    }
+
+    private static Set<Thread> flusherThreads() {
+        Set<Thread> threads = new HashSet<>();
+        for (Thread thread : Thread.getAllStackTraces().keySet()) {
+            if (thread.getName().equals("registry-log")) {
+                threads.add(thread);
+            }
+        }
+        return threads;
+    }
+
+    private static Set<Thread> difference(final Set<Thread> xAfter,
+            final Set<Thread> xBefore) {
+        Set<Thread> added = new HashSet<>(xAfter);
+        added.removeAll(xBefore);
+        assertEquals(1, added.size());
+        return added;
+    }
 }
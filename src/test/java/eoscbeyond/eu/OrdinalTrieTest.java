@@ -0,0 +1,135 @@
+/*
+ * Copyright © 2025 EOSC Beyond (${email})
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package eoscbeyond.eu;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.TreeMap;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * Unit tests for the {@code OrdinalTrie} class.
+ */
+class OrdinalTrieTest {
+
+    /**
+     * Tests that updates leave earlier versions unchanged.
+     */
+    @Test
+    void testPersistence() {
+        OrdinalTrie<String> v0 = OrdinalTrie.empty();
+        OrdinalTrie<String> v1 = v0.set(40, "a");
+        OrdinalTrie<String> v2 = v1.set(3, "b").set(100_000, "c");
+        OrdinalTrie<String> v3 = v2.set(40, null);
+        assertEquals(0, v0.count());
+        assertEquals(1, v1.count());
+        assertEquals("a", v1.get(40));
+        assertNull(v1.get(3));
+        assertNull(v1.get(100_000));
+        assertEquals(3, v2.count());
+        assertEquals("c", v2.get(100_000));
+        assertEquals(2, v3.count());
+        assertNull(v3.get(40));
+        assertEquals("a", v2.get(40));
+        assertSame(v3, v3.set(40, null));
+        assertSame(v3, v3.set(Integer.MAX_VALUE, null));
+        assertSame(v2, v2.set(3, v2.get(3)));
+        assertNull(v2.get(-1));
+        assertThrows(IndexOutOfBoundsException.class,
+            () -> v0.set(-1, "x"));
+        assertEquals(0, v3.set(3, null).set(100_000, null).count());
+    }
+
+    /**
+     * Tests positional access and iteration, in index order.
+     */
+    @Test
+    void testOrder() {
+        OrdinalTrie<String> trie = OrdinalTrie.<String>empty()
+        .set(2000, "d").set(5, "b").set(0, "a").set(31, "c")
+        .set(Integer.MAX_VALUE, "e");
+        assertEquals("a", trie.nth(0));
+        assertEquals("c", trie.nth(2));
+        assertEquals("e", trie.nth(4));
+        assertEquals(2000, trie.indexOfNth(3));
+        assertThrows(IndexOutOfBoundsException.class, () -> trie.nth(5));
+        assertArrayEquals(new int[] {0, 5, 31, 2000, Integer.MAX_VALUE},
+            trie.indexes());
+        List<String> values = new ArrayList<>();
+        trie.forEach(values::add);
+        assertEquals(List.of("a", "b", "c", "d", "e"), values);
+        List<String> positional = new ArrayList<>();
+        trie.forEachIndexed((value, index) -> positional.add(index + "=" + value));
+        assertEquals("0=a", positional.get(0));
+        assertEquals(2147483647 + "=e", positional.get(4));
+    }
+
+    /**
+     * Tests random updates against a {@code TreeMap}, and the builder.
+     */
+    @Test
+    void testRandomUpdates() {
+        Random random = new Random(7);
+        TreeMap<Integer, Integer> expected = new TreeMap<>();
+        OrdinalTrie<Integer> trie = OrdinalTrie.empty();
+        for (int i = 0; i < 50_000; i++) {
+            int index = random.nextInt(20_000);
+            if (random.nextInt(3) == 0) {
+                expected.remove(index);
+                trie = trie.set(index, null);
+            } else {
+                expected.put(index, i);
+                trie = trie.set(index, i);
+            }
+        }
+        assertEquals(expected.size(), trie.count());
+        List<Integer> values = new ArrayList<>();
+        trie.forEach(values::add);
+        assertEquals(new ArrayList<>(expected.values()), values);
+        int n = 0;
+        OrdinalTrie.Builder<Integer> builder = OrdinalTrie.builder();
+        for (var entry : expected.entrySet()) {
+            assertEquals(entry.getKey(), trie.indexOfNth(n));
+            assertEquals(entry.getValue(), trie.nth(n++));
+            builder.set(entry.getKey(), entry.getValue());
+        }
+        OrdinalTrie<Integer> built = builder.build();
+        assertEquals(trie.count(), built.count());
+        assertArrayEquals(trie.indexes(), built.indexes());
+        assertEquals(expected.firstEntry().getValue(),
+            built.get(expected.firstKey()));
+    }
+
+    /**
+     * Tests that the builder refuses to overwrite a value.
+     */
+    @Test
+    void testBuilderSetTwice() {
+        OrdinalTrie.Builder<String> builder = OrdinalTrie.<String>builder()
+        .set(1, "a");
+        assertThrows(IllegalStateException.class, () -> builder.set(1, "b"));
+        assertEquals(0, OrdinalTrie.builder().build().count());
+    }
+}
@@ -0,0 +1,125 @@
+/*
+ * Copyright © 2025 EOSC Beyond (${email})
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package eoscbeyond.eu;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * Unit tests for the {@code PersistentHashMap} class.
+ */
+class PersistentHashMapTest {
+
+    /**
+     * Tests that updates leave earlier versions unchanged.
+     */
+    @Test
+    void testPersistence() {
+        PersistentHashMap<String, Integer> v0 = PersistentHashMap.empty();
+        PersistentHashMap<String, Integer> v1 = v0.put("a", 1);
+        PersistentHashMap<String, Integer> v2 = v1.put("b", 2).put("a", 3);
+        PersistentHashMap<String, Integer> v3 = v2.remove("a");
+        assertEquals(0, v0.size());
+        assertEquals(1, v1.size());
+        assertEquals(1, v1.get("a"));
+        assertNull(v1.get("b"));
+        assertEquals(2, v2.size());
+        assertEquals(3, v2.get("a"));
+        assertEquals(1, v3.size());
+        assertNull(v3.get("a"));
+        assertEquals(2, v3.get("b"));
+        assertSame(v3, v3.remove("a"));
+        assertSame(v2, v2.put("b", v2.get("b")));
+        assertNull(v3.get(null));
+        assertThrows(NullPointerException.class, () -> v0.put("a", null));
+    }
+
+    /**
+     * Tests keys whose hashes are equal.
+     */
+    @Test
+    void testCollisions() {
+        // "Aa" and "BB" have the same hash code
+        PersistentHashMap<String, Integer> map = PersistentHashMap
+        .<String, Integer>empty().put("Aa", 1).put("BB", 2).put("AaAa", 3)
+        .put("BBBB", 4).put("AaBB", 5);
+        assertEquals(5, map.size());
+        assertEquals(1, map.get("Aa"));
+        assertEquals(2, map.get("BB"));
+        assertEquals(5, map.get("AaBB"));
+        PersistentHashMap<String, Integer> removed = map.remove("Aa")
+        .remove("BBBB");
+        assertEquals(3, removed.size());
+        assertNull(removed.get("Aa"));
+        assertEquals(2, removed.get("BB"));
+        assertEquals(3, removed.get("AaAa"));
+        assertEquals(1, map.get("Aa"));
+    }
+
+    /**
+     * Tests random updates against a {@code HashMap}.
+     */
+    @Test
+    void testRandomUpdates() {
+        Random random = new Random(42);
+        Map<Integer, Integer> expected = new HashMap<>();
+        PersistentHashMap<Integer, Integer> map = PersistentHashMap.empty();
+        for (int i = 0; i < 50_000; i++) {
+            int key = random.nextInt(5000);
+            if (random.nextInt(3) == 0) {
+                expected.remove(key);
+                map = map.remove(key);
+            } else {
+                expected.put(key, i);
+                map = map.put(key, i);
+            }
+        }
+        assertEquals(expected.size(), map.size());
+        for (int key = 0; key < 5000; key++) {
+            assertEquals(expected.get(key), map.get(key));
+        }
+        assertEquals(expected, map.asMap());
+        Map<Integer, Integer> visited = new HashMap<>();
+        map.forEach(visited::put);
+        assertEquals(expected, visited);
+    }
+
+    /**
+     * Tests the {@code Map} view.
+     */
+    @Test
+    void testMapView() {
+        Map<String, Integer> view = PersistentHashMap.<String, Integer>empty()
+        .put("a", 1).asMap();
+        assertTrue(view.containsKey("a"));
+        assertFalse(view.containsKey("b"));
+        assertTrue(view.keySet().contains("a"));
+        assertEquals(Map.of("a", 1), view);
+        assertThrows(UnsupportedOperationException.class,
+            () -> view.put("b", 2));
+    }
+}
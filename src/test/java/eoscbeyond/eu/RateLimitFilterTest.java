@@ -0,0 +1,155 @@
+/*
+ * Copyright © 2025 EOSC Beyond (${email})
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package eoscbeyond.eu;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+import java.util.List;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import eoscbeyond.eu.data.RateLimitConfiguration;
+
+/**
+ * Unit tests for the {@code RateLimitFilter} class.
+ */
+class RateLimitFilterTest {
+    /** Bulk burst. */
+    private static final int BULK_BURST = 2;
+    /** Client header. */
+    private static final String CLIENT_HEADER = "X-Client-Key";
+    /** Address whose client header is believed, that of mock requests. */
+    private static final String TRUSTED = "127.0.0.1";
+    /** Address whose client header is not believed. */
+    private static final String UNTRUSTED = "192.0.2.1";
+
+    /** Filter under test. */
+    private RateLimitFilter filter;
+
+    /**
+     * Sets up the test environment before each test.
+     */
+    @BeforeEach
+    void setUp() {
+        filter = new RateLimitFilter(new RateLimitConfiguration(true, 1, 1,
+            1, BULK_BURST, 0, 0, CLIENT_HEADER, List.of(TRUSTED)));
+    }
+
+    /**
+     * Tests that bulk requests beyond the burst are refused with 429 and
+     * Retry-After before reaching the controller, and that the limit is
+     * kept per client.
+     */
+    @Test
+    void testBulkRefused() throws Exception {
+        for (int i = 0; i < BULK_BURST; i++) {
+            assertEquals(200, filter("/nodes", "a").getStatus());
+        }
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        MockFilterChain chain = new MockFilterChain();
+        filter.doFilter(request("/nodes/batch", "a"), response, chain);
+        assertEquals(429, response.getStatus());
+        assertEquals("1", response.getHeader(HttpHeaders.RETRY_AFTER));
+        assertNull(chain.getRequest());
+
+        assertEquals(200, filter("/nodes/summary", "b").getStatus());
+        assertEquals(200, filter("/nodes/1", "a").getStatus());
+        assertEquals(0, filter.getLimiter().getStatistics().get("inFlight"));
+    }
+
+    /**
+     * Tests that clients without the header are told apart by address.
+     */
+    @Test
+    void testRemoteAddressFallback() throws Exception {
+        assertEquals(200, filter("/nodes/1", null).getStatus());
+        assertEquals(429, filter("/nodes/1", null).getStatus());
+        MockHttpServletRequest other = request("/nodes/1", null);
+        other.setRemoteAddr(UNTRUSTED);
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        filter.doFilter(other, response, new MockFilterChain());
+        assertEquals(200, response.getStatus());
+    }
+
+    /**
+     * Tests that the client header is ignored from untrusted addresses, so
+     * a client cannot get a fresh allowance by changing it.
+     */
+    @Test
+    void testUntrustedClientHeader() throws Exception {
+        for (String key : List.of("a", "b")) {
+            MockHttpServletRequest request = request("/nodes/1", key);
+            request.setRemoteAddr(UNTRUSTED);
+            MockHttpServletResponse response = new MockHttpServletResponse();
+            filter.doFilter(request, response, new MockFilterChain());
+            assertEquals("a".equals(key) ? 200 : 429, response.getStatus());
+        }
+    }
+
+    /**
+     * Tests that replication requests are limited too, so that guesses at
+     * the replication token are, with a follower's snapshot as bulk.
+     */
+    @Test
+    void testReplicationLimited() throws Exception {
+        assertEquals(200, filter("/replication/nodes/1", "a").getStatus());
+        assertEquals(429, filter("/replication/nodes/1", "a").getStatus());
+        for (int i = 0; i < BULK_BURST; i++) {
+            assertEquals(200, filter("/replication/snapshot", "a")
+                .getStatus());
+        }
+        assertEquals(429, filter("/replication/snapshot", "a").getStatus());
+    }
+
+    /**
+     * Tests that other requests, such as health probes, are not limited.
+     */
+    @Test
+    void testOtherPathsNotLimited() throws Exception {
+        for (int i = 0; i < BULK_BURST + 1; i++) {
+            MockHttpServletResponse response = new MockHttpServletResponse();
+            MockFilterChain chain = new MockFilterChain();
+            filter.doFilter(new MockHttpServletRequest("GET",
+                "/actuator/health"), response, chain);
+            assertNotNull(chain.getRequest());
+        }
+    }
+
+    private MockHttpServletResponse filter(final String path,
+            final String client) throws Exception {
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        filter.doFilter(request(path, client), response,
+            new MockFilterChain());
+        return response;
+    }
+
+    private static MockHttpServletRequest request(final String path,
+            final String client) {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET",
+            path);
+        if (client != null) {
+            request.addHeader(CLIENT_HEADER, client);
+        }
+        return request;
+    }
+}
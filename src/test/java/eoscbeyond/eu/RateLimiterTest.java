@@ -0,0 +1,159 @@
+/*
+ * Copyright © 2025 EOSC Beyond (${email})
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package eoscbeyond.eu;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import eoscbeyond.eu.data.RateLimitConfiguration;
+
+/**
+ * Unit tests for the {@code RateLimiter} and {@code TokenBucket} classes.
+ */
+class RateLimiterTest {
+    /** Interactive requests per second. */
+    private static final int INTERACTIVE_RATE = 10;
+    /** Interactive burst. */
+    private static final int INTERACTIVE_BURST = 3;
+    /** Bulk burst. */
+    private static final int BULK_BURST = 2;
+    /** Requests in progress above which requests are shed. */
+    private static final int MAX_IN_FLIGHT = 4;
+
+    /** Current time, in nanoseconds. */
+    private AtomicLong now;
+    /** Limiter under test. */
+    private RateLimiter limiter;
+
+    /**
+     * Sets up the test environment before each test.
+     */
+    @BeforeEach
+    void setUp() {
+        now = new AtomicLong(TimeUnit.SECONDS.toNanos(100));
+        limiter = new RateLimiter(new RateLimitConfiguration(true,
+            INTERACTIVE_RATE, INTERACTIVE_BURST, 1, BULK_BURST,
+            MAX_IN_FLIGHT, BULK_BURST, null, null), now::get);
+    }
+
+    /**
+     * Tests that a client may send a burst, is then refused with the time
+     * until the next token, and is admitted again once it has passed.
+     */
+    @Test
+    void testBurstAndRefill() {
+        for (int i = 0; i < INTERACTIVE_BURST; i++) {
+            assertEquals(0, acquire("a", RateLimiter.Priority.INTERACTIVE));
+        }
+        long wait = limiter.tryAcquire("a", RateLimiter.Priority.INTERACTIVE);
+        assertEquals(TimeUnit.SECONDS.toNanos(1) / INTERACTIVE_RATE, wait);
+        assertEquals(0, acquire("b", RateLimiter.Priority.INTERACTIVE));
+        now.addAndGet(wait);
+        assertEquals(0, acquire("a", RateLimiter.Priority.INTERACTIVE));
+
+        Map<String, Object> stats = limiter.getStatistics();
+        assertEquals(5L, stats.get("admitted"));
+        assertEquals(1L, stats.get("rateLimited"));
+        assertEquals(2, stats.get("clients"));
+        assertEquals(0, stats.get("inFlight"));
+    }
+
+    /**
+     * Tests that bulk and interactive requests use separate allowances.
+     */
+    @Test
+    void testPriorityClasses() {
+        for (int i = 0; i < BULK_BURST; i++) {
+            assertEquals(0, acquire("a", RateLimiter.Priority.BULK));
+        }
+        assertTrue(limiter.tryAcquire("a", RateLimiter.Priority.BULK) > 0);
+        assertEquals(0, acquire("a", RateLimiter.Priority.INTERACTIVE));
+    }
+
+    /**
+     * Tests that bulk requests are shed at a lower load than interactive
+     * ones, and that released requests make room again.
+     */
+    @Test
+    void testLoadShedding() {
+        for (int i = 0; i < BULK_BURST; i++) {
+            assertEquals(0, limiter.tryAcquire("c" + i,
+                RateLimiter.Priority.INTERACTIVE));
+        }
+        assertEquals(RateLimiter.OVERLOAD_WAIT_NANOS,
+            limiter.tryAcquire("bulk", RateLimiter.Priority.BULK));
+        for (int i = BULK_BURST; i < MAX_IN_FLIGHT; i++) {
+            assertEquals(0, limiter.tryAcquire("c" + i,
+                RateLimiter.Priority.INTERACTIVE));
+        }
+        assertEquals(RateLimiter.OVERLOAD_WAIT_NANOS,
+            limiter.tryAcquire("late", RateLimiter.Priority.INTERACTIVE));
+        limiter.release();
+        assertEquals(0, limiter.tryAcquire("late",
+            RateLimiter.Priority.INTERACTIVE));
+        assertEquals(2L, limiter.getStatistics().get("shed"));
+    }
+
+    /**
+     * Tests that buckets of idle clients are dropped once there are many
+     * clients.
+     */
+    @Test
+    void testIdleClientsDropped() {
+        for (int i = 0; i < RateLimiter.MAX_CLIENTS; i++) {
+            acquire(Integer.toString(i), RateLimiter.Priority.INTERACTIVE);
+        }
+        now.addAndGet(TimeUnit.SECONDS.toNanos(1));
+        acquire("new", RateLimiter.Priority.INTERACTIVE);
+        assertEquals(1, limiter.getStatistics().get("clients"));
+    }
+
+    /**
+     * Tests that the number of clients tracked is capped when none of them
+     * is idle, and that the clients beyond the cap share one allowance.
+     */
+    @Test
+    void testClientsCapped() {
+        for (int i = 0; i < RateLimiter.MAX_CLIENTS; i++) {
+            acquire(Integer.toString(i), RateLimiter.Priority.INTERACTIVE);
+        }
+        for (int i = 0; i < INTERACTIVE_BURST; i++) {
+            assertEquals(0, acquire("new" + i,
+                RateLimiter.Priority.INTERACTIVE));
+        }
+        assertTrue(acquire("other", RateLimiter.Priority.INTERACTIVE) > 0);
+        assertEquals(0, acquire("0", RateLimiter.Priority.INTERACTIVE));
+        Map<String, Object> stats = limiter.getStatistics();
+        assertEquals(RateLimiter.MAX_CLIENTS, stats.get("clients"));
+        assertEquals(4L, stats.get("overflow"));
+    }
+
+    private long acquire(final String client,
+            final RateLimiter.Priority priority) {
+        long wait = limiter.tryAcquire(client, priority);
+        if (wait == 0) {
+            limiter.release();
+        }
+        return wait;
+    }
+}
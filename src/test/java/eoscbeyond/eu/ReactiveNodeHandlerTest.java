@@ -0,0 +1,108 @@
+/*
+ * Copyright © 2025 EOSC Beyond (${email})
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package eoscbeyond.eu;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpStatus;
+import org.springframework.test.web.reactive.server.WebTestClient;
+
+import com.google.gson.Gson;
+
+/**
+ * Unit tests for the {@code ReactiveNodeHandler} class.
+ */
+class ReactiveNodeHandlerTest {
+    /** Nodes in the registry; more than one chunk. */
+    private static final int NODES = ReactiveNodeHandler.CHUNK_NODES * 3 + 5;
+
+    /** The registry served. */
+    private final NodeRegistry registry = NodeRegistry.getInstance();
+    /** Reference serialiser. */
+    private final Gson gson = new Gson();
+    /** Client bound to the routes. */
+    private WebTestClient client;
+
+    @BeforeEach
+    void setUp() {
+        List<EoscNode> nodes = new ArrayList<>();
+        for (int i = 0; i < NODES; i++) {
+            List<EoscCapability> capabilities = new ArrayList<>();
+            capabilities.add(new EoscCapability(i % 2 == 0
+                ? "Resource Catalogue" : "Service Monitoring",
+                URI.create("https://example.com/api/" + i), "1.0"));
+            nodes.add(new EoscNode(Integer.toString(i), "Node " + i, null,
+                "PID" + i, null, URI.create("https://node" + i
+                + ".example.com/api"), capabilities));
+        }
+        registry.setNodes(nodes);
+        client = WebTestClient.bindToRouterFunction(
+            new ReactiveNodeHandler(registry).routes()).build();
+    }
+
+    /**
+     * Tests that the streamed node list is the list the servlet controller
+     * returns.
+     */
+    @Test
+    void testGetAllNodes() {
+        String body = client.get().uri("/nodes").exchange()
+        .expectStatus().isOk()
+        .expectBody(String.class).returnResult().getResponseBody();
+        assertEquals(gson.toJson(registry.getNodes()), body);
+    }
+
+    /**
+     * Tests capability search, including an unknown capability and a
+     * missing parameter.
+     */
+    @Test
+    void testSearchNodesByCapability() {
+        String body = client.get()
+        .uri("/nodes/search?capability=Resource Catalogue").exchange()
+        .expectStatus().isOk()
+        .expectBody(String.class).returnResult().getResponseBody();
+        assertEquals(gson.toJson(registry.getSnapshot()
+            .getNodesWithCapability("Resource Catalogue")), body);
+        client.get().uri("/nodes/search?capability=Unknown").exchange()
+        .expectStatus().isOk().expectBody(String.class).isEqualTo("[]");
+        client.get().uri("/nodes/search").exchange()
+        .expectStatus().isEqualTo(HttpStatus.BAD_REQUEST);
+    }
+
+    /**
+     * Tests lookups by ID.
+     */
+    @Test
+    void testGetNodeById() {
+        client.get().uri("/nodes/7").exchange()
+        .expectStatus().isOk()
+        .expectBody(String.class).isEqualTo(
+            new String(registry.getSnapshot().getSummaryJson("7"),
+            StandardCharsets.UTF_8));
+        client.get().uri("/nodes/unknown").exchange()
+        .expectStatus().isNotFound();
+    }
+}
@@ -0,0 +1,113 @@
+/*
+ * Copyright © 2025 EOSC Beyond (${email})
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package eoscbeyond.eu;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import eoscbeyond.eu.data.ReactiveConfiguration;
+
+/**
+ * Unit tests for the {@code ReactiveNodeServer} class, on a free port.
+ */
+class ReactiveNodeServerTest {
+    /** Concurrent connections. */
+    private static final int CONNECTIONS = 200;
+
+    /** The registry served. */
+    private final NodeRegistry registry = NodeRegistry.getInstance();
+    /** The server under test. */
+    private ReactiveNodeServer server;
+
+    @BeforeEach
+    void setUp() {
+        List<EoscNode> nodes = new ArrayList<>();
+        for (int i = 0; i < 10; i++) {
+            nodes.add(new EoscNode(Integer.toString(i), "Node " + i, null,
+                null, null, null, List.of()));
+        }
+        registry.setNodes(nodes);
+        server = new ReactiveNodeServer(new ReactiveConfiguration(true, 0,
+            1), registry);
+        server.afterPropertiesSet();
+    }
+
+    @AfterEach
+    void tearDown() {
+        server.destroy();
+        assertEquals(-1, countLoopThreads());
+    }
+
+    /**
+     * Tests that one event loop thread serves many concurrent connections.
+     */
+    @Test
+    void testConcurrentConnections() throws IOException,
+            InterruptedException {
+        assertTrue(server.getPort() > 0);
+        HttpClient client = HttpClient.newBuilder()
+        .version(HttpClient.Version.HTTP_1_1).build();
+        List<CompletableFuture<HttpResponse<String>>> responses =
+        new ArrayList<>();
+        for (int i = 0; i < CONNECTIONS; i++) {
+            responses.add(client.sendAsync(HttpRequest.newBuilder(URI.create(
+                "http://localhost:" + server.getPort() + "/nodes/"
+                + i % 10)).build(), HttpResponse.BodyHandlers.ofString()));
+        }
+        for (int i = 0; i < CONNECTIONS; i++) {
+            HttpResponse<String> response = responses.get(i).join();
+            assertEquals(200, response.statusCode());
+            assertEquals(new String(registry.getSnapshot().getSummaryJson(
+                Integer.toString(i % 10)), StandardCharsets.UTF_8),
+                response.body());
+        }
+        assertEquals(1, countLoopThreads());
+        assertEquals(404, client.send(HttpRequest.newBuilder(URI.create(
+            "http://localhost:" + server.getPort() + "/nodes/unknown"))
+            .build(), HttpResponse.BodyHandlers.discarding()).statusCode());
+    }
+
+    /**
+     * Counts the event loop threads of the server.
+     *
+     * @return the number of threads, or -1 if there are none
+     */
+    private static int countLoopThreads() {
+        int count = 0;
+        for (Thread thread : Thread.getAllStackTraces().keySet()) {
+            if (thread.getName().startsWith("reactive-nodes")) {
+                count++;
+            }
+        }
+        return count == 0 ? -1 : count;
+    }
+}
@@ -0,0 +1,88 @@
+/*
+ * Copyright © 2025 EOSC Beyond (${email})
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package eoscbeyond.eu;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.util.List;
+import java.util.Map;
+
+import org.junit.jupiter.api.Test;
+
+import io.opentelemetry.api.trace.Span;
+import io.opentelemetry.api.trace.Tracer;
+import io.opentelemetry.context.Scope;
+import io.opentelemetry.sdk.trace.SdkTracerProvider;
+import io.opentelemetry.sdk.trace.export.SimpleSpanProcessor;
+
+/**
+ * Unit tests for the {@code RecentSpanExporter} class.
+ */
+class RecentSpanExporterTest {
+
+    /**
+     * Tests that only the most recent spans are kept, newest first, and
+     * that spans can be selected by trace.
+     */
+    @Test
+    void testKeepsRecentSpans() {
+        RecentSpanExporter exporter = new RecentSpanExporter(3);
+        SdkTracerProvider provider = SdkTracerProvider.builder()
+        .addSpanProcessor(SimpleSpanProcessor.create(exporter)).build();
+        Tracer tracer = provider.get("test");
+        Span root = tracer.spanBuilder("root").startSpan();
+        try (Scope scope = root.makeCurrent()) {
+            for (int i = 0; i < 3; i++) {
+                tracer.spanBuilder("child" + i).startSpan()
+                .setAttribute("index", i).end();
+            }
+        }
+        root.end();
+        tracer.spanBuilder("other").startSpan().end();
+
+        List<Map<String, Object>> spans = exporter.getSpans(null, 10);
+        assertEquals(List.of("other", "root", "child2"),
+            spans.stream().map(span -> span.get("name")).toList());
+        Map<String, Object> statistics = exporter.getStatistics();
+        assertEquals(5L, statistics.get("exported"));
+        assertEquals(2L, statistics.get("dropped"));
+        assertEquals(3, statistics.get("retained"));
+
+        String traceId = root.getSpanContext().getTraceId();
+        List<Map<String, Object>> trace = exporter.getSpans(traceId, 10);
+        assertEquals(2, trace.size());
+        Map<String, Object> child = trace.get(1);
+        assertEquals(root.getSpanContext().getSpanId(),
+            child.get("parentSpanId"));
+        assertEquals(Map.of("index", 2L), child.get("attributes"));
+        assertEquals("INTERNAL", child.get("kind"));
+        assertFalse(trace.get(0).containsKey("parentSpanId"));
+        assertEquals(1, exporter.getSpans(null, 1).size());
+        provider.shutdown();
+    }
+
+    /**
+     * Tests that the capacity must be positive.
+     */
+    @Test
+    void testInvalidCapacity() {
+        assertThrows(IllegalArgumentException.class,
+            () -> new RecentSpanExporter(0));
+    }
+}
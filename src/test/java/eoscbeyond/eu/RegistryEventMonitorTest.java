@@ -0,0 +1,125 @@
+/*
+ * Copyright © 2025 EOSC Beyond (${email})
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package eoscbeyond.eu;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.net.URI;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.http.HttpStatus;
+
+/**
+ * Unit tests for the {@code RegistryEventMonitor} class and the
+ * {@code RegistryEvents} it summarises.
+ */
+class RegistryEventMonitorTest {
+    /** Time allowed for events to reach the summaries. */
+    private static final long TIMEOUT_MILLIS = 30_000;
+
+    /**
+     * Tests that lookups, serialisation and ingestion are summarised with
+     * their result sizes and allocations.
+     */
+    @Test
+    void testSummaries(@TempDir final Path xDir) throws Exception {
+        Path csv = xDir.resolve("nodes.csv");
+        Files.writeString(csv, "1,Node One,http://example.com/logo.png,"
+        + "PID1,[Entity;http://example.com/ror],http://example.com/node,"
+        + "[Compute;http://example.com/cap;v1]\nnot,a,node\n");
+        RegistryEventMonitor monitor =
+        new RegistryEventMonitor(Duration.ofMinutes(1));
+        monitor.afterPropertiesSet();
+        try {
+            assertTrue(monitor.isRunning());
+            List<EoscNode> nodes = List.of(
+                new EoscNode("1", "Node One", null, null, null, null,
+                List.of(new EoscCapability("Monitoring",
+                URI.create("https://example.com/api/monitoring"), "1.0"))),
+                new EoscNode("2", "Node Two", null, null, null, null,
+                List.of()));
+            RegistrySnapshot snapshot = new RegistrySnapshot(1, nodes);
+            snapshot.getNode("1");
+            snapshot.getNode("3");
+            snapshot.getNodesWithCapability("Monitoring");
+            NodeJsonWriter.local().writeNodes(nodes);
+            new ReadNodeDetails(csv.toString());
+
+            Map<String, Map<String, Object>> events = awaitEvents(monitor,
+                "IdLookup", "CapabilityLookup", "Serialization", "IngestFile",
+                "IngestBatch");
+            Map<String, Object> idLookups = events.get("IdLookup");
+            assertEquals(2L, idLookups.get("count"));
+            assertEquals(0.5, idLookups.get("meanSize"));
+            assertEquals(1.0, events.get("CapabilityLookup").get("meanSize"));
+            assertEquals(2.0, events.get("Serialization").get("meanSize"));
+            // parsing allocates; the JSON writer reuses its buffer
+            Map<String, Object> ingestion = events.get("IngestFile");
+            assertEquals(1L, ingestion.get("count"));
+            assertEquals(1.0, ingestion.get("meanSize"));
+            assertTrue((long) ingestion.get("allocatedBytes") > 0);
+            assertEquals(1.0, events.get("IngestBatch").get("meanSize"));
+        } finally {
+            monitor.destroy();
+        }
+    }
+
+    /**
+     * Tests that a disabled monitor records nothing and its endpoint is
+     * not found.
+     */
+    @Test
+    void testDisabled() {
+        RegistryEventMonitor monitor =
+        new RegistryEventMonitor((Duration) null);
+        monitor.afterPropertiesSet();
+        assertFalse(monitor.isRunning());
+        assertNull(monitor.getSummaries());
+        assertEquals(HttpStatus.NOT_FOUND, new RegistryEventController(
+            monitor).getEventSummaries().getStatusCode());
+        monitor.destroy();
+    }
+
+    @SuppressWarnings("unchecked")
+    private static Map<String, Map<String, Object>> awaitEvents(
+            final RegistryEventMonitor xMonitor, final String... xNames)
+            throws InterruptedException {
+        long deadline = System.currentTimeMillis() + TIMEOUT_MILLIS;
+        while (true) {
+            Map<String, Map<String, Object>> events =
+            (Map<String, Map<String, Object>>) xMonitor.getSummaries()
+            .get("events");
+            boolean all = true;
+            for (String name : xNames) {
+                all &= (long) events.get(name).get("count") > 0;
+            }
+            if (all || System.currentTimeMillis() > deadline) {
+                return events;
+            }
+            Thread.sleep(100);
+        }
+    }
+}
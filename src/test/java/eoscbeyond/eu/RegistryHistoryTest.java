@@ -0,0 +1,132 @@
+/*
+ * Copyright © 2025 EOSC Beyond (${email})
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package eoscbeyond.eu;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.time.DateTimeException;
+import java.time.Instant;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * Unit tests for the {@code RegistryHistory} class.
+ */
+class RegistryHistoryTest {
+    /** Time the first version is published. */
+    private static final Instant T0 = Instant.parse("2025-03-01T12:00:00Z");
+
+    /**
+     * Tests lookups by version and by time.
+     */
+    @Test
+    void testLookup() {
+        RegistryHistory history = new RegistryHistory();
+        RegistrySnapshot v1 = snapshot(1);
+        RegistrySnapshot v2 = snapshot(2);
+        RegistrySnapshot v5 = snapshot(5);
+        history.record(v1, T0);
+        history.record(v2, T0.plusSeconds(60));
+        history.record(v5, T0.plusSeconds(120));
+
+        assertSame(v1, history.atVersion(1));
+        assertSame(v5, history.atVersion(5));
+        assertNull(history.atVersion(3));
+        assertNull(history.asOf(T0.minusMillis(1)));
+        assertSame(v1, history.asOf(T0));
+        assertSame(v1, history.asOf(T0.plusSeconds(59)));
+        assertSame(v2, history.asOf(T0.plusSeconds(60)));
+        assertSame(v5, history.asOf(T0.plusSeconds(3600)));
+        assertSame(v2, history.resolve("2"));
+        assertSame(v2, history.resolve("2025-03-01T12:01:30Z"));
+        assertNull(history.resolve("99999999999999999999"));
+        assertThrows(IllegalArgumentException.class,
+            () -> history.resolve("yesterday"));
+        assertThrows(IllegalArgumentException.class,
+            () -> history.resolve(""));
+        assertThrows(IllegalArgumentException.class,
+            () -> history.record(snapshot(4), T0.plusSeconds(180)));
+    }
+
+    /**
+     * Tests that publication times never go backwards, so the version
+     * found for a time is always the latest published by then.
+     */
+    @Test
+    void testClockSkew() {
+        RegistryHistory history = new RegistryHistory();
+        RegistrySnapshot v1 = snapshot(1);
+        RegistrySnapshot v2 = snapshot(2);
+        history.record(v1, T0);
+        history.record(v2, T0.minusSeconds(10));
+        assertSame(v2, history.asOf(T0));
+        assertEquals(T0.toString(),
+            history.getVersions().get(1).get("publishedAt"));
+    }
+
+    /**
+     * Tests that only the most recent versions are kept.
+     */
+    @Test
+    void testBounded() {
+        RegistryHistory history = new RegistryHistory();
+        history.setMaxVersions(3);
+        for (int version = 1; version <= 10; version++) {
+            history.record(snapshot(version), T0.plusSeconds(version));
+        }
+        assertEquals(List.of(8L, 9L, 10L), history.getVersions().stream()
+            .map(v -> v.get("version")).toList());
+        assertNull(history.atVersion(7));
+        assertNull(history.asOf(T0.plusSeconds(7)));
+        assertEquals(8, history.asOf(T0.plusSeconds(8)).getVersion());
+
+        history.setMaxVersions(1);
+        assertEquals(1, history.getVersions().size());
+        assertEquals(10, history.atVersion(10).getVersion());
+        assertThrows(IllegalArgumentException.class,
+            () -> history.setMaxVersions(0));
+    }
+
+    private static RegistrySnapshot snapshot(final long xVersion) {
+        return new RegistrySnapshot(xVersion, List.of(new EoscNode(
+            String.valueOf(xVersion), "Node", null, "PID", null, null,
+            null)));
+    }
+
+    /**
+     * Tests that the fast path for instants agrees with the general parser.
+     */
+    @Test
+    void testParseInstant() {
+        for (String text : List.of("2025-03-01T14:02:00Z",
+                "2024-02-29T23:59:59Z", "1970-01-01T00:00:00Z",
+                "2025-03-01T14:02:00.250Z", "2025-03-01T14:02:00+01:00")) {
+            assertEquals(Instant.parse(text),
+                RegistryHistory.parseInstant(text));
+        }
+        for (String text : List.of("2025-02-29T00:00:00Z",
+                "2025-13-01T00:00:00Z", "2025-03-01T25:00:00Z",
+                "2025-0a-01T00:00:00Z", "2025-03-01 14:02:00Z")) {
+            assertThrows(DateTimeException.class,
+                () -> RegistryHistory.parseInstant(text));
+        }
+    }
+}
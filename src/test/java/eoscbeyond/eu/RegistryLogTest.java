@@ -0,0 +1,331 @@
+/*
+ * Copyright © 2025 EOSC Beyond (${email})
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package eoscbeyond.eu;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+/**
+ * Unit tests for the {@code RegistryLog} class.
+ */
+class RegistryLogTest {
+    /** Directory of the log. */
+    @TempDir
+    private Path directory;
+
+    /**
+     * Tests that changes are replayed in order after a restart.
+     */
+    @Test
+    void testReplay() throws IOException {
+        try (RegistryLog log = RegistryLog.open(directory, Duration.ZERO)) {
+            assertNull(log.getCheckpoint());
+            assertEquals(0, log.replay(node -> { }, id -> { }));
+            log.appendPut(node("1"));
+            log.appendPut(node("2"));
+            log.awaitDurable(log.appendRemove("1"));
+        }
+        List<String> changes = new ArrayList<>();
+        try (RegistryLog log = RegistryLog.open(directory, Duration.ZERO)) {
+            assertEquals(3, log.replay(node -> changes.add("put " + node
+                .getId()), id -> changes.add("remove " + id)));
+            log.awaitDurable(log.appendPut(node("3")));
+        }
+        assertEquals(List.of("put 1", "put 2", "remove 1"), changes);
+        changes.clear();
+        try (RegistryLog log = RegistryLog.open(directory, Duration.ZERO)) {
+            log.replay(node -> changes.add(node.getName()),
+                id -> changes.add(id));
+            assertEquals(4L, log.getStatistics().get("sequence"));
+        }
+        assertEquals(List.of("Node 1", "Node 2", "1", "Node 3"), changes);
+    }
+
+    /**
+     * Tests that a record cut short by a crash is dropped, and that changes
+     * appended after the restart follow the last complete one.
+     */
+    @Test
+    void testTornRecord() throws IOException {
+        try (RegistryLog log = RegistryLog.open(directory, Duration.ZERO)) {
+            log.appendPut(node("1"));
+            log.awaitDurable(log.appendPut(node("2")));
+        }
+        Path segment = segments().get(0);
+        long size = Files.size(segment);
+        try (var channel = Files.newByteChannel(segment,
+            StandardOpenOption.WRITE)) {
+            channel.truncate(size - 3);
+        }
+        List<String> ids = new ArrayList<>();
+        try (RegistryLog log = RegistryLog.open(directory, Duration.ZERO)) {
+            log.replay(node -> ids.add(node.getId()), id -> { });
+            log.awaitDurable(log.appendPut(node("3")));
+        }
+        assertEquals(List.of("1"), ids);
+        assertTrue(Files.size(segment) < size - 3);
+        ids.clear();
+        try (RegistryLog log = RegistryLog.open(directory, Duration.ZERO)) {
+            log.replay(node -> ids.add(node.getId()), id -> { });
+        }
+        assertEquals(List.of("1", "3"), ids);
+    }
+
+    /**
+     * Tests that a corrupt record ends its segment.
+     */
+    @Test
+    void testCorruptRecord() throws IOException {
+        try (RegistryLog log = RegistryLog.open(directory, Duration.ZERO)) {
+            log.appendPut(node("1"));
+            log.awaitDurable(log.appendPut(node("2")));
+        }
+        Path segment = segments().get(0);
+        byte[] data = Files.readAllBytes(segment);
+        data[data.length - 1] ^= 1;
+        Files.write(segment, data);
+        List<String> ids = new ArrayList<>();
+        try (RegistryLog log = RegistryLog.open(directory, Duration.ZERO)) {
+            log.replay(node -> ids.add(node.getId()), id -> { });
+        }
+        assertEquals(List.of("1"), ids);
+    }
+
+    /**
+     * Tests that a checkpoint replaces the segments before it, and that
+     * only the changes after it are replayed.
+     */
+    @Test
+    void testCheckpoint() throws IOException {
+        try (RegistryLog log = RegistryLog.open(directory, Duration.ZERO)) {
+            log.appendPut(node("1"));
+            log.awaitDurable(log.appendPut(node("2")));
+            RegistryLog.Mark mark = log.roll(log.getLastSequence());
+            log.awaitDurable(log.appendRemove("1"));
+            log.checkpoint(List.of(node("1"), node("2")), mark);
+            assertEquals(2L, log.getStatistics().get("checkpointSequence"));
+        }
+        assertEquals(1, segments().size());
+        List<String> changes = new ArrayList<>();
+        try (RegistryLog log = RegistryLog.open(directory, Duration.ZERO)) {
+            assertEquals(List.of("1", "2"), log.getCheckpoint().stream()
+                .map(EoscNode::getId).toList());
+            log.replay(node -> changes.add(node.getId()),
+                id -> changes.add("remove " + id));
+            assertNull(log.getCheckpoint());
+        }
+        assertEquals(List.of("remove 1"), changes);
+    }
+
+    /**
+     * Tests that a checkpoint keeps the segment holding changes written
+     * after its sequence number but before the segment was switched.
+     */
+    @Test
+    void testCheckpointAfterLaterWrites() throws IOException {
+        try (RegistryLog log = RegistryLog.open(directory, Duration.ZERO)) {
+            long sequence = log.appendPut(node("1"));
+            log.awaitDurable(log.appendPut(node("2")));
+            log.awaitDurable(log.appendRemove("1"));
+            log.checkpoint(List.of(node("1")), log.roll(sequence));
+        }
+        assertEquals(2, segments().size());
+        List<String> changes = new ArrayList<>();
+        try (RegistryLog log = RegistryLog.open(directory, Duration.ZERO)) {
+            assertEquals(List.of("1"), log.getCheckpoint().stream()
+                .map(EoscNode::getId).toList());
+            log.replay(node -> changes.add(node.getId()),
+                id -> changes.add("remove " + id));
+        }
+        assertEquals(List.of("2", "remove 1"), changes);
+    }
+
+    /**
+     * Tests that a corrupt checkpoint fails the open, since the changes
+     * before it are gone.
+     */
+    @Test
+    void testCorruptCheckpoint() throws IOException {
+        try (RegistryLog log = RegistryLog.open(directory, Duration.ZERO)) {
+            log.checkpoint(List.of(node("1")),
+                log.roll(log.getLastSequence()));
+        }
+        Path checkpoint = directory.resolve(RegistryLog.CHECKPOINT_FILE);
+        byte[] data = Files.readAllBytes(checkpoint);
+        data[data.length - 1] ^= 1;
+        Files.write(checkpoint, data);
+        assertThrows(IOException.class,
+            () -> RegistryLog.open(directory, Duration.ZERO));
+    }
+
+    /**
+     * Tests that concurrent writers share syncs.
+     */
+    @Test
+    void testGroupCommit() throws Exception {
+        int writers = 8;
+        int perWriter = 50;
+        try (RegistryLog log = RegistryLog.open(directory,
+                Duration.ofMillis(1));
+            ExecutorService executor = Executors.newFixedThreadPool(
+                writers)) {
+            List<Future<?>> futures = new ArrayList<>();
+            for (int w = 0; w < writers; w++) {
+                int writer = w;
+                futures.add(executor.submit(() -> {
+                    for (int i = 0; i < perWriter; i++) {
+                        log.awaitDurable(log.appendPut(node(writer + "-"
+                            + i)));
+                    }
+                }));
+            }
+            for (Future<?> future : futures) {
+                future.get();
+            }
+            long records = (long) log.getStatistics().get("records");
+            long batches = (long) log.getStatistics().get("batches");
+            assertEquals(writers * perWriter, records);
+            assertTrue(batches < records, batches + " batches");
+        }
+        try (RegistryLog log = RegistryLog.open(directory, Duration.ZERO)) {
+            assertEquals(writers * perWriter,
+                log.replay(node -> { }, id -> { }));
+        }
+    }
+
+    /**
+     * Tests that appends fail once the log is closed.
+     */
+    @Test
+    void testClosed() throws IOException {
+        RegistryLog log = RegistryLog.open(directory, Duration.ZERO);
+        log.close();
+        assertThrows(IllegalStateException.class,
+            () -> log.appendRemove("1"));
+    }
+
+    /**
+     * Tests that durable records are read after a sequence number, and
+     * that records no longer retained are reported as gone.
+     */
+    @Test
+    void testReadAfter() throws IOException {
+        try (RegistryLog log = RegistryLog.open(directory, Duration.ZERO,
+                2)) {
+            log.appendPut(node("1"));
+            log.appendPut(node("2"));
+            log.awaitDurable(log.appendRemove("1"));
+            assertNull(log.readAfter(0, Integer.MAX_VALUE));
+            assertNull(log.readAfter(4, Integer.MAX_VALUE));
+            RegistryLog.Shipment shipment =
+            log.readAfter(1, Integer.MAX_VALUE);
+            assertEquals(3, shipment.sequence());
+            assertEquals(List.of("put 2", "remove 1"), changes(shipment, 1));
+            assertEquals(List.of("put 2"), changes(log.readAfter(1, 1), 1));
+            assertEquals(0, log.readAfter(3, Integer.MAX_VALUE).records()
+                .length);
+        }
+        try (RegistryLog log = RegistryLog.open(directory, Duration.ZERO,
+                2)) {
+            log.replay(node -> { }, id -> { });
+            assertEquals(List.of("remove 1"),
+                changes(log.readAfter(2, Integer.MAX_VALUE), 2));
+        }
+    }
+
+    /**
+     * Tests that a waiter runs once the next record is durable, at once if
+     * there is one already, and when the log closes.
+     */
+    @Test
+    void testWhenDurableAfter() throws Exception {
+        CompletableFuture<RegistryLog.Shipment> read =
+        new CompletableFuture<>();
+        List<String> calls = new ArrayList<>();
+        try (RegistryLog log = RegistryLog.open(directory, Duration.ZERO)) {
+            log.whenDurableAfter(0,
+                () -> read.complete(log.readAfter(0, Integer.MAX_VALUE)));
+            Runnable cancelled = () -> calls.add("cancelled");
+            log.whenDurableAfter(0, cancelled);
+            log.cancelWaiter(cancelled);
+            assertFalse(read.isDone());
+            log.awaitDurable(log.appendPut(node("1")));
+            assertEquals(List.of("put 1"),
+                changes(read.get(10, TimeUnit.SECONDS), 0));
+            log.whenDurableAfter(0, () -> calls.add("ready"));
+            log.whenDurableAfter(1, () -> calls.add("closed"));
+            assertEquals(List.of("ready"), calls);
+        }
+        assertEquals(List.of("ready", "closed"), calls);
+    }
+
+    /**
+     * Tests that a checkpoint survives encoding and decoding.
+     */
+    @Test
+    void testCheckpointCodec() throws IOException {
+        RegistryLog.Checkpoint checkpoint = RegistryLog.decodeCheckpoint(
+            RegistryLog.encodeCheckpoint(List.of(node("1"), node("2")), 7,
+            3));
+        assertEquals(List.of("1", "2"), checkpoint.nodes().stream()
+            .map(EoscNode::getId).toList());
+        assertEquals(7, checkpoint.sequence());
+        assertEquals(3, checkpoint.firstSegment());
+    }
+
+    private static List<String> changes(final RegistryLog.Shipment xShipment,
+            final long xAfter) throws IOException {
+        List<RegistryLog.Change> changes = new ArrayList<>();
+        assertEquals(xShipment.records().length, RegistryLog.readRecords(
+            xShipment.records(), xAfter, changes));
+        return changes.stream().map(change -> change.node() != null
+            ? "put " + change.node().getId()
+            : "remove " + change.removedId()).toList();
+    }
+
+    private List<Path> segments() throws IOException {
+        try (Stream<Path> files = Files.list(directory)) {
+            return files.filter(path -> path.getFileName().toString()
+                .endsWith(".log")).sorted().toList();
+        }
+    }
+
+    private static EoscNode node(final String xId) {
+        return new EoscNode(xId, "Node " + xId, null, "PID" + xId, null,
+            null, List.of());
+    }
+}
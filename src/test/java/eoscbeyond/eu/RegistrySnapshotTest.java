@@ -0,0 +1,246 @@
+/*
+ * Copyright © 2025 EOSC Beyond (${email})
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package eoscbeyond.eu;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Unit tests for the {@code RegistrySnapshot} class and the node summary
+ * projection.
+ */
+class RegistrySnapshotTest {
+    /** Snapshot under test. */
+    private RegistrySnapshot snapshot;
+    /** Nodes in the snapshot. */
+    private List<EoscNode> nodes;
+
+    /**
+     * Sets up the test environment before each test.
+     */
+    @BeforeEach
+    void setUp() {
+        List<EoscCapability> capabilities = new ArrayList<>();
+        capabilities.add(new EoscCapability("Monitoring",
+            URI.create("https://example.com/api/monitoring"), "1.0"));
+        nodes = new ArrayList<>();
+        nodes.add(new EoscNode("1", "Node One", null, null, null,
+            URI.create("https://example.com/node1"), capabilities));
+        nodes.add(new EoscNode("2", "Node Two", null, null, null,
+            URI.create("https://example.com/node2"), null));
+        nodes.add(new EoscNode("1", "Node One (duplicate)", null, null, null,
+            URI.create("https://example.com/node1b"), null));
+        snapshot = new RegistrySnapshot(7, nodes);
+    }
+
+    /**
+     * Tests that the snapshot keeps its nodes and indexes them by ID, the
+     * first node winning when IDs are repeated.
+     */
+    @Test
+    void testIndex() {
+        assertEquals(7, snapshot.getVersion());
+        assertEquals(nodes, snapshot.getNodes());
+        assertThrows(UnsupportedOperationException.class,
+            () -> snapshot.getNodes().clear());
+        assertSame(nodes.get(0), snapshot.getNode("1"));
+        assertSame(nodes.get(1), snapshot.getNode("2"));
+        assertNull(snapshot.getNode("99"));
+        assertEquals(0, RegistrySnapshot.EMPTY.getNodes().size());
+    }
+
+    /**
+     * Tests the capability index.
+     */
+    @Test
+    void testCapabilityIndex() {
+        nodes.get(1).setCapabilityList(new ArrayList<>(List.of(
+            new EoscCapability(" Monitoring ", null, null),
+            new EoscCapability("Monitoring", null, "2"),
+            new EoscCapability(null, null, null))));
+        snapshot = new RegistrySnapshot(8, nodes);
+        assertEquals(List.of(nodes.get(0), nodes.get(1)),
+            snapshot.getNodesWithCapability("Monitoring"));
+        assertEquals(List.of(), snapshot.getNodesWithCapability(" Monitoring"));
+        assertEquals(List.of(), snapshot.getNodesWithCapability("Storage"));
+        assertThrows(UnsupportedOperationException.class,
+            () -> snapshot.getNodesWithCapability("Monitoring").clear());
+    }
+
+    /**
+     * Tests that nodes are indexed by ordinal, and that a later version
+     * keeps the ordinals of the IDs it shares with an earlier one.
+     */
+    @Test
+    void testOrdinals() {
+        NodeOrdinals ordinals = snapshot.getOrdinals();
+        assertEquals(2, ordinals.size());
+        assertSame(nodes.get(0), snapshot.getNode(ordinals.ordinalOf("1")));
+        assertNull(snapshot.getNode(2));
+        assertNull(snapshot.getNode(NodeOrdinals.NOT_FOUND));
+        assertArrayEquals(new int[] {0},
+            snapshot.getOrdinalsWithCapability("Monitoring"));
+        assertArrayEquals(new int[0],
+            snapshot.getOrdinalsWithCapability("Storage"));
+
+        EoscNode three = new EoscNode("3", "Node Three", null, null, null,
+            null, nodes.get(0).getCapabilityList());
+        RegistrySnapshot next = new RegistrySnapshot(8,
+            List.of(three, nodes.get(0)), Map.of(), ordinals);
+        assertEquals(0, next.getOrdinals().ordinalOf("1"));
+        assertEquals(1, next.getOrdinals().ordinalOf("2"));
+        assertEquals(2, next.getOrdinals().ordinalOf("3"));
+        assertNull(next.getNode("2"));
+        assertNull(next.getSummary("2"));
+        assertNull(next.getSummaryJson("2"));
+        assertArrayEquals(new int[] {0, 2},
+            next.getOrdinalsWithCapability("Monitoring"));
+        assertEquals(List.of(nodes.get(0), three),
+            next.getNodesWithCapability("Monitoring"));
+    }
+
+    /**
+     * Tests that replacing, adding and removing one node derives a new
+     * snapshot and leaves the earlier one unchanged.
+     */
+    @Test
+    void testWithNode() {
+        URI monitoring = URI.create("https://example.com/api/monitoring");
+        RegistrySnapshot withMetadata = snapshot.withMetadata(8, Map.of(
+            monitoring, new CapabilityMetadata(monitoring, "Monitoring",
+                "1.0", Instant.EPOCH)));
+        byte[] json = withMetadata.getSummaryJson("2");
+        EoscNode two = new EoscNode("2", "Node Two v2", null, null, null,
+            null, nodes.get(0).getCapabilityList());
+        RegistrySnapshot replaced = withMetadata.withNode(9, two);
+        assertEquals(9, replaced.getVersion());
+        assertSame(two, replaced.getNode("2"));
+        assertEquals(List.of(nodes.get(0), two, nodes.get(2)),
+            replaced.getNodes());
+        assertEquals(List.of(nodes.get(0), two),
+            replaced.getNodesWithCapability("Monitoring"));
+        assertSame(json, withMetadata.getSummaryJson("2"));
+        assertSame(withMetadata.getSummaryJson("1"),
+            replaced.getSummaryJson("1"));
+
+        EoscNode four = new EoscNode("4", "Node Four", null, null, null,
+            null, null);
+        RegistrySnapshot added = replaced.withNode(10, four);
+        assertEquals(4, added.getNodes().size());
+        assertSame(four, added.getNodes().get(3));
+        assertEquals(2, added.getOrdinals().ordinalOf("4"));
+
+        RegistrySnapshot removed = added.withoutNode(11, "1")
+        .withoutNode(12, "2");
+        assertSame(removed, removed.withoutNode(13, "1"));
+        assertNull(removed.getNode("1"));
+        assertEquals(List.of(nodes.get(2), four), removed.getNodes());
+        assertEquals(List.of(), removed.getNodesWithCapability("Monitoring"));
+        assertEquals(Set.of(), removed.getCapabilityEndpoints());
+        assertEquals(Map.of(), removed.getMetadata());
+        assertEquals(1, added.getMetadata().size());
+        assertEquals(List.of(nodes.get(0), nodes.get(1), nodes.get(2)),
+            snapshot.getNodes());
+        assertThrows(IllegalArgumentException.class, () -> snapshot.withNode(
+            8, new EoscNode(null, null, null, null, null, null, null)));
+    }
+
+    /**
+     * Tests the summary projection and its cached serialised form.
+     */
+    @Test
+    void testSummaries() {
+        NodeSummary summary = snapshot.getSummary("1");
+        assertEquals(URI.create("https://example.com/node1"),
+            summary.nodeEndpoint());
+        assertEquals(nodes.get(0).getCapabilityList(),
+            summary.capabilities());
+        assertNull(snapshot.getSummary("99"));
+        assertNull(snapshot.getSummaryJson("99"));
+
+        String expected = "{\"nodeEndpoint\":\"https://example.com/node1\","
+            + "\"capabilities\":[{\"capabilityType\":\"Monitoring\","
+            + "\"endpoint\":\"https://example.com/api/monitoring\","
+            + "\"version\":\"1.0\"}]}";
+        byte[] json = snapshot.getSummaryJson("1");
+        assertEquals(expected, new String(json, StandardCharsets.UTF_8));
+        assertEquals(expected, summary.toJson());
+        assertSame(json, snapshot.getSummaryJson("1"));
+        assertEquals("{\"nodeEndpoint\":\"https://example.com/node2\"}",
+            snapshot.getSummary("2").toJson());
+    }
+
+    /**
+     * Tests the batch summary representation.
+     */
+    @Test
+    void testWriteSummaries() {
+        Map<String, NodeSummary> summaries = new LinkedHashMap<>();
+        summaries.put("2", snapshot.getSummary("2"));
+        assertEquals("{\"summaries\":{\"2\":{\"nodeEndpoint\":"
+            + "\"https://example.com/node2\"}},\"missing\":[\"9\",\"x\"]}",
+            NodeJsonWriter.local().writeSummaries(summaries,
+                List.of("9", "x")).toString());
+    }
+
+    /**
+     * Tests that harvested metadata is kept only for endpoints that a node
+     * offers, and is listed per node in capability order.
+     */
+    @Test
+    void testMetadata() {
+        URI monitoring = URI.create("https://example.com/api/monitoring");
+        URI stale = URI.create("https://example.com/api/gone");
+        Instant harvestedAt = Instant.parse("2025-01-02T03:04:05Z");
+        Map<URI, CapabilityMetadata> metadata = new LinkedHashMap<>();
+        metadata.put(monitoring, new CapabilityMetadata(monitoring,
+            "Monitoring \"API\"", "2.1", harvestedAt));
+        metadata.put(stale, new CapabilityMetadata(stale, null, null,
+            harvestedAt));
+        RegistrySnapshot withMetadata = new RegistrySnapshot(8, nodes,
+            metadata);
+        assertEquals(Map.of(monitoring, metadata.get(monitoring)),
+            withMetadata.getMetadata());
+        assertEquals(List.of(metadata.get(monitoring)),
+            withMetadata.getNodeMetadata("1"));
+        assertEquals(List.of(), withMetadata.getNodeMetadata("2"));
+        assertNull(withMetadata.getNodeMetadata("9"));
+        assertEquals(List.of(), snapshot.getNodeMetadata("1"));
+        assertEquals("[{\"endpoint\":"
+            + "\"https://example.com/api/monitoring\","
+            + "\"description\":\"Monitoring \\\"API\\\"\","
+            + "\"version\":\"2.1\","
+            + "\"harvestedAt\":\"2025-01-02T03:04:05Z\"}]",
+            NodeJsonWriter.local().writeMetadata(
+                withMetadata.getNodeMetadata("1")).toString());
+    }
+}
@@ -0,0 +1,157 @@
+/*
+ * Copyright © 2025 EOSC Beyond (${email})
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package eoscbeyond.eu;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.locks.LockSupport;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import io.opentelemetry.api.trace.Tracer;
+import io.opentelemetry.sdk.trace.SdkTracerProvider;
+import io.opentelemetry.sdk.trace.export.SimpleSpanProcessor;
+
+/**
+ * Unit tests for the {@code RegistryTracing} class.
+ */
+class RegistryTracingTest {
+    /** Time spent in a phase, in nanoseconds. */
+    private static final long PHASE_NANOS = 1_000_000L;
+
+    /** Keeps the spans. */
+    private RecentSpanExporter exporter;
+    /** Records the spans. */
+    private SdkTracerProvider provider;
+    /** The installed tracer. */
+    private Tracer tracer;
+
+    @BeforeEach
+    void setUp() {
+        exporter = new RecentSpanExporter(100);
+        provider = SdkTracerProvider.builder()
+        .addSpanProcessor(SimpleSpanProcessor.create(exporter)).build();
+        tracer = provider.get(RegistryTracing.SCOPE);
+        RegistryTracing.install(tracer, exporter, false);
+    }
+
+    @AfterEach
+    void tearDown() {
+        RegistryTracing.endRequest();
+        RegistryTracing.uninstall(tracer);
+        provider.shutdown();
+    }
+
+    /**
+     * Tests that nested phases become nested spans and that their times
+     * are added to the timing of the request.
+     */
+    @Test
+    void testNestedPhases() {
+        ServerTiming timing = RegistryTracing.startRequest();
+        byte[] body = RegistryTracing.phase("cache", RegistryTracing.timed(
+            "serialize", () -> {
+                LockSupport.parkNanos(PHASE_NANOS);
+                return new byte[1];
+            }));
+        assertEquals(1, body.length);
+        try (RegistryTracing.Phase phase = RegistryTracing.phase("lookup")) {
+            phase.setAttribute("registry.result_size", 2)
+            .setAttribute("registry.capability", "Compute");
+        }
+        RegistryTracing.endRequest();
+
+        assertTrue(timing.getNanos("serialize") >= PHASE_NANOS);
+        assertTrue(timing.getNanos("cache") >= timing.getNanos("serialize"));
+        List<Map<String, Object>> spans = exporter.getSpans(null, 10);
+        assertEquals(List.of("lookup", "cache", "serialize"),
+            spans.stream().map(span -> span.get("name")).toList());
+        assertEquals(spans.get(1).get("spanId"),
+            spans.get(2).get("parentSpanId"));
+        assertEquals(Map.of("registry.result_size", 2L,
+            "registry.capability", "Compute"), spans.get(0).get("attributes"));
+    }
+
+    /**
+     * Tests that phases are timed for the request without a tracer, and
+     * cost nothing with neither.
+     */
+    @Test
+    void testWithoutTracer() {
+        RegistryTracing.uninstall(tracer);
+        assertNull(RegistryTracing.getExporter());
+        assertSame(RegistryTracing.phase("lookup"),
+            RegistryTracing.phase("serialize"));
+
+        ServerTiming timing = RegistryTracing.startRequest();
+        RegistryTracing.Phase phase = RegistryTracing.phase("lookup");
+        assertNotSame(phase, RegistryTracing.phase("lookup"));
+        LockSupport.parkNanos(PHASE_NANOS);
+        phase.close();
+        assertTrue(timing.getNanos("lookup") >= PHASE_NANOS);
+        assertEquals(0, exporter.getSpans(null, 10).size());
+    }
+
+    /**
+     * Tests that reading a nodes file is traced as one span with the
+     * totals, and with a span per line only when line spans are installed.
+     */
+    @Test
+    void testIngestion(@TempDir final Path xDir) throws Exception {
+        Path csv = xDir.resolve("nodes.csv");
+        Files.writeString(csv, "1,Node One,http://example.com/logo.png,"
+        + "PID1,[Entity;http://example.com/ror],http://example.com/node,"
+        + "[Compute;http://example.com/cap;v1]\n2,Node Two,"
+        + "http://example.com/logo.png,PID2,[Entity;http://example.com/ror],"
+        + "http://example.com/node,[Storage;http://example.com/cap;v1]\n");
+        List<EoscNode> nodes = new ReadNodeDetails(csv.toString())
+        .getNodes();
+        assertEquals(2, nodes.size());
+
+        List<Map<String, Object>> spans = exporter.getSpans(null, 100);
+        assertEquals(1, spans.size());
+        Map<String, Object> ingest = spans.get(0);
+        assertEquals("ingest", ingest.get("name"));
+        @SuppressWarnings("unchecked")
+        Map<String, Object> attributes =
+        (Map<String, Object>) ingest.get("attributes");
+        assertEquals(csv.toString(), attributes.get("registry.file"));
+        assertEquals(2L, attributes.get("registry.nodes"));
+        assertEquals(2L, attributes.get("registry.lines"));
+
+        RegistryTracing.install(tracer, exporter, true);
+        new ReadNodeDetails(csv.toString());
+        Object ingestId = exporter.getSpans(null, 100).stream()
+        .filter(span -> "ingest".equals(span.get("name")))
+        .findFirst().orElseThrow().get("spanId");
+        assertEquals(2, exporter.getSpans(null, 100).stream()
+            .filter(span -> "parse".equals(span.get("name")))
+            .filter(span -> ingestId.equals(span.get("parentSpanId")))
+            .count());
+    }
+}
@@ -0,0 +1,94 @@
+/*
+ * Copyright © 2025 EOSC Beyond (${email})
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package eoscbeyond.eu;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+/**
+ * Unit tests for the {@code ReplicationAuthFilter} class.
+ */
+class ReplicationAuthFilterTest {
+    /** Replication token. */
+    private static final String TOKEN = "secret";
+
+    /** Filter under test. */
+    private final ReplicationAuthFilter filter = new ReplicationAuthFilter(
+        new SharedSecret(ReplicationAuthFilter.TOKEN_HEADER, TOKEN));
+
+    /**
+     * Tests that node changes and log shipping are refused with 401 without
+     * the token or with a wrong one, and pass with it.
+     */
+    @Test
+    void testToken() throws Exception {
+        for (String path : new String[] {"/replication/nodes/1",
+            "/replication/log", "/replication/snapshot"}) {
+            assertEquals(401, filter(path, null, filter).getStatus());
+            assertEquals(401, filter(path, "guess", filter).getStatus());
+            assertEquals(200, filter(path, TOKEN, filter).getStatus());
+        }
+    }
+
+    /**
+     * Tests that the status and other paths are open.
+     */
+    @Test
+    void testOpenPaths() throws Exception {
+        assertEquals(200, filter("/replication/status", null, filter)
+            .getStatus());
+        assertEquals(200, filter("/nodes/1", null, filter).getStatus());
+    }
+
+    /**
+     * Tests that without a configured token every replication request but
+     * the status is refused, even one with an empty token.
+     */
+    @Test
+    void testNoToken() throws Exception {
+        ReplicationAuthFilter open = new ReplicationAuthFilter(
+            new SharedSecret(ReplicationAuthFilter.TOKEN_HEADER, null));
+        assertEquals(401, filter("/replication/nodes/1", "", open)
+            .getStatus());
+        assertEquals(200, filter("/replication/status", null, open)
+            .getStatus());
+    }
+
+    private static MockHttpServletResponse filter(final String xPath,
+            final String xToken, final ReplicationAuthFilter xFilter)
+            throws Exception {
+        MockHttpServletRequest request =
+        new MockHttpServletRequest("PUT", xPath);
+        if (xToken != null) {
+            request.addHeader(ReplicationAuthFilter.TOKEN_HEADER, xToken);
+        }
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        MockFilterChain chain = new MockFilterChain();
+        xFilter.doFilter(request, response, chain);
+        if (response.getStatus() == 200) {
+            assertNotNull(chain.getRequest());
+        } else {
+            assertNull(chain.getRequest());
+        }
+        return response;
+    }
+}
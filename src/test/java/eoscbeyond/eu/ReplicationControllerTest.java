@@ -0,0 +1,175 @@
+/*
+ * Copyright © 2025 EOSC Beyond (${email})
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package eoscbeyond.eu;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.context.request.async.DeferredResult;
+
+import eoscbeyond.eu.data.ReplicationConfiguration.Role;
+
+/**
+ * Unit tests for the {@code ReplicationController} class.
+ */
+class ReplicationControllerTest {
+    /** Directory of the log. */
+    @TempDir
+    private Path directory;
+
+    /** The registry. */
+    private final NodeRegistry registry = NodeRegistry.getInstance();
+
+    /** A leader's controller. */
+    private final ReplicationController leader =
+    new ReplicationController(Role.LEADER, null);
+
+    @BeforeEach
+    void setUp() throws IOException {
+        registry.setNodes(List.of(new EoscNode("1", "Node 1", null, "PID1",
+            null, null, List.of())));
+        registry.attachLog(RegistryLog.open(directory, Duration.ZERO));
+    }
+
+    @AfterEach
+    void tearDown() throws IOException {
+        RegistryLog log = registry.detachLog();
+        if (log != null) {
+            log.close();
+        }
+    }
+
+    /**
+     * Tests that node changes on the leader are shipped in order after its
+     * snapshot.
+     */
+    @Test
+    void testShip() throws IOException {
+        RegistryLog.Checkpoint snapshot = RegistryLog.decodeCheckpoint(
+            leader.getSnapshot().getBody());
+        assertEquals(0, snapshot.sequence());
+        assertEquals(List.of("1"), snapshot.nodes().stream()
+            .map(EoscNode::getId).toList());
+
+        assertEquals(HttpStatus.NO_CONTENT, leader.putNode("2", json(
+            "{\"name\":\"Node 2\",\"pid\":\"PID2\"}")).getStatusCode());
+        assertEquals(HttpStatus.NO_CONTENT,
+            leader.removeNode("1").getStatusCode());
+        assertEquals("Node 2", registry.searchNodeById("2").getName());
+        assertNull(registry.searchNodeById("1"));
+
+        ResponseEntity<byte[]> response = response(leader.getLog(0, 0));
+        assertEquals("2", response.getHeaders().getFirst(
+            ReplicationController.SEQUENCE_HEADER));
+        List<RegistryLog.Change> changes = new ArrayList<>();
+        RegistryLog.readRecords(response.getBody(), 0, changes);
+        assertEquals("2", changes.get(0).node().getId());
+        assertEquals("1", changes.get(1).removedId());
+        assertEquals(0, response(leader.getLog(2, 0)).getBody().length);
+        assertEquals(HttpStatus.GONE, response(leader.getLog(3, 0)).getStatusCode());
+        assertEquals(HttpStatus.BAD_REQUEST,
+            response(leader.getLog(-1, 0)).getStatusCode());
+        assertEquals("leader", leader.getStatus().getBody().get("role"));
+    }
+
+    /**
+     * Tests that a request waiting for changes completes when one is
+     * durable, without a thread blocked on it meanwhile.
+     */
+    @Test
+    void testLongPoll() throws Exception {
+        DeferredResult<ResponseEntity<byte[]>> result =
+        leader.getLog(0, ReplicationController.MAX_WAIT_MILLIS);
+        assertFalse(result.hasResult());
+        CompletableFuture<Object> shipped = new CompletableFuture<>();
+        result.setResultHandler(shipped::complete);
+
+        registry.removeNode("1");
+        @SuppressWarnings("unchecked")
+        ResponseEntity<byte[]> response =
+        (ResponseEntity<byte[]>) shipped.get(10, TimeUnit.SECONDS);
+        assertEquals("1", response.getHeaders().getFirst(
+            ReplicationController.SEQUENCE_HEADER));
+        List<RegistryLog.Change> changes = new ArrayList<>();
+        RegistryLog.readRecords(response.getBody(), 0, changes);
+        assertEquals("1", changes.get(0).removedId());
+        assertEquals(0, registry.getLog().getStatistics().get("waiters"));
+    }
+
+    /**
+     * Tests that invalid node changes are rejected.
+     */
+    @Test
+    void testInvalidChange() {
+        assertEquals(HttpStatus.BAD_REQUEST,
+            leader.putNode("2", json("{\"id\":\"3\"}")).getStatusCode());
+        assertEquals(HttpStatus.BAD_REQUEST,
+            leader.putNode("2", json("[]")).getStatusCode());
+        assertEquals(HttpStatus.BAD_REQUEST,
+            leader.putNode("2", json("{\"name\":null,\"pid\":7}"))
+            .getStatusCode());
+        assertEquals(HttpStatus.NOT_FOUND,
+            leader.removeNode("9").getStatusCode());
+        assertNull(registry.searchNodeById("3"));
+    }
+
+    /**
+     * Tests that only a leader serves its log and accepts changes.
+     */
+    @Test
+    void testNotLeader() {
+        ReplicationController standalone =
+        new ReplicationController(Role.STANDALONE, null);
+        assertEquals(HttpStatus.NOT_FOUND,
+            standalone.getStatus().getStatusCode());
+        assertEquals(HttpStatus.NOT_FOUND,
+            response(standalone.getLog(0, 0)).getStatusCode());
+        assertEquals(HttpStatus.NOT_FOUND,
+            standalone.getSnapshot().getStatusCode());
+        assertEquals(HttpStatus.NOT_FOUND,
+            standalone.putNode("2", json("{}")).getStatusCode());
+        assertEquals(HttpStatus.NOT_FOUND,
+            standalone.removeNode("1").getStatusCode());
+        assertEquals("Node 1", registry.searchNodeById("1").getName());
+    }
+
+    @SuppressWarnings("unchecked")
+    private static ResponseEntity<byte[]> response(
+            final DeferredResult<ResponseEntity<byte[]>> xResult) {
+        return (ResponseEntity<byte[]>) xResult.getResult();
+    }
+
+    private static byte[] json(final String xJson) {
+        return xJson.getBytes(StandardCharsets.UTF_8);
+    }
+}
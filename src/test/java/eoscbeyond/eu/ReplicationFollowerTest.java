@@ -0,0 +1,329 @@
+/*
+ * Copyright © 2025 EOSC Beyond (${email})
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package eoscbeyond.eu;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.spy;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.BooleanSupplier;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+import eoscbeyond.eu.data.ReplicationConfiguration;
+import eoscbeyond.eu.data.ReplicationConfiguration.Role;
+
+/**
+ * Unit tests for the {@code ReplicationFollower} class, against a leader
+ * serving a {@code RegistryLog} over HTTP on localhost.
+ */
+class ReplicationFollowerTest {
+    /** Replication token the leader requires. */
+    private static final String TOKEN = "secret";
+
+    /** Directory of the leader's log. */
+    @TempDir
+    private Path directory;
+
+    /** The leader's log. */
+    private RegistryLog log;
+    /** The leader's nodes. */
+    private final List<EoscNode> nodes = new ArrayList<>();
+    /** Number of snapshot requests served. */
+    private final AtomicInteger snapshots = new AtomicInteger();
+    /** Number of snapshot requests to answer with an empty snapshot at
+     * sequence zero, as if from a leader that has since moved on. */
+    private volatile int staleSnapshots;
+    /** The leader's HTTP server. */
+    private HttpServer server;
+    /** The follower under test. */
+    private ReplicationFollower follower;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        NodeRegistry.getInstance().setNodes(List.of());
+        server = HttpServer.create(
+            new InetSocketAddress("localhost", 0), 0);
+        server.setExecutor(Executors.newCachedThreadPool());
+        server.createContext("/" + ReplicationController.SNAPSHOT_PATH,
+            this::serveSnapshot);
+        server.createContext("/" + ReplicationController.LOG_PATH,
+            this::serveLog);
+        server.start();
+    }
+
+    @AfterEach
+    void tearDown() throws Exception {
+        if (follower != null) {
+            follower.destroy();
+        }
+        server.stop(0);
+        if (log != null) {
+            log.close();
+        }
+    }
+
+    /**
+     * Tests that a follower starts from the leader's snapshot, then applies
+     * the leader's changes in order and reports no lag once it has them.
+     */
+    @Test
+    void testFollow() throws Exception {
+        openLog(RegistryLog.DEFAULT_RETAINED_CHANGES);
+        put("1");
+        put("2");
+        follower = start();
+        awaitApplied(2);
+        assertEquals(List.of("1", "2"), ids());
+        put("3");
+        remove("1");
+        awaitApplied(4);
+        assertEquals(List.of("2", "3"), ids());
+        Map<String, Object> stats = follower.getStatistics();
+        assertEquals("streaming", stats.get("state"));
+        assertEquals(4L, stats.get("leaderSequence"));
+        assertEquals(0L, stats.get("lagChanges"));
+        assertEquals(2L, stats.get("applied"));
+        assertEquals(1L, stats.get("bootstraps"));
+    }
+
+    /**
+     * Tests that a restarted follower catches up with the changes made
+     * while it was stopped.
+     */
+    @Test
+    void testRestart() throws Exception {
+        openLog(RegistryLog.DEFAULT_RETAINED_CHANGES);
+        put("1");
+        follower = start();
+        awaitApplied(1);
+        follower.destroy();
+        put("2");
+        put("3");
+        remove("2");
+        assertEquals(List.of("1"), ids());
+        follower = start();
+        awaitApplied(4);
+        assertEquals(List.of("1", "3"), ids());
+    }
+
+    /**
+     * Tests that a follower whose changes the leader no longer retains
+     * starts from a new snapshot.
+     */
+    @Test
+    void testGone() throws Exception {
+        openLog(2);
+        for (int i = 1; i <= 5; i++) {
+            put(Integer.toString(i));
+        }
+        staleSnapshots = 1;
+        follower = start();
+        awaitApplied(5);
+        assertEquals(List.of("1", "2", "3", "4", "5"), ids());
+        assertEquals(2L, follower.getStatistics().get("bootstraps"));
+        assertEquals(2, snapshots.get());
+    }
+
+    /**
+     * Tests that a follower keeps retrying while the leader is down.
+     */
+    @Test
+    void testLeaderDown() throws Exception {
+        openLog(RegistryLog.DEFAULT_RETAINED_CHANGES);
+        server.stop(0);
+        follower = start();
+        await(() -> (long) follower.getStatistics().get("errors") >= 2);
+        Map<String, Object> stats = follower.getStatistics();
+        assertEquals("disconnected", stats.get("state"));
+        assertEquals(-1L, stats.get("lagChanges"));
+        assertEquals(-1L, follower.getAppliedSequence());
+        assertNull(NodeRegistry.getInstance().searchNodeById("1"));
+    }
+
+    /**
+     * Tests that a follower that fails to apply a change starts from a new
+     * snapshot instead of stopping.
+     */
+    @Test
+    void testApplyFailure() throws Exception {
+        openLog(RegistryLog.DEFAULT_RETAINED_CHANGES);
+        put("1");
+        NodeRegistry registry = spy(new NodeRegistry(List.of(new EoscNode(
+            "0", "Node 0", null, "PID0", null, null, List.of()))));
+        follower = start(registry);
+        awaitApplied(1);
+        doThrow(new IllegalStateException("injected")).doCallRealMethod()
+            .when(registry).putNode(any());
+        put("2");
+        await(() -> (long) follower.getStatistics().get("bootstraps") == 2);
+        awaitApplied(2);
+        assertEquals(List.of("1", "2"), registry.getNodes().stream()
+            .map(EoscNode::getId).sorted().toList());
+        assertEquals(1L, follower.getStatistics().get("errors"));
+    }
+
+    private void serveSnapshot(final HttpExchange xExchange)
+            throws IOException {
+        if (!authorized(xExchange)) {
+            return;
+        }
+        byte[] body;
+        synchronized (nodes) {
+            body = snapshots.getAndIncrement() < staleSnapshots
+            ? RegistryLog.encodeCheckpoint(List.of(), 0, 0)
+            : RegistryLog.encodeCheckpoint(List.copyOf(nodes),
+                log.getLastSequence(), 0);
+        }
+        respond(xExchange, 200, body);
+    }
+
+    private void serveLog(final HttpExchange xExchange) throws IOException {
+        if (!authorized(xExchange)) {
+            return;
+        }
+        long after = -1;
+        long wait = 0;
+        for (String param : xExchange.getRequestURI().getQuery()
+            .split("&")) {
+            String[] pair = param.split("=");
+            if (pair[0].equals("after")) {
+                after = Long.parseLong(pair[1]);
+            } else if (pair[0].equals("wait")) {
+                wait = Long.parseLong(pair[1]);
+            }
+        }
+        CountDownLatch durable = new CountDownLatch(1);
+        Runnable waiter = durable::countDown;
+        log.whenDurableAfter(after, waiter);
+        try {
+            durable.await(wait, TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } finally {
+            log.cancelWaiter(waiter);
+        }
+        RegistryLog.Shipment shipment = log.readAfter(after,
+            ReplicationController.MAX_SHIPMENT_BYTES);
+        if (shipment == null) {
+            respond(xExchange, 410, new byte[0]);
+            return;
+        }
+        xExchange.getResponseHeaders().add(
+            ReplicationController.SEQUENCE_HEADER,
+            Long.toString(shipment.sequence()));
+        respond(xExchange, 200, shipment.records());
+    }
+
+    private static boolean authorized(final HttpExchange xExchange)
+            throws IOException {
+        if (TOKEN.equals(xExchange.getRequestHeaders().getFirst(
+            ReplicationAuthFilter.TOKEN_HEADER))) {
+            return true;
+        }
+        respond(xExchange, 401, new byte[0]);
+        return false;
+    }
+
+    private static void respond(final HttpExchange xExchange,
+            final int xStatus, final byte[] xBody) throws IOException {
+        xExchange.sendResponseHeaders(xStatus,
+            xBody.length == 0 ? -1 : xBody.length);
+        try (OutputStream out = xExchange.getResponseBody()) {
+            out.write(xBody);
+        }
+    }
+
+    private void openLog(final int xRetainedChanges) throws IOException {
+        log = RegistryLog.open(directory, Duration.ZERO, xRetainedChanges);
+    }
+
+    private void put(final String xId) {
+        EoscNode node = new EoscNode(xId, "Node " + xId, null, "PID" + xId,
+            null, null, List.of());
+        long sequence;
+        synchronized (nodes) {
+            nodes.removeIf(existing -> existing.getId().equals(xId));
+            nodes.add(node);
+            sequence = log.appendPut(node);
+        }
+        log.awaitDurable(sequence);
+    }
+
+    private void remove(final String xId) {
+        long sequence;
+        synchronized (nodes) {
+            nodes.removeIf(existing -> existing.getId().equals(xId));
+            sequence = log.appendRemove(xId);
+        }
+        log.awaitDurable(sequence);
+    }
+
+    private ReplicationFollower start() {
+        return start(NodeRegistry.getInstance());
+    }
+
+    private ReplicationFollower start(final NodeRegistry xRegistry) {
+        ReplicationFollower started = new ReplicationFollower(
+            new ReplicationConfiguration(Role.FOLLOWER,
+            URI.create("http://localhost:" + server.getAddress().getPort()
+            + "/"), Duration.ofMillis(500), Duration.ofMillis(20), TOKEN),
+            xRegistry);
+        started.afterPropertiesSet();
+        return started;
+    }
+
+    private void awaitApplied(final long xSequence) throws Exception {
+        await(() -> follower.getAppliedSequence() == xSequence);
+    }
+
+    private static void await(final BooleanSupplier xCondition)
+            throws InterruptedException {
+        long deadline = System.nanoTime() + Duration.ofSeconds(10).toNanos();
+        while (!xCondition.getAsBoolean()) {
+            assertTrue(System.nanoTime() < deadline, "timed out");
+            Thread.sleep(10);
+        }
+    }
+
+    private static List<String> ids() {
+        return NodeRegistry.getInstance().getNodes().stream()
+            .map(EoscNode::getId).sorted().toList();
+    }
+}
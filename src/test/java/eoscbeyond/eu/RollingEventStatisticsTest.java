@@ -0,0 +1,102 @@
+/*
+ * Copyright © 2025 EOSC Beyond (${email})
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package eoscbeyond.eu;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.time.Duration;
+import java.util.Map;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * Unit tests for the {@code RollingEventStatistics} class.
+ */
+class RollingEventStatisticsTest {
+    /** Length of the window used by the tests. */
+    private static final Duration WINDOW = Duration.ofSeconds(12);
+    /** Length of a slice of that window. */
+    private static final long SLICE_NANOS = WINDOW.toNanos()
+    / RollingEventStatistics.SLICES;
+
+    /**
+     * Tests that every duration falls in a bucket whose upper bound is at
+     * least the duration and within a quarter of it.
+     */
+    @Test
+    void testBuckets() {
+        for (long nanos : new long[] {0, 1, 3, 4, 5, 7, 8, 1000, 1023, 1024,
+            123_456_789L, Long.MAX_VALUE}) {
+            long bound = RollingEventStatistics.upperBoundOf(
+                RollingEventStatistics.bucketOf(nanos));
+            assertTrue(bound >= nanos, nanos + " above " + bound);
+            assertTrue(bound - nanos <= nanos / 4, nanos + " far below "
+            + bound);
+        }
+    }
+
+    /**
+     * Tests the counts, percentiles, allocation and sizes of a summary.
+     */
+    @Test
+    void testSummary() {
+        RollingEventStatistics statistics = new RollingEventStatistics(WINDOW);
+        long now = 100 * SLICE_NANOS;
+        for (int i = 1; i <= 100; i++) {
+            statistics.record(now, i * 1_000_000L, 1000, i % 2);
+        }
+        Map<String, Object> summary = statistics.getSummary(now);
+        assertEquals(100L, summary.get("count"));
+        assertEquals(100 / 12.0, (double) summary.get("perSecond"), 1e-9);
+        assertEquals(50.5, (double) summary.get("meanMs"), 1e-9);
+        double p50 = (double) summary.get("p50Ms");
+        assertTrue(p50 >= 50 && p50 <= 50 * 1.25, Double.toString(p50));
+        double p99 = (double) summary.get("p99Ms");
+        assertTrue(p99 >= 99 && p99 <= 100, Double.toString(p99));
+        assertEquals(100.0, summary.get("maxMs"));
+        assertEquals(100_000L, summary.get("allocatedBytes"));
+        assertEquals(1000L, summary.get("allocatedBytesPerEvent"));
+        assertEquals(0.5, summary.get("meanSize"));
+    }
+
+    /**
+     * Tests that events leave the window a slice at a time.
+     */
+    @Test
+    void testRolling() {
+        RollingEventStatistics statistics = new RollingEventStatistics(WINDOW);
+        long start = 100 * SLICE_NANOS;
+        statistics.record(start, 1000, 0, 0);
+        statistics.record(start + 5 * SLICE_NANOS, 1000, 0, 0);
+        assertEquals(2L, statistics.getSummary(start + 11 * SLICE_NANOS)
+            .get("count"));
+        assertEquals(1L, statistics.getSummary(start + 12 * SLICE_NANOS)
+            .get("count"));
+
+        // reusing the slice of the first event clears it
+        statistics.record(start + 12 * SLICE_NANOS, 3000, 0, 0);
+        Map<String, Object> summary =
+        statistics.getSummary(start + 12 * SLICE_NANOS);
+        assertEquals(2L, summary.get("count"));
+        Map<String, Object> empty =
+        statistics.getSummary(start + 30 * SLICE_NANOS);
+        assertEquals(0L, empty.get("count"));
+        assertFalse(empty.containsKey("meanMs"));
+    }
+}
@@ -0,0 +1,91 @@
+/*
+ * Copyright © 2025 EOSC Beyond (${email})
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package eoscbeyond.eu;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import eoscbeyond.eu.data.RoutingConfiguration;
+
+/**
+ * Unit tests for the {@code RouteFeedbackFilter} class.
+ */
+class RouteFeedbackFilterTest {
+    /** Feedback token. */
+    private static final String TOKEN = "secret";
+    /** Path of the feedback endpoint. */
+    private static final String FEEDBACK = "/nodes/route/feedback";
+
+    /** Filter under test. */
+    private final RouteFeedbackFilter filter = new RouteFeedbackFilter(
+        new RoutingConfiguration(TOKEN));
+
+    /**
+     * Tests that feedback is refused with 401 without the token or with a
+     * wrong one, and passes with it.
+     */
+    @Test
+    void testToken() throws Exception {
+        assertEquals(401, filter(FEEDBACK, null, filter).getStatus());
+        assertEquals(401, filter(FEEDBACK, "guess", filter).getStatus());
+        assertEquals(200, filter(FEEDBACK, TOKEN, filter).getStatus());
+    }
+
+    /**
+     * Tests that feedback is not found without a configured token.
+     */
+    @Test
+    void testDisabled() throws Exception {
+        RouteFeedbackFilter disabled = new RouteFeedbackFilter(
+            RoutingConfiguration.defaults());
+        assertEquals(404, filter(FEEDBACK, TOKEN, disabled).getStatus());
+        assertEquals(404, filter(FEEDBACK, "", disabled).getStatus());
+    }
+
+    /**
+     * Tests that routing itself and other paths are open.
+     */
+    @Test
+    void testOpenPaths() throws Exception {
+        assertEquals(200, filter("/nodes/route", null, filter).getStatus());
+        assertEquals(200, filter("/nodes/1", null, filter).getStatus());
+    }
+
+    private static MockHttpServletResponse filter(final String xPath,
+            final String xToken, final RouteFeedbackFilter xFilter)
+            throws Exception {
+        MockHttpServletRequest request =
+        new MockHttpServletRequest("POST", xPath);
+        if (xToken != null) {
+            request.addHeader(RouteFeedbackFilter.TOKEN_HEADER, xToken);
+        }
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        MockFilterChain chain = new MockFilterChain();
+        xFilter.doFilter(request, response, chain);
+        if (response.getStatus() == 200) {
+            assertNotNull(chain.getRequest());
+        } else {
+            assertNull(chain.getRequest());
+        }
+        return response;
+    }
+}
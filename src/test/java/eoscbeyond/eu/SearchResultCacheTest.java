@@ -0,0 +1,156 @@
+/*
+ * Copyright © 2025 EOSC Beyond (${email})
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package eoscbeyond.eu;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * Unit tests for the {@code SearchResultCache} class.
+ */
+class SearchResultCacheTest {
+    /** Bytes used by an entry with a one character key and no value. */
+    private static final int ENTRY_BYTES = 98;
+
+    /**
+     * Tests that repeated queries are served from the cache.
+     */
+    @Test
+    void testHit() {
+        SearchResultCache cache = new SearchResultCache(1024);
+        AtomicInteger computed = new AtomicInteger();
+        byte[] first = cache.get(1, "a", () -> {
+            computed.incrementAndGet();
+            return new byte[] {1};
+        });
+        byte[] second = cache.get(1, "a", () -> {
+            computed.incrementAndGet();
+            return new byte[] {2};
+        });
+        assertSame(first, second);
+        assertEquals(1, computed.get());
+        Map<String, Object> stats = cache.getStatistics();
+        assertEquals(1L, stats.get("hits"));
+        assertEquals(1L, stats.get("misses"));
+        assertEquals(0.5, stats.get("hitRate"));
+        assertEquals(1, stats.get("entries"));
+        assertEquals((long) ENTRY_BYTES + 1, stats.get("bytes"));
+    }
+
+    /**
+     * Tests that a new registry version drops the cached results, and that
+     * results computed for an older version are not cached.
+     */
+    @Test
+    void testInvalidation() {
+        SearchResultCache cache = new SearchResultCache(1024);
+        cache.get(1, "a", () -> new byte[] {1});
+        cache.get(1, "b", () -> new byte[] {1});
+        assertArrayEquals(new byte[] {2}, cache.get(2, "a",
+            () -> new byte[] {2}));
+        cache.get(1, "c", () -> new byte[] {1});
+        Map<String, Object> stats = cache.getStatistics();
+        assertEquals(2L, stats.get("version"));
+        assertEquals(1, stats.get("entries"));
+        assertEquals(2L, stats.get("invalidations"));
+        assertEquals(0L, stats.get("hits"));
+    }
+
+    /**
+     * Tests that the least recently used entries are evicted to stay within
+     * the size limit, and that results larger than the cache are not cached.
+     */
+    @Test
+    void testEviction() {
+        SearchResultCache cache = new SearchResultCache(3 * ENTRY_BYTES);
+        cache.get(1, "a", () -> new byte[0]);
+        cache.get(1, "b", () -> new byte[0]);
+        cache.get(1, "c", () -> new byte[0]);
+        cache.get(1, "a", () -> new byte[0]);
+        cache.get(1, "d", () -> new byte[0]);
+        Map<String, Object> stats = cache.getStatistics();
+        assertEquals(3, stats.get("entries"));
+        assertEquals(1L, stats.get("evictions"));
+        assertEquals(3L * ENTRY_BYTES, stats.get("bytes"));
+
+        // "b" was least recently used
+        AtomicInteger computed = new AtomicInteger();
+        for (String key : new String[] {"a", "c", "d", "b"}) {
+            cache.get(1, key, () -> {
+                computed.incrementAndGet();
+                return new byte[0];
+            });
+        }
+        assertEquals(1, computed.get());
+
+        cache.get(1, "e", () -> new byte[3 * ENTRY_BYTES]);
+        assertEquals(3, cache.getStatistics().get("entries"));
+    }
+
+    /**
+     * Tests that concurrent misses for the same query compute the result
+     * once and share it.
+     */
+    @Test
+    void testConcurrentMissesCoalesced() throws Exception {
+        SearchResultCache cache = new SearchResultCache(1024);
+        CountDownLatch release = new CountDownLatch(1);
+        AtomicInteger computed = new AtomicInteger();
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        try {
+            List<Future<byte[]>> results = new ArrayList<>();
+            for (int i = 0; i < 4; i++) {
+                results.add(executor.submit(() -> cache.get(1, "a", () -> {
+                    computed.incrementAndGet();
+                    try {
+                        release.await(10, TimeUnit.SECONDS);
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                    }
+                    return new byte[] {1};
+                })));
+            }
+            long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+            while ((long) cache.getStatistics().get("coalesced") < 3
+                && System.nanoTime() < deadline) {
+                Thread.sleep(1);
+            }
+            release.countDown();
+            for (Future<byte[]> result : results) {
+                assertArrayEquals(new byte[] {1},
+                    result.get(10, TimeUnit.SECONDS));
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+        assertEquals(1, computed.get());
+        assertEquals(3L, cache.getStatistics().get("coalesced"));
+        assertEquals(1, cache.getStatistics().get("entries"));
+    }
+}
@@ -0,0 +1,60 @@
+/*
+ * Copyright © 2025 EOSC Beyond (${email})
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package eoscbeyond.eu;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * Unit tests for the {@code ServerTiming} class.
+ */
+class ServerTimingTest {
+
+    /**
+     * Tests that phases are listed in the order first seen, with repeated
+     * phases summed, durations in milliseconds with three decimals and the
+     * total last.
+     */
+    @Test
+    void testToHeader() {
+        ServerTiming timing = new ServerTiming();
+        timing.add("lookup", TimeUnit.MICROSECONDS.toNanos(12));
+        timing.add("serialize", TimeUnit.MICROSECONDS.toNanos(3407));
+        timing.add("lookup", TimeUnit.MICROSECONDS.toNanos(1088));
+        assertEquals(TimeUnit.MICROSECONDS.toNanos(1100),
+            timing.getNanos("lookup"));
+        assertEquals(0, timing.getNanos("cache"));
+
+        String header = timing.toHeader();
+        assertTrue(header.startsWith(
+            "lookup;dur=1.100, serialize;dur=3.407, app;dur="), header);
+        assertTrue(header.matches(".*app;dur=\\d+\\.\\d{3}"), header);
+    }
+
+    /**
+     * Tests that a request without phases reports its total only.
+     */
+    @Test
+    void testTotalOnly() {
+        assertTrue(new ServerTiming().toHeader()
+            .matches("app;dur=\\d+\\.\\d{3}"));
+    }
+}
@@ -0,0 +1,99 @@
+/*
+ * Copyright © 2025 EOSC Beyond (${email})
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package eoscbeyond.eu;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.mock.web.MockHttpServletRequest;
+
+import eoscbeyond.eu.data.RateLimitConfiguration;
+import eoscbeyond.eu.data.ShardingConfiguration;
+
+/**
+ * Unit tests for the {@code ShardController} class.
+ */
+class ShardControllerTest {
+
+    /**
+     * Tests that the endpoints are not found when sharding is disabled.
+     */
+    @Test
+    void testDisabled() {
+        ShardController controller = new ShardController(
+            ShardingConfiguration.defaults(), rateLimits());
+        MockHttpServletRequest request = new MockHttpServletRequest();
+        assertEquals(HttpStatus.NOT_FOUND,
+            controller.getNodeById("1", request).getStatusCode());
+        assertEquals(HttpStatus.NOT_FOUND, controller
+            .searchNodesByCapability("Helpdesk", request).getStatusCode());
+        assertEquals(HttpStatus.NOT_FOUND,
+            controller.getStatistics().getStatusCode());
+    }
+
+    /**
+     * Tests that a single shard answers from its own registry, giving the
+     * shard in a header.
+     */
+    @Test
+    void testSingleShard() {
+        NodeRegistry.getInstance().setNodes(List.of(new EoscNode("1",
+            "Node 1", null, null, null, null, List.of())));
+        ShardController controller = new ShardController(
+            new ShardingConfiguration(List.of(URI.create(
+            "http://localhost:8080/")), 0, Duration.ofMillis(100)),
+            rateLimits());
+        MockHttpServletRequest request = new MockHttpServletRequest();
+        ResponseEntity<byte[]> response = controller.getNodeById("1",
+            request);
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+        assertEquals("0", response.getHeaders().getFirst(
+            ShardController.SHARD_HEADER));
+        assertEquals(HttpStatus.NOT_FOUND,
+            controller.getNodeById("2", request).getStatusCode());
+        assertEquals("{\"nodes\":[],\"shards\":1,\"partial\":false,"
+            + "\"failed\":[]}", new String(controller
+            .searchNodesByCapability("Helpdesk", request).getBody(),
+            StandardCharsets.UTF_8));
+        assertEquals(1, controller.getStatistics().getBody()
+            .get("localNodes"));
+    }
+
+    /**
+     * Tests that the position of this instance must be among the shards.
+     */
+    @Test
+    void testConfiguration() {
+        assertFalse(ShardingConfiguration.defaults().enabled());
+        assertThrows(IllegalStateException.class,
+            () -> new ShardingConfiguration(
+            List.of(URI.create("http://localhost:8080/")), 1, null));
+    }
+
+    private static RateLimitConfiguration rateLimits() {
+        return RateLimitConfiguration.defaults();
+    }
+}
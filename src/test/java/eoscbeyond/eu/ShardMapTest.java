@@ -0,0 +1,100 @@
+/*
+ * Copyright © 2025 EOSC Beyond (${email})
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package eoscbeyond.eu;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.net.URI;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * Unit tests for the {@code ShardMap} class.
+ */
+class ShardMapTest {
+    /** Number of IDs assigned. */
+    private static final int IDS = 30000;
+
+    /**
+     * Tests that IDs are spread evenly, and that every instance agrees on
+     * the owner whatever the order and spelling of the shard URLs.
+     */
+    @Test
+    void testOwner() {
+        ShardMap map = new ShardMap(shards(3), 0);
+        ShardMap other = new ShardMap(List.of(
+            URI.create("http://localhost:8083"),
+            URI.create("http://localhost:8081"),
+            URI.create("http://localhost:8082")), 1);
+        int[] counts = new int[3];
+        for (int i = 0; i < IDS; i++) {
+            String id = "node-" + i;
+            int owner = map.owner(id);
+            counts[owner]++;
+            assertEquals(map.getShards().get(owner),
+                URI.create(other.getShards().get(other.owner(id)).toString()
+                + "/"));
+            assertEquals(owner == 0, map.isLocal(id));
+        }
+        for (int count : counts) {
+            assertTrue(Math.abs(count - IDS / 3) < IDS / 30,
+                "uneven: " + count);
+        }
+    }
+
+    /**
+     * Tests that adding a shard moves only the IDs that now belong to it.
+     */
+    @Test
+    void testAddShard() {
+        ShardMap before = new ShardMap(shards(3), 0);
+        ShardMap after = new ShardMap(shards(4), 0);
+        int moved = 0;
+        for (int i = 0; i < IDS; i++) {
+            String id = "node-" + i;
+            int owner = after.owner(id);
+            if (owner != before.owner(id)) {
+                assertEquals(3, owner);
+                moved++;
+            }
+        }
+        assertTrue(Math.abs(moved - IDS / 4) < IDS / 30, moved + " moved");
+    }
+
+    /**
+     * Tests that an index outside the list is refused.
+     */
+    @Test
+    void testIndexOutOfRange() {
+        assertThrows(IllegalArgumentException.class,
+            () -> new ShardMap(shards(2), 2));
+        assertThrows(IllegalArgumentException.class,
+            () -> new ShardMap(List.of(), 0));
+    }
+
+    private static List<URI> shards(final int xCount) {
+        List<URI> shards = new ArrayList<>();
+        for (int i = 0; i < xCount; i++) {
+            shards.add(URI.create("http://localhost:" + (8081 + i) + "/"));
+        }
+        return shards;
+    }
+}
@@ -0,0 +1,207 @@
+/*
+ * Copyright © 2025 EOSC Beyond (${email})
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package eoscbeyond.eu;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpStatus;
+
+import com.google.gson.Gson;
+import com.google.gson.JsonObject;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+/**
+ * Unit tests for the {@code ShardRouter} class. This instance is shard 0;
+ * shards 1 and 2 are HTTP servers on localhost, and shard 2 answers
+ * searches only after the timeout.
+ */
+class ShardRouterTest {
+    /** Time the router waits for other shards. */
+    private static final Duration TIMEOUT = Duration.ofMillis(300);
+    /** Client header. */
+    private static final String CLIENT_HEADER = "X-Client-Key";
+
+    /** The other shards. */
+    private final List<HttpServer> servers = new ArrayList<>();
+    /** Executor of the other shards. */
+    private final ExecutorService executor =
+    Executors.newVirtualThreadPerTaskExecutor();
+    /** Client keys received by the other shards. */
+    private final Map<Integer, String> clients = new ConcurrentHashMap<>();
+    /** The router of shard 0. */
+    private ShardRouter router;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        List<URI> shards = new ArrayList<>();
+        shards.add(URI.create("http://localhost:1/"));
+        for (int i = 1; i <= 2; i++) {
+            HttpServer server = HttpServer.create(
+                new InetSocketAddress("localhost", 0), 0);
+            server.setExecutor(executor);
+            int shard = i;
+            server.createContext("/nodes/search", exchange -> {
+                clients.put(shard, exchange.getRequestHeaders()
+                    .getFirst(CLIENT_HEADER));
+                if (shard == 2) {
+                    sleep(TIMEOUT.multipliedBy(3));
+                }
+                respond(exchange, 200, "[{\"id\":\"remote-" + shard
+                    + "\"}]");
+            });
+            server.createContext("/nodes/", exchange -> {
+                String id = exchange.getRequestURI().getPath()
+                    .substring("/nodes/".length());
+                if (id.startsWith("known")) {
+                    respond(exchange, 200, "{\"id\":\"" + id + "\"}");
+                } else {
+                    respond(exchange, 404, "");
+                }
+            });
+            server.start();
+            servers.add(server);
+            shards.add(URI.create("http://localhost:"
+                + server.getAddress().getPort() + "/"));
+        }
+        NodeRegistry.getInstance().setNodes(List.of(new EoscNode("local",
+            "Local", null, null, null, null, List.of(new EoscCapability(
+            "Helpdesk", URI.create("http://example.com/helpdesk"),
+            "1")))));
+        router = new ShardRouter(new ShardMap(shards, 0), TIMEOUT,
+            CLIENT_HEADER);
+    }
+
+    @AfterEach
+    void tearDown() {
+        for (HttpServer server : servers) {
+            server.stop(0);
+        }
+        executor.shutdownNow();
+    }
+
+    /**
+     * Tests that a search merges the local results with those of the
+     * shards that answer in time, and lists the others.
+     */
+    @Test
+    void testSearch() {
+        long start = System.nanoTime();
+        JsonObject result = new Gson().fromJson(new String(
+            router.search("Helpdesk", "client-1"), StandardCharsets.UTF_8),
+            JsonObject.class);
+        long millis = (System.nanoTime() - start) / 1_000_000;
+        assertTrue(millis < TIMEOUT.multipliedBy(2).toMillis(),
+            millis + " ms");
+        assertEquals(2, result.getAsJsonArray("nodes").size());
+        assertEquals("local", result.getAsJsonArray("nodes").get(0)
+            .getAsJsonObject().get("id").getAsString());
+        assertEquals("remote-1", result.getAsJsonArray("nodes").get(1)
+            .getAsJsonObject().get("id").getAsString());
+        assertEquals(3, result.get("shards").getAsInt());
+        assertTrue(result.get("partial").getAsBoolean());
+        assertEquals(router.getMap().getShards().get(2).toString(),
+            result.getAsJsonArray("failed").get(0).getAsString());
+        assertEquals("client-1", clients.get(1));
+
+        Map<String, Object> stats = router.getStatistics();
+        assertEquals(1L, stats.get("searches"));
+        assertEquals(1L, stats.get("partialSearches"));
+        assertEquals(1L, stats.get("shardTimeouts"));
+    }
+
+    /**
+     * Tests that a lookup is answered by the shard the node belongs to.
+     */
+    @Test
+    void testGetNode() {
+        ShardMap map = router.getMap();
+        String remote = idOwnedBy(map, "known-", 1);
+        ShardRouter.Lookup lookup = router.getNode(remote, "client-1");
+        assertEquals(HttpStatus.OK, lookup.status());
+        assertEquals(1, lookup.shard());
+        assertEquals("{\"id\":\"" + remote + "\"}",
+            new String(lookup.body(), StandardCharsets.UTF_8));
+
+        String missing = idOwnedBy(map, "unknown-", 2);
+        assertEquals(HttpStatus.NOT_FOUND,
+            router.getNode(missing, null).status());
+
+        String local = idOwnedBy(map, "local-", 0);
+        lookup = router.getNode(local, null);
+        assertEquals(HttpStatus.NOT_FOUND, lookup.status());
+        assertNull(lookup.body());
+        assertEquals(2L, router.getStatistics().get("forwardedLookups"));
+    }
+
+    /**
+     * Tests that a lookup in a shard that is down fails with 502.
+     */
+    @Test
+    void testShardDown() {
+        servers.get(0).stop(0);
+        String id = idOwnedBy(router.getMap(), "known-", 1);
+        assertEquals(HttpStatus.BAD_GATEWAY, router.getNode(id, null)
+            .status());
+        assertEquals(1L, router.getStatistics().get("shardErrors"));
+    }
+
+    private static String idOwnedBy(final ShardMap xMap, final String xPrefix,
+            final int xShard) {
+        for (int i = 0;; i++) {
+            if (xMap.owner(xPrefix + i) == xShard) {
+                return xPrefix + i;
+            }
+        }
+    }
+
+    private static void respond(final HttpExchange xExchange,
+            final int xStatus, final String xBody) throws IOException {
+        byte[] body = xBody.getBytes(StandardCharsets.UTF_8);
+        xExchange.sendResponseHeaders(xStatus,
+            body.length == 0 ? -1 : body.length);
+        try (OutputStream out = xExchange.getResponseBody()) {
+            out.write(body);
+        }
+    }
+
+    private static void sleep(final Duration xDuration) {
+        try {
+            Thread.sleep(xDuration);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
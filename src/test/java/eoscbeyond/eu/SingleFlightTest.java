@@ -0,0 +1,150 @@
+/*
+ * Copyright © 2025 EOSC Beyond (${email})
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package eoscbeyond.eu;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Unit tests for the {@code SingleFlight} class.
+ */
+class SingleFlightTest {
+    /** Number of concurrent callers. */
+    private static final int CALLERS = 8;
+    /** Longest wait for the callers, in seconds. */
+    private static final long TIMEOUT_SECONDS = 10;
+
+    /** Coalescer under test. */
+    private SingleFlight<String, byte[]> flights;
+    /** Runs the callers. */
+    private ExecutorService executor;
+
+    /**
+     * Sets up the test environment before each test.
+     */
+    @BeforeEach
+    void setUp() {
+        flights = new SingleFlight<>();
+        executor = Executors.newFixedThreadPool(CALLERS);
+    }
+
+    /**
+     * Stops the callers.
+     */
+    @AfterEach
+    void tearDown() {
+        executor.shutdownNow();
+    }
+
+    /**
+     * Tests that concurrent callers with the same key share one
+     * computation and one result.
+     */
+    @Test
+    void testConcurrentCallsShareResult() throws Exception {
+        CountDownLatch release = new CountDownLatch(1);
+        AtomicInteger computed = new AtomicInteger();
+        List<Future<byte[]>> results = callConcurrently("a", () -> {
+            computed.incrementAndGet();
+            await(release);
+            return new byte[] {1};
+        });
+        waitForShared(CALLERS - 1);
+        release.countDown();
+        byte[] first = results.get(0).get(TIMEOUT_SECONDS, TimeUnit.SECONDS);
+        for (Future<byte[]> result : results) {
+            assertSame(first, result.get(TIMEOUT_SECONDS, TimeUnit.SECONDS));
+        }
+        assertEquals(1, computed.get());
+        assertEquals(1, flights.getExecutions());
+    }
+
+    /**
+     * Tests that callers waiting on a failed computation get its exception.
+     */
+    @Test
+    void testFailureShared() throws Exception {
+        CountDownLatch release = new CountDownLatch(1);
+        List<Future<byte[]>> results = callConcurrently("a", () -> {
+            await(release);
+            throw new IllegalStateException("failed");
+        });
+        waitForShared(CALLERS - 1);
+        release.countDown();
+        for (Future<byte[]> result : results) {
+            Exception e = assertThrows(Exception.class,
+                () -> result.get(TIMEOUT_SECONDS, TimeUnit.SECONDS));
+            assertEquals(IllegalStateException.class, e.getCause().getClass());
+        }
+        assertEquals(1, flights.getExecutions());
+    }
+
+    /**
+     * Tests that calls that do not overlap, or have different keys, each
+     * run their own computation.
+     */
+    @Test
+    void testSeparateCalls() {
+        flights.execute("a", () -> new byte[] {1});
+        flights.execute("a", () -> new byte[] {2});
+        flights.execute("b", () -> null);
+        assertEquals(3, flights.getExecutions());
+        assertEquals(0, flights.getShared());
+    }
+
+    private List<Future<byte[]>> callConcurrently(final String key,
+            final Supplier<byte[]> supplier) {
+        List<Future<byte[]>> results = new ArrayList<>();
+        for (int i = 0; i < CALLERS; i++) {
+            results.add(executor.submit(() -> flights.execute(key, supplier)));
+        }
+        return results;
+    }
+
+    private void waitForShared(final long expected)
+            throws InterruptedException {
+        long deadline = System.nanoTime()
+            + TimeUnit.SECONDS.toNanos(TIMEOUT_SECONDS);
+        while (flights.getShared() < expected
+            && System.nanoTime() < deadline) {
+            Thread.sleep(1);
+        }
+        assertEquals(expected, flights.getShared());
+    }
+
+    private static void await(final CountDownLatch latch) {
+        try {
+            latch.await(TIMEOUT_SECONDS, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
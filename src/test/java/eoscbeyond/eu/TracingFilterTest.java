@@ -0,0 +1,171 @@
+/*
+ * Copyright © 2025 EOSC Beyond (${email})
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package eoscbeyond.eu;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.Map;
+
+import org.hamcrest.Matchers;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+
+import eoscbeyond.eu.data.TracingConfiguration;
+import io.opentelemetry.sdk.trace.samplers.Sampler;
+import jakarta.servlet.http.HttpServlet;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+
+/**
+ * Unit tests for the {@code TracingFilter} class.
+ */
+class TracingFilterTest {
+    /** Settings recording every request. */
+    private static final TracingConfiguration ALL_SAMPLED =
+    new TracingConfiguration(true, 1.0, 0, false);
+
+    /** Filter under test. */
+    private TracingFilter filter;
+
+    @AfterEach
+    void tearDown() {
+        filter.destroy();
+    }
+
+    /**
+     * Tests that a request gets a server span with its phases and a write
+     * span as children, and a Server-Timing header listing the phases.
+     */
+    @Test
+    void testTracedRequest() throws Exception {
+        filter = new TracingFilter(ALL_SAMPLED);
+        MockHttpServletResponse response = filter("/nodes/1", new Lookup());
+        assertEquals("lookup", response.getContentAsString());
+        String timing = response.getHeader(TracingFilter.SERVER_TIMING);
+        assertTrue(timing.matches("lookup;dur=[0-9.]+, app;dur=[0-9.]+"),
+            timing);
+        assertEquals("*",
+            response.getHeader(TracingFilter.TIMING_ALLOW_ORIGIN));
+
+        List<Map<String, Object>> spans =
+        filter.getExporter().getSpans(null, 10);
+        assertEquals(List.of("GET", TracingFilter.WRITE_SPAN, "lookup"),
+            spans.stream().map(span -> span.get("name")).toList());
+        Object serverId = spans.get(0).get("spanId");
+        assertEquals(serverId, spans.get(1).get("parentSpanId"));
+        assertEquals(serverId, spans.get(2).get("parentSpanId"));
+        assertEquals("SERVER", spans.get(0).get("kind"));
+        @SuppressWarnings("unchecked")
+        Map<String, Object> attributes =
+        (Map<String, Object>) spans.get(0).get("attributes");
+        assertEquals("/nodes/1", attributes.get("url.path"));
+        assertEquals(200L, attributes.get("http.response.status_code"));
+    }
+
+    /**
+     * Tests that responses without a body get the header too, and that
+     * requests not sampled are timed but not recorded.
+     */
+    @Test
+    void testUnsampledRequestWithoutBody() throws Exception {
+        filter = new TracingFilter(new RecentSpanExporter(10),
+            Sampler.alwaysOff(), false);
+        MockHttpServletResponse response = filter("/nodes/99",
+            new HttpServlet() {
+                @Override
+                protected void doGet(final HttpServletRequest request,
+                        final HttpServletResponse servletResponse) {
+                    servletResponse.setStatus(404);
+                }
+            });
+        assertEquals(404, response.getStatus());
+        assertNotNull(response.getHeader(TracingFilter.SERVER_TIMING));
+        assertEquals(0, filter.getExporter().getSpans(null, 10).size());
+    }
+
+    /**
+     * Tests that statistics and other paths are not traced.
+     */
+    @Test
+    void testUntracedPaths() throws Exception {
+        filter = new TracingFilter(ALL_SAMPLED);
+        for (String path : List.of("/nodes/stats/traces", "/actuator")) {
+            MockHttpServletResponse response = filter(path, new Lookup());
+            assertNull(response.getHeader(TracingFilter.SERVER_TIMING));
+        }
+        assertTrue(filter.getExporter().getSpans(null, 10).stream()
+            .noneMatch(span -> "SERVER".equals(span.get("kind"))));
+    }
+
+    /**
+     * Tests the phases of a search through the controller, and that the
+     * spans can be read back from the statistics endpoint.
+     */
+    @Test
+    void testSearchThroughController() throws Exception {
+        filter = new TracingFilter(ALL_SAMPLED);
+        MockMvc mockMvc = MockMvcBuilders
+        .standaloneSetup(new NodeRegistryController()).addFilters(filter)
+        .build();
+        mockMvc.perform(get("/nodes/search").param("capability", "None"))
+        .andExpect(status().isOk())
+        .andExpect(header().string(TracingFilter.SERVER_TIMING,
+            Matchers.matchesRegex("lookup;dur=[0-9.]+, serialize;dur=[0-9.]+"
+            + ", cache;dur=[0-9.]+, app;dur=[0-9.]+")));
+
+        mockMvc.perform(get("/nodes/stats/traces").param("limit", "1"))
+        .andExpect(status().isOk())
+        .andExpect(jsonPath("$.spans[0].name")
+            .value("GET /nodes/search"))
+        .andExpect(jsonPath("$.spans[0].attributes['http.route']")
+            .value("/nodes/search"));
+        mockMvc.perform(get("/nodes/stats/traces").param("limit", "0"))
+        .andExpect(status().isBadRequest());
+    }
+
+    private MockHttpServletResponse filter(final String path,
+            final HttpServlet servlet) throws Exception {
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        filter.doFilter(new MockHttpServletRequest("GET", path), response,
+            new MockFilterChain(servlet));
+        return response;
+    }
+
+    /** Writes the body after a lookup phase. */
+    private static final class Lookup extends HttpServlet {
+        @Override
+        protected void doGet(final HttpServletRequest request,
+                final HttpServletResponse response) throws IOException {
+            RegistryTracing.phase("lookup").close();
+            response.getWriter().write("lookup");
+        }
+    }
+}